@@ -0,0 +1,124 @@
+package com.ferreteria.inventario.carga;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Base H2 en memoria, en modo MySQL, con el esquema de database/schema.sql y un catálogo generado
+ * La URL usa DB_CLOSE_DELAY=-1 para que la base siga viva entre esta carga y el pool del servidor,
+ * e IGNORE_UNKNOWN_SETTINGS para que H2 acepte las propiedades del driver MySQL que agrega DatabaseConfig.
+ */
+final class BaseDatosEmbebida {
+    static final String URL =
+        "jdbc:h2:mem:ferreteria_inventario;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;" +
+        "DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE";
+    static final String DRIVER = "org.h2.Driver";
+    static final String USUARIO = "sa";
+
+    private static final String INSERT_ARTICULO =
+        "INSERT INTO articulos (codigo, nombre, descripcion, categoria_id, proveedor_id, precio_compra, " +
+        "precio_venta, stock_actual, stock_minimo) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int TAMANO_LOTE = 1000;
+    private static final String[] PRODUCTOS = {
+        "Tornillo", "Tuerca", "Arandela", "Clavo", "Martillo", "Destornillador", "Llave", "Alicate",
+        "Cable", "Interruptor", "Tubería", "Codo", "Brocha", "Rodillo", "Pintura", "Lija"
+    };
+    private static final String[] MATERIALES = {
+        "acero", "acero inoxidable", "bronce", "galvanizado", "PVC", "cobre", "madera", "aluminio"
+    };
+
+    private BaseDatosEmbebida() {
+    }
+
+    /**
+     * Código del artículo generado número n (1..articulos)
+     */
+    static String codigo(int n) {
+        return String.format("CRG%07d", n);
+    }
+
+    static void preparar(String url, String usuario, String contrasena, int articulos) throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(url, usuario, contrasena)) {
+            try (Statement statement = connection.createStatement()) {
+                for (String sentencia : leerEsquema()) {
+                    statement.execute(sentencia);
+                }
+            }
+            generarCatalogo(connection, articulos);
+        }
+    }
+
+    /**
+     * Sentencias de schema.sql sin comentarios; CREATE DATABASE y USE no aplican a una base en memoria
+     */
+    private static List<String> leerEsquema() throws IOException {
+        String esquema;
+        try (InputStream input = BaseDatosEmbebida.class.getClassLoader().getResourceAsStream("database/schema.sql")) {
+            if (input == null) {
+                throw new IOException("No se encontró database/schema.sql en el classpath");
+            }
+            esquema = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        StringBuilder sinComentarios = new StringBuilder();
+        for (String linea : esquema.split("\n")) {
+            if (!linea.trim().startsWith("--")) {
+                sinComentarios.append(linea).append('\n');
+            }
+        }
+
+        List<String> sentencias = new ArrayList<>();
+        for (String sentencia : sinComentarios.toString().split(";\\s*\n")) {
+            String limpia = sentencia.trim();
+            String mayusculas = limpia.toUpperCase();
+            if (limpia.isEmpty() || mayusculas.startsWith("CREATE DATABASE") || mayusculas.startsWith("USE ")) {
+                continue;
+            }
+            sentencias.add(limpia.endsWith(";") ? limpia.substring(0, limpia.length() - 1) : limpia);
+        }
+        return sentencias;
+    }
+
+    private static void generarCatalogo(Connection connection, int articulos) throws SQLException {
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_ARTICULO)) {
+            for (int n = 1; n <= articulos; n++) {
+                String producto = PRODUCTOS[random.nextInt(PRODUCTOS.length)];
+                String material = MATERIALES[random.nextInt(MATERIALES.length)];
+                BigDecimal compra = BigDecimal.valueOf(10 + random.nextInt(50000), 2);
+                BigDecimal venta = compra.multiply(new BigDecimal("1.35")).setScale(2, RoundingMode.HALF_UP);
+
+                statement.setString(1, codigo(n));
+                statement.setString(2, producto + " de " + material + " modelo " + n);
+                statement.setString(3, producto + " de " + material + " para uso general, presentación " + (1 + random.nextInt(100)));
+                statement.setInt(4, 1 + random.nextInt(5));
+                statement.setInt(5, 1 + random.nextInt(3));
+                statement.setBigDecimal(6, compra);
+                statement.setBigDecimal(7, venta);
+                statement.setInt(8, 100 + random.nextInt(900));
+                statement.setInt(9, 10 + random.nextInt(40));
+                statement.addBatch();
+                if (n % TAMANO_LOTE == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ferreteria.inventario.carga;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Cliente SOAP mínimo: arma el sobre document/literal de cada operación y lo envía tal como lo haría
+ * un cliente generado desde el WSDL, sin el costo de un proxy JAX-WS por hilo.
+ * Usa HttpURLConnection, que mantiene conexiones persistentes como un cliente JAX-WS.
+ */
+final class ClienteSoap {
+    private static final String NAMESPACE = "http://ws.inventario.ferreteria.com/";
+
+    private final URL endpoint;
+    private final int esperaMs;
+
+    ClienteSoap(String url, Duration espera) throws IOException {
+        this.endpoint = URI.create(url).toURL();
+        this.esperaMs = (int) espera.toMillis();
+    }
+
+    /**
+     * Invoca una operación; los parámetros ya van serializados como elementos XML
+     * @return el cuerpo de la respuesta, o null si el servicio devolvió un SOAP Fault o un error HTTP
+     */
+    String invocar(String operacion, String parametros) throws IOException {
+        byte[] sobre = ("<S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\"><S:Body>" +
+                        "<ns:" + operacion + " xmlns:ns=\"" + NAMESPACE + "\">" + parametros + "</ns:" + operacion + ">" +
+                        "</S:Body></S:Envelope>").getBytes(StandardCharsets.UTF_8);
+        HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+        connection.setConnectTimeout(esperaMs);
+        connection.setReadTimeout(esperaMs);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "text/xml; charset=utf-8");
+        connection.setRequestProperty("SOAPAction", "\"\"");
+        try (OutputStream salida = connection.getOutputStream()) {
+            salida.write(sobre);
+        }
+        int estado = connection.getResponseCode();
+        // Leer el cuerpo completo también en errores, para que la conexión vuelva al pool de keep-alive
+        String cuerpo = leer(estado < 400 ? connection.getInputStream() : connection.getErrorStream());
+        if (estado != 200 || cuerpo.contains("Fault>")) {
+            return null;
+        }
+        return cuerpo;
+    }
+
+    /**
+     * Espera a que el WSDL responda; el servidor se publica en otro hilo
+     */
+    boolean esperarDisponible(Duration limite) throws InterruptedException, IOException {
+        long fin = System.nanoTime() + limite.toNanos();
+        URL wsdl = URI.create(endpoint + "?wsdl").toURL();
+        while (System.nanoTime() < fin) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) wsdl.openConnection();
+                connection.setConnectTimeout(esperaMs);
+                connection.setReadTimeout(esperaMs);
+                int estado = connection.getResponseCode();
+                leer(estado < 400 ? connection.getInputStream() : connection.getErrorStream());
+                if (estado == 200) {
+                    return true;
+                }
+            } catch (IOException e) {
+                // Todavía no publicado
+            }
+            Thread.sleep(200);
+        }
+        return false;
+    }
+
+    private static String leer(InputStream entrada) throws IOException {
+        if (entrada == null) {
+            return "";
+        }
+        try (InputStream in = entrada) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+            in.transferTo(bytes);
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    static String elemento(String nombre, Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = String.valueOf(valor).replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        return "<" + nombre + ">" + texto + "</" + nombre + ">";
+    }
+
+    /**
+     * Texto del primer elemento con ese nombre local (con o sin prefijo), o null
+     */
+    static String extraer(String xml, String nombre) {
+        int inicio = -1;
+        int desde = 0;
+        while (inicio < 0) {
+            int etiqueta = xml.indexOf(nombre + ">", desde);
+            if (etiqueta < 0) {
+                return null;
+            }
+            char previo = xml.charAt(etiqueta - 1);
+            if (previo == '<' || previo == ':') {
+                int apertura = xml.lastIndexOf('<', etiqueta);
+                if (xml.charAt(apertura + 1) != '/') {
+                    inicio = etiqueta + nombre.length() + 1;
+                }
+            }
+            desde = etiqueta + 1;
+        }
+        int fin = xml.indexOf("</", inicio);
+        return fin < 0 ? null : xml.substring(inicio, fin);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ferreteria.inventario.carga;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en microsegundos con cubetas log-lineales: 32 cubetas por potencia de 2,
+ * así que un percentil se informa con menos de 3,2% de error sin guardar cada muestra.
+ * Lo escriben todos los clientes a la vez sin bloquearse.
+ */
+final class Histograma {
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray((64 - BITS_SUBCUBETA + 1) * SUBCUBETAS);
+    private final LongAdder muestras = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    void registrar(long micros) {
+        long valor = Math.max(micros, 0);
+        cubetas.incrementAndGet(indice(valor));
+        muestras.increment();
+        suma.add(valor);
+        maximo.accumulateAndGet(valor, Math::max);
+    }
+
+    long getMuestras() {
+        return muestras.sum();
+    }
+
+    long getMaximo() {
+        return maximo.get();
+    }
+
+    double getMedia() {
+        long n = muestras.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Límite superior de la cubeta que contiene el percentil indicado (0-100)
+     */
+    long percentil(double percentil) {
+        long n = muestras.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(n * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < cubetas.length(); i++) {
+            acumulado += cubetas.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int desplazamiento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBCUBETA;
+        return (desplazamiento + 1) * SUBCUBETAS + (int) (valor >>> desplazamiento) - SUBCUBETAS;
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUBCUBETAS - 1;
+        long mantisa = indice % SUBCUBETAS + SUBCUBETAS;
+        return ((mantisa + 1) << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,333 @@
+package com.ferreteria.inventario.carga;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.ferreteria.inventario.InventarioServer;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga SOAP de extremo a extremo: levanta InventarioServer sobre una base H2 en modo MySQL
+ * (esquema de schema.sql más 'articulos' artículos generados) y la somete, durante duracionSegundos,
+ * a 'clientes' clientes concurrentes que eligen cada operación según los pesos de 'mezcla'.
+ * Al final informa, por operación, llamadas, errores, rendimiento y latencias p50/p99/p99.9.
+ *
+ * Cada cliente espera su respuesta antes de enviar la siguiente (lazo cerrado): el rendimiento medido
+ * es el que sostiene el servicio con esa concurrencia, no una tasa de llegada fija.
+ * Las opciones con punto (db.pool.maximumPoolSize=20, stock.memoria.habilitado=true, ...) se pasan
+ * como propiedades del sistema y reemplazan las de database.properties e inventario.properties.
+ *
+ * mvn -Pcarga test-compile exec:exec -Dcarga.args="articulos=20000 clientes=64 duracionSegundos=60"
+ */
+public final class PruebaCarga {
+
+    private static final String MEZCLA_POR_DEFECTO =
+        "consultarArticulo:60,actualizarStock:20,insertarArticulo:5,listarArticulos:5,listarCategorias:5,listarProveedores:5";
+    private static final Set<String> OPCIONES = Set.of(
+        "articulos", "clientes", "duracionSegundos", "calentamientoSegundos", "puerto", "mezcla",
+        "accesosCalientes", "articulosCalientes", "tamanoPagina", "nivelLog");
+
+    /**
+     * Operaciones que puede incluir la mezcla, con los parámetros que envía cada una
+     */
+    enum Operacion {
+        CONSULTAR_ARTICULO("consultarArticulo") {
+            @Override
+            String parametros(Cliente cliente) {
+                return ClienteSoap.elemento("codigo", cliente.codigoAleatorio());
+            }
+        },
+        ACTUALIZAR_STOCK("actualizarStock") {
+            @Override
+            String parametros(Cliente cliente) {
+                return ClienteSoap.elemento("codigo", cliente.codigoAleatorio()) +
+                       ClienteSoap.elemento("nuevoStock", ThreadLocalRandom.current().nextInt(100, 1000));
+            }
+        },
+        INSERTAR_ARTICULO("insertarArticulo") {
+            @Override
+            String parametros(Cliente cliente) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long numero = cliente.prueba.insertados.incrementAndGet();
+                double compra = 1 + random.nextInt(50000) / 100.0;
+                return ClienteSoap.elemento("codigo", String.format("NUE%09d", numero)) +
+                       ClienteSoap.elemento("nombre", "Artículo de carga " + numero) +
+                       ClienteSoap.elemento("descripcion", "Alta generada por la prueba de carga") +
+                       ClienteSoap.elemento("categoriaId", 1 + random.nextInt(5)) +
+                       ClienteSoap.elemento("proveedorId", 1 + random.nextInt(3)) +
+                       ClienteSoap.elemento("precioCompra", compra) +
+                       ClienteSoap.elemento("precioVenta", Math.round(compra * 135) / 100.0) +
+                       ClienteSoap.elemento("stockActual", random.nextInt(1000)) +
+                       ClienteSoap.elemento("stockMinimo", 10);
+            }
+        },
+        LISTAR_ARTICULOS("listarArticulos") {
+            @Override
+            String parametros(Cliente cliente) {
+                return ClienteSoap.elemento("tamanoPagina", cliente.prueba.tamanoPagina) +
+                       ClienteSoap.elemento("token", cliente.token);
+            }
+
+            @Override
+            void procesar(Cliente cliente, String respuesta) {
+                // Cada cliente recorre el catálogo página a página y vuelve a empezar al terminar
+                String token = ClienteSoap.extraer(respuesta, "siguienteToken");
+                cliente.token = token == null || token.isEmpty() ? null : token;
+            }
+        },
+        LISTAR_CATEGORIAS("listarCategorias"),
+        LISTAR_PROVEEDORES("listarProveedores");
+
+        private final String nombre;
+
+        Operacion(String nombre) {
+            this.nombre = nombre;
+        }
+
+        String parametros(Cliente cliente) {
+            return "";
+        }
+
+        void procesar(Cliente cliente, String respuesta) {
+        }
+
+        static Operacion porNombre(String nombre) {
+            for (Operacion operacion : values()) {
+                if (operacion.nombre.equalsIgnoreCase(nombre)) {
+                    return operacion;
+                }
+            }
+            throw new IllegalArgumentException("Operación desconocida en la mezcla: " + nombre);
+        }
+    }
+
+    private final int articulos;
+    private final int clientes;
+    private final int duracionSegundos;
+    private final int calentamientoSegundos;
+    private final int puerto;
+    private final int accesosCalientes;
+    private final int articulosCalientes;
+    private final int tamanoPagina;
+    private final List<Operacion> operaciones = new ArrayList<>();
+    private int[] pesosAcumulados;
+
+    private final Map<Operacion, Histograma> latencias = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, LongAdder> errores = new EnumMap<>(Operacion.class);
+    private final AtomicLong insertados = new AtomicLong();
+    private volatile long inicioMedicion;
+    private volatile long finMedicion;
+
+    private PruebaCarga(Map<String, String> opciones) {
+        articulos = entero(opciones, "articulos", 10000);
+        clientes = entero(opciones, "clientes", 64);
+        duracionSegundos = entero(opciones, "duracionSegundos", 60);
+        calentamientoSegundos = entero(opciones, "calentamientoSegundos", 10);
+        puerto = entero(opciones, "puerto", 18080);
+        accesosCalientes = Math.min(Math.max(entero(opciones, "accesosCalientes", 0), 0), 100);
+        articulosCalientes = Math.min(Math.max(entero(opciones, "articulosCalientes", 10), 1), articulos);
+        tamanoPagina = entero(opciones, "tamanoPagina", 100);
+        leerMezcla(opciones.getOrDefault("mezcla", MEZCLA_POR_DEFECTO));
+        for (Operacion operacion : Operacion.values()) {
+            latencias.put(operacion, new Histograma());
+            errores.put(operacion, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            String clave = igual > 0 ? arg.substring(0, igual) : arg;
+            if (igual > 0 && clave.contains(".")) {
+                System.setProperty(clave, arg.substring(igual + 1));
+            } else if (igual > 0 && OPCIONES.contains(clave)) {
+                opciones.put(clave, arg.substring(igual + 1));
+            } else {
+                System.err.println("Opción no reconocida: " + arg);
+                System.err.println("Opciones: " + String.join(", ", OPCIONES) + " y claves de configuración con punto");
+                System.exit(2);
+            }
+        }
+
+        PruebaCarga prueba = new PruebaCarga(opciones);
+        ajustarLogs(opciones.getOrDefault("nivelLog", "WARN"));
+        prueba.ejecutar();
+        System.exit(0);
+    }
+
+    private void ejecutar() throws Exception {
+        System.setProperty("servidor.puerto", String.valueOf(puerto));
+        System.setProperty("db.driver", System.getProperty("db.driver", BaseDatosEmbebida.DRIVER));
+        System.setProperty("db.url", System.getProperty("db.url", BaseDatosEmbebida.URL));
+        System.setProperty("db.username", System.getProperty("db.username", BaseDatosEmbebida.USUARIO));
+        System.setProperty("db.password", System.getProperty("db.password", ""));
+
+        System.out.printf("Generando catálogo de %d artículos...%n", articulos);
+        long inicio = System.nanoTime();
+        BaseDatosEmbebida.preparar(System.getProperty("db.url"), System.getProperty("db.username"),
+                                   System.getProperty("db.password"), articulos);
+        System.out.printf("Catálogo listo en %d ms%n", (System.nanoTime() - inicio) / 1_000_000);
+
+        // Una conexión persistente por cliente (HttpURLConnection guarda 5 por destino por defecto)
+        System.setProperty("http.maxConnections", String.valueOf(Math.max(clientes, 5)));
+        Thread servidor = new Thread(() -> InventarioServer.main(new String[0]), "inventario-servidor");
+        servidor.setDaemon(true);
+        servidor.start();
+        ClienteSoap soap = new ClienteSoap("http://localhost:" + puerto + "/InventarioService", Duration.ofSeconds(30));
+        if (!soap.esperarDisponible(Duration.ofSeconds(60))) {
+            throw new IllegalStateException("El servicio no quedó disponible en el puerto " + puerto);
+        }
+
+        System.out.printf("Carga: %d clientes, %d s de calentamiento y %d s de medición%n",
+                          clientes, calentamientoSegundos, duracionSegundos);
+        inicioMedicion = System.nanoTime() + calentamientoSegundos * 1_000_000_000L;
+        finMedicion = inicioMedicion + duracionSegundos * 1_000_000_000L;
+        List<Thread> hilos = new ArrayList<>(clientes);
+        for (int i = 0; i < clientes; i++) {
+            Thread hilo = new Thread(new Cliente(this, soap), "carga-cliente-" + i);
+            hilo.setDaemon(true);
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        informar();
+        String estado = soap.invocar("verificarEstado", "");
+        System.out.println();
+        System.out.println("Estado del servicio: " + (estado != null ? ClienteSoap.extraer(estado, "mensaje") : "sin respuesta"));
+    }
+
+    private void leerMezcla(String mezcla) {
+        List<Integer> acumulados = new ArrayList<>();
+        int total = 0;
+        for (String parte : mezcla.split(",")) {
+            String[] nombrePeso = parte.trim().split(":");
+            int peso = nombrePeso.length > 1 ? Integer.parseInt(nombrePeso[1].trim()) : 1;
+            if (peso <= 0) {
+                continue;
+            }
+            operaciones.add(Operacion.porNombre(nombrePeso[0].trim()));
+            total += peso;
+            acumulados.add(total);
+        }
+        if (operaciones.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla no tiene operaciones con peso positivo: " + mezcla);
+        }
+        pesosAcumulados = acumulados.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private Operacion elegirOperacion() {
+        int valor = ThreadLocalRandom.current().nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (valor < pesosAcumulados[i]) {
+                return operaciones.get(i);
+            }
+        }
+        return operaciones.get(operaciones.size() - 1);
+    }
+
+    private void informar() {
+        double segundos = duracionSegundos;
+        long totalLlamadas = 0;
+        long totalErrores = 0;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-20s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                          "Operación", "Llamadas", "Errores", "Op/s", "Media ms", "p50 ms", "p99 ms", "p99.9 ms", "Máx ms");
+        for (Operacion operacion : Operacion.values()) {
+            Histograma histograma = latencias.get(operacion);
+            long llamadas = histograma.getMuestras();
+            if (llamadas == 0) {
+                continue;
+            }
+            long fallidas = errores.get(operacion).sum();
+            totalLlamadas += llamadas;
+            totalErrores += fallidas;
+            System.out.printf(Locale.ROOT, "%-20s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                              operacion.nombre, llamadas, fallidas, llamadas / segundos,
+                              histograma.getMedia() / 1000.0, histograma.percentil(50) / 1000.0,
+                              histograma.percentil(99) / 1000.0, histograma.percentil(99.9) / 1000.0,
+                              histograma.getMaximo() / 1000.0);
+        }
+        System.out.printf(Locale.ROOT, "%-20s %10d %8d %10.1f%n", "TOTAL", totalLlamadas, totalErrores, totalLlamadas / segundos);
+    }
+
+    private static void ajustarLogs(String nivel) {
+        // Los registros por operación en INFO/DEBUG dominarían el tiempo medido
+        Level level = Level.toLevel(nivel, Level.WARN);
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        for (Logger logger : contexto.getLoggerList()) {
+            if (logger.getLevel() != null) {
+                logger.setLevel(level);
+            }
+        }
+    }
+
+    private static int entero(Map<String, String> opciones, String clave, int valorPorDefecto) {
+        String valor = opciones.get(clave);
+        return valor != null ? Integer.parseInt(valor.trim()) : valorPorDefecto;
+    }
+
+    /**
+     * Un cliente: elige una operación, la invoca y espera la respuesta, hasta el fin de la medición
+     */
+    static final class Cliente implements Runnable {
+        private final PruebaCarga prueba;
+        private final ClienteSoap soap;
+        private String token;
+
+        Cliente(PruebaCarga prueba, ClienteSoap soap) {
+            this.prueba = prueba;
+            this.soap = soap;
+        }
+
+        String codigoAleatorio() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            boolean caliente = prueba.accesosCalientes > 0 && random.nextInt(100) < prueba.accesosCalientes;
+            int limite = caliente ? prueba.articulosCalientes : prueba.articulos;
+            return BaseDatosEmbebida.codigo(1 + random.nextInt(limite));
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Operacion operacion = prueba.elegirOperacion();
+                long inicio = System.nanoTime();
+                if (inicio >= prueba.finMedicion) {
+                    return;
+                }
+                String respuesta;
+                try {
+                    respuesta = soap.invocar(operacion.nombre, operacion.parametros(this));
+                } catch (Exception e) {
+                    respuesta = null;
+                }
+                long micros = (System.nanoTime() - inicio) / 1000;
+                boolean exitosa = respuesta != null && !respuesta.contains("exitoso>false<");
+                if (respuesta != null) {
+                    operacion.procesar(this, respuesta);
+                }
+                if (inicio >= prueba.inicioMedicion) {
+                    prueba.latencias.get(operacion).registrar(micros);
+                    if (!exitosa) {
+                        prueba.errores.get(operacion).increment();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ferreteria.inventario.benchmark;
+
+import com.ferreteria.inventario.util.IndiceTrigramas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara buscarPorNombre con índice de trigramas contra el recorrido completo de LIKE '%texto%'
+ * El recorrido se hace en memoria sobre los mismos textos, así que es una cota inferior del
+ * costo real de LIKE: la consulta en MySQL además lee las filas del disco y las envía por red.
+ *
+ * Ejecutar: mvn -Pjmh test-compile exec:exec -Djmh.args="BusquedaNombreBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusquedaNombreBenchmark {
+
+    private static final String[] TIPOS = {
+        "Tornillo", "Tuerca", "Arandela", "Clavo", "Taladro", "Martillo", "Destornillador", "Llave",
+        "Broca", "Sierra", "Lija", "Pintura", "Brocha", "Cable", "Enchufe", "Cinta", "Pegamento",
+        "Manguera", "Candado", "Bisagra"
+    };
+    private static final String[] MATERIALES = {
+        "acero", "inoxidable", "galvanizado", "bronce", "plástico", "madera", "aluminio", "cobre"
+    };
+    private static final String[] MEDIDAS = {
+        "1/4", "3/8", "1/2", "5/8", "3/4", "1 pulgada", "10mm", "12mm", "25mm", "2 metros"
+    };
+    private static final String[] MARCAS = {
+        "Stanley", "Truper", "Bosch", "Makita", "DeWalt", "Pretul", "Irwin", "Black&Decker"
+    };
+
+    @Param({"200000"})
+    private int articulos;
+
+    // Consultas poco selectivas (tipo, material, marca, medida) y una selectiva (código de modelo)
+    @Param({"torn", "acero inox", "dewalt", "3/8", "modelo 4fz"})
+    private String consulta;
+
+    private IndiceTrigramas indice;
+    private String[] nombres;
+    // Nombres ya en minúsculas y sin acentos, como los compara la colación de MySQL
+    private String[] nombresNormalizados;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Random random = new Random(42);
+        indice = new IndiceTrigramas();
+        nombres = new String[articulos];
+        nombresNormalizados = new String[articulos];
+        for (int i = 0; i < articulos; i++) {
+            String nombre = TIPOS[random.nextInt(TIPOS.length)] + " " + MATERIALES[random.nextInt(MATERIALES.length)] +
+                            " " + MEDIDAS[random.nextInt(MEDIDAS.length)] + " " + MARCAS[random.nextInt(MARCAS.length)] +
+                            " modelo " + Integer.toString(i, 36).toUpperCase();
+            String descripcion = "Artículo de ferretería de uso " + (random.nextBoolean() ? "doméstico" : "industrial") +
+                                 ", presentación de " + (1 + random.nextInt(100)) + " unidades";
+            nombres[i] = nombre;
+            nombresNormalizados[i] = IndiceTrigramas.normalizar(nombre);
+            indice.indexar(i + 1, nombre, descripcion);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> indiceTrigramas() {
+        return indice.buscar(consulta, 50);
+    }
+
+    /**
+     * Equivalente en memoria de WHERE nombre LIKE '%texto%' ORDER BY nombre: revisa todas las filas
+     */
+    @Benchmark
+    public List<Integer> recorridoLike() {
+        String texto = IndiceTrigramas.normalizar(consulta);
+        List<Integer> coincidencias = new ArrayList<>();
+        for (int i = 0; i < nombresNormalizados.length; i++) {
+            if (nombresNormalizados[i].contains(texto)) {
+                coincidencias.add(i);
+            }
+        }
+        coincidencias.sort(Comparator.comparing(i -> nombres[i]));
+        return coincidencias.size() > 50 ? coincidencias.subList(0, 50) : coincidencias;
+    }
+}
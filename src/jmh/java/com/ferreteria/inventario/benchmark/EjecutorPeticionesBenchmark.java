@@ -0,0 +1,133 @@
+package com.ferreteria.inventario.benchmark;
+
+import com.ferreteria.inventario.EjecutorPeticiones;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento del servidor SOAP según el ejecutor de peticiones, con latencia bloqueante de base de datos
+ * Cada ráfaga envía PETICIONES peticiones a la vez. El 70% se resuelve en memoria (caché, filtro de
+ * códigos); el resto toma una de TAMANO_POOL conexiones y espera 'latenciaMs' dentro de un bloque
+ * synchronized, como hace Connector/J 8.0 al leer del socket (fija el hilo virtual a su portador).
+ *
+ * - DESPACHADOR: sin ejecutor, todo en el hilo del servidor HTTP (comportamiento anterior)
+ * - PLATAFORMA: pool fijo de hilos del tamaño del límite
+ * - VIRTUAL: hilo virtual por petición con el límite y los portadores ajustados al pool
+ * - VIRTUAL_SIN_AJUSTE: igual, pero con tantos portadores como CPUs
+ *
+ * Ejecutar: mvn -Pjmh test-compile exec:exec -Djmh.args="EjecutorPeticionesBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 4, time = 2)
+@Fork(1)
+public class EjecutorPeticionesBenchmark {
+
+    private static final int PETICIONES = 400;
+    private static final int TAMANO_POOL = 10;
+    private static final int SOLICITUDES_POR_CONEXION = 2;
+
+    @Param({"DESPACHADOR", "PLATAFORMA", "VIRTUAL", "VIRTUAL_SIN_AJUSTE"})
+    private String ejecutor;
+
+    @Param({"2"})
+    private long latenciaMs;
+
+    private Executor executor;
+    private EjecutorPeticiones ejecutorPeticiones;
+    private ArrayBlockingQueue<Object> conexiones;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        int limite = EjecutorPeticiones.calcularLimite(0, TAMANO_POOL, SOLICITUDES_POR_CONEXION);
+        switch (ejecutor) {
+            case "DESPACHADOR":
+                executor = Runnable::run;
+                break;
+            case "PLATAFORMA":
+                ejecutorPeticiones = new EjecutorPeticiones(EjecutorPeticiones.Modo.PLATAFORMA, limite);
+                break;
+            case "VIRTUAL":
+                EjecutorPeticiones.ajustarPortadoresVirtuales(TAMANO_POOL);
+                ejecutorPeticiones = new EjecutorPeticiones(EjecutorPeticiones.Modo.VIRTUAL, limite);
+                break;
+            default:
+                ejecutorPeticiones = new EjecutorPeticiones(EjecutorPeticiones.Modo.VIRTUAL, limite);
+                break;
+        }
+        if (ejecutorPeticiones != null) {
+            executor = ejecutorPeticiones;
+        }
+
+        conexiones = new ArrayBlockingQueue<>(TAMANO_POOL);
+        for (int i = 0; i < TAMANO_POOL; i++) {
+            conexiones.add(new Object());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        if (ejecutorPeticiones != null) {
+            System.out.println();
+            System.out.println(ejecutorPeticiones);
+            ejecutorPeticiones.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PETICIONES)
+    public void rafagaPeticiones() throws InterruptedException {
+        CountDownLatch terminadas = new CountDownLatch(PETICIONES);
+        for (int i = 0; i < PETICIONES; i++) {
+            boolean consultaBaseDatos = i % 10 >= 7;
+            executor.execute(() -> {
+                try {
+                    if (consultaBaseDatos) {
+                        consultar();
+                    }
+                } finally {
+                    terminadas.countDown();
+                }
+            });
+        }
+        terminadas.await();
+    }
+
+    private void consultar() {
+        Object conexion;
+        try {
+            conexion = conexiones.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            synchronized (conexion) {
+                Thread.sleep(latenciaMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            conexiones.add(conexion);
+        }
+    }
+}
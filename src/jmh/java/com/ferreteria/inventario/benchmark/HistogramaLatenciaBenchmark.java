@@ -0,0 +1,70 @@
+package com.ferreteria.inventario.benchmark;
+
+import com.ferreteria.inventario.util.HistogramaLatencia;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de registrar una llamada en HistogramaLatencia, el que pagan cada operación SOAP, cada
+ * método de ArticuloService y cada ejecución de una sentencia SQL. registrarMedicion incluye las
+ * dos lecturas de System.nanoTime(); medirOperacion agrega la lambda de medir que usa el servicio;
+ * los grupos con varios hilos muestran la contención sobre el mismo histograma.
+ *
+ * Ejecutar: mvn -Pjmh test-compile exec:exec -Djmh.args="HistogramaLatenciaBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistogramaLatenciaBenchmark {
+
+    private HistogramaLatencia histograma;
+    private int valor;
+
+    @Setup
+    public void preparar() {
+        histograma = new HistogramaLatencia("ws", "consultarArticulo");
+    }
+
+    @Benchmark
+    public void registrarDuracion() {
+        histograma.registrarDuracion(850_000);
+    }
+
+    @Benchmark
+    public void registrarMedicion() {
+        long inicio = System.nanoTime();
+        histograma.registrar(inicio);
+    }
+
+    @Benchmark
+    public int medirOperacion() {
+        int argumento = valor;
+        return histograma.medir(() -> argumento + 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void registrarMedicionConcurrente() {
+        long inicio = System.nanoTime();
+        histograma.registrar(inicio);
+    }
+
+    @Benchmark
+    public HistogramaLatencia.Instantanea instantanea() {
+        return histograma.getInstantanea();
+    }
+}
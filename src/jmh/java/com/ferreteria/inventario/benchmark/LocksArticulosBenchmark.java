@@ -0,0 +1,82 @@
+package com.ferreteria.inventario.benchmark;
+
+import com.ferreteria.inventario.exception.InventarioException;
+import com.ferreteria.inventario.service.LocksArticulos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contención de los locks por artículo frente a un único lock global
+ * Cada operación bloquea un artículo elegido al azar entre 'articulos' distintos y mantiene
+ * el lock durante 'latenciaMicros', como la transacción de stock que espera a la base de datos.
+ * Con un solo artículo ambos serializan igual; con muchos artículos distintos las franjas
+ * deben escalar con los hilos y el lock global no.
+ *
+ * Ejecutar: mvn -Pjmh test-compile exec:exec -Djmh.args="LocksArticulosBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class LocksArticulosBenchmark {
+
+    @Param({"1", "16", "10000"})
+    private int articulos;
+
+    @Param({"200"})
+    private int latenciaMicros;
+
+    private LocksArticulos locks;
+    private ReentrantLock lockGlobal;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        locks = new LocksArticulos(256, 5000, 0);
+        lockGlobal = new ReentrantLock();
+    }
+
+    @TearDown(Level.Trial)
+    public void informar() {
+        System.out.println();
+        System.out.println("Locks por artículo (" + articulos + " artículos): " + locks.getEstadisticas());
+    }
+
+    @Benchmark
+    public void franjasPorArticulo() throws InventarioException {
+        int id = 1 + ThreadLocalRandom.current().nextInt(articulos);
+        try (LocksArticulos.Bloqueo bloqueo = locks.bloquear(id)) {
+            LockSupport.parkNanos(latenciaMicros * 1000L);
+        }
+    }
+
+    @Benchmark
+    public void lockGlobal() {
+        ThreadLocalRandom.current().nextInt(articulos);
+        lockGlobal.lock();
+        try {
+            LockSupport.parkNanos(latenciaMicros * 1000L);
+        } finally {
+            lockGlobal.unlock();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.ferreteria.inventario.benchmark;
+
+import com.ferreteria.inventario.dto.ArticuloDTO;
+import com.ferreteria.inventario.exception.ValidationException;
+import com.ferreteria.inventario.model.Articulo;
+import com.ferreteria.inventario.service.ArticuloValidator;
+import com.ferreteria.inventario.util.ArticuloMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trabajo de CPU por solicitud antes y después de la base de datos: mapeo entidad/DTO
+ * (ArticuloMapper.toDTO y toEntity) y validación de un alta (ArticuloValidator.validarParaInsercion)
+ * La descripción es el campo de texto más largo y el único cuyo tamaño varía mucho entre artículos;
+ * 'valido=false' mide el camino de rechazo, que arma el mensaje y crea la excepción con su traza.
+ *
+ * Con asignación por operación (perfilador de GC):
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="MapeoValidacionBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeoValidacionBenchmark {
+
+    @Param({"0", "200", "1000"})
+    private int largoDescripcion;
+
+    @Param({"true", "false"})
+    private boolean valido;
+
+    private Articulo articulo;
+    private ArticuloDTO dto;
+    private ArticuloValidator validator;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        StringBuilder descripcion = new StringBuilder(largoDescripcion);
+        while (descripcion.length() < largoDescripcion) {
+            descripcion.append("Artículo de ferretería de uso industrial. ");
+        }
+        descripcion.setLength(largoDescripcion);
+
+        articulo = new Articulo("TOR-" + (valido ? "0001" : "#1"), "Tornillo acero inoxidable 3/8 Stanley",
+                                largoDescripcion == 0 ? null : descripcion.toString(), 1, 2,
+                                new BigDecimal("0.35"), valido ? new BigDecimal("0.60") : new BigDecimal("0.30"),
+                                1200, 100);
+        articulo.setId(4242);
+        articulo.setCategoriaNombre("Tornillería");
+        articulo.setProveedorNombre("Distribuidora Andina");
+        articulo.setVersion(7);
+        articulo.setFechaCreacion(LocalDateTime.of(2024, 3, 1, 10, 15, 30));
+        articulo.setFechaActualizacion(LocalDateTime.of(2024, 6, 12, 18, 2, 5));
+
+        dto = ArticuloMapper.toDTO(articulo);
+        validator = new ArticuloValidator();
+    }
+
+    @Benchmark
+    public ArticuloDTO toDTO() {
+        return ArticuloMapper.toDTO(articulo);
+    }
+
+    @Benchmark
+    public Articulo toEntity() {
+        return ArticuloMapper.toEntity(dto);
+    }
+
+    @Benchmark
+    public Object validarParaInsercion() {
+        try {
+            validator.validarParaInsercion(articulo);
+            return articulo;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ferreteria.inventario.benchmark;
+
+import com.ferreteria.inventario.dto.ConsultarArticuloResponse;
+import com.ferreteria.inventario.dto.ProveedorListResponse;
+import com.ferreteria.inventario.dto.StockUpdateResponse;
+import com.ferreteria.inventario.model.Articulo;
+import com.ferreteria.inventario.model.Proveedor;
+import com.ferreteria.inventario.util.ArticuloMapper;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marshalling JAXB de las respuestas SOAP más frecuentes: consultarArticulo, actualizarStock y
+ * listarProveedores (esta con 'proveedores' elementos)
+ * El contexto se crea una vez y el Marshaller una vez por hilo, como los reutiliza el runtime de
+ * JAX-WS; se mide solo la serialización a bytes, sin el sobre SOAP ni la escritura en la red.
+ *
+ * Con asignación por operación (perfilador de GC):
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="MarshallingRespuestasBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarshallingRespuestasBenchmark {
+
+    @Param({"1", "20", "200"})
+    private int proveedores;
+
+    private Marshaller marshaller;
+    private ByteArrayOutputStream salida;
+
+    private ConsultarArticuloResponse consultarArticulo;
+    private StockUpdateResponse stockUpdate;
+    private ProveedorListResponse proveedorList;
+
+    @Setup(Level.Trial)
+    public void preparar() throws JAXBException {
+        JAXBContext contexto = JAXBContext.newInstance(
+            ConsultarArticuloResponse.class, StockUpdateResponse.class, ProveedorListResponse.class);
+        marshaller = contexto.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        salida = new ByteArrayOutputStream(64 * 1024);
+
+        Articulo articulo = new Articulo("TOR-0001", "Tornillo acero inoxidable 3/8 Stanley",
+                                         "Caja de 100 unidades, cabeza hexagonal", 1, 2,
+                                         new BigDecimal("0.35"), new BigDecimal("0.60"), 1200, 100);
+        articulo.setId(4242);
+        articulo.setCategoriaNombre("Tornillería");
+        articulo.setProveedorNombre("Distribuidora Andina");
+        articulo.setVersion(7);
+        articulo.setFechaCreacion(LocalDateTime.of(2024, 3, 1, 10, 15, 30));
+        articulo.setFechaActualizacion(LocalDateTime.of(2024, 6, 12, 18, 2, 5));
+
+        consultarArticulo = ConsultarArticuloResponse.exito("Artículo encontrado", ArticuloMapper.toDTO(articulo));
+        stockUpdate = new StockUpdateResponse(true, "Stock actualizado exitosamente para el artículo TOR-0001",
+                                              articulo, 1250, 1200);
+
+        List<Proveedor> lista = new ArrayList<>(proveedores);
+        for (int i = 1; i <= proveedores; i++) {
+            Proveedor proveedor = new Proveedor("Proveedor " + i + " S.A.", "Contacto " + i, "02-555-" + (1000 + i),
+                                                "ventas" + i + "@proveedor.com", "Av. Principal " + i + " y Secundaria");
+            proveedor.setId(i);
+            proveedor.setFechaCreacion(LocalDateTime.of(2023, 1, 1, 8, 0).plusDays(i));
+            lista.add(proveedor);
+        }
+        proveedorList = new ProveedorListResponse(lista);
+    }
+
+    @Benchmark
+    public int consultarArticuloResponse() throws JAXBException {
+        return serializar(consultarArticulo);
+    }
+
+    @Benchmark
+    public int stockUpdateResponse() throws JAXBException {
+        return serializar(stockUpdate);
+    }
+
+    @Benchmark
+    public int proveedorListResponse() throws JAXBException {
+        return serializar(proveedorList);
+    }
+
+    private int serializar(Object respuesta) throws JAXBException {
+        salida.reset();
+        marshaller.marshal(respuesta, salida);
+        return salida.size();
+    }
+}
@@ -0,0 +1,103 @@
+package com.ferreteria.inventario.benchmark;
+
+import com.ferreteria.inventario.dao.Sentencias;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sobrecosto de Sentencias.preparar frente a Connection.prepareStatement en una consulta como
+ * las de los DAO: preparar, asignar un parámetro, ejecutar y leer cada columna de cada fila
+ * (getInt/getString/getBigDecimal, lo que hace mapearResultSet). Se usa H2 en memoria para que la
+ * diferencia entre ambos casos no quede oculta por la red; con MySQL el sobrecosto relativo es menor.
+ *
+ * Ejecutar: mvn -Pjmh test-compile exec:exec -Djmh.args="SentenciasBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SentenciasBenchmark {
+
+    private static final String CONSULTA =
+        "SELECT id, codigo, nombre, precio_venta, stock_actual FROM articulos WHERE id <= ? ORDER BY id";
+
+    @Param({"1", "50"})
+    private int filas;
+
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:sentencias;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE articulos (id INT PRIMARY KEY, codigo VARCHAR(50), " +
+                              "nombre VARCHAR(200), precio_venta DECIMAL(10,2), stock_actual INT)");
+        }
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO articulos VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= 50; i++) {
+                statement.setInt(1, i);
+                statement.setString(2, String.format("TOR-%04d", i));
+                statement.setString(3, "Tornillo acero inoxidable 3/8 #" + i);
+                statement.setBigDecimal(4, new BigDecimal("0.60"));
+                statement.setInt(5, 100 + i);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void directa(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(CONSULTA)) {
+            consultar(statement, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void medida(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement statement = Sentencias.preparar(connection, CONSULTA)) {
+            consultar(statement, blackhole);
+        }
+    }
+
+    private void consultar(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        statement.setInt(1, filas);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getInt("id"));
+                blackhole.consume(resultSet.getString("codigo"));
+                blackhole.consume(resultSet.getString("nombre"));
+                blackhole.consume(resultSet.getBigDecimal("precio_venta"));
+                blackhole.consume(resultSet.getInt("stock_actual"));
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ferreteria.inventario;
+
+import com.ferreteria.inventario.config.DatabaseConfig;
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.service.CompartimentosOperacion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ejecutor de las peticiones SOAP
+ * Sin ejecutor propio el servidor HTTP del JDK atiende cada petición en su único hilo despachador,
+ * de modo que una consulta lenta a la base de datos detiene a todas las demás. En el contenedor
+ * de servlets lo usa el despacho asíncrono (ver DespachoSoapListener).
+ *
+ * - VIRTUAL: un hilo virtual por petición. Un semáforo limita las peticiones en curso a
+ *   maxConcurrentes; las que exceden esperan estacionadas (sin ocupar un hilo del sistema).
+ * - PLATAFORMA: un pool fijo de maxConcurrentes hilos con cola sin límite.
+ *
+ * El límite se calcula a partir del tamaño del pool de Hikari para que las peticiones no se
+ * acumulen esperando conexión hasta agotar connectionTimeout, y nunca queda por debajo de lo que
+ * retienen los compartimentos (límites más colas, ver CompartimentosOperacion) más una petición
+ * por conexión para las operaciones sin compartimento: la espera en el ejecutor no tiene plazo,
+ * así que el exceso debe llegar al control de admisión, que lo rechaza de inmediato.
+ */
+public class EjecutorPeticiones implements Executor, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(EjecutorPeticiones.class);
+
+    public enum Modo {
+        VIRTUAL,
+        PLATAFORMA
+    }
+
+    private final Modo modo;
+    private final int maxConcurrentes;
+    private final ExecutorService delegado;
+    private final Semaphore permisos;
+
+    private final LongAdder atendidas = new LongAdder();
+    private final AtomicInteger enEspera = new AtomicInteger();
+    private volatile int enEsperaMaxima;
+
+    public EjecutorPeticiones(Modo modo, int maxConcurrentes) {
+        this.modo = modo;
+        this.maxConcurrentes = Math.max(maxConcurrentes, 1);
+        if (modo == Modo.VIRTUAL) {
+            this.delegado = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("soap-virtual-", 0).factory());
+            this.permisos = new Semaphore(this.maxConcurrentes);
+        } else {
+            this.delegado = Executors.newFixedThreadPool(this.maxConcurrentes, hilosPlataforma());
+            this.permisos = null;
+        }
+    }
+
+    /**
+     * Crea el ejecutor según inventario.properties (servidor.ejecutor.*)
+     */
+    public static EjecutorPeticiones desdeConfiguracion() {
+        InventarioConfig config = InventarioConfig.getInstance();
+        Modo modo = Modo.valueOf(config.getString("servidor.ejecutor.modo", "VIRTUAL").trim().toUpperCase());
+        int tamanoPool = DatabaseConfig.getInstance().getMaximumPoolSize();
+        int maxConcurrentes = config.getInt("servidor.ejecutor.maxConcurrentes", 0);
+        int limite = calcularLimite(maxConcurrentes, tamanoPool,
+            config.getInt("servidor.ejecutor.solicitudesPorConexion", 2));
+        int minimo = CompartimentosOperacion.getInstance().getCapacidadTotal() + tamanoPool;
+        if (limite < minimo) {
+            if (maxConcurrentes > 0) {
+                logger.warn("servidor.ejecutor.maxConcurrentes={} es menor que la capacidad de los compartimentos " +
+                            "más el pool ({}): el exceso esperará en el ejecutor sin plazo", limite, minimo);
+            } else {
+                limite = minimo;
+            }
+        }
+
+        if (modo == Modo.VIRTUAL) {
+            ajustarPortadoresVirtuales(tamanoPool);
+        }
+        return new EjecutorPeticiones(modo, limite);
+    }
+
+    /**
+     * Asegura al menos tantos hilos portadores como conexiones del pool
+     * Connector/J 8.0 hace la E/S del socket dentro de bloques synchronized, lo que en Java 21 fija
+     * el hilo virtual a su portador mientras espera a MySQL; con menos portadores que conexiones,
+     * las consultas en curso se bloquean unas a otras. Debe llamarse antes de crear el primer hilo
+     * virtual y respeta el valor si ya se indicó con -Djdk.virtualThreadScheduler.parallelism.
+     */
+    public static void ajustarPortadoresVirtuales(int tamanoPool) {
+        String propiedad = "jdk.virtualThreadScheduler.parallelism";
+        if (System.getProperty(propiedad) == null) {
+            int portadores = Math.max(Runtime.getRuntime().availableProcessors(), tamanoPool);
+            System.setProperty(propiedad, String.valueOf(portadores));
+        }
+    }
+
+    /**
+     * Límite por defecto: solicitudesPorConexion peticiones en curso por cada conexión del pool
+     * @param maxConcurrentes límite explícito; 0 o negativo para derivarlo del pool
+     */
+    public static int calcularLimite(int maxConcurrentes, int tamanoPool, int solicitudesPorConexion) {
+        if (maxConcurrentes > 0) {
+            return maxConcurrentes;
+        }
+        return Math.max(1, tamanoPool * Math.max(solicitudesPorConexion, 1));
+    }
+
+    @Override
+    public void execute(Runnable peticion) {
+        if (permisos == null) {
+            delegado.execute(contar(peticion));
+            return;
+        }
+        delegado.execute(() -> {
+            if (!permisos.tryAcquire()) {
+                registrarEspera();
+                permisos.acquireUninterruptibly();
+                enEspera.decrementAndGet();
+            }
+            try {
+                contar(peticion).run();
+            } finally {
+                permisos.release();
+            }
+        });
+    }
+
+    private Runnable contar(Runnable peticion) {
+        return () -> {
+            try {
+                peticion.run();
+            } finally {
+                atendidas.increment();
+            }
+        };
+    }
+
+    private void registrarEspera() {
+        int esperando = enEspera.incrementAndGet();
+        if (esperando > enEsperaMaxima) {
+            enEsperaMaxima = esperando;
+        }
+    }
+
+    private static ThreadFactory hilosPlataforma() {
+        AtomicInteger contador = new AtomicInteger();
+        return r -> {
+            Thread hilo = new Thread(r, "soap-plataforma-" + contador.getAndIncrement());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+
+    public Modo getModo() {
+        return modo;
+    }
+
+    public int getMaxConcurrentes() {
+        return maxConcurrentes;
+    }
+
+    /**
+     * Deja de aceptar peticiones y espera a que terminen las que están en curso
+     */
+    @Override
+    public void close() {
+        delegado.shutdown();
+        try {
+            if (!delegado.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Quedaron peticiones en curso al detener el ejecutor");
+                delegado.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            delegado.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EjecutorPeticiones{" +
+                "modo=" + modo +
+                ", maxConcurrentes=" + maxConcurrentes +
+                ", atendidas=" + atendidas.sum() +
+                ", enEspera=" + enEspera.get() +
+                ", enEsperaMaxima=" + enEsperaMaxima +
+                '}';
+    }
+}
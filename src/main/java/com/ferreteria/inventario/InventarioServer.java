@@ -1,11 +1,20 @@
 package com.ferreteria.inventario;
 
 import com.ferreteria.inventario.config.DatabaseConfig;
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.util.RegistroMetricas;
 import com.ferreteria.inventario.ws.InventarioWebService;
+import com.ferreteria.inventario.ws.MetricasServlet;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 import jakarta.xml.ws.Endpoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Servidor principal del sistema de inventario
  * Inicia el servicio SOAP y verifica la conexión a la base de datos
@@ -14,10 +23,16 @@ public class InventarioServer {
     
     private static final Logger logger = LoggerFactory.getLogger(InventarioServer.class);
     private static final String HOST = "0.0.0.0"; // Escucha en todas las interfaces de red
-    private static final int PORT = 8080;
+    private static final int PORT = InventarioConfig.getInstance().getInt("servidor.puerto", 8080);
     private static final String CONTEXT = "/InventarioService";
     private static final String SOAP_URL = "http://" + HOST + ":" + PORT + CONTEXT;
     
+    private static final String CONTEXT_METRICAS = "/metricas";
+    
+    private static EjecutorPeticiones ejecutor;
+    private static HttpServer servidor;
+    private static HttpServer servidorMetricas;
+    
     public static void main(String[] args) {
         logger.info("=== SISTEMA DE INVENTARIO FERRETERÍA ===");
         logger.info("Iniciando servidor backend...");
@@ -75,9 +90,23 @@ public class InventarioServer {
             String serverUrl = "http://" + HOST + ":" + PORT + CONTEXT;
             String localUrl = "http://localhost:" + PORT + CONTEXT;
             
-            // Publicar el servicio
+            // El servidor HTTP del JDK escribe el último fragmento de la respuesta aparte; sin
+            // TCP_NODELAY, Nagle y el ACK diferido del cliente suman ~40 ms por llamada en conexiones
+            // persistentes. Debe fijarse antes de crear el servidor HTTP
+            if (InventarioConfig.getInstance().getBoolean("servidor.tcpNoDelay", true)) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            
+            // Publicar el servicio con su propio ejecutor (sin él, el servidor HTTP atiende
+            // todas las peticiones en un único hilo), en un servidor HTTP propio para servir
+            // también el endpoint de métricas
+            servidor = HttpServer.create(new InetSocketAddress(HOST, PORT), 0);
             Endpoint endpoint = Endpoint.create(new InventarioWebService());
-            endpoint.publish(serverUrl);
+            ejecutor = EjecutorPeticiones.desdeConfiguracion();
+            endpoint.setExecutor(ejecutor);
+            endpoint.publish(servidor.createContext(CONTEXT));
+            iniciarEndpointMetricas();
+            servidor.start();
             
             logger.info("Servicio publicado en: {}", serverUrl);
             logger.info("Acceso local en: {}", localUrl);
@@ -86,6 +115,8 @@ public class InventarioServer {
                 logger.info("Servicio SOAP publicado exitosamente");
                 logger.info("Endpoint: {}", SOAP_URL);
                 logger.info("WSDL: {}?wsdl", SOAP_URL);
+                logger.info("Ejecutor de peticiones: {} (máximo {} en curso)", 
+                           ejecutor.getModo(), ejecutor.getMaxConcurrentes());
             } else {
                 throw new RuntimeException("No se pudo publicar el servicio SOAP");
             }
@@ -96,6 +127,38 @@ public class InventarioServer {
         }
     }
     
+    /**
+     * Publica /metricas (texto, formato Prometheus) en el servidor del servicio o, si
+     * metricas.puerto indica otro puerto, en un servidor aparte
+     */
+    private static void iniciarEndpointMetricas() throws IOException {
+        int puerto = InventarioConfig.getInstance().getInt("metricas.puerto", 0);
+        HttpServer destino = servidor;
+        if (puerto > 0 && puerto != PORT) {
+            servidorMetricas = HttpServer.create(new InetSocketAddress(HOST, puerto), 0);
+            destino = servidorMetricas;
+        }
+        destino.createContext(CONTEXT_METRICAS, InventarioServer::responderMetricas);
+        if (servidorMetricas != null) {
+            servidorMetricas.start();
+        }
+        logger.info("Métricas en: http://localhost:{}{}", puerto > 0 ? puerto : PORT, CONTEXT_METRICAS);
+    }
+    
+    private static void responderMetricas(HttpExchange exchange) throws IOException {
+        try (HttpExchange intercambio = exchange) {
+            if (!"GET".equals(intercambio.getRequestMethod())) {
+                intercambio.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] cuerpo = RegistroMetricas.getInstance().exportarTexto().getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", MetricasServlet.CONTENT_TYPE);
+            intercambio.getResponseHeaders().set("Cache-Control", "no-cache");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            intercambio.getResponseBody().write(cuerpo);
+        }
+    }
+    
     private static void mostrarInformacionServidor() {
         logger.info("");
         logger.info("╔══════════════════════════════════════════════╗");
@@ -113,6 +176,8 @@ public class InventarioServer {
         logger.info("║  • listarCategorias    - Listar todas las categorías");
         logger.info("║  • listarProveedores   - Listar todos los proveedores");
         logger.info("║  • verificarEstado     - Verificar estado del servicio");
+        logger.info("║  • obtenerMetricas     - Latencia por operación y capa");
+        logger.info("║  • invalidarDatosReferencia - Recargar categorías y proveedores");
         logger.info("╠══════════════════════════════════════════════╣");
         logger.info("║  Para detener el servidor:                   ║");
         logger.info("║  Presiona Ctrl+C o detén desde NetBeans      ║");
@@ -125,6 +190,15 @@ public class InventarioServer {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("");
             logger.info("Deteniendo servidor...");
+            if (servidorMetricas != null) {
+                servidorMetricas.stop(0);
+            }
+            if (servidor != null) {
+                servidor.stop(1);
+            }
+            if (ejecutor != null) {
+                ejecutor.close();
+            }
             logger.info("Servidor detenido correctamente");
             logger.info("¡Hasta luego!");
         }));
@@ -19,11 +19,15 @@ public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
     private static DatabaseConfig instance;
     private HikariDataSource dataSource;
+    private ReplicasLectura replicas;
+    private TelemetriaPool telemetria;
     private Properties properties;
 
     private DatabaseConfig() {
         loadProperties();
+        telemetria = TelemetriaPool.desdePropiedades(properties);
         initializeDataSource();
+        replicas = ReplicasLectura.desdePropiedades(properties, dataSource, telemetria);
     }
 
     public static synchronized DatabaseConfig getInstance() {
@@ -41,6 +45,12 @@ public class DatabaseConfig {
                 throw new RuntimeException("Archivo de configuración de base de datos no encontrado");
             }
             properties.load(input);
+            // -Ddb.url=... y demás claves db.* del sistema reemplazan las del archivo
+            for (String clave : System.getProperties().stringPropertyNames()) {
+                if (clave.startsWith("db.")) {
+                    properties.setProperty(clave, System.getProperty(clave));
+                }
+            }
             logger.info("Propiedades de base de datos cargadas correctamente");
         } catch (IOException e) {
             logger.error("Error al cargar las propiedades de la base de datos", e);
@@ -51,6 +61,7 @@ public class DatabaseConfig {
     private void initializeDataSource() {
         try {
             HikariConfig config = new HikariConfig();
+            config.setPoolName("primaria");
             
             // Configuración básica de conexión
             config.setDriverClassName(properties.getProperty("db.driver"));
@@ -82,6 +93,9 @@ public class DatabaseConfig {
             config.setConnectionTestQuery("SELECT 1");
             config.setValidationTimeout(5000);
             
+            // Conexiones activas, esperas y retenciones largas en las métricas del servicio
+            config.setMetricsTrackerFactory(telemetria);
+            
             dataSource = new HikariDataSource(config);
             logger.info("Pool de conexiones HikariCP inicializado correctamente");
             
@@ -95,11 +109,65 @@ public class DatabaseConfig {
         return dataSource;
     }
 
+    /**
+     * Tamaño máximo del pool de conexiones
+     */
+    public int getMaximumPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
+    /**
+     * Conexión a la primaria, para lecturas que deben ver el último dato confirmado
+     * No cuenta como escritura: las lecturas de la sesión pueden seguir yendo a las réplicas.
+     */
     public Connection getConnection() throws SQLException {
         return dataSource.getConnection();
     }
 
+    /**
+     * Conexión a la primaria para escribir
+     * Anota la escritura de la sesión actual: sus lecturas irán a la primaria durante lecturaPropiaMs.
+     */
+    public Connection getConnectionEscritura() throws SQLException {
+        if (replicas != null) {
+            replicas.registrarEscritura();
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Conexión para lecturas que toleran el retraso de una réplica (ver ReplicasLectura)
+     * Sin réplicas configuradas es una conexión a la primaria.
+     */
+    public Connection getConnectionLectura() throws SQLException {
+        return replicas != null ? replicas.obtenerConexionLectura() : dataSource.getConnection();
+    }
+
+    /**
+     * Tiempo durante el que una réplica puede no reflejar una escritura ya confirmada (0 sin réplicas)
+     */
+    public long getVentanaReplicasMs() {
+        return replicas != null ? replicas.getVentanaLecturaPropiaMs() : 0;
+    }
+
+    public String getEstadisticasReplicas() {
+        return String.valueOf(replicas);
+    }
+
+    /**
+     * Estado de los pools de conexiones (primaria y réplicas)
+     */
+    public String getEstadisticasPool() {
+        return String.valueOf(telemetria);
+    }
+
     public void closeDataSource() {
+        if (replicas != null) {
+            replicas.close();
+        }
+        if (telemetria != null) {
+            telemetria.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             logger.info("Pool de conexiones cerrado correctamente");
@@ -107,7 +175,7 @@ public class DatabaseConfig {
     }
 
     public boolean testConnection() {
-        try (Connection connection = getConnection()) {
+        try (Connection connection = dataSource.getConnection()) {
             return connection.isValid(5);
         } catch (SQLException e) {
             logger.error("Error al probar la conexión a la base de datos", e);
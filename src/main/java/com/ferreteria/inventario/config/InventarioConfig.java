@@ -0,0 +1,81 @@
+package com.ferreteria.inventario.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Configuración general de la aplicación (cachés, lotes, concurrencia)
+ * Los valores se leen de inventario.properties; si una clave no existe
+ * se usa el valor por defecto indicado por quien la consulta.
+ * Una propiedad del sistema con la misma clave (-Dclave=valor) tiene prioridad sobre el archivo
+ */
+public class InventarioConfig {
+    private static final Logger logger = LoggerFactory.getLogger(InventarioConfig.class);
+    private static InventarioConfig instance;
+    private Properties properties;
+
+    private InventarioConfig() {
+        loadProperties();
+    }
+
+    public static synchronized InventarioConfig getInstance() {
+        if (instance == null) {
+            instance = new InventarioConfig();
+        }
+        return instance;
+    }
+
+    private void loadProperties() {
+        properties = new Properties();
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream("inventario.properties")) {
+            if (input == null) {
+                logger.warn("No se encontró inventario.properties, se usarán valores por defecto");
+                return;
+            }
+            properties.load(input);
+            logger.info("Propiedades de la aplicación cargadas correctamente");
+        } catch (IOException e) {
+            logger.error("Error al cargar inventario.properties, se usarán valores por defecto", e);
+        }
+    }
+
+    public String getString(String clave, String valorPorDefecto) {
+        String valor = System.getProperty(clave, properties.getProperty(clave));
+        return valor != null && !valor.trim().isEmpty() ? valor.trim() : valorPorDefecto;
+    }
+
+    public int getInt(String clave, int valorPorDefecto) {
+        String valor = getString(clave, null);
+        if (valor == null) {
+            return valorPorDefecto;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            logger.warn("Valor inválido para {}: '{}', se usa {}", clave, valor, valorPorDefecto);
+            return valorPorDefecto;
+        }
+    }
+
+    public long getLong(String clave, long valorPorDefecto) {
+        String valor = getString(clave, null);
+        if (valor == null) {
+            return valorPorDefecto;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            logger.warn("Valor inválido para {}: '{}', se usa {}", clave, valor, valorPorDefecto);
+            return valorPorDefecto;
+        }
+    }
+
+    public boolean getBoolean(String clave, boolean valorPorDefecto) {
+        String valor = getString(clave, null);
+        return valor != null ? Boolean.parseBoolean(valor) : valorPorDefecto;
+    }
+}
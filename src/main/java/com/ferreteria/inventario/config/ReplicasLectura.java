@@ -0,0 +1,326 @@
+package com.ferreteria.inventario.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pools de las réplicas de lectura de MySQL y enrutamiento de las lecturas
+ * Las lecturas que toleran datos apenas atrasados (listados, búsquedas, exportación, historial,
+ * consultas por código o ID) van a una réplica por turnos; el resto de las operaciones sigue en
+ * la primaria. Solo las escrituras (DatabaseConfig.getConnectionEscritura) fijan la sesión. Una lectura
+ * va a la primaria cuando:
+ *
+ * - Lectura propia: la misma sesión (usuario o dirección del cliente) escribió hace menos de
+ *   lecturaPropiaMs, así ve sus propios cambios aunque la réplica no los haya aplicado.
+ * - Retraso: la réplica está más de retrasoMaximoMs detrás de la primaria o su replicación está
+ *   detenida, según la última verificación periódica.
+ * - Falla: la réplica no entrega una conexión; queda fuera de turno hasta la próxima verificación
+ *   que la encuentre sana.
+ *
+ * La ventana de lectura propia se cuenta desde que la sesión toma una conexión para escribir y
+ * debe ser mayor que retrasoMaximoMs más la duración de una transacción de escritura.
+ */
+public class ReplicasLectura implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicasLectura.class);
+
+    // Sesión de la petición en curso; la fija la capa de servicios web
+    private static final ThreadLocal<String> SESION = new ThreadLocal<>();
+    private static final int MAX_SESIONES_RECORDADAS = 10000;
+
+    private final DataSource primaria;
+    private final List<Replica> replicas;
+    private final long lecturaPropiaNanos;
+    private final long retrasoMaximoMs;
+    private final String consultaRetraso;
+    private final String columnaRetraso;
+    private final AtomicInteger turno = new AtomicInteger();
+    private final Map<String, Long> ultimaEscritura = new ConcurrentHashMap<>();
+    private ScheduledExecutorService monitor;
+
+    private final LongAdder lecturasPrimaria = new LongAdder();
+    private final LongAdder fijadasPorEscritura = new LongAdder();
+    private final LongAdder desviadas = new LongAdder();
+
+    private static final class Replica {
+        private final String nombre;
+        private final HikariDataSource dataSource;
+        private volatile boolean disponible = true;
+        private volatile long retrasoMs;
+        private final LongAdder lecturas = new LongAdder();
+        private final LongAdder fallos = new LongAdder();
+
+        Replica(String nombre, HikariDataSource dataSource) {
+            this.nombre = nombre;
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReplicasLectura(DataSource primaria, List<HikariDataSource> replicas, long lecturaPropiaMs,
+                           long retrasoMaximoMs, String consultaRetraso, String columnaRetraso) {
+        this.primaria = primaria;
+        List<Replica> lista = new ArrayList<>(replicas.size());
+        for (HikariDataSource replica : replicas) {
+            lista.add(new Replica(replica.getPoolName(), replica));
+        }
+        this.replicas = Collections.unmodifiableList(lista);
+        this.lecturaPropiaNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(lecturaPropiaMs, 0));
+        this.retrasoMaximoMs = Math.max(retrasoMaximoMs, 0);
+        this.consultaRetraso = consultaRetraso == null || consultaRetraso.trim().isEmpty() ? null : consultaRetraso.trim();
+        this.columnaRetraso = columnaRetraso;
+        if (!this.replicas.isEmpty() && lecturaPropiaMs <= retrasoMaximoMs) {
+            logger.warn("db.replica.lecturaPropiaMs ({}) no supera db.replica.retrasoMaximoMs ({}): una sesión " +
+                       "podría no ver sus propias escrituras", lecturaPropiaMs, retrasoMaximoMs);
+        }
+    }
+
+    /**
+     * Crea los pools de las réplicas declaradas como db.replica.N.url (N = 1, 2, ...)
+     * Sin réplicas declaradas todas las lecturas van a la primaria.
+     */
+    static ReplicasLectura desdePropiedades(Properties properties, DataSource primaria, MetricsTrackerFactory telemetria) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int n = 1; properties.getProperty("db.replica." + n + ".url") != null; n++) {
+            pools.add(crearPool(properties, n, telemetria));
+        }
+        ReplicasLectura replicas = new ReplicasLectura(primaria, pools,
+            Long.parseLong(properties.getProperty("db.replica.lecturaPropiaMs", "3000")),
+            Long.parseLong(properties.getProperty("db.replica.retrasoMaximoMs", "2000")),
+            properties.getProperty("db.replica.consultaRetraso", "SHOW REPLICA STATUS"),
+            properties.getProperty("db.replica.columnaRetraso", "Seconds_Behind_Source"));
+        if (!pools.isEmpty()) {
+            replicas.iniciarMonitor(Long.parseLong(properties.getProperty("db.replica.intervaloVerificacionMs", "1000")));
+            logger.info("Réplicas de lectura configuradas: {}", pools.size());
+        }
+        return replicas;
+    }
+
+    private static HikariDataSource crearPool(Properties properties, int n, MetricsTrackerFactory telemetria) {
+        String prefijo = "db.replica." + n + ".";
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("replica-" + n);
+        config.setDriverClassName(properties.getProperty("db.driver"));
+        config.setJdbcUrl(properties.getProperty(prefijo + "url"));
+        config.setUsername(properties.getProperty(prefijo + "username", properties.getProperty("db.username")));
+        config.setPassword(properties.getProperty(prefijo + "password", properties.getProperty("db.password")));
+        config.setReadOnly(true);
+
+        config.setMaximumPoolSize(Integer.parseInt(properties.getProperty("db.replica.pool.maximumPoolSize",
+            properties.getProperty("db.pool.maximumPoolSize", "10"))));
+        config.setMinimumIdle(Integer.parseInt(properties.getProperty("db.pool.minimumIdle", "2")));
+        // Espera corta: si la réplica no responde conviene leer de la primaria enseguida
+        config.setConnectionTimeout(Long.parseLong(properties.getProperty("db.replica.pool.connectionTimeout", "1000")));
+        config.setIdleTimeout(Long.parseLong(properties.getProperty("db.pool.idleTimeout", "600000")));
+        config.setMaxLifetime(Long.parseLong(properties.getProperty("db.pool.maxLifetime", "1800000")));
+        // Una réplica caída al arrancar no impide iniciar el servicio
+        config.setInitializationFailTimeout(-1);
+
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("maintainTimeStats", "false");
+        config.setConnectionTestQuery("SELECT 1");
+        config.setValidationTimeout(5000);
+        config.setMetricsTrackerFactory(telemetria);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Asocia el hilo actual a una sesión (usuario o cliente) para la lectura de las propias escrituras
+     */
+    public static void iniciarSesion(String clave) {
+        SESION.set(clave);
+    }
+
+    public static void terminarSesion() {
+        SESION.remove();
+    }
+
+    public boolean hayReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Ventana de lectura propia en milisegundos; 0 sin réplicas
+     */
+    public long getVentanaLecturaPropiaMs() {
+        return replicas.isEmpty() ? 0 : TimeUnit.NANOSECONDS.toMillis(lecturaPropiaNanos);
+    }
+
+    /**
+     * Anota que la sesión actual va a escribir; sus lecturas irán a la primaria durante la ventana
+     */
+    void registrarEscritura() {
+        String sesion = SESION.get();
+        if (sesion == null || replicas.isEmpty()) {
+            return;
+        }
+        if (ultimaEscritura.size() >= MAX_SESIONES_RECORDADAS && !ultimaEscritura.containsKey(sesion)) {
+            long limite = System.nanoTime() - lecturaPropiaNanos;
+            ultimaEscritura.values().removeIf(instante -> instante < limite);
+        }
+        ultimaEscritura.put(sesion, System.nanoTime());
+    }
+
+    /**
+     * Conexión para una lectura que tolera el retraso de la réplica
+     */
+    Connection obtenerConexionLectura() throws SQLException {
+        if (replicas.isEmpty()) {
+            return primaria.getConnection();
+        }
+        if (escribioRecientemente()) {
+            fijadasPorEscritura.increment();
+            lecturasPrimaria.increment();
+            return primaria.getConnection();
+        }
+
+        int inicio = Math.floorMod(turno.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((inicio + i) % replicas.size());
+            if (!replica.disponible || replica.retrasoMs > retrasoMaximoMs) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.lecturas.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.fallos.increment();
+                marcarNoDisponible(replica, e.getMessage());
+            }
+        }
+
+        desviadas.increment();
+        lecturasPrimaria.increment();
+        return primaria.getConnection();
+    }
+
+    private boolean escribioRecientemente() {
+        String sesion = SESION.get();
+        if (sesion == null) {
+            return false;
+        }
+        Long instante = ultimaEscritura.get(sesion);
+        if (instante == null) {
+            return false;
+        }
+        if (System.nanoTime() - instante < lecturaPropiaNanos) {
+            return true;
+        }
+        ultimaEscritura.remove(sesion, instante);
+        return false;
+    }
+
+    private void iniciarMonitor(long intervaloMs) {
+        monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "monitor-replicas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long intervalo = Math.max(intervaloMs, 100);
+        monitor.scheduleWithFixedDelay(this::verificar, 0, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Mide el retraso de cada réplica y vuelve a habilitar las que se recuperaron
+     */
+    void verificar() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                Long retraso = medirRetraso(connection);
+                if (retraso == null) {
+                    marcarNoDisponible(replica, "replicación detenida");
+                    continue;
+                }
+                replica.retrasoMs = retraso;
+                if (!replica.disponible) {
+                    logger.info("Réplica {} disponible nuevamente (retraso {} ms)", replica.nombre, retraso);
+                    replica.disponible = true;
+                }
+            } catch (SQLException e) {
+                marcarNoDisponible(replica, e.getMessage());
+            } catch (RuntimeException e) {
+                logger.error("Error inesperado al verificar la réplica {}: {}", replica.nombre, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Retraso en milisegundos; null si la réplica informa que no está replicando
+     */
+    private Long medirRetraso(Connection connection) throws SQLException {
+        if (consultaRetraso == null) {
+            return connection.isValid(5) ? 0L : null;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(consultaRetraso)) {
+            if (!resultSet.next()) {
+                // Sin estado de replicación (por ejemplo, el servidor no es réplica)
+                return null;
+            }
+            long segundos = resultSet.getLong(columnaRetraso);
+            return resultSet.wasNull() ? null : TimeUnit.SECONDS.toMillis(segundos);
+        }
+    }
+
+    private void marcarNoDisponible(Replica replica, String motivo) {
+        if (replica.disponible) {
+            logger.warn("Réplica {} fuera de turno; las lecturas van a la primaria: {}", replica.nombre, motivo);
+            replica.disponible = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (replicas.isEmpty()) {
+            return "ReplicasLectura{sinReplicas}";
+        }
+        StringBuilder sb = new StringBuilder("ReplicasLectura{");
+        for (Replica replica : replicas) {
+            sb.append(replica.nombre)
+              .append("[").append(replica.disponible ? "disponible" : "fuera")
+              .append(", retrasoMs=").append(replica.retrasoMs)
+              .append(", lecturas=").append(replica.lecturas.sum())
+              .append(", fallos=").append(replica.fallos.sum())
+              .append("], ");
+        }
+        return sb.append("lecturasPrimaria=").append(lecturasPrimaria.sum())
+                 .append(", fijadasPorEscritura=").append(fijadasPorEscritura.sum())
+                 .append(", desviadas=").append(desviadas.sum())
+                 .append('}').toString();
+    }
+}
@@ -0,0 +1,240 @@
+package com.ferreteria.inventario.config;
+
+import com.ferreteria.inventario.util.HistogramaLatencia;
+import com.ferreteria.inventario.util.RegistroMetricas;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Telemetría de los pools de conexiones de HikariCP (primaria y réplicas), publicada en
+ * RegistroMetricas bajo la capa "pool":
+ *
+ * - Indicadores: conexiones activas, inactivas, totales y máximas, e hilos esperando conexión.
+ * - Histogramas: espera para obtener una conexión (los timeouts cuentan como error), tiempo de uso
+ *   de cada conexión y tiempo de creación de conexiones nuevas.
+ * - Retenciones largas: una conexión usada más de retencionLargaMs se atribuye al método de la
+ *   aplicación que la devolvió al pool (el DAO que la abrió con try-with-resources), con su propio
+ *   histograma y un aviso en el log. La pila solo se recorre en ese caso.
+ * - Espera persistente: un hilo de muestreo avisa cuando hay hilos esperando conexión durante más
+ *   de pendientesPersistentesMs seguidos, y otra vez cuando el pool se recupera.
+ */
+public class TelemetriaPool implements MetricsTrackerFactory, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TelemetriaPool.class);
+
+    private static final String PAQUETE_APLICACION = "com.ferreteria.inventario.";
+    private static final String PAQUETE_CONFIG = "com.ferreteria.inventario.config.";
+    // Envoltorios que cierran la conexión por cuenta de otro método; la retención se atribuye a quien los usa
+    private static final Set<String> ENVOLTORIOS = Set.of(
+        "com.ferreteria.inventario.dao.Transacciones",
+        "com.ferreteria.inventario.dao.CursorArticulos");
+    private static final long INTERVALO_AVISO_RETENCION_MS = 1000;
+
+    private final long retencionLargaMs;
+    private final long pendientesPersistentesMs;
+    private final List<Seguimiento> seguimientos = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService monitor;
+
+    public TelemetriaPool(long retencionLargaMs, long muestreoMs, long pendientesPersistentesMs) {
+        this.retencionLargaMs = retencionLargaMs;
+        this.pendientesPersistentesMs = pendientesPersistentesMs;
+        this.monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "monitor-pool");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long intervalo = Math.max(muestreoMs, 100);
+        monitor.scheduleWithFixedDelay(this::muestrear, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    static TelemetriaPool desdePropiedades(Properties properties) {
+        return new TelemetriaPool(
+            Long.parseLong(properties.getProperty("db.pool.telemetria.retencionLargaMs", "1000")),
+            Long.parseLong(properties.getProperty("db.pool.telemetria.muestreoMs", "1000")),
+            Long.parseLong(properties.getProperty("db.pool.telemetria.pendientesPersistentesMs", "5000")));
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Seguimiento seguimiento = new Seguimiento(poolName, poolStats);
+        seguimientos.add(seguimiento);
+        return seguimiento;
+    }
+
+    /**
+     * Revisa los hilos en espera de cada pool; lo ejecuta solo el hilo de muestreo
+     */
+    void muestrear() {
+        long ahora = System.currentTimeMillis();
+        for (Seguimiento seguimiento : seguimientos) {
+            try {
+                seguimiento.muestrear(ahora);
+            } catch (RuntimeException e) {
+                logger.error("Error al muestrear el pool {}: {}", seguimiento.nombre, e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        monitor.shutdownNow();
+    }
+
+    /**
+     * Método de la aplicación que está devolviendo la conexión (Clase.metodo), sin contar este
+     * paquete, los envoltorios ni las lambdas
+     */
+    private static String titularConexion() {
+        return StackWalker.getInstance().walk(marcos -> marcos
+            .filter(marco -> marco.getClassName().startsWith(PAQUETE_APLICACION)
+                          && !marco.getClassName().startsWith(PAQUETE_CONFIG)
+                          && !ENVOLTORIOS.contains(marco.getClassName())
+                          && !marco.getMethodName().startsWith("lambda$"))
+            .findFirst()
+            .map(marco -> {
+                String clase = marco.getClassName();
+                return clase.substring(clase.lastIndexOf('.') + 1) + "." + marco.getMethodName();
+            })
+            .orElse("desconocido"));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("TelemetriaPool{");
+        for (Seguimiento seguimiento : seguimientos) {
+            sb.append(seguimiento).append(", ");
+        }
+        return sb.append("retencionLargaMs=").append(retencionLargaMs).append('}').toString();
+    }
+
+    private final class Seguimiento implements IMetricsTracker {
+        private final String nombre;
+        private final PoolStats stats;
+        private final HistogramaLatencia espera;
+        private final HistogramaLatencia uso;
+        private final HistogramaLatencia creacion;
+        private final LongAdder retencionesLargas = new LongAdder();
+        private final AtomicLong ultimoAvisoRetencion = new AtomicLong();
+
+        // Estado de la espera persistente; solo lo usa el hilo de muestreo
+        private long pendientesDesde;
+        private int maxPendientes;
+        private boolean avisado;
+
+        Seguimiento(String nombre, PoolStats stats) {
+            this.nombre = nombre;
+            this.stats = stats;
+            RegistroMetricas registro = RegistroMetricas.getInstance();
+            this.espera = registro.latencia(RegistroMetricas.CAPA_POOL, nombre + ".espera");
+            this.uso = registro.latencia(RegistroMetricas.CAPA_POOL, nombre + ".uso");
+            this.creacion = registro.latencia(RegistroMetricas.CAPA_POOL, nombre + ".creacion");
+            registro.indicador(RegistroMetricas.CAPA_POOL, nombre + ".activas", stats::getActiveConnections);
+            registro.indicador(RegistroMetricas.CAPA_POOL, nombre + ".inactivas", stats::getIdleConnections);
+            registro.indicador(RegistroMetricas.CAPA_POOL, nombre + ".totales", stats::getTotalConnections);
+            registro.indicador(RegistroMetricas.CAPA_POOL, nombre + ".maximas", stats::getMaxConnections);
+            registro.indicador(RegistroMetricas.CAPA_POOL, nombre + ".pendientes", stats::getPendingThreads);
+            registro.indicador(RegistroMetricas.CAPA_POOL, nombre + ".retencionesLargas", retencionesLargas::sum);
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            creacion.registrarDuracion(TimeUnit.MILLISECONDS.toNanos(connectionCreatedMillis));
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            espera.registrarDuracion(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis);
+            uso.registrarDuracion(nanos);
+            if (elapsedBorrowedMillis >= retencionLargaMs) {
+                registrarRetencionLarga(elapsedBorrowedMillis, nanos);
+            }
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            espera.contarError();
+        }
+
+        @Override
+        public void close() {
+            seguimientos.remove(this);
+            RegistroMetricas registro = RegistroMetricas.getInstance();
+            for (String indicador : new String[] {"activas", "inactivas", "totales", "maximas", "pendientes", "retencionesLargas"}) {
+                registro.quitarIndicador(RegistroMetricas.CAPA_POOL, nombre + "." + indicador);
+            }
+        }
+
+        /**
+         * Se ejecuta en el hilo que cierra la conexión, así que la pila indica quién la retuvo
+         */
+        private void registrarRetencionLarga(long millis, long nanos) {
+            String titular = titularConexion();
+            retencionesLargas.increment();
+            RegistroMetricas.getInstance()
+                .latencia(RegistroMetricas.CAPA_POOL, nombre + ".retencionLarga." + titular)
+                .registrarDuracion(nanos);
+
+            // A lo sumo un aviso por segundo y pool; el histograma cuenta todas
+            long ahora = System.currentTimeMillis();
+            long ultimo = ultimoAvisoRetencion.get();
+            if (ahora - ultimo >= INTERVALO_AVISO_RETENCION_MS && ultimoAvisoRetencion.compareAndSet(ultimo, ahora)) {
+                logger.warn("Pool {}: {} retuvo una conexión {} ms (umbral {} ms)", nombre, titular, millis, retencionLargaMs);
+            }
+        }
+
+        void muestrear(long ahora) {
+            int pendientes = stats.getPendingThreads();
+            if (pendientes == 0) {
+                if (avisado) {
+                    logger.info("Pool {}: sin hilos esperando conexión después de {} ms (máximo {} en espera)",
+                               nombre, ahora - pendientesDesde, maxPendientes);
+                }
+                pendientesDesde = 0;
+                maxPendientes = 0;
+                avisado = false;
+                return;
+            }
+
+            if (pendientesDesde == 0) {
+                pendientesDesde = ahora;
+            }
+            maxPendientes = Math.max(maxPendientes, pendientes);
+            if (!avisado && ahora - pendientesDesde >= pendientesPersistentesMs) {
+                HistogramaLatencia.Instantanea esperaActual = espera.getInstantanea();
+                logger.warn("Pool {}: {} hilos esperan conexión desde hace {} ms (activas {}, inactivas {}, máximo {}); " +
+                           "espera p99 {} ms, timeouts {}",
+                           nombre, pendientes, ahora - pendientesDesde, stats.getActiveConnections(),
+                           stats.getIdleConnections(), stats.getMaxConnections(),
+                           TimeUnit.NANOSECONDS.toMillis(esperaActual.getP99()), esperaActual.getErrores());
+                avisado = true;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return nombre + "[activas=" + stats.getActiveConnections() +
+                   ", inactivas=" + stats.getIdleConnections() +
+                   ", pendientes=" + stats.getPendingThreads() +
+                   ", maximas=" + stats.getMaxConnections() +
+                   ", timeouts=" + espera.getInstantanea().getErrores() +
+                   ", retencionesLargas=" + retencionesLargas.sum() + "]";
+        }
+    }
+}
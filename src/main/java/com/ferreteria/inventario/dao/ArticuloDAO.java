@@ -1,22 +1,44 @@
 package com.ferreteria.inventario.dao;
 
 import com.ferreteria.inventario.model.Articulo;
+import com.ferreteria.inventario.model.CambioStock;
+import com.ferreteria.inventario.model.MovimientoInventario;
+import com.ferreteria.inventario.model.ResultadoActualizacionStock;
+import com.ferreteria.inventario.model.TipoMovimiento;
 import com.ferreteria.inventario.config.DatabaseConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Data Access Object para la entidad Articulo
  * Implementa operaciones CRUD y consultas específicas
+ *
+ * Listados, búsquedas, exportación, reportes y las consultas por ID o código leen de una réplica
+ * si hay (getConnectionLectura); la caché no guarda lo leído de un artículo modificado dentro de la
+ * ventana de las réplicas. Las verificaciones de existencia y versión, la lectura del stock y las
+ * cargas del filtro de códigos y del índice de búsqueda leen de la primaria (getConnection): deciden
+ * escrituras o quedan retenidas en memoria. Solo las escrituras usan getConnectionEscritura, que
+ * fija las lecturas de la sesión a la primaria durante la ventana de lectura propia.
  */
 public class ArticuloDAO {
     private static final Logger logger = LoggerFactory.getLogger(ArticuloDAO.class);
     private final DatabaseConfig databaseConfig;
+    private final MovimientoInventarioDAO movimientoInventarioDAO;
+    private final DiarioMovimientos diario;
 
     // Consultas SQL
     private static final String INSERT_ARTICULO = 
@@ -46,24 +68,128 @@ public class ArticuloDAO {
         "WHERE a.activo = TRUE " +
         "ORDER BY a.nombre";
 
+    // Paginación por clave: el orden (nombre, id) es total, así que la página siguiente empieza
+    // justo después de la última fila devuelta sin recorrer las anteriores (a diferencia de OFFSET)
+    private static final String SELECT_PRIMERA_PAGINA = 
+        "SELECT a.*, c.nombre as categoria_nombre, p.nombre as proveedor_nombre " +
+        "FROM articulos a " +
+        "LEFT JOIN categorias c ON a.categoria_id = c.id " +
+        "LEFT JOIN proveedores p ON a.proveedor_id = p.id " +
+        "WHERE a.activo = TRUE " +
+        "ORDER BY a.nombre, a.id LIMIT ?";
+
+    private static final String SELECT_PAGINA_DESDE = 
+        "SELECT a.*, c.nombre as categoria_nombre, p.nombre as proveedor_nombre " +
+        "FROM articulos a " +
+        "LEFT JOIN categorias c ON a.categoria_id = c.id " +
+        "LEFT JOIN proveedores p ON a.proveedor_id = p.id " +
+        "WHERE a.activo = TRUE AND (a.nombre > ? OR (a.nombre = ? AND a.id > ?)) " +
+        "ORDER BY a.nombre, a.id LIMIT ?";
+
+    private static final String SELECT_CATALOGO_EXPORTACION = 
+        "SELECT a.*, c.nombre as categoria_nombre, p.nombre as proveedor_nombre " +
+        "FROM articulos a " +
+        "LEFT JOIN categorias c ON a.categoria_id = c.id " +
+        "LEFT JOIN proveedores p ON a.proveedor_id = p.id " +
+        "ORDER BY a.id";
+
+    private static final String SELECT_TEXTOS_BUSQUEDA = 
+        "SELECT id, nombre, descripcion FROM articulos WHERE activo = TRUE";
+
+    private static final String SELECT_ARTICULOS_BY_IDS_PREFIX = 
+        "SELECT a.*, c.nombre as categoria_nombre, p.nombre as proveedor_nombre " +
+        "FROM articulos a " +
+        "LEFT JOIN categorias c ON a.categoria_id = c.id " +
+        "LEFT JOIN proveedores p ON a.proveedor_id = p.id " +
+        "WHERE a.activo = TRUE AND a.id IN (";
+
     private static final String SEARCH_ARTICULOS_BY_NOMBRE = 
         "SELECT a.*, c.nombre as categoria_nombre, p.nombre as proveedor_nombre " +
         "FROM articulos a " +
         "LEFT JOIN categorias c ON a.categoria_id = c.id " +
         "LEFT JOIN proveedores p ON a.proveedor_id = p.id " +
-        "WHERE a.activo = TRUE AND a.nombre LIKE ? " +
-        "ORDER BY a.nombre";
+        "WHERE a.activo = TRUE AND (a.nombre LIKE ? OR a.descripcion LIKE ?) " +
+        "ORDER BY CASE WHEN a.nombre LIKE ? THEN 0 WHEN a.nombre LIKE ? THEN 1 WHEN a.nombre LIKE ? THEN 2 ELSE 3 END, " +
+        "CHAR_LENGTH(a.nombre), a.nombre, a.id " +
+        "LIMIT ?";
 
+    // Toda escritura incrementa version; las condicionadas a la versión leída fallan (0 filas)
+    // si otra operación modificó el artículo entretanto
     private static final String UPDATE_ARTICULO = 
         "UPDATE articulos SET nombre = ?, descripcion = ?, categoria_id = ?, proveedor_id = ?, " +
         "precio_compra = ?, precio_venta = ?, stock_actual = ?, stock_minimo = ?, " +
-        "fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+        "version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String UPDATE_ARTICULO_VERSIONADO = 
+        "UPDATE articulos SET nombre = ?, descripcion = ?, categoria_id = ?, proveedor_id = ?, " +
+        "precio_compra = ?, precio_venta = ?, stock_actual = ?, stock_minimo = ?, " +
+        "version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ? AND version = ?";
+
+    // Variantes sin stock_actual: con el motor de stock en memoria el stock se cambia solo a través de él
+    private static final String UPDATE_ARTICULO_SIN_STOCK = 
+        "UPDATE articulos SET nombre = ?, descripcion = ?, categoria_id = ?, proveedor_id = ?, " +
+        "precio_compra = ?, precio_venta = ?, stock_minimo = ?, " +
+        "version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String UPDATE_ARTICULO_SIN_STOCK_VERSIONADO = 
+        "UPDATE articulos SET nombre = ?, descripcion = ?, categoria_id = ?, proveedor_id = ?, " +
+        "precio_compra = ?, precio_venta = ?, stock_minimo = ?, " +
+        "version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ? AND version = ?";
 
     private static final String UPDATE_STOCK = 
-        "UPDATE articulos SET stock_actual = ?, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+        "UPDATE articulos SET stock_actual = ?, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP " +
+        "WHERE id = ?";
+
+    private static final String UPDATE_STOCK_VERSIONADO = 
+        "UPDATE articulos SET stock_actual = ?, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP " +
+        "WHERE id = ? AND version = ?";
+
+    // Suma (o resta) atómicamente y rechaza el cambio si el stock quedaría negativo
+    private static final String UPDATE_STOCK_DELTA = 
+        "UPDATE articulos SET stock_actual = stock_actual + ?, version = version + 1, " +
+        "fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ? AND stock_actual + ? >= 0";
+
+    // Fila del artículo por clave primaria, sin los nombres de categoría y proveedor (sin JOIN)
+    private static final String SELECT_FILA_BY_ID = 
+        "SELECT a.*, NULL AS categoria_nombre, NULL AS proveedor_nombre FROM articulos a WHERE a.id = ?";
+
+    // Volcado del motor de stock en memoria: variaciones netas ya validadas en memoria. No incrementa
+    // version: en ese modo actualizarArticulo no escribe stock_actual y rechaza un stock distinto del vigente
+    private static final String UPDATE_STOCK_VOLCADO = 
+        "UPDATE articulos SET stock_actual = stock_actual + ?, " +
+        "fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String SELECT_STOCKS = 
+        "SELECT id, stock_actual FROM articulos";
+
+    private static final String SELECT_STOCK_BY_ID = 
+        "SELECT stock_actual FROM articulos WHERE id = ?";
+
+    private static final String SELECT_SECUENCIA_VOLCADA = 
+        "SELECT ultima_secuencia FROM motor_stock_control WHERE id = 1";
+
+    private static final String UPDATE_SECUENCIA_VOLCADA = 
+        "UPDATE motor_stock_control SET ultima_secuencia = ? WHERE id = 1";
+
+    private static final String INSERT_SECUENCIA_VOLCADA = 
+        "INSERT INTO motor_stock_control (id, ultima_secuencia) VALUES (1, ?)";
+
+    private static final String SELECT_VERSION_BY_ID = 
+        "SELECT version FROM articulos WHERE id = ?";
+
+    // Prefijo para bloquear varios artículos por código (se completa con la lista de parámetros)
+    private static final String SELECT_STOCK_BY_CODIGOS_FOR_UPDATE_PREFIX = 
+        "SELECT id, codigo, stock_actual, version FROM articulos WHERE codigo IN (";
+
+    private static final String SELECT_CODIGOS_EXISTENTES_PREFIX = 
+        "SELECT codigo FROM articulos WHERE codigo IN (";
+
+    private static final String SELECT_IDS_POR_CODIGOS_PREFIX = 
+        "SELECT codigo, id FROM articulos WHERE codigo IN (";
 
     private static final String DELETE_ARTICULO = 
-        "UPDATE articulos SET activo = FALSE, fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+        "UPDATE articulos SET activo = FALSE, version = version + 1, fecha_actualizacion = CURRENT_TIMESTAMP " +
+        "WHERE id = ?";
 
     private static final String EXISTS_BY_CODIGO = 
         "SELECT COUNT(*) > 0 FROM articulos WHERE codigo = ? AND (? IS NULL OR id != ?)";
@@ -71,6 +197,9 @@ public class ArticuloDAO {
     private static final String EXISTS_BY_ID = 
         "SELECT COUNT(*) > 0 FROM articulos WHERE id = ?";
 
+    private static final String SELECT_ALL_CODIGOS = 
+        "SELECT codigo FROM articulos";
+
     private static final String SELECT_ARTICULOS_STOCK_BAJO = 
         "SELECT a.*, c.nombre as categoria_nombre, p.nombre as proveedor_nombre " +
         "FROM articulos a " +
@@ -81,6 +210,8 @@ public class ArticuloDAO {
 
     public ArticuloDAO() {
         this.databaseConfig = DatabaseConfig.getInstance();
+        this.movimientoInventarioDAO = new MovimientoInventarioDAO();
+        this.diario = DiarioMovimientos.getInstance();
     }
 
     /**
@@ -89,25 +220,10 @@ public class ArticuloDAO {
     public Articulo insertar(Articulo articulo) throws SQLException {
         logger.info("Insertando nuevo artículo con código: {}", articulo.getCodigo());
         
-        try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(INSERT_ARTICULO, Statement.RETURN_GENERATED_KEYS)) {
-            
-            statement.setString(1, articulo.getCodigo());
-            statement.setString(2, articulo.getNombre());
-            // Asegurar que la descripción nunca sea null para evitar "No value specified for parameter 3"
-            String descripcion = articulo.getDescripcion();
-            if (descripcion == null) {
-                logger.warn("Descripción es null, estableciendo cadena vacía");
-                descripcion = "";
-            }
-            statement.setString(3, descripcion);
-            statement.setObject(4, articulo.getCategoriaId());
-            statement.setObject(5, articulo.getProveedorId());
-            statement.setBigDecimal(6, articulo.getPrecioCompra());
-            statement.setBigDecimal(7, articulo.getPrecioVenta());
-            statement.setInt(8, articulo.getStockActual());
-            statement.setInt(9, articulo.getStockMinimo());
-            statement.setBoolean(10, articulo.getActivo());
+        try (Connection connection = databaseConfig.getConnectionEscritura();
+             PreparedStatement statement = Sentencias.preparar(connection, INSERT_ARTICULO, Statement.RETURN_GENERATED_KEYS)) {
+            
+            asignarParametrosInsercion(statement, articulo);
 
             int affectedRows = statement.executeUpdate();
             if (affectedRows == 0) {
@@ -129,15 +245,178 @@ public class ArticuloDAO {
         }
     }
 
+    /**
+     * Inserta varios artículos con un INSERT por lotes en una sola transacción
+     * Asigna a cada artículo el ID generado sin volver a leer las filas.
+     * Si el lote falla (por ejemplo, un código insertado en paralelo o una categoría inexistente)
+     * se revierte y se reintenta fila por fila para identificar los elementos con error.
+     * @return errores por posición en la lista; vacío si se insertaron todos
+     */
+    public Map<Integer, SQLException> insertarLote(List<Articulo> articulos) throws SQLException {
+        logger.info("Insertando lote de {} artículos", articulos.size());
+        
+        if (articulos.isEmpty()) {
+            return new HashMap<>();
+        }
+        
+        try {
+            Transacciones.ejecutar(databaseConfig, connection -> {
+                try (PreparedStatement statement = Sentencias.preparar(connection, INSERT_ARTICULO, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Articulo articulo : articulos) {
+                        asignarParametrosInsercion(statement, articulo);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        for (Articulo articulo : articulos) {
+                            if (!generatedKeys.next()) {
+                                throw new SQLException("Error al insertar el lote, no se obtuvieron todos los ID");
+                            }
+                            articulo.setId(generatedKeys.getInt(1));
+                        }
+                    }
+                }
+                return null;
+            });
+            logger.info("Lote de {} artículos insertado correctamente", articulos.size());
+            return new HashMap<>();
+        } catch (BatchUpdateException e) {
+            logger.warn("Falló el lote de inserción ({}); reintentando fila por fila", e.getMessage());
+            for (Articulo articulo : articulos) {
+                articulo.setId(null);
+            }
+            return insertarFilaPorFila(articulos);
+        } catch (SQLException e) {
+            logger.error("Error al insertar lote de artículos: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private Map<Integer, SQLException> insertarFilaPorFila(List<Articulo> articulos) throws SQLException {
+        Map<Integer, SQLException> errores = new HashMap<>();
+        
+        try (Connection connection = databaseConfig.getConnectionEscritura();
+             PreparedStatement statement = Sentencias.preparar(connection, INSERT_ARTICULO, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < articulos.size(); i++) {
+                Articulo articulo = articulos.get(i);
+                try {
+                    asignarParametrosInsercion(statement, articulo);
+                    statement.executeUpdate();
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            articulo.setId(generatedKeys.getInt(1));
+                        }
+                    }
+                } catch (SQLException e) {
+                    logger.warn("No se pudo insertar el artículo {}: {}", articulo.getCodigo(), e.getMessage());
+                    errores.put(i, e);
+                }
+            }
+        }
+        return errores;
+    }
+
+    /**
+     * Devuelve los códigos (en mayúsculas) que ya existen entre los indicados, con una sola consulta
+     */
+    public Set<String> buscarCodigosExistentes(Collection<String> codigos) throws SQLException {
+        Set<String> existentes = new HashSet<>();
+        if (codigos.isEmpty()) {
+            return existentes;
+        }
+        
+        String sql = SELECT_CODIGOS_EXISTENTES_PREFIX + String.join(", ", Collections.nCopies(codigos.size(), "?")) + ")";
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = Sentencias.preparar(connection, sql)) {
+            int indice = 1;
+            for (String codigo : codigos) {
+                statement.setString(indice++, codigo);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    existentes.add(resultSet.getString(1).toUpperCase());
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al verificar códigos existentes: {}", e.getMessage(), e);
+            throw e;
+        }
+        return existentes;
+    }
+
+    /**
+     * Devuelve el ID de cada código (en mayúsculas) que existe entre los indicados, con una sola
+     * consulta por el índice único del código. Lee de la primaria.
+     */
+    public Map<String, Integer> buscarIdsPorCodigos(Collection<String> codigos) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        if (codigos.isEmpty()) {
+            return ids;
+        }
+        
+        String sql = SELECT_IDS_POR_CODIGOS_PREFIX + String.join(", ", Collections.nCopies(codigos.size(), "?")) + ")";
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = Sentencias.preparar(connection, sql)) {
+            int indice = 1;
+            for (String codigo : codigos) {
+                statement.setString(indice++, codigo);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.put(resultSet.getString(1).toUpperCase(), resultSet.getInt(2));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al buscar IDs por código: {}", e.getMessage(), e);
+            throw e;
+        }
+        return ids;
+    }
+
     /**
      * Busca un artículo por su ID
+     * Lee de una réplica si hay; un artículo que la réplica todavía no tiene se busca en la primaria.
      */
     public Optional<Articulo> buscarPorId(Integer id) throws SQLException {
         logger.debug("Buscando artículo por ID: {}", id);
         
-        try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SELECT_ARTICULO_BY_ID)) {
-            
+        try {
+            Optional<Articulo> articulo;
+            try (Connection connection = databaseConfig.getConnectionLectura()) {
+                articulo = buscarPorId(connection, id);
+            }
+            if (!articulo.isPresent() && databaseConfig.getVentanaReplicasMs() > 0) {
+                try (Connection connection = databaseConfig.getConnection()) {
+                    articulo = buscarPorId(connection, id);
+                }
+            }
+            return articulo;
+        } catch (SQLException e) {
+            logger.error("Error al buscar artículo por ID: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Busca un artículo por su ID en la primaria, para decidir una escritura sobre el último dato confirmado
+     */
+    public Optional<Articulo> buscarPorIdEnPrimaria(Integer id) throws SQLException {
+        logger.debug("Buscando artículo por ID en la primaria: {}", id);
+        
+        try (Connection connection = databaseConfig.getConnection()) {
+            return buscarPorId(connection, id);
+        } catch (SQLException e) {
+            logger.error("Error al buscar artículo por ID: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Busca un artículo por su ID usando una conexión existente
+     */
+    private Optional<Articulo> buscarPorId(Connection connection, Integer id) throws SQLException {
+        try (PreparedStatement statement = Sentencias.preparar(connection, SELECT_ARTICULO_BY_ID)) {
             statement.setInt(1, id);
             
             try (ResultSet resultSet = statement.executeQuery()) {
@@ -147,9 +426,6 @@ public class ArticuloDAO {
                     return Optional.of(articulo);
                 }
             }
-        } catch (SQLException e) {
-            logger.error("Error al buscar artículo por ID: {}", e.getMessage(), e);
-            throw e;
         }
         
         logger.debug("No se encontró artículo con ID: {}", id);
@@ -158,13 +434,30 @@ public class ArticuloDAO {
 
     /**
      * Busca un artículo por su código
+     * Lee de una réplica si hay; un artículo que la réplica todavía no tiene se busca en la primaria.
      */
     public Optional<Articulo> buscarPorCodigo(String codigo) throws SQLException {
         logger.debug("Buscando artículo por código: {}", codigo);
         
-        try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SELECT_ARTICULO_BY_CODIGO)) {
-            
+        try {
+            Optional<Articulo> articulo;
+            try (Connection connection = databaseConfig.getConnectionLectura()) {
+                articulo = buscarPorCodigo(connection, codigo);
+            }
+            if (!articulo.isPresent() && databaseConfig.getVentanaReplicasMs() > 0) {
+                try (Connection connection = databaseConfig.getConnection()) {
+                    articulo = buscarPorCodigo(connection, codigo);
+                }
+            }
+            return articulo;
+        } catch (SQLException e) {
+            logger.error("Error al buscar artículo por código: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private Optional<Articulo> buscarPorCodigo(Connection connection, String codigo) throws SQLException {
+        try (PreparedStatement statement = Sentencias.preparar(connection, SELECT_ARTICULO_BY_CODIGO)) {
             statement.setString(1, codigo);
             
             try (ResultSet resultSet = statement.executeQuery()) {
@@ -174,9 +467,6 @@ public class ArticuloDAO {
                     return Optional.of(articulo);
                 }
             }
-        } catch (SQLException e) {
-            logger.error("Error al buscar artículo por código: {}", e.getMessage(), e);
-            throw e;
         }
         
         logger.debug("No se encontró artículo con código: {}", codigo);
@@ -190,8 +480,8 @@ public class ArticuloDAO {
         logger.debug("Obteniendo todos los artículos activos");
         List<Articulo> articulos = new ArrayList<>();
         
-        try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SELECT_ALL_ARTICULOS);
+        try (Connection connection = databaseConfig.getConnectionLectura();
+             PreparedStatement statement = Sentencias.preparar(connection, SELECT_ALL_ARTICULOS);
              ResultSet resultSet = statement.executeQuery()) {
             
             while (resultSet.next()) {
@@ -208,16 +498,156 @@ public class ArticuloDAO {
     }
 
     /**
-     * Busca artículos por nombre (búsqueda parcial)
+     * Obtiene una página de artículos activos ordenados por (nombre, id)
+     * @param nombreDesde nombre del último artículo de la página anterior; null para la primera página
+     * @param idDesde ID del último artículo de la página anterior
+     * @param limite número máximo de filas a devolver
      */
-    public List<Articulo> buscarPorNombre(String nombre) throws SQLException {
-        logger.debug("Buscando artículos por nombre: {}", nombre);
+    public List<Articulo> obtenerPagina(String nombreDesde, Integer idDesde, int limite) throws SQLException {
+        logger.debug("Obteniendo página de artículos desde ({}, {}), límite {}", nombreDesde, idDesde, limite);
+        List<Articulo> articulos = new ArrayList<>(limite);
+        boolean primera = nombreDesde == null || idDesde == null;
+        
+        try (Connection connection = databaseConfig.getConnectionLectura();
+             PreparedStatement statement = Sentencias.preparar(connection, primera ? SELECT_PRIMERA_PAGINA : SELECT_PAGINA_DESDE)) {
+            
+            if (primera) {
+                statement.setInt(1, limite);
+            } else {
+                statement.setString(1, nombreDesde);
+                statement.setString(2, nombreDesde);
+                statement.setInt(3, idDesde);
+                statement.setInt(4, limite);
+            }
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    articulos.add(mapearResultSet(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener página de artículos: {}", e.getMessage(), e);
+            throw e;
+        }
+        
+        return articulos;
+    }
+
+    /**
+     * Abre un cursor de solo avance sobre todo el catálogo (activos e inactivos) ordenado por ID
+     * Las filas se leen del servidor por bloques de tamanoFetch; con MySQL se usa el modo
+     * streaming del driver (fetch size Integer.MIN_VALUE), que entrega fila a fila.
+     * El llamador debe cerrar el cursor; mientras esté abierto retiene una conexión del pool.
+     */
+    public CursorArticulos abrirCursorCatalogo(int tamanoFetch) throws SQLException {
+        logger.info("Abriendo cursor de exportación del catálogo");
+        Connection connection = databaseConfig.getConnectionLectura();
+        PreparedStatement statement = null;
+        try {
+            statement = Sentencias.preparar(connection, SELECT_CATALOGO_EXPORTACION, 
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : tamanoFetch);
+            ResultSet resultSet = statement.executeQuery();
+            return new CursorArticulos(connection, statement, resultSet, this::mapearResultSet);
+        } catch (SQLException e) {
+            logger.error("Error al abrir el cursor de exportación: {}", e.getMessage(), e);
+            if (statement != null) {
+                try {
+                    statement.close();
+                } catch (SQLException cierre) {
+                    e.addSuppressed(cierre);
+                }
+            }
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene ID, nombre y descripción de los artículos activos (para el índice de búsqueda)
+     */
+    public List<Articulo> listarTextosBusqueda() throws SQLException {
+        logger.debug("Obteniendo textos de búsqueda de artículos activos");
         List<Articulo> articulos = new ArrayList<>();
         
         try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SEARCH_ARTICULOS_BY_NOMBRE)) {
+             PreparedStatement statement = Sentencias.preparar(connection, SELECT_TEXTOS_BUSQUEDA);
+             ResultSet resultSet = statement.executeQuery()) {
+            
+            while (resultSet.next()) {
+                Articulo articulo = new Articulo();
+                articulo.setId(resultSet.getInt("id"));
+                articulo.setNombre(resultSet.getString("nombre"));
+                articulo.setDescripcion(resultSet.getString("descripcion"));
+                articulos.add(articulo);
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener textos de búsqueda: {}", e.getMessage(), e);
+            throw e;
+        }
+        
+        return articulos;
+    }
+
+    /**
+     * Obtiene artículos activos por ID, en el mismo orden que la lista recibida
+     */
+    public List<Articulo> buscarPorIds(List<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<Integer, Articulo> porId = new HashMap<>();
+        String sql = SELECT_ARTICULOS_BY_IDS_PREFIX + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        try (Connection connection = databaseConfig.getConnectionLectura();
+             PreparedStatement statement = Sentencias.preparar(connection, sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                statement.setInt(i + 1, ids.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Articulo articulo = mapearResultSet(resultSet);
+                    porId.put(articulo.getId(), articulo);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al buscar artículos por ID: {}", e.getMessage(), e);
+            throw e;
+        }
+        
+        List<Articulo> articulos = new ArrayList<>(porId.size());
+        for (Integer id : ids) {
+            Articulo articulo = porId.get(id);
+            if (articulo != null) {
+                articulos.add(articulo);
+            }
+        }
+        return articulos;
+    }
+
+    /**
+     * Busca artículos por subcadena en nombre y descripción (búsqueda parcial)
+     * Mismo criterio y orden que IndiceTrigramas.buscar, para que el resultado no dependa de si el
+     * índice está disponible: inicio del nombre, inicio de una palabra del nombre, resto del nombre
+     * y solo descripción; a igual relevancia, nombres más cortos primero.
+     */
+    public List<Articulo> buscarPorNombre(String nombre, int limite) throws SQLException {
+        logger.debug("Buscando artículos por nombre: {}", nombre);
+        List<Articulo> articulos = new ArrayList<>();
+        
+        try (Connection connection = databaseConfig.getConnectionLectura();
+             PreparedStatement statement = Sentencias.preparar(connection, SEARCH_ARTICULOS_BY_NOMBRE)) {
             
-            statement.setString(1, "%" + nombre + "%");
+            // El índice compara el texto literal: se escapan los comodines de LIKE
+            String texto = nombre.trim().replaceAll("\\s+", " ")
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            statement.setString(1, "%" + texto + "%");
+            statement.setString(2, "%" + texto + "%");
+            statement.setString(3, texto + "%");
+            statement.setString(4, "% " + texto + "%");
+            statement.setString(5, "%" + texto + "%");
+            statement.setInt(6, limite);
             
             try (ResultSet resultSet = statement.executeQuery()) {
                 while (resultSet.next()) {
@@ -236,27 +666,51 @@ public class ArticuloDAO {
 
     /**
      * Actualiza un artículo existente
+     * Si el artículo trae versión, la actualización solo se aplica si la fila sigue en esa versión;
+     * sin versión se sobrescribe incondicionalmente (clientes que no la envían).
+     * @return false si el artículo no existe o su versión ya no es la esperada
      */
     public boolean actualizar(Articulo articulo) throws SQLException {
-        logger.info("Actualizando artículo ID: {}", articulo.getId());
+        return actualizar(articulo, true);
+    }
+
+    /**
+     * Actualiza un artículo existente, opcionalmente sin tocar stock_actual
+     * @param incluirStock false cuando el stock lo administra el motor de stock en memoria
+     */
+    public boolean actualizar(Articulo articulo, boolean incluirStock) throws SQLException {
+        logger.info("Actualizando artículo ID: {} (versión esperada: {})", articulo.getId(), articulo.getVersion());
         
-        try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(UPDATE_ARTICULO)) {
-            
-            statement.setString(1, articulo.getNombre());
-            statement.setString(2, articulo.getDescripcion());
-            statement.setObject(3, articulo.getCategoriaId());
-            statement.setObject(4, articulo.getProveedorId());
-            statement.setBigDecimal(5, articulo.getPrecioCompra());
-            statement.setBigDecimal(6, articulo.getPrecioVenta());
-            statement.setInt(7, articulo.getStockActual());
-            statement.setInt(8, articulo.getStockMinimo());
-            statement.setInt(9, articulo.getId());
+        boolean versionado = articulo.getVersion() != null;
+        String sql = incluirStock
+            ? (versionado ? UPDATE_ARTICULO_VERSIONADO : UPDATE_ARTICULO)
+            : (versionado ? UPDATE_ARTICULO_SIN_STOCK_VERSIONADO : UPDATE_ARTICULO_SIN_STOCK);
+        try (Connection connection = databaseConfig.getConnectionEscritura();
+             PreparedStatement statement = Sentencias.preparar(connection, sql)) {
+            
+            int indice = 1;
+            statement.setString(indice++, articulo.getNombre());
+            statement.setString(indice++, articulo.getDescripcion());
+            statement.setObject(indice++, articulo.getCategoriaId());
+            statement.setObject(indice++, articulo.getProveedorId());
+            statement.setBigDecimal(indice++, articulo.getPrecioCompra());
+            statement.setBigDecimal(indice++, articulo.getPrecioVenta());
+            if (incluirStock) {
+                statement.setInt(indice++, articulo.getStockActual());
+            }
+            statement.setInt(indice++, articulo.getStockMinimo());
+            statement.setInt(indice++, articulo.getId());
+            if (versionado) {
+                statement.setInt(indice, articulo.getVersion());
+            }
 
             int affectedRows = statement.executeUpdate();
             boolean actualizado = affectedRows > 0;
             
             if (actualizado) {
+                if (versionado) {
+                    articulo.setVersion(articulo.getVersion() + 1);
+                }
                 logger.info("Artículo actualizado correctamente");
             } else {
                 logger.warn("No se pudo actualizar el artículo con ID: {}", articulo.getId());
@@ -269,14 +723,32 @@ public class ArticuloDAO {
         }
     }
 
+    /**
+     * Obtiene la versión actual de un artículo (para distinguir un conflicto de un artículo inexistente)
+     */
+    public Optional<Integer> obtenerVersion(Integer id) throws SQLException {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = Sentencias.preparar(connection, SELECT_VERSION_BY_ID)) {
+            
+            statement.setInt(1, id);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.of(resultSet.getInt(1)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener versión del artículo: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
     /**
      * Actualiza solo el stock de un artículo
      */
     public boolean actualizarStock(Integer id, Integer nuevoStock) throws SQLException {
         logger.info("Actualizando stock del artículo ID: {} a {}", id, nuevoStock);
         
-        try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(UPDATE_STOCK)) {
+        try (Connection connection = databaseConfig.getConnectionEscritura();
+             PreparedStatement statement = Sentencias.preparar(connection, UPDATE_STOCK)) {
             
             statement.setInt(1, nuevoStock);
             statement.setInt(2, id);
@@ -297,14 +769,373 @@ public class ArticuloDAO {
         }
     }
 
+    /**
+     * Aplica una variación de stock y registra su movimiento en una sola transacción
+     * El UPDATE condicional evita actualizaciones perdidas y stock negativo sin leer antes la fila;
+     * la lectura posterior por clave primaria, dentro de la misma transacción, devuelve la fila ya
+     * actualizada sin los JOIN de categoría y proveedor (categoriaNombre y proveedorNombre quedan en null).
+     * @param movimiento movimiento a registrar (se completan artículo y stocks); null para no registrarlo
+     * @return vacío si el artículo no existe; resultado no aplicado si el stock quedaría negativo
+     */
+    public Optional<ResultadoActualizacionStock> aplicarDeltaStock(Integer id, int delta, MovimientoInventario movimiento)
+            throws SQLException {
+        logger.info("Aplicando variación de stock al artículo ID: {} ({})", id, delta);
+        
+        List<MovimientoInventario> diferidos = new ArrayList<>(1);
+        try {
+            Optional<ResultadoActualizacionStock> resultado = Transacciones.ejecutar(databaseConfig, connection -> {
+                int affectedRows;
+                try (PreparedStatement statement = Sentencias.preparar(connection, UPDATE_STOCK_DELTA)) {
+                    statement.setInt(1, delta);
+                    statement.setInt(2, id);
+                    statement.setInt(3, delta);
+                    affectedRows = statement.executeUpdate();
+                }
+                
+                Optional<Articulo> articuloOpt = buscarFilaPorId(connection, id);
+                if (!articuloOpt.isPresent()) {
+                    return Optional.<ResultadoActualizacionStock>empty();
+                }
+                
+                Articulo articulo = articuloOpt.get();
+                if (affectedRows == 0) {
+                    logger.warn("Variación de stock rechazada para artículo ID: {}. Stock actual: {}, variación: {}", 
+                               id, articulo.getStockActual(), delta);
+                    return Optional.of(ResultadoActualizacionStock.rechazado(articulo, articulo.getStockActual()));
+                }
+                
+                int stockNuevo = articulo.getStockActual();
+                int stockAnterior = stockNuevo - delta;
+                
+                if (movimiento != null) {
+                    movimiento.setArticuloId(id);
+                    movimiento.setStockAnterior(stockAnterior);
+                    movimiento.setStockNuevo(stockNuevo);
+                    registrarMovimiento(connection, movimiento, diferidos);
+                }
+                
+                logger.info("Stock del artículo ID: {} actualizado de {} a {}", id, stockAnterior, stockNuevo);
+                return Optional.of(new ResultadoActualizacionStock(true, articulo, stockAnterior, stockNuevo));
+            });
+            diario.registrar(diferidos);
+            return resultado;
+        } catch (SQLException e) {
+            logger.error("Error al aplicar variación de stock: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private Optional<Articulo> buscarFilaPorId(Connection connection, Integer id) throws SQLException {
+        try (PreparedStatement statement = Sentencias.preparar(connection, SELECT_FILA_BY_ID)) {
+            statement.setInt(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.of(mapearResultSet(resultSet)) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Fija el stock de un artículo identificado por código en una sola transacción
+     * Lee la fila sin bloquearla y la actualiza condicionada a la versión leída; si la versión
+     * cambió no modifica nada y devuelve un resultado en conflicto para que se reintente.
+     * Registra el movimiento de ajuste si el stock cambió; el artículo devuelto ya refleja el nuevo stock.
+     * @param movimiento movimiento a registrar (se completan artículo, cantidad y stocks); null para no registrarlo
+     * @return vacío si no existe un artículo con ese código
+     */
+    public Optional<ResultadoActualizacionStock> establecerStockPorCodigo(String codigo, int nuevoStock, 
+                                                                          MovimientoInventario movimiento) throws SQLException {
+        logger.info("Fijando stock del artículo con código: {} en {}", codigo, nuevoStock);
+        
+        List<MovimientoInventario> diferidos = new ArrayList<>(1);
+        try {
+            Optional<ResultadoActualizacionStock> resultado = Transacciones.ejecutar(databaseConfig, connection -> {
+                Articulo articulo;
+                try (PreparedStatement statement = Sentencias.preparar(connection, SELECT_ARTICULO_BY_CODIGO)) {
+                    statement.setString(1, codigo);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        if (!resultSet.next()) {
+                            return Optional.<ResultadoActualizacionStock>empty();
+                        }
+                        articulo = mapearResultSet(resultSet);
+                    }
+                }
+                
+                int stockAnterior = articulo.getStockActual();
+                try (PreparedStatement statement = Sentencias.preparar(connection, UPDATE_STOCK_VERSIONADO)) {
+                    statement.setInt(1, nuevoStock);
+                    statement.setInt(2, articulo.getId());
+                    statement.setInt(3, articulo.getVersion());
+                    if (statement.executeUpdate() == 0) {
+                        logger.debug("Conflicto de versión al fijar stock del artículo {} (versión {})", 
+                                    codigo, articulo.getVersion());
+                        return Optional.of(ResultadoActualizacionStock.conflicto(articulo));
+                    }
+                }
+                articulo.setStockActual(nuevoStock);
+                articulo.setVersion(articulo.getVersion() + 1);
+                articulo.setFechaActualizacion(LocalDateTime.now());
+                
+                if (movimiento != null && stockAnterior != nuevoStock) {
+                    movimiento.setArticuloId(articulo.getId());
+                    movimiento.setCantidad(Math.abs(nuevoStock - stockAnterior));
+                    movimiento.setStockAnterior(stockAnterior);
+                    movimiento.setStockNuevo(nuevoStock);
+                    registrarMovimiento(connection, movimiento, diferidos);
+                }
+                
+                logger.info("Stock del artículo {} fijado de {} a {}", codigo, stockAnterior, nuevoStock);
+                return Optional.of(new ResultadoActualizacionStock(true, articulo, stockAnterior, nuevoStock));
+            });
+            diario.registrar(diferidos);
+            return resultado;
+        } catch (SQLException e) {
+            logger.error("Error al fijar stock por código: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Aplica un bloque de cambios de stock en una sola transacción
+     * Bloquea todas las filas con una consulta IN, calcula los nuevos valores en orden
+     * (un mismo código puede aparecer varias veces) y envía actualizaciones y movimientos
+     * como lotes JDBC. Si falla cualquier sentencia se revierte el bloque completo.
+     * @return un resultado por cambio, en el mismo orden que la entrada
+     */
+    public List<ResultadoActualizacionStock> aplicarCambiosStock(List<CambioStock> cambios, String motivo, String usuario)
+            throws SQLException {
+        logger.info("Aplicando lote de {} cambios de stock", cambios.size());
+        
+        if (cambios.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Set<String> codigos = new LinkedHashSet<>();
+        for (CambioStock cambio : cambios) {
+            codigos.add(cambio.getCodigo());
+        }
+        
+        List<MovimientoInventario> diferidos = new ArrayList<>();
+        try {
+            List<ResultadoActualizacionStock> aplicados = Transacciones.ejecutar(databaseConfig, connection -> {
+                Map<String, Articulo> bloqueados = new HashMap<>();
+                String sql = SELECT_STOCK_BY_CODIGOS_FOR_UPDATE_PREFIX + 
+                    String.join(", ", Collections.nCopies(codigos.size(), "?")) + ") FOR UPDATE";
+                try (PreparedStatement statement = Sentencias.preparar(connection, sql)) {
+                    int indice = 1;
+                    for (String codigo : codigos) {
+                        statement.setString(indice++, codigo);
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            Articulo articulo = new Articulo();
+                            articulo.setId(resultSet.getInt("id"));
+                            articulo.setCodigo(resultSet.getString("codigo"));
+                            articulo.setStockActual(resultSet.getInt("stock_actual"));
+                            articulo.setVersion(resultSet.getInt("version"));
+                            bloqueados.put(articulo.getCodigo().toUpperCase(), articulo);
+                        }
+                    }
+                }
+                
+                List<ResultadoActualizacionStock> resultados = new ArrayList<>(cambios.size());
+                List<MovimientoInventario> movimientos = new ArrayList<>();
+                try (PreparedStatement statement = Sentencias.preparar(connection, UPDATE_STOCK)) {
+                    for (CambioStock cambio : cambios) {
+                        Articulo articulo = bloqueados.get(cambio.getCodigo().toUpperCase());
+                        if (articulo == null) {
+                            resultados.add(ResultadoActualizacionStock.noEncontrado());
+                            continue;
+                        }
+                        
+                        int stockAnterior = articulo.getStockActual();
+                        int stockNuevo = cambio.aplicarA(stockAnterior);
+                        if (stockNuevo < 0) {
+                            resultados.add(ResultadoActualizacionStock.rechazado(new Articulo(articulo), stockAnterior));
+                            continue;
+                        }
+                        
+                        articulo.setStockActual(stockNuevo);
+                        if (stockNuevo != stockAnterior) {
+                            articulo.setVersion(articulo.getVersion() + 1);
+                        }
+                        resultados.add(new ResultadoActualizacionStock(true, new Articulo(articulo), stockAnterior, stockNuevo));
+                        if (stockNuevo == stockAnterior) {
+                            continue;
+                        }
+                        
+                        statement.setInt(1, stockNuevo);
+                        statement.setInt(2, articulo.getId());
+                        statement.addBatch();
+                        
+                        MovimientoInventario movimiento = new MovimientoInventario();
+                        movimiento.setArticuloId(articulo.getId());
+                        movimiento.setTipoMovimiento(cambio.isDelta() 
+                            ? (stockNuevo > stockAnterior ? TipoMovimiento.ENTRADA : TipoMovimiento.SALIDA) 
+                            : TipoMovimiento.AJUSTE);
+                        movimiento.setCantidad(Math.abs(stockNuevo - stockAnterior));
+                        movimiento.setStockAnterior(stockAnterior);
+                        movimiento.setStockNuevo(stockNuevo);
+                        movimiento.setMotivo(motivo);
+                        movimiento.setUsuario(usuario);
+                        movimientos.add(movimiento);
+                    }
+                    if (!movimientos.isEmpty()) {
+                        statement.executeBatch();
+                    }
+                }
+                if (diario.isHabilitado()) {
+                    diferidos.addAll(movimientos);
+                } else {
+                    movimientoInventarioDAO.registrarMovimientos(connection, movimientos);
+                }
+                
+                logger.info("Lote de stock aplicado: {} cambios, {} filas modificadas", cambios.size(), movimientos.size());
+                return resultados;
+            });
+            diario.registrar(diferidos);
+            return aplicados;
+        } catch (SQLException e) {
+            logger.error("Error al aplicar lote de cambios de stock: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Lee el stock de todos los artículos (carga inicial del motor de stock en memoria)
+     * @return ID y stock por artículo, en pares consecutivos
+     */
+    public int[] obtenerStocks() throws SQLException {
+        logger.debug("Obteniendo el stock de todos los artículos");
+        int[] stocks = new int[256];
+        int cantidad = 0;
+        
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = Sentencias.preparar(connection, SELECT_STOCKS);
+             ResultSet resultSet = statement.executeQuery()) {
+            
+            while (resultSet.next()) {
+                if (cantidad + 2 > stocks.length) {
+                    stocks = Arrays.copyOf(stocks, stocks.length * 2);
+                }
+                stocks[cantidad++] = resultSet.getInt(1);
+                stocks[cantidad++] = resultSet.getInt(2);
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener el stock de los artículos: {}", e.getMessage(), e);
+            throw e;
+        }
+        
+        return Arrays.copyOf(stocks, cantidad);
+    }
+
+    /**
+     * Lee el stock de un artículo en la primaria
+     */
+    public Optional<Integer> obtenerStock(Integer id) throws SQLException {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = Sentencias.preparar(connection, SELECT_STOCK_BY_ID)) {
+            
+            statement.setInt(1, id);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.of(resultSet.getInt(1)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener stock del artículo: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Última secuencia del diario del motor de stock ya volcada a la base de datos (0 si nunca se volcó)
+     */
+    public long obtenerSecuenciaVolcada() throws SQLException {
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = Sentencias.preparar(connection, SELECT_SECUENCIA_VOLCADA);
+             ResultSet resultSet = statement.executeQuery()) {
+            
+            return resultSet.next() ? resultSet.getLong(1) : 0L;
+        } catch (SQLException e) {
+            logger.error("Error al obtener la secuencia volcada del motor de stock: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Vuelca un lote del motor de stock en memoria en una sola transacción
+     * Suma la variación neta de cada artículo (en orden de ID, para no interbloquearse con otras
+     * transacciones por lotes), inserta los movimientos y registra la secuencia del diario hasta la
+     * que llega el lote. Como todo se confirma junto, al recuperarse tras una caída solo se vuelven a
+     * aplicar las entradas del diario posteriores a esa secuencia.
+     * @param variaciones variación neta por ID de artículo
+     */
+    public void volcarStock(Map<Integer, Integer> variaciones, List<MovimientoInventario> movimientos, long secuencia)
+            throws SQLException {
+        logger.debug("Volcando stock en memoria: {} artículos, {} movimientos, secuencia {}", 
+                    variaciones.size(), movimientos.size(), secuencia);
+        
+        try {
+            Transacciones.ejecutar(databaseConfig, connection -> {
+                List<Integer> ids = new ArrayList<>(variaciones.keySet());
+                Collections.sort(ids);
+                boolean hayVariaciones = false;
+                try (PreparedStatement statement = Sentencias.preparar(connection, UPDATE_STOCK_VOLCADO)) {
+                    for (Integer id : ids) {
+                        int variacion = variaciones.get(id);
+                        if (variacion == 0) {
+                            continue;
+                        }
+                        statement.setInt(1, variacion);
+                        statement.setInt(2, id);
+                        statement.addBatch();
+                        hayVariaciones = true;
+                    }
+                    if (hayVariaciones) {
+                        statement.executeBatch();
+                    }
+                }
+                
+                movimientoInventarioDAO.registrarMovimientos(connection, movimientos);
+                
+                try (PreparedStatement statement = Sentencias.preparar(connection, UPDATE_SECUENCIA_VOLCADA)) {
+                    statement.setLong(1, secuencia);
+                    if (statement.executeUpdate() > 0) {
+                        return null;
+                    }
+                }
+                try (PreparedStatement statement = Sentencias.preparar(connection, INSERT_SECUENCIA_VOLCADA)) {
+                    statement.setLong(1, secuencia);
+                    statement.executeUpdate();
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            logger.error("Error al volcar el stock en memoria: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Inserta el movimiento en la transacción en curso o, con el diario de movimientos habilitado,
+     * lo deja en 'diferidos' para encolarlo después del commit (si la transacción se revierte no se encola)
+     */
+    private void registrarMovimiento(Connection connection, MovimientoInventario movimiento,
+                                     List<MovimientoInventario> diferidos) throws SQLException {
+        if (diario.isHabilitado()) {
+            diferidos.add(movimiento);
+        } else {
+            movimientoInventarioDAO.registrarMovimiento(connection, movimiento);
+        }
+    }
+
     /**
      * Elimina (desactiva) un artículo
      */
     public boolean eliminar(Integer id) throws SQLException {
         logger.info("Eliminando (desactivando) artículo ID: {}", id);
         
-        try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(DELETE_ARTICULO)) {
+        try (Connection connection = databaseConfig.getConnectionEscritura();
+             PreparedStatement statement = Sentencias.preparar(connection, DELETE_ARTICULO)) {
             
             statement.setInt(1, id);
 
@@ -339,7 +1170,7 @@ public class ArticuloDAO {
         }
         
         try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(EXISTS_BY_ID)) {
+             PreparedStatement statement = Sentencias.preparar(connection, EXISTS_BY_ID)) {
             
             statement.setInt(1, id);
             
@@ -354,7 +1185,7 @@ public class ArticuloDAO {
      */
     public boolean existePorCodigo(String codigo, Integer excludeId) throws SQLException {
         try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(EXISTS_BY_CODIGO)) {
+             PreparedStatement statement = Sentencias.preparar(connection, EXISTS_BY_CODIGO)) {
             
             statement.setString(1, codigo);
             
@@ -380,6 +1211,31 @@ public class ArticuloDAO {
         return false;
     }
 
+    /**
+     * Obtiene todos los códigos existentes (activos e inactivos)
+     * Se usa para construir el filtro de códigos en memoria
+     */
+    public List<String> listarCodigos() throws SQLException {
+        logger.debug("Obteniendo todos los códigos de artículos");
+        List<String> codigos = new ArrayList<>();
+        
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = Sentencias.preparar(connection, SELECT_ALL_CODIGOS);
+             ResultSet resultSet = statement.executeQuery()) {
+            
+            while (resultSet.next()) {
+                codigos.add(resultSet.getString(1));
+            }
+            
+            logger.debug("Se obtuvieron {} códigos", codigos.size());
+        } catch (SQLException e) {
+            logger.error("Error al obtener los códigos de artículos: {}", e.getMessage(), e);
+            throw e;
+        }
+        
+        return codigos;
+    }
+
     /**
      * Obtiene artículos con stock bajo (menor o igual al mínimo)
      */
@@ -387,8 +1243,8 @@ public class ArticuloDAO {
         logger.debug("Obteniendo artículos con stock bajo");
         List<Articulo> articulos = new ArrayList<>();
         
-        try (Connection connection = databaseConfig.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SELECT_ARTICULOS_STOCK_BAJO);
+        try (Connection connection = databaseConfig.getConnectionLectura();
+             PreparedStatement statement = Sentencias.preparar(connection, SELECT_ARTICULOS_STOCK_BAJO);
              ResultSet resultSet = statement.executeQuery()) {
             
             while (resultSet.next()) {
@@ -404,6 +1260,28 @@ public class ArticuloDAO {
         return articulos;
     }
 
+    /**
+     * Asigna los parámetros de INSERT_ARTICULO a partir de un artículo
+     */
+    private void asignarParametrosInsercion(PreparedStatement statement, Articulo articulo) throws SQLException {
+        statement.setString(1, articulo.getCodigo());
+        statement.setString(2, articulo.getNombre());
+        // Asegurar que la descripción nunca sea null para evitar "No value specified for parameter 3"
+        String descripcion = articulo.getDescripcion();
+        if (descripcion == null) {
+            logger.debug("Descripción es null, estableciendo cadena vacía");
+            descripcion = "";
+        }
+        statement.setString(3, descripcion);
+        statement.setObject(4, articulo.getCategoriaId());
+        statement.setObject(5, articulo.getProveedorId());
+        statement.setBigDecimal(6, articulo.getPrecioCompra());
+        statement.setBigDecimal(7, articulo.getPrecioVenta());
+        statement.setInt(8, articulo.getStockActual());
+        statement.setInt(9, articulo.getStockMinimo());
+        statement.setBoolean(10, articulo.getActivo());
+    }
+
     /**
      * Mapea un ResultSet a un objeto Articulo
      */
@@ -423,6 +1301,7 @@ public class ArticuloDAO {
         articulo.setStockActual(resultSet.getInt("stock_actual"));
         articulo.setStockMinimo(resultSet.getInt("stock_minimo"));
         articulo.setActivo(resultSet.getBoolean("activo"));
+        articulo.setVersion(resultSet.getInt("version"));
         
         Timestamp fechaCreacion = resultSet.getTimestamp("fecha_creacion");
         if (fechaCreacion != null) {
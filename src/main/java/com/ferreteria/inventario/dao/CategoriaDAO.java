@@ -31,8 +31,8 @@ public class CategoriaDAO {
         ResultSet rs = null;
         
         try {
-            conn = dbConfig.getConnection();
-            stmt = conn.prepareStatement(sql);
+            conn = dbConfig.getConnectionLectura();
+            stmt = Sentencias.preparar(conn, sql);
             rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -67,8 +67,8 @@ public class CategoriaDAO {
         String sql = "SELECT id, nombre, descripcion FROM categorias WHERE id = ?";
         Categoria categoria = null;
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dbConfig.getConnectionLectura();
+             PreparedStatement stmt = Sentencias.preparar(conn, sql)) {
             
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
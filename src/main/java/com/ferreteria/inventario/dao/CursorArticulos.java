@@ -0,0 +1,108 @@
+package com.ferreteria.inventario.dao;
+
+import com.ferreteria.inventario.model.Articulo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorrido secuencial de artículos sobre un ResultSet de solo avance
+ * Mantiene abierta la conexión hasta close(); solo una fila está en memoria a la vez. Las acciones
+ * registradas con alCerrar (por ejemplo, liberar un lugar de compartimento) corren al cerrarlo.
+ */
+public class CursorArticulos implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(CursorArticulos.class);
+
+    /**
+     * Convierte la fila actual del ResultSet en un artículo
+     */
+    @FunctionalInterface
+    interface MapeadorFila {
+        Articulo mapear(ResultSet resultSet) throws SQLException;
+    }
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final MapeadorFila mapeador;
+    private final List<Runnable> alCerrar = new ArrayList<>(1);
+    private Articulo actual;
+    private long filas;
+    private boolean cerrado;
+
+    CursorArticulos(Connection connection, PreparedStatement statement, ResultSet resultSet, MapeadorFila mapeador) {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.mapeador = mapeador;
+    }
+
+    /**
+     * Avanza a la siguiente fila
+     * @return false cuando no quedan filas (el cursor se cierra automáticamente)
+     */
+    public boolean siguiente() throws SQLException {
+        if (cerrado) {
+            return false;
+        }
+        if (!resultSet.next()) {
+            actual = null;
+            close();
+            return false;
+        }
+        actual = mapeador.mapear(resultSet);
+        filas++;
+        return true;
+    }
+
+    public Articulo actual() {
+        return actual;
+    }
+
+    public long getFilas() {
+        return filas;
+    }
+
+    /**
+     * Registra una acción a ejecutar cuando se cierre el cursor (de inmediato si ya está cerrado)
+     */
+    public void alCerrar(Runnable accion) {
+        if (cerrado) {
+            accion.run();
+            return;
+        }
+        alCerrar.add(accion);
+    }
+
+    @Override
+    public void close() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        try {
+            try {
+                resultSet.close();
+            } finally {
+                try {
+                    statement.close();
+                } finally {
+                    connection.close();
+                }
+            }
+            logger.debug("Cursor de artículos cerrado tras {} filas", filas);
+        } catch (SQLException e) {
+            logger.warn("Error al cerrar el cursor de artículos: {}", e.getMessage());
+        } finally {
+            for (Runnable accion : alCerrar) {
+                accion.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.ferreteria.inventario.dao;
+
+import com.ferreteria.inventario.config.DatabaseConfig;
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.model.MovimientoInventario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escritor de movimientos de inventario con commit agrupado (group commit)
+ * Con el diario activo las transacciones de stock no insertan el movimiento: al confirmar lo
+ * encolan en un búfer circular acotado y un hilo dedicado lo vacía con un INSERT por lotes y un
+ * solo commit por lote. Así la fila del artículo queda bloqueada menos tiempo y muchas ventas
+ * comparten un viaje y un commit en la base de datos.
+ *
+ * Modos de durabilidad:
+ * - SINCRONO: el diario no se usa; el movimiento se inserta dentro de la transacción de stock y
+ *   ambos se confirman o se revierten juntos.
+ * - ASINCRONO: se encola y se continúa. El cambio de stock ya está confirmado: un fallo del proceso
+ *   pierde los movimientos aún en cola y uno que no se puede escribir solo queda en el log
+ *   ("Movimiento de inventario no registrado") y en el contador de descartados.
+ *
+ * Con el búfer lleno el productor espera hasta esperaEncolarMs (contrapresión); si aun así no hay
+ * lugar, escribe sus movimientos directamente con su propia conexión para no perderlos.
+ */
+public class DiarioMovimientos {
+    private static final Logger logger = LoggerFactory.getLogger(DiarioMovimientos.class);
+    private static DiarioMovimientos instance;
+
+    public enum ModoDurabilidad {
+        SINCRONO,
+        ASINCRONO
+    }
+
+    private final DatabaseConfig databaseConfig;
+    private final MovimientoInventarioDAO movimientoInventarioDAO;
+    private final boolean habilitado;
+    private final ModoDurabilidad modo;
+    private final int capacidad;
+    private final int tamanoLote;
+    private final long intervaloNanos;
+    private final long esperaEncolarMs;
+
+    // Cada elemento son los movimientos de una transacción; se escriben juntos
+    private final ArrayBlockingQueue<List<MovimientoInventario>> cola;
+    private volatile boolean activo = true;
+    private Thread escritor;
+
+    private final LongAdder encolados = new LongAdder();
+    private final LongAdder escritos = new LongAdder();
+    private final LongAdder lotes = new LongAdder();
+    private final LongAdder esperasContrapresion = new LongAdder();
+    private final LongAdder desbordes = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder vaciadoTotalNanos = new LongAdder();
+    private final AtomicLong vaciadoMaximoNanos = new AtomicLong();
+    private volatile int profundidadMaxima;
+
+    public DiarioMovimientos(DatabaseConfig databaseConfig, MovimientoInventarioDAO movimientoInventarioDAO,
+                             boolean habilitado, ModoDurabilidad modo, int capacidad, int tamanoLote,
+                             long intervaloMs, long esperaEncolarMs) {
+        this.databaseConfig = databaseConfig;
+        this.movimientoInventarioDAO = movimientoInventarioDAO;
+        this.habilitado = habilitado && modo == ModoDurabilidad.ASINCRONO;
+        this.modo = modo;
+        this.capacidad = Math.max(capacidad, 1);
+        this.tamanoLote = Math.max(tamanoLote, 1);
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(intervaloMs, 0));
+        this.esperaEncolarMs = Math.max(esperaEncolarMs, 0);
+        this.cola = new ArrayBlockingQueue<>(this.capacidad);
+    }
+
+    public static synchronized DiarioMovimientos getInstance() {
+        if (instance == null) {
+            InventarioConfig config = InventarioConfig.getInstance();
+            instance = new DiarioMovimientos(DatabaseConfig.getInstance(), new MovimientoInventarioDAO(),
+                config.getBoolean("movimientos.diario.habilitado", false),
+                ModoDurabilidad.valueOf(config.getString("movimientos.diario.modo", "SINCRONO").trim().toUpperCase()),
+                config.getInt("movimientos.diario.capacidad", 10000),
+                config.getInt("movimientos.diario.tamanoLote", 500),
+                config.getLong("movimientos.diario.intervaloMs", 0),
+                config.getLong("movimientos.diario.esperaEncolarMs", 1000));
+            if (instance.habilitado) {
+                instance.iniciar();
+                Runtime.getRuntime().addShutdownHook(new Thread(instance::cerrar, "diario-movimientos-cierre"));
+                logger.info("Diario de movimientos iniciado: modo {}, capacidad {}, lotes de hasta {}",
+                           instance.modo, instance.capacidad, instance.tamanoLote);
+            } else if (config.getBoolean("movimientos.diario.habilitado", false)) {
+                logger.info("Diario de movimientos en modo SINCRONO: los movimientos se insertan en la transacción de stock");
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * false (deshabilitado o modo SINCRONO): los movimientos se insertan dentro de la transacción de stock
+     */
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public ModoDurabilidad getModo() {
+        return modo;
+    }
+
+    /**
+     * Registra movimientos ya confirmados junto con su cambio de stock (solo modo ASINCRONO)
+     * Nunca propaga errores de escritura: el stock ya cambió y el llamador no debe reintentar; los
+     * movimientos que no se pudieron escribir se registran en el log con todos sus datos y se
+     * cuentan como descartados.
+     */
+    public void registrar(List<MovimientoInventario> movimientos) {
+        if (movimientos.isEmpty()) {
+            return;
+        }
+        if (!encolar(movimientos)) {
+            desbordes.increment();
+            logger.warn("Diario de movimientos lleno ({} entradas) o detenido; escribiendo {} movimientos directamente",
+                       capacidad, movimientos.size());
+            escribirDirecto(movimientos);
+            return;
+        }
+        encolados.add(movimientos.size());
+        actualizarProfundidadMaxima();
+    }
+
+    private boolean encolar(List<MovimientoInventario> entrada) {
+        if (!activo) {
+            return false;
+        }
+        if (cola.offer(entrada)) {
+            return true;
+        }
+        esperasContrapresion.increment();
+        try {
+            return cola.offer(entrada, esperaEncolarMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void actualizarProfundidadMaxima() {
+        int profundidad = cola.size();
+        if (profundidad > profundidadMaxima) {
+            profundidadMaxima = profundidad;
+        }
+    }
+
+    private synchronized void iniciar() {
+        escritor = new Thread(this::ejecutarEscritor, "diario-movimientos");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Deja de aceptar entradas y espera a que se escriba lo pendiente
+     */
+    public void cerrar() {
+        activo = false;
+        Thread hilo = escritor;
+        if (hilo == null) {
+            return;
+        }
+        try {
+            hilo.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Entradas que llegaron mientras se detenía el escritor
+        List<List<MovimientoInventario>> restantes = new ArrayList<>();
+        cola.drainTo(restantes);
+        for (List<MovimientoInventario> entrada : restantes) {
+            escribirDirecto(entrada);
+        }
+    }
+
+    private void ejecutarEscritor() {
+        List<List<MovimientoInventario>> lote = new ArrayList<>(tamanoLote);
+        while (activo || !cola.isEmpty()) {
+            try {
+                List<MovimientoInventario> primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                int movimientos = primera.size();
+
+                // Toma lo acumulado mientras se escribía el lote anterior y, si hay intervalo configurado,
+                // espera hasta ese tiempo a que lleguen más, sin pasar del tamaño de lote
+                long limite = System.nanoTime() + intervaloNanos;
+                while (movimientos < tamanoLote) {
+                    List<MovimientoInventario> siguiente = cola.poll();
+                    if (siguiente == null) {
+                        long restante = limite - System.nanoTime();
+                        if (restante <= 0 || (siguiente = cola.poll(restante, TimeUnit.NANOSECONDS)) == null) {
+                            break;
+                        }
+                    }
+                    lote.add(siguiente);
+                    movimientos += siguiente.size();
+                }
+
+                escribirLote(lote, movimientos);
+            } catch (InterruptedException e) {
+                if (!activo) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Error inesperado en el diario de movimientos: {}", e.getMessage(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+        logger.info("Diario de movimientos detenido");
+    }
+
+    private void escribirLote(List<List<MovimientoInventario>> lote, int cantidad) {
+        List<MovimientoInventario> movimientos = new ArrayList<>(cantidad);
+        for (List<MovimientoInventario> entrada : lote) {
+            movimientos.addAll(entrada);
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            Transacciones.ejecutar(databaseConfig, connection -> {
+                movimientoInventarioDAO.registrarMovimientos(connection, movimientos);
+                return null;
+            });
+            escritos.add(movimientos.size());
+        } catch (SQLException e) {
+            // Un movimiento inválido no debe arrastrar a los demás: se reintenta transacción por transacción
+            logger.warn("Falló el lote de {} movimientos ({}); reintentando por entrada", movimientos.size(), e.getMessage());
+            for (List<MovimientoInventario> entrada : lote) {
+                escribirDirecto(entrada);
+            }
+        } finally {
+            registrarVaciado(System.nanoTime() - inicio);
+            lotes.increment();
+        }
+    }
+
+    private void escribirDirecto(List<MovimientoInventario> movimientos) {
+        try (Connection connection = databaseConfig.getConnectionEscritura()) {
+            movimientoInventarioDAO.registrarMovimientos(connection, movimientos);
+            escritos.add(movimientos.size());
+        } catch (SQLException e) {
+            descartados.add(movimientos.size());
+            for (MovimientoInventario movimiento : movimientos) {
+                logger.error("Movimiento de inventario no registrado: {} ({})", movimiento, e.getMessage());
+            }
+        }
+    }
+
+    private void registrarVaciado(long nanos) {
+        vaciadoTotalNanos.add(nanos);
+        long maximo = vaciadoMaximoNanos.get();
+        while (nanos > maximo && !vaciadoMaximoNanos.compareAndSet(maximo, nanos)) {
+            maximo = vaciadoMaximoNanos.get();
+        }
+    }
+
+    public Estadisticas getEstadisticas() {
+        return new Estadisticas(habilitado, modo, cola.size(), profundidadMaxima, capacidad, encolados.sum(),
+                                escritos.sum(), lotes.sum(), esperasContrapresion.sum(), desbordes.sum(),
+                                descartados.sum(), vaciadoTotalNanos.sum(), vaciadoMaximoNanos.get());
+    }
+
+    /**
+     * Instantánea de los contadores del diario
+     */
+    public static final class Estadisticas {
+        private final boolean habilitado;
+        private final ModoDurabilidad modo;
+        private final int profundidad;
+        private final int profundidadMaxima;
+        private final int capacidad;
+        private final long encolados;
+        private final long escritos;
+        private final long lotes;
+        private final long esperasContrapresion;
+        private final long desbordes;
+        private final long descartados;
+        private final long vaciadoTotalNanos;
+        private final long vaciadoMaximoNanos;
+
+        Estadisticas(boolean habilitado, ModoDurabilidad modo, int profundidad, int profundidadMaxima, int capacidad,
+                     long encolados, long escritos, long lotes, long esperasContrapresion, long desbordes,
+                     long descartados, long vaciadoTotalNanos, long vaciadoMaximoNanos) {
+            this.habilitado = habilitado;
+            this.modo = modo;
+            this.profundidad = profundidad;
+            this.profundidadMaxima = profundidadMaxima;
+            this.capacidad = capacidad;
+            this.encolados = encolados;
+            this.escritos = escritos;
+            this.lotes = lotes;
+            this.esperasContrapresion = esperasContrapresion;
+            this.desbordes = desbordes;
+            this.descartados = descartados;
+            this.vaciadoTotalNanos = vaciadoTotalNanos;
+            this.vaciadoMaximoNanos = vaciadoMaximoNanos;
+        }
+
+        public int getProfundidad() {
+            return profundidad;
+        }
+
+        public int getProfundidadMaxima() {
+            return profundidadMaxima;
+        }
+
+        public long getEncolados() {
+            return encolados;
+        }
+
+        public long getEscritos() {
+            return escritos;
+        }
+
+        public long getLotes() {
+            return lotes;
+        }
+
+        public long getEsperasContrapresion() {
+            return esperasContrapresion;
+        }
+
+        public long getDesbordes() {
+            return desbordes;
+        }
+
+        public long getDescartados() {
+            return descartados;
+        }
+
+        /**
+         * Movimientos por commit; cuanto mayor, más se está aprovechando el agrupamiento
+         */
+        public double getMovimientosPorLote() {
+            return lotes == 0 ? 0.0 : (double) escritos / lotes;
+        }
+
+        public double getVaciadoMedioMs() {
+            return lotes == 0 ? 0.0 : vaciadoTotalNanos / 1_000_000.0 / lotes;
+        }
+
+        public double getVaciadoMaximoMs() {
+            return vaciadoMaximoNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            if (!habilitado) {
+                return "Estadisticas{habilitado=false}";
+            }
+            return "Estadisticas{" +
+                    "modo=" + modo +
+                    ", profundidad=" + profundidad + "/" + capacidad +
+                    ", profundidadMaxima=" + profundidadMaxima +
+                    ", encolados=" + encolados +
+                    ", escritos=" + escritos +
+                    ", lotes=" + lotes +
+                    ", movimientosPorLote=" + String.format("%.1f", getMovimientosPorLote()) +
+                    ", vaciadoMedioMs=" + String.format("%.2f", getVaciadoMedioMs()) +
+                    ", vaciadoMaximoMs=" + String.format("%.2f", getVaciadoMaximoMs()) +
+                    ", esperasContrapresion=" + esperasContrapresion +
+                    ", desbordes=" + desbordes +
+                    ", descartados=" + descartados +
+                    '}';
+        }
+    }
+}
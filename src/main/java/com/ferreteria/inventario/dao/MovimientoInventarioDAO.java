@@ -16,7 +16,7 @@ public class MovimientoInventarioDAO {
     private static final String INSERT_MOVIMIENTO = 
             "INSERT INTO movimientos_inventario " +
             "(articulo_id, tipo_movimiento, cantidad, stock_anterior, stock_nuevo, motivo, usuario, fecha_movimiento) " +
-            "VALUES (?, ?::tipo_movimiento, ?, ?, ?, ?, ?, ?)";
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
     
     private static final String SELECT_BY_ARTICULO = 
             "SELECT id, articulo_id, tipo_movimiento, cantidad, stock_anterior, " +
@@ -29,8 +29,16 @@ public class MovimientoInventarioDAO {
      * Registra un movimiento de inventario
      */
     public void registrarMovimiento(MovimientoInventario movimiento) throws SQLException {
-        try (Connection conn = DatabaseConfig.getInstance().getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(INSERT_MOVIMIENTO, 
+        try (Connection conn = DatabaseConfig.getInstance().getConnectionEscritura()) {
+            registrarMovimiento(conn, movimiento);
+        }
+    }
+    
+    /**
+     * Registra un movimiento usando una conexión existente (participa en la transacción del llamador)
+     */
+    public void registrarMovimiento(Connection conn, MovimientoInventario movimiento) throws SQLException {
+        try (PreparedStatement stmt = Sentencias.preparar(conn, INSERT_MOVIMIENTO, 
                  Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setInt(1, movimiento.getArticuloId());
@@ -57,14 +65,39 @@ public class MovimientoInventarioDAO {
         }
     }
     
+    /**
+     * Registra varios movimientos en un solo lote JDBC usando una conexión existente
+     */
+    public void registrarMovimientos(Connection conn, List<MovimientoInventario> movimientos) throws SQLException {
+        if (movimientos.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = Sentencias.preparar(conn, INSERT_MOVIMIENTO)) {
+            Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+            for (MovimientoInventario movimiento : movimientos) {
+                stmt.setInt(1, movimiento.getArticuloId());
+                stmt.setString(2, movimiento.getTipoMovimiento().name());
+                stmt.setInt(3, movimiento.getCantidad());
+                stmt.setInt(4, movimiento.getStockAnterior());
+                stmt.setInt(5, movimiento.getStockNuevo());
+                stmt.setString(6, movimiento.getMotivo());
+                stmt.setString(7, movimiento.getUsuario());
+                stmt.setTimestamp(8, movimiento.getFechaMovimiento() != null ? 
+                    Timestamp.valueOf(movimiento.getFechaMovimiento()) : ahora);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+    
     /**
      * Obtiene los movimientos de un artículo
      */
     public List<MovimientoInventario> obtenerMovimientosPorArticulo(int articuloId) throws SQLException {
         List<MovimientoInventario> movimientos = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getInstance().getDataSource().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ARTICULO)) {
+        try (Connection conn = DatabaseConfig.getInstance().getConnectionLectura();
+             PreparedStatement stmt = Sentencias.preparar(conn, SELECT_BY_ARTICULO)) {
             
             stmt.setInt(1, articuloId);
             
@@ -31,8 +31,8 @@ public class ProveedorDAO {
         ResultSet rs = null;
         
         try {
-            conn = dbConfig.getConnection();
-            stmt = conn.prepareStatement(sql);
+            conn = dbConfig.getConnectionLectura();
+            stmt = Sentencias.preparar(conn, sql);
             rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -70,8 +70,8 @@ public class ProveedorDAO {
         String sql = "SELECT id, nombre, contacto, telefono, email, direccion FROM proveedores WHERE id = ?";
         Proveedor proveedor = null;
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dbConfig.getConnectionLectura();
+             PreparedStatement stmt = Sentencias.preparar(conn, sql)) {
             
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -0,0 +1,825 @@
+package com.ferreteria.inventario.dao;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * PreparedStatement de Sentencias.preparar: delega en la sentencia del driver, mide cada execute
+ * en la plantilla y guarda la forma de los parámetros por si la ejecución resulta lenta
+ * Los parámetros primitivos se guardan como su clase, sin crear objetos; los demás, por referencia.
+ * Una consulta se registra como lenta al cerrar su ResultSet (o la sentencia), cuando ya se
+ * conocen sus filas. Como la sentencia del driver, no es segura entre hilos.
+ */
+final class SentenciaMedida implements PreparedStatement {
+    private static final Object[] SIN_PARAMETROS = new Object[0];
+
+    private final PreparedStatement statement;
+    private final Sentencias.Plantilla plantilla;
+    private Object[] parametros = SIN_PARAMETROS;
+    private int cantidadParametros;
+    private int lotes;
+
+    // Consulta en curso: sus filas se suman (y, si fue lenta, se registra) al cerrar el ResultSet
+    private ResultadoContado resultado;
+    private long nanosResultado;
+    private String parametrosLenta;
+
+    SentenciaMedida(PreparedStatement statement, Sentencias.Plantilla plantilla) {
+        this.statement = statement;
+        this.plantilla = plantilla;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        long inicio = iniciar();
+        ResultSet resultSet;
+        try {
+            resultSet = statement.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            fallar(inicio, e);
+            throw e;
+        }
+        long nanos = System.nanoTime() - inicio;
+        plantilla.registrar(nanos);
+        return contar(resultSet, nanos);
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        long inicio = iniciar();
+        int filas;
+        try {
+            filas = statement.executeUpdate();
+        } catch (SQLException | RuntimeException e) {
+            fallar(inicio, e);
+            throw e;
+        }
+        terminar(inicio, filas);
+        return filas;
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        long inicio = iniciar();
+        long filas;
+        try {
+            filas = statement.executeLargeUpdate();
+        } catch (SQLException | RuntimeException e) {
+            fallar(inicio, e);
+            throw e;
+        }
+        terminar(inicio, filas);
+        return filas;
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        long inicio = iniciar();
+        boolean hayResultado;
+        try {
+            hayResultado = statement.execute();
+        } catch (SQLException | RuntimeException e) {
+            fallar(inicio, e);
+            throw e;
+        }
+        terminar(inicio, hayResultado ? 0 : Math.max(statement.getUpdateCount(), 0));
+        return hayResultado;
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        long inicio = iniciar();
+        int[] filas;
+        try {
+            filas = statement.executeBatch();
+        } catch (SQLException | RuntimeException e) {
+            fallar(inicio, e);
+            throw e;
+        }
+        long total = 0;
+        for (int n : filas) {
+            total += Math.max(n, 0);
+        }
+        terminar(inicio, total);
+        lotes = 0;
+        return filas;
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        long inicio = iniciar();
+        long[] filas;
+        try {
+            filas = statement.executeLargeBatch();
+        } catch (SQLException | RuntimeException e) {
+            fallar(inicio, e);
+            throw e;
+        }
+        long total = 0;
+        for (long n : filas) {
+            total += Math.max(n, 0);
+        }
+        terminar(inicio, total);
+        lotes = 0;
+        return filas;
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        ResultSet resultSet = statement.getResultSet();
+        if (resultSet == null) {
+            return null;
+        }
+        if (resultado != null && resultado.envuelve(resultSet)) {
+            return resultado;
+        }
+        return contar(resultSet, 0);
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        statement.addBatch();
+        lotes++;
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        statement.clearBatch();
+        lotes = 0;
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        statement.clearParameters();
+        Arrays.fill(parametros, 0, cantidadParametros, null);
+        cantidadParametros = 0;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            terminarConsulta(resultado);
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Suma las filas de la consulta en curso y, si fue lenta, la registra
+     */
+    void terminarConsulta(ResultadoContado consulta) {
+        if (consulta == null || consulta != resultado) {
+            return;
+        }
+        resultado = null;
+        plantilla.sumarFilas(consulta.getFilas());
+        if (parametrosLenta != null) {
+            plantilla.registrarLenta(nanosResultado, consulta.getFilas(), parametrosLenta);
+            parametrosLenta = null;
+        }
+    }
+
+    private long iniciar() {
+        terminarConsulta(resultado);
+        return System.nanoTime();
+    }
+
+    private ResultSet contar(ResultSet resultSet, long nanos) {
+        resultado = new ResultadoContado(resultSet, this);
+        nanosResultado = nanos;
+        parametrosLenta = Sentencias.Plantilla.esLenta(nanos) ? describirParametros() : null;
+        return resultado;
+    }
+
+    private void terminar(long inicio, long filas) {
+        long nanos = System.nanoTime() - inicio;
+        plantilla.registrar(nanos);
+        plantilla.sumarFilas(filas);
+        if (Sentencias.Plantilla.esLenta(nanos)) {
+            plantilla.registrarLenta(nanos, filas, describirParametros());
+        }
+    }
+
+    private void fallar(long inicio, Exception e) {
+        long nanos = System.nanoTime() - inicio;
+        plantilla.contarError();
+        plantilla.registrar(nanos);
+        if (Sentencias.Plantilla.esLenta(nanos)) {
+            plantilla.registrarLenta(nanos, -1, describirParametros() + " error: " + e.getMessage());
+        }
+    }
+
+    private void guardar(int indice, Object valor) {
+        if (indice < 1) {
+            return;
+        }
+        if (indice > parametros.length) {
+            parametros = Arrays.copyOf(parametros, Math.max(indice, Math.max(8, parametros.length * 2)));
+        }
+        parametros[indice - 1] = valor;
+        cantidadParametros = Math.max(cantidadParametros, indice);
+    }
+
+    private String describirParametros() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < cantidadParametros; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(Sentencias.forma(parametros[i]));
+        }
+        sb.append(']');
+        if (lotes > 0) {
+            sb.append("; lote de ").append(lotes);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return statement.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return statement.isWrapperFor(iface);
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        return statement.executeQuery(sql);
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        return statement.executeUpdate(sql);
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return statement.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        statement.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return statement.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        statement.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        statement.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return statement.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        statement.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        statement.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return statement.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        statement.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        statement.setCursorName(name);
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        return statement.execute(sql);
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return statement.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return statement.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        statement.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return statement.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        statement.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return statement.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return statement.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return statement.getResultSetType();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        statement.addBatch(sql);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return statement.getConnection();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return statement.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return statement.getGeneratedKeys();
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return statement.executeUpdate(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return statement.executeUpdate(sql, columnIndexes);
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        return statement.executeUpdate(sql, columnNames);
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        return statement.execute(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        return statement.execute(sql, columnIndexes);
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        return statement.execute(sql, columnNames);
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return statement.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return statement.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        statement.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return statement.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        statement.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return statement.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return statement.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        statement.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return statement.getLargeMaxRows();
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        return statement.executeLargeUpdate(sql);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return statement.executeLargeUpdate(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return statement.executeLargeUpdate(sql, columnIndexes);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        return statement.executeLargeUpdate(sql, columnNames);
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return statement.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return statement.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return statement.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return statement.enquoteNCharLiteral(val);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        guardar(parameterIndex, null);
+        statement.setNull(parameterIndex, sqlType);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        guardar(parameterIndex, Boolean.class);
+        statement.setBoolean(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        guardar(parameterIndex, Byte.class);
+        statement.setByte(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        guardar(parameterIndex, Short.class);
+        statement.setShort(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        guardar(parameterIndex, Integer.class);
+        statement.setInt(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        guardar(parameterIndex, Long.class);
+        statement.setLong(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        guardar(parameterIndex, Float.class);
+        statement.setFloat(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        guardar(parameterIndex, Double.class);
+        statement.setDouble(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setBigDecimal(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setString(parameterIndex, x);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setBytes(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setDate(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setTime(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setTimestamp(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setAsciiStream(parameterIndex, x, length);
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setUnicodeStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setBinaryStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setObject(parameterIndex, x, targetSqlType);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setObject(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+        guardar(parameterIndex, reader);
+        statement.setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setRef(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setBlob(parameterIndex, x);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setClob(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setArray(parameterIndex, x);
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return statement.getMetaData();
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setDate(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setTime(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setTimestamp(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        guardar(parameterIndex, null);
+        statement.setNull(parameterIndex, sqlType, typeName);
+    }
+
+    @Override
+    public void setURL(int parameterIndex, java.net.URL x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setURL(parameterIndex, x);
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        return statement.getParameterMetaData();
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setRowId(parameterIndex, x);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        guardar(parameterIndex, value);
+        statement.setNString(parameterIndex, value);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+        guardar(parameterIndex, value);
+        statement.setNCharacterStream(parameterIndex, value, length);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException {
+        guardar(parameterIndex, value);
+        statement.setNClob(parameterIndex, value);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        guardar(parameterIndex, reader);
+        statement.setClob(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+        guardar(parameterIndex, inputStream);
+        statement.setBlob(parameterIndex, inputStream, length);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        guardar(parameterIndex, reader);
+        statement.setNClob(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+        guardar(parameterIndex, xmlObject);
+        statement.setSQLXML(parameterIndex, xmlObject);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setAsciiStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setBinaryStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        guardar(parameterIndex, reader);
+        statement.setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setAsciiStream(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setBinaryStream(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        guardar(parameterIndex, reader);
+        statement.setCharacterStream(parameterIndex, reader);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+        guardar(parameterIndex, value);
+        statement.setNCharacterStream(parameterIndex, value);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException {
+        guardar(parameterIndex, reader);
+        statement.setClob(parameterIndex, reader);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+        guardar(parameterIndex, inputStream);
+        statement.setBlob(parameterIndex, inputStream);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+        guardar(parameterIndex, reader);
+        statement.setNClob(parameterIndex, reader);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        guardar(parameterIndex, x);
+        statement.setObject(parameterIndex, x, targetSqlType);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ferreteria.inventario.dao;
+
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.util.HistogramaLatencia;
+import com.ferreteria.inventario.util.RegistroMetricas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Preparación y ejecución medida de las sentencias SQL de los DAO
+ * Los DAO preparan sus sentencias con Sentencias.preparar en lugar de Connection.prepareStatement;
+ * la sentencia devuelta (SentenciaMedida) delega en la del driver, pero cada execute se mide y se
+ * agrega por plantilla SQL en RegistroMetricas (capa "sql": conteo, media, máximo, percentiles y
+ * filas devueltas o afectadas). Las filas de una consulta las cuenta ResultadoContado en next().
+ *
+ * La plantilla es el texto de la sentencia con los espacios normalizados y las listas IN (?, ?, ...)
+ * colapsadas, para que las consultas por lotes de distinto tamaño sumen en la misma entrada.
+ *
+ * Las ejecuciones que superan sql.lenta.umbralMs se escriben en el logger de consultas lentas
+ * (appender propio en logback.xml) con la plantilla, las filas y la forma de los parámetros: tipo
+ * y largo de cada valor, sin el valor, y si un patrón LIKE empieza con comodín (no usa índice).
+ */
+public final class Sentencias {
+    private static final Logger consultasLentas = LoggerFactory.getLogger("com.ferreteria.inventario.sql.lentas");
+
+    private static final long UMBRAL_LENTA_NANOS = TimeUnit.MILLISECONDS.toNanos(
+        InventarioConfig.getInstance().getInt("sql.lenta.umbralMs", 200));
+
+    // Texto SQL tal como lo arma el DAO -> estadísticas de su plantilla
+    private static final ConcurrentMap<String, Plantilla> POR_SQL = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Plantilla> POR_PLANTILLA = new ConcurrentHashMap<>();
+
+    private Sentencias() {
+    }
+
+    public static PreparedStatement preparar(Connection connection, String sql) throws SQLException {
+        return new SentenciaMedida(connection.prepareStatement(sql), plantilla(sql));
+    }
+
+    public static PreparedStatement preparar(Connection connection, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        return new SentenciaMedida(connection.prepareStatement(sql, autoGeneratedKeys), plantilla(sql));
+    }
+
+    public static PreparedStatement preparar(Connection connection, String sql, int resultSetType,
+                                             int resultSetConcurrency) throws SQLException {
+        return new SentenciaMedida(connection.prepareStatement(sql, resultSetType, resultSetConcurrency),
+                                   plantilla(sql));
+    }
+
+    private static Plantilla plantilla(String sql) {
+        Plantilla plantilla = POR_SQL.get(sql);
+        if (plantilla == null) {
+            plantilla = POR_SQL.computeIfAbsent(sql,
+                texto -> POR_PLANTILLA.computeIfAbsent(normalizar(texto), Plantilla::new));
+        }
+        return plantilla;
+    }
+
+    /**
+     * Espacios colapsados y listas de marcadores reducidas a "?, ..."
+     */
+    static String normalizar(String sql) {
+        return sql.trim().replaceAll("\\s+", " ").replaceAll("\\?(\\s*,\\s*\\?)+", "?, ...");
+    }
+
+    /**
+     * Forma de un parámetro para el registro de consultas lentas: tipo y largo, sin el valor
+     * Los parámetros primitivos se guardan como su clase (Integer.class para setInt) para no crear objetos.
+     */
+    static String forma(Object valor) {
+        if (valor == null) {
+            return "null";
+        }
+        if (valor instanceof Class) {
+            return ((Class<?>) valor).getSimpleName();
+        }
+        if (valor instanceof String) {
+            String texto = (String) valor;
+            String comodin = texto.startsWith("%") ? " %inicial" : "";
+            return "String(" + texto.length() + comodin + ")";
+        }
+        if (valor instanceof byte[]) {
+            return "byte[" + ((byte[]) valor).length + "]";
+        }
+        return valor.getClass().getSimpleName();
+    }
+
+    /**
+     * Estadísticas agregadas de una plantilla SQL
+     */
+    static final class Plantilla {
+        private final String texto;
+        private final HistogramaLatencia latencia;
+        private final LongAdder filas = new LongAdder();
+
+        Plantilla(String texto) {
+            this.texto = texto;
+            RegistroMetricas registro = RegistroMetricas.getInstance();
+            this.latencia = registro.latencia(RegistroMetricas.CAPA_SQL, texto);
+            registro.indicador(RegistroMetricas.CAPA_SQL, "filas: " + texto, filas::sum);
+        }
+
+        void registrar(long nanos) {
+            latencia.registrarDuracion(nanos);
+        }
+
+        void contarError() {
+            latencia.contarError();
+        }
+
+        void sumarFilas(long cantidad) {
+            filas.add(cantidad);
+        }
+
+        static boolean esLenta(long nanos) {
+            return nanos >= UMBRAL_LENTA_NANOS;
+        }
+
+        void registrarLenta(long nanos, long filas, String parametros) {
+            consultasLentas.warn("{} ms | filas {} | {} | parámetros {}",
+                                 TimeUnit.NANOSECONDS.toMillis(nanos), filas, texto, parametros);
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.ferreteria.inventario.dao;
+
+import com.ferreteria.inventario.config.DatabaseConfig;
+import com.ferreteria.inventario.model.MovimientoInventario;
+import com.ferreteria.inventario.model.ResultadoActualizacionStock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Data Access Object de los contadores de stock fragmentados (articulos_stock_fragmentos)
+ * El stock de un artículo muy vendido se reparte en varias filas: cada venta actualiza una sola,
+ * elegida por quien llama, y el stock real es la suma. articulos.stock_actual de esos artículos
+ * es solo una copia que se concilia periódicamente (listados, exportación, reportes).
+ * En el camino rápido los stocks anterior y nuevo del movimiento salen de la suma leída sin
+ * bloquear los demás fragmentos, así que con ventas simultáneas son aproximados.
+ */
+public class StockFragmentadoDAO {
+    private static final Logger logger = LoggerFactory.getLogger(StockFragmentadoDAO.class);
+    private final DatabaseConfig databaseConfig;
+    private final DiarioMovimientos diario;
+    private final MovimientoInventarioDAO movimientoInventarioDAO;
+
+    // SQLSTATE de tabla inexistente
+    private static final String TABLA_INEXISTENTE = "42S02";
+
+    private static final String SELECT_ARTICULOS_FRAGMENTADOS =
+        "SELECT DISTINCT articulo_id FROM articulos_stock_fragmentos";
+
+    private static final String SELECT_TOTALES_PREFIX =
+        "SELECT articulo_id, SUM(stock) FROM articulos_stock_fragmentos WHERE articulo_id IN (";
+
+    private static final String SELECT_TOTAL =
+        "SELECT COUNT(*), COALESCE(SUM(stock), 0) FROM articulos_stock_fragmentos WHERE articulo_id = ?";
+
+    private static final String SELECT_FRAGMENTOS_FOR_UPDATE =
+        "SELECT fragmento, stock FROM articulos_stock_fragmentos WHERE articulo_id = ? ORDER BY fragmento FOR UPDATE";
+
+    private static final String SELECT_STOCK_ARTICULO_FOR_UPDATE =
+        "SELECT stock_actual FROM articulos WHERE id = ? FOR UPDATE";
+
+    private static final String INSERT_FRAGMENTO =
+        "INSERT INTO articulos_stock_fragmentos (articulo_id, fragmento, stock) VALUES (?, ?, ?)";
+
+    // Camino rápido: una sola fila, sin leer las demás; el retiro solo se aplica si el fragmento alcanza
+    private static final String UPDATE_FRAGMENTO_DELTA =
+        "UPDATE articulos_stock_fragmentos SET stock = stock + ? " +
+        "WHERE articulo_id = ? AND fragmento = ? AND stock + ? >= 0";
+
+    private static final String UPDATE_FRAGMENTO =
+        "UPDATE articulos_stock_fragmentos SET stock = ? WHERE articulo_id = ? AND fragmento = ?";
+
+    private static final String DELETE_FRAGMENTOS =
+        "DELETE FROM articulos_stock_fragmentos WHERE articulo_id = ?";
+
+    // La copia en articulos no cambia la versión: los fragmentos son la fuente del stock y
+    // actualizarArticulo no lo escribe en los fragmentados (rechaza un stock distinto del vigente)
+    private static final String UPDATE_STOCK_CONCILIADO =
+        "UPDATE articulos SET stock_actual = ? WHERE id = ? AND stock_actual <> ?";
+
+    private static final String UPDATE_STOCK_CONSOLIDADO =
+        "UPDATE articulos SET stock_actual = ?, version = version + 1, " +
+        "fecha_actualizacion = CURRENT_TIMESTAMP WHERE id = ?";
+
+    public StockFragmentadoDAO() {
+        this.databaseConfig = DatabaseConfig.getInstance();
+        this.diario = DiarioMovimientos.getInstance();
+        this.movimientoInventarioDAO = new MovimientoInventarioDAO();
+    }
+
+    /**
+     * IDs de los artículos que tienen el stock repartido en fragmentos
+     * Sin la tabla articulos_stock_fragmentos (esquema anterior al stock fragmentado) no hay ninguno.
+     */
+    public List<Integer> listarArticulosFragmentados() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = Sentencias.preparar(connection, SELECT_ARTICULOS_FRAGMENTADOS);
+             ResultSet resultSet = statement.executeQuery()) {
+
+            while (resultSet.next()) {
+                ids.add(resultSet.getInt(1));
+            }
+        } catch (SQLException e) {
+            if (TABLA_INEXISTENTE.equals(e.getSQLState())) {
+                return ids;
+            }
+            logger.error("Error al listar artículos con stock fragmentado: {}", e.getMessage(), e);
+            throw e;
+        }
+        return ids;
+    }
+
+    /**
+     * Suma de los fragmentos de varios artículos (lectura sin bloqueo, en la primaria)
+     * @return total por ID; los artículos sin fragmentos no aparecen
+     */
+    public Map<Integer, Integer> obtenerTotales(Collection<Integer> ids) throws SQLException {
+        Map<Integer, Integer> totales = new HashMap<>();
+        if (ids.isEmpty()) {
+            return totales;
+        }
+
+        String sql = SELECT_TOTALES_PREFIX + String.join(", ", Collections.nCopies(ids.size(), "?")) +
+            ") GROUP BY articulo_id";
+        try (Connection connection = databaseConfig.getConnection();
+             PreparedStatement statement = Sentencias.preparar(connection, sql)) {
+
+            int indice = 1;
+            for (Integer id : ids) {
+                statement.setInt(indice++, id);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    totales.put(resultSet.getInt(1), resultSet.getInt(2));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener el stock fragmentado: {}", e.getMessage(), e);
+            throw e;
+        }
+        return totales;
+    }
+
+    /**
+     * Reparte articulos.stock_actual de un artículo en fragmentos
+     * Si ya tenía fragmentos se reemplazan sin sumarlos: quien llama los consolida antes si son vigentes.
+     * @return false si el artículo no existe
+     */
+    public boolean fragmentar(int articuloId, int fragmentos) throws SQLException {
+        try {
+            return Transacciones.ejecutar(databaseConfig, connection -> {
+                int stock;
+                try (PreparedStatement statement = Sentencias.preparar(connection, SELECT_STOCK_ARTICULO_FOR_UPDATE)) {
+                    statement.setInt(1, articuloId);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        if (!resultSet.next()) {
+                            return false;
+                        }
+                        stock = resultSet.getInt(1);
+                    }
+                }
+                if (contarFragmentos(connection, articuloId) > 0) {
+                    try (PreparedStatement statement = Sentencias.preparar(connection, DELETE_FRAGMENTOS)) {
+                        statement.setInt(1, articuloId);
+                        statement.executeUpdate();
+                    }
+                }
+
+                int[] reparto = repartir(stock, fragmentos);
+                try (PreparedStatement statement = Sentencias.preparar(connection, INSERT_FRAGMENTO)) {
+                    for (int i = 0; i < reparto.length; i++) {
+                        statement.setInt(1, articuloId);
+                        statement.setInt(2, i);
+                        statement.setInt(3, reparto[i]);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+                logger.info("Stock del artículo ID: {} repartido en {} fragmentos ({} unidades)",
+                           articuloId, fragmentos, stock);
+                return true;
+            });
+        } catch (SQLException e) {
+            logger.error("Error al fragmentar el stock del artículo ID {}: {}", articuloId, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Vuelve a guardar el stock en articulos.stock_actual y elimina los fragmentos
+     */
+    public void consolidar(int articuloId) throws SQLException {
+        try {
+            Transacciones.ejecutar(databaseConfig, connection -> {
+                int total = 0;
+                for (int stock : bloquearFragmentos(connection, articuloId)) {
+                    total += stock;
+                }
+                try (PreparedStatement statement = Sentencias.preparar(connection, UPDATE_STOCK_CONSOLIDADO)) {
+                    statement.setInt(1, total);
+                    statement.setInt(2, articuloId);
+                    statement.executeUpdate();
+                }
+                try (PreparedStatement statement = Sentencias.preparar(connection, DELETE_FRAGMENTOS)) {
+                    statement.setInt(1, articuloId);
+                    statement.executeUpdate();
+                }
+                logger.info("Stock del artículo ID: {} consolidado en articulos ({} unidades)", articuloId, total);
+                return null;
+            });
+        } catch (SQLException e) {
+            logger.error("Error al consolidar el stock del artículo ID {}: {}", articuloId, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Copia a articulos.stock_actual la suma vigente de los fragmentos
+     * Lee sin bloquear y escribe solo si cambió: la copia puede atrasarse, nunca bloquea ventas.
+     */
+    public void conciliar(Map<Integer, Integer> totales) throws SQLException {
+        if (totales.isEmpty()) {
+            return;
+        }
+        try (Connection connection = databaseConfig.getConnectionEscritura();
+             PreparedStatement statement = Sentencias.preparar(connection, UPDATE_STOCK_CONCILIADO)) {
+
+            for (Map.Entry<Integer, Integer> total : totales.entrySet()) {
+                statement.setInt(1, total.getValue());
+                statement.setInt(2, total.getKey());
+                statement.setInt(3, total.getValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException e) {
+            logger.error("Error al conciliar el stock fragmentado: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Aplica una variación de stock sobre un fragmento y registra el movimiento
+     * Un retiro que el fragmento no cubre toma prestado de los demás: bloquea todos los fragmentos
+     * del artículo (en orden), comprueba el total y lo vuelve a repartir en partes iguales.
+     * @param movimiento movimiento a registrar (se completan artículo y stocks)
+     * @return vacío si el artículo no tiene fragmentos; resultado no aplicado si el total quedaría
+     *         negativo. El resultado no incluye el artículo.
+     */
+    public Optional<ResultadoActualizacionStock> aplicarDelta(int articuloId, int fragmento, int delta,
+                                                              MovimientoInventario movimiento) throws SQLException {
+        List<MovimientoInventario> diferidos = new ArrayList<>(1);
+        try {
+            Optional<ResultadoActualizacionStock> resultado = Transacciones.ejecutar(databaseConfig, connection -> {
+                int affectedRows;
+                try (PreparedStatement statement = Sentencias.preparar(connection, UPDATE_FRAGMENTO_DELTA)) {
+                    statement.setInt(1, delta);
+                    statement.setInt(2, articuloId);
+                    statement.setInt(3, fragmento);
+                    statement.setInt(4, delta);
+                    affectedRows = statement.executeUpdate();
+                }
+
+                int total;
+                if (affectedRows > 0) {
+                    total = leerTotal(connection, articuloId);
+                } else {
+                    int[] stocks = bloquearFragmentos(connection, articuloId);
+                    if (stocks.length == 0) {
+                        return Optional.<ResultadoActualizacionStock>empty();
+                    }
+                    int anterior = 0;
+                    for (int stock : stocks) {
+                        anterior += stock;
+                    }
+                    if (anterior + delta < 0) {
+                        return Optional.of(ResultadoActualizacionStock.rechazado(null, anterior));
+                    }
+                    total = anterior + delta;
+                    escribirReparto(connection, articuloId, stocks, repartir(total, stocks.length));
+                    logger.debug("Retiro de {} en el artículo ID: {} cubierto entre fragmentos", -delta, articuloId);
+                }
+
+                movimiento.setArticuloId(articuloId);
+                movimiento.setStockAnterior(total - delta);
+                movimiento.setStockNuevo(total);
+                registrarMovimiento(connection, movimiento, diferidos);
+                return Optional.of(new ResultadoActualizacionStock(true, null, total - delta, total));
+            });
+            diario.registrar(diferidos);
+            return resultado;
+        } catch (SQLException e) {
+            logger.error("Error al aplicar variación de stock fragmentado: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Fija el stock total de un artículo fragmentado y lo reparte en partes iguales
+     * @param movimiento movimiento de ajuste (se completan artículo, cantidad y stocks); solo si el stock cambió
+     * @return vacío si el artículo no tiene fragmentos; el resultado no incluye el artículo
+     */
+    public Optional<ResultadoActualizacionStock> establecer(int articuloId, int nuevoStock,
+                                                            MovimientoInventario movimiento) throws SQLException {
+        List<MovimientoInventario> diferidos = new ArrayList<>(1);
+        try {
+            Optional<ResultadoActualizacionStock> resultado = Transacciones.ejecutar(databaseConfig, connection -> {
+                int[] stocks = bloquearFragmentos(connection, articuloId);
+                if (stocks.length == 0) {
+                    return Optional.<ResultadoActualizacionStock>empty();
+                }
+                int anterior = 0;
+                for (int stock : stocks) {
+                    anterior += stock;
+                }
+                if (anterior != nuevoStock) {
+                    escribirReparto(connection, articuloId, stocks, repartir(nuevoStock, stocks.length));
+                    movimiento.setArticuloId(articuloId);
+                    movimiento.setCantidad(Math.abs(nuevoStock - anterior));
+                    movimiento.setStockAnterior(anterior);
+                    movimiento.setStockNuevo(nuevoStock);
+                    registrarMovimiento(connection, movimiento, diferidos);
+                }
+                return Optional.of(new ResultadoActualizacionStock(true, null, anterior, nuevoStock));
+            });
+            diario.registrar(diferidos);
+            return resultado;
+        } catch (SQLException e) {
+            logger.error("Error al fijar stock fragmentado: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private int contarFragmentos(Connection connection, int articuloId) throws SQLException {
+        try (PreparedStatement statement = Sentencias.preparar(connection, SELECT_TOTAL)) {
+            statement.setInt(1, articuloId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private int leerTotal(Connection connection, int articuloId) throws SQLException {
+        try (PreparedStatement statement = Sentencias.preparar(connection, SELECT_TOTAL)) {
+            statement.setInt(1, articuloId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(2);
+            }
+        }
+    }
+
+    /**
+     * Bloquea los fragmentos del artículo en orden de número (sin riesgo de interbloqueo entre retiros)
+     * @return stock de cada fragmento, indexado por número; vacío si no tiene fragmentos
+     */
+    private int[] bloquearFragmentos(Connection connection, int articuloId) throws SQLException {
+        List<Integer> stocks = new ArrayList<>();
+        try (PreparedStatement statement = Sentencias.preparar(connection, SELECT_FRAGMENTOS_FOR_UPDATE)) {
+            statement.setInt(1, articuloId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    stocks.add(resultSet.getInt(2));
+                }
+            }
+        }
+        return stocks.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void escribirReparto(Connection connection, int articuloId, int[] actuales, int[] reparto) throws SQLException {
+        try (PreparedStatement statement = Sentencias.preparar(connection, UPDATE_FRAGMENTO)) {
+            boolean hayCambios = false;
+            for (int i = 0; i < reparto.length; i++) {
+                if (reparto[i] == actuales[i]) {
+                    continue;
+                }
+                statement.setInt(1, reparto[i]);
+                statement.setInt(2, articuloId);
+                statement.setInt(3, i);
+                statement.addBatch();
+                hayCambios = true;
+            }
+            if (hayCambios) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Reparte un total en partes iguales; el resto va a los primeros fragmentos
+     */
+    private static int[] repartir(int total, int fragmentos) {
+        int[] reparto = new int[fragmentos];
+        for (int i = 0; i < fragmentos; i++) {
+            reparto[i] = total / fragmentos + (i < total % fragmentos ? 1 : 0);
+        }
+        return reparto;
+    }
+
+    private void registrarMovimiento(Connection connection, MovimientoInventario movimiento,
+                                     List<MovimientoInventario> diferidos) throws SQLException {
+        if (diario.isHabilitado()) {
+            diferidos.add(movimiento);
+        } else {
+            movimientoInventarioDAO.registrarMovimiento(connection, movimiento);
+        }
+    }
+}
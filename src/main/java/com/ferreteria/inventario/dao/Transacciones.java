@@ -0,0 +1,42 @@
+package com.ferreteria.inventario.dao;
+
+import com.ferreteria.inventario.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Ejecuta un bloque de trabajo JDBC dentro de una transacción sobre una sola conexión
+ * Confirma si el bloque termina bien y revierte ante cualquier excepción
+ */
+final class Transacciones {
+
+    @FunctionalInterface
+    interface Trabajo<T> {
+        T ejecutar(Connection connection) throws SQLException;
+    }
+
+    private Transacciones() {
+    }
+
+    static <T> T ejecutar(DatabaseConfig databaseConfig, Trabajo<T> trabajo) throws SQLException {
+        try (Connection connection = databaseConfig.getConnectionEscritura()) {
+            boolean autoCommitOriginal = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                T resultado = trabajo.ejecutar(connection);
+                connection.commit();
+                return resultado;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommitOriginal);
+            }
+        }
+    }
+}
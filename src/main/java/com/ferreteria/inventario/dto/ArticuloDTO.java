@@ -19,7 +19,7 @@ import jakarta.xml.bind.annotation.XmlType;
     "proveedorId", "proveedorNombre",
     "precioCompra", "precioVenta", 
     "stockActual", "stockMinimo", 
-    "activo", "fechaCreacion", "fechaActualizacion"
+    "activo", "version", "fechaCreacion", "fechaActualizacion"
 })
 public class ArticuloDTO {
     @XmlElement(namespace = "http://ws.inventario.ferreteria.com/")
@@ -61,6 +61,10 @@ public class ArticuloDTO {
     @XmlElement(namespace = "http://ws.inventario.ferreteria.com/")
     private Boolean activo;
     
+    // Versión leída; al actualizar, la operación falla con CONFLICTO_VERSION si ya no es la actual
+    @XmlElement(namespace = "http://ws.inventario.ferreteria.com/")
+    private Integer version;
+    
     @XmlElement(namespace = "http://ws.inventario.ferreteria.com/")
     private String fechaCreacion;
     
@@ -199,6 +203,14 @@ public class ArticuloDTO {
         this.fechaCreacion = fechaCreacion;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     public String getFechaActualizacion() {
         return fechaActualizacion;
     }
@@ -0,0 +1,111 @@
+package com.ferreteria.inventario.dto;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementWrapper;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import jakarta.xml.bind.annotation.XmlType;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para respuestas de listado paginado de artículos SOAP
+ * siguienteToken debe enviarse en la próxima llamada para obtener la página siguiente
+ */
+@XmlRootElement(name = "articuloPageResponse", namespace = "http://ws.inventario.ferreteria.com/")
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "articuloPageResponse", propOrder = {
+    "exitoso",
+    "mensaje",
+    "articulos",
+    "siguienteToken",
+    "hayMas"
+})
+public class ArticuloPageResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @XmlElement(name = "exitoso", required = true)
+    private boolean exitoso;
+
+    @XmlElement(name = "mensaje")
+    private String mensaje;
+
+    @XmlElementWrapper(name = "articulos")
+    @XmlElement(name = "articulo", required = false)
+    private List<ArticuloDTO> articulos;
+
+    @XmlElement(name = "siguienteToken")
+    private String siguienteToken;
+
+    @XmlElement(name = "hayMas")
+    private boolean hayMas;
+
+    public ArticuloPageResponse() {
+        this.articulos = new ArrayList<>();
+    }
+
+    public ArticuloPageResponse(boolean exitoso, String mensaje) {
+        this();
+        this.exitoso = exitoso;
+        this.mensaje = mensaje;
+    }
+
+    public ArticuloPageResponse(List<ArticuloDTO> articulos, String siguienteToken) {
+        this.exitoso = true;
+        this.articulos = articulos != null ? new ArrayList<>(articulos) : new ArrayList<>();
+        this.mensaje = this.articulos.size() + " artículos";
+        this.siguienteToken = siguienteToken;
+        this.hayMas = siguienteToken != null;
+    }
+
+    public boolean isExitoso() {
+        return exitoso;
+    }
+
+    public void setExitoso(boolean exitoso) {
+        this.exitoso = exitoso;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public List<ArticuloDTO> getArticulos() {
+        if (articulos == null) {
+            articulos = new ArrayList<>();
+        }
+        return articulos;
+    }
+
+    public void setArticulos(List<ArticuloDTO> articulos) {
+        this.articulos = articulos != null ? new ArrayList<>(articulos) : new ArrayList<>();
+    }
+
+    public String getSiguienteToken() {
+        return siguienteToken;
+    }
+
+    public void setSiguienteToken(String siguienteToken) {
+        this.siguienteToken = siguienteToken;
+        this.hayMas = siguienteToken != null;
+    }
+
+    public boolean isHayMas() {
+        return hayMas;
+    }
+
+    @Override
+    public String toString() {
+        return "ArticuloPageResponse{" +
+               "exitoso=" + exitoso +
+               ", articulos=" + (articulos != null ? articulos.size() : 0) + " items" +
+               ", hayMas=" + hayMas +
+               '}';
+    }
+}
@@ -0,0 +1,92 @@
+package com.ferreteria.inventario.dto;
+
+import jakarta.activation.DataHandler;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlMimeType;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import jakarta.xml.bind.annotation.XmlType;
+
+/**
+ * DTO para la exportación del catálogo SOAP
+ * datos viaja como adjunto MTOM con un artículo JSON por línea (NDJSON)
+ */
+@XmlRootElement(name = "exportacionCatalogoResponse", namespace = "http://ws.inventario.ferreteria.com/")
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "exportacionCatalogoResponse", propOrder = {
+    "exitoso",
+    "mensaje",
+    "formato",
+    "datos"
+})
+public class ExportacionCatalogoResponse {
+
+    @XmlElement(name = "exitoso", required = true)
+    private boolean exitoso;
+
+    @XmlElement(name = "mensaje")
+    private String mensaje;
+
+    @XmlElement(name = "formato")
+    private String formato;
+
+    @XmlElement(name = "datos")
+    @XmlMimeType("application/octet-stream")
+    private DataHandler datos;
+
+    public ExportacionCatalogoResponse() {
+    }
+
+    public ExportacionCatalogoResponse(boolean exitoso, String mensaje) {
+        this.exitoso = exitoso;
+        this.mensaje = mensaje;
+    }
+
+    public ExportacionCatalogoResponse(String formato, DataHandler datos) {
+        this.exitoso = true;
+        this.mensaje = "Exportación del catálogo generada";
+        this.formato = formato;
+        this.datos = datos;
+    }
+
+    public boolean isExitoso() {
+        return exitoso;
+    }
+
+    public void setExitoso(boolean exitoso) {
+        this.exitoso = exitoso;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public String getFormato() {
+        return formato;
+    }
+
+    public void setFormato(String formato) {
+        this.formato = formato;
+    }
+
+    public DataHandler getDatos() {
+        return datos;
+    }
+
+    public void setDatos(DataHandler datos) {
+        this.datos = datos;
+    }
+
+    @Override
+    public String toString() {
+        return "ExportacionCatalogoResponse{" +
+               "exitoso=" + exitoso +
+               ", formato='" + formato + '\'' +
+               '}';
+    }
+}
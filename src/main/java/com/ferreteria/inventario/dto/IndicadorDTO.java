@@ -0,0 +1,71 @@
+package com.ferreteria.inventario.dto;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlType;
+import java.io.Serializable;
+
+/**
+ * DTO con el valor instantáneo de un indicador (por ejemplo, conexiones activas del pool)
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "indicador", propOrder = {
+    "capa",
+    "nombre",
+    "valor"
+})
+public class IndicadorDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @XmlElement(name = "capa", required = true)
+    private String capa;
+
+    @XmlElement(name = "nombre", required = true)
+    private String nombre;
+
+    @XmlElement(name = "valor")
+    private long valor;
+
+    public IndicadorDTO() {
+    }
+
+    public IndicadorDTO(String capa, String nombre, long valor) {
+        this.capa = capa;
+        this.nombre = nombre;
+        this.valor = valor;
+    }
+
+    public String getCapa() {
+        return capa;
+    }
+
+    public void setCapa(String capa) {
+        this.capa = capa;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public long getValor() {
+        return valor;
+    }
+
+    public void setValor(long valor) {
+        this.valor = valor;
+    }
+
+    @Override
+    public String toString() {
+        return "IndicadorDTO{" +
+               "capa='" + capa + '\'' +
+               ", nombre='" + nombre + '\'' +
+               ", valor=" + valor +
+               '}';
+    }
+}
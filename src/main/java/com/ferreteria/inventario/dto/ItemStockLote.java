@@ -0,0 +1,72 @@
+package com.ferreteria.inventario.dto;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlType;
+import java.io.Serializable;
+
+/**
+ * DTO de entrada para actualizarStockLote
+ * Cada elemento indica el nuevo stock o una variación (delta), pero no ambos
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "itemStockLote", propOrder = {
+    "codigo",
+    "nuevoStock",
+    "delta"
+})
+public class ItemStockLote implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @XmlElement(name = "codigo", required = true)
+    private String codigo;
+
+    @XmlElement(name = "nuevoStock")
+    private Integer nuevoStock;
+
+    @XmlElement(name = "delta")
+    private Integer delta;
+
+    public ItemStockLote() {
+    }
+
+    public ItemStockLote(String codigo, Integer nuevoStock, Integer delta) {
+        this.codigo = codigo;
+        this.nuevoStock = nuevoStock;
+        this.delta = delta;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+
+    public Integer getNuevoStock() {
+        return nuevoStock;
+    }
+
+    public void setNuevoStock(Integer nuevoStock) {
+        this.nuevoStock = nuevoStock;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemStockLote{" +
+               "codigo='" + codigo + '\'' +
+               ", nuevoStock=" + nuevoStock +
+               ", delta=" + delta +
+               '}';
+    }
+}
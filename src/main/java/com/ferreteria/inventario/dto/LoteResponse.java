@@ -0,0 +1,119 @@
+package com.ferreteria.inventario.dto;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementWrapper;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import jakarta.xml.bind.annotation.XmlType;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para respuestas de operaciones SOAP por lotes
+ * exitoso indica que la solicitud se procesó; el detalle de cada elemento está en resultados
+ */
+@XmlRootElement(name = "loteResponse", namespace = "http://ws.inventario.ferreteria.com/")
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "loteResponse", propOrder = {
+    "exitoso",
+    "mensaje",
+    "total",
+    "exitosos",
+    "fallidos",
+    "resultados"
+})
+public class LoteResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @XmlElement(name = "exitoso", required = true)
+    private boolean exitoso;
+
+    @XmlElement(name = "mensaje")
+    private String mensaje;
+
+    @XmlElement(name = "total")
+    private int total;
+
+    @XmlElement(name = "exitosos")
+    private int exitosos;
+
+    @XmlElement(name = "fallidos")
+    private int fallidos;
+
+    @XmlElementWrapper(name = "resultados")
+    @XmlElement(name = "resultado", required = false)
+    private List<ResultadoItemLote> resultados;
+
+    public LoteResponse() {
+        this.resultados = new ArrayList<>();
+    }
+
+    public LoteResponse(boolean exitoso, String mensaje) {
+        this();
+        this.exitoso = exitoso;
+        this.mensaje = mensaje;
+    }
+
+    public LoteResponse(String mensaje, List<ResultadoItemLote> resultados) {
+        this.exitoso = true;
+        this.mensaje = mensaje;
+        setResultados(resultados);
+    }
+
+    public boolean isExitoso() {
+        return exitoso;
+    }
+
+    public void setExitoso(boolean exitoso) {
+        this.exitoso = exitoso;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getExitosos() {
+        return exitosos;
+    }
+
+    public int getFallidos() {
+        return fallidos;
+    }
+
+    public List<ResultadoItemLote> getResultados() {
+        if (resultados == null) {
+            resultados = new ArrayList<>();
+        }
+        return resultados;
+    }
+
+    /**
+     * Asigna los resultados y recalcula los totales
+     */
+    public void setResultados(List<ResultadoItemLote> resultados) {
+        this.resultados = resultados != null ? new ArrayList<>(resultados) : new ArrayList<>();
+        this.total = this.resultados.size();
+        this.exitosos = (int) this.resultados.stream().filter(ResultadoItemLote::isExitoso).count();
+        this.fallidos = this.total - this.exitosos;
+    }
+
+    @Override
+    public String toString() {
+        return "LoteResponse{" +
+               "exitoso=" + exitoso +
+               ", total=" + total +
+               ", exitosos=" + exitosos +
+               ", fallidos=" + fallidos +
+               '}';
+    }
+}
@@ -0,0 +1,164 @@
+package com.ferreteria.inventario.dto;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlType;
+import java.io.Serializable;
+
+/**
+ * DTO con la latencia de una operación en una capa (ws, servicio, pool o sql)
+ * Los percentiles y el máximo cubren la ventana reciente; conteo y errores son acumulados
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "metricaOperacion", propOrder = {
+    "capa",
+    "operacion",
+    "conteo",
+    "errores",
+    "tasaPorSegundo",
+    "mediaMs",
+    "p50Ms",
+    "p90Ms",
+    "p99Ms",
+    "p999Ms",
+    "maximoMs"
+})
+public class MetricaOperacionDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @XmlElement(name = "capa", required = true)
+    private String capa;
+
+    @XmlElement(name = "operacion", required = true)
+    private String operacion;
+
+    @XmlElement(name = "conteo")
+    private long conteo;
+
+    @XmlElement(name = "errores")
+    private long errores;
+
+    @XmlElement(name = "tasaPorSegundo")
+    private double tasaPorSegundo;
+
+    @XmlElement(name = "mediaMs")
+    private double mediaMs;
+
+    @XmlElement(name = "p50Ms")
+    private double p50Ms;
+
+    @XmlElement(name = "p90Ms")
+    private double p90Ms;
+
+    @XmlElement(name = "p99Ms")
+    private double p99Ms;
+
+    @XmlElement(name = "p999Ms")
+    private double p999Ms;
+
+    @XmlElement(name = "maximoMs")
+    private double maximoMs;
+
+    public MetricaOperacionDTO() {
+    }
+
+    public String getCapa() {
+        return capa;
+    }
+
+    public void setCapa(String capa) {
+        this.capa = capa;
+    }
+
+    public String getOperacion() {
+        return operacion;
+    }
+
+    public void setOperacion(String operacion) {
+        this.operacion = operacion;
+    }
+
+    public long getConteo() {
+        return conteo;
+    }
+
+    public void setConteo(long conteo) {
+        this.conteo = conteo;
+    }
+
+    public long getErrores() {
+        return errores;
+    }
+
+    public void setErrores(long errores) {
+        this.errores = errores;
+    }
+
+    public double getTasaPorSegundo() {
+        return tasaPorSegundo;
+    }
+
+    public void setTasaPorSegundo(double tasaPorSegundo) {
+        this.tasaPorSegundo = tasaPorSegundo;
+    }
+
+    public double getMediaMs() {
+        return mediaMs;
+    }
+
+    public void setMediaMs(double mediaMs) {
+        this.mediaMs = mediaMs;
+    }
+
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    public void setP50Ms(double p50Ms) {
+        this.p50Ms = p50Ms;
+    }
+
+    public double getP90Ms() {
+        return p90Ms;
+    }
+
+    public void setP90Ms(double p90Ms) {
+        this.p90Ms = p90Ms;
+    }
+
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    public void setP99Ms(double p99Ms) {
+        this.p99Ms = p99Ms;
+    }
+
+    public double getP999Ms() {
+        return p999Ms;
+    }
+
+    public void setP999Ms(double p999Ms) {
+        this.p999Ms = p999Ms;
+    }
+
+    public double getMaximoMs() {
+        return maximoMs;
+    }
+
+    public void setMaximoMs(double maximoMs) {
+        this.maximoMs = maximoMs;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricaOperacionDTO{" +
+               "capa='" + capa + '\'' +
+               ", operacion='" + operacion + '\'' +
+               ", conteo=" + conteo +
+               ", errores=" + errores +
+               ", p99Ms=" + p99Ms +
+               '}';
+    }
+}
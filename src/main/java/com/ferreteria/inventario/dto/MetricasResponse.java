@@ -0,0 +1,111 @@
+package com.ferreteria.inventario.dto;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementWrapper;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import jakarta.xml.bind.annotation.XmlType;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para la respuesta de obtenerMetricas
+ * Una entrada por operación medida y por indicador, ordenadas por capa y nombre
+ */
+@XmlRootElement(name = "metricasResponse", namespace = "http://ws.inventario.ferreteria.com/")
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "metricasResponse", propOrder = {
+    "exitoso",
+    "mensaje",
+    "ventanaSegundos",
+    "metricas",
+    "indicadores"
+})
+public class MetricasResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @XmlElement(name = "exitoso", required = true)
+    private boolean exitoso;
+
+    @XmlElement(name = "mensaje")
+    private String mensaje;
+
+    @XmlElement(name = "ventanaSegundos")
+    private int ventanaSegundos;
+
+    @XmlElementWrapper(name = "metricas")
+    @XmlElement(name = "metrica", required = false)
+    private List<MetricaOperacionDTO> metricas;
+
+    @XmlElementWrapper(name = "indicadores")
+    @XmlElement(name = "indicador", required = false)
+    private List<IndicadorDTO> indicadores;
+
+    public MetricasResponse() {
+        this.metricas = new ArrayList<>();
+        this.indicadores = new ArrayList<>();
+    }
+
+    public MetricasResponse(boolean exitoso, String mensaje) {
+        this();
+        this.exitoso = exitoso;
+        this.mensaje = mensaje;
+    }
+
+    public boolean isExitoso() {
+        return exitoso;
+    }
+
+    public void setExitoso(boolean exitoso) {
+        this.exitoso = exitoso;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public int getVentanaSegundos() {
+        return ventanaSegundos;
+    }
+
+    public void setVentanaSegundos(int ventanaSegundos) {
+        this.ventanaSegundos = ventanaSegundos;
+    }
+
+    public List<MetricaOperacionDTO> getMetricas() {
+        if (metricas == null) {
+            metricas = new ArrayList<>();
+        }
+        return metricas;
+    }
+
+    public void setMetricas(List<MetricaOperacionDTO> metricas) {
+        this.metricas = metricas != null ? new ArrayList<>(metricas) : new ArrayList<>();
+    }
+
+    public List<IndicadorDTO> getIndicadores() {
+        if (indicadores == null) {
+            indicadores = new ArrayList<>();
+        }
+        return indicadores;
+    }
+
+    public void setIndicadores(List<IndicadorDTO> indicadores) {
+        this.indicadores = indicadores != null ? new ArrayList<>(indicadores) : new ArrayList<>();
+    }
+
+    @Override
+    public String toString() {
+        return "MetricasResponse{" +
+               "exitoso=" + exitoso +
+               ", metricas=" + (metricas != null ? metricas.size() : 0) + " items" +
+               ", indicadores=" + (indicadores != null ? indicadores.size() : 0) + " items" +
+               '}';
+    }
+}
@@ -0,0 +1,148 @@
+package com.ferreteria.inventario.dto;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlType;
+import java.io.Serializable;
+
+/**
+ * Resultado de un elemento dentro de una operación por lotes
+ * El índice corresponde a la posición del elemento en la solicitud
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "resultadoItemLote", propOrder = {
+    "indice",
+    "codigo",
+    "id",
+    "exitoso",
+    "mensaje",
+    "codigoError",
+    "stockAnterior",
+    "stockNuevo"
+})
+public class ResultadoItemLote implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @XmlElement(name = "indice", required = true)
+    private int indice;
+
+    @XmlElement(name = "codigo")
+    private String codigo;
+
+    @XmlElement(name = "id")
+    private Integer id;
+
+    @XmlElement(name = "exitoso", required = true)
+    private boolean exitoso;
+
+    @XmlElement(name = "mensaje")
+    private String mensaje;
+
+    @XmlElement(name = "codigoError")
+    private String codigoError;
+
+    @XmlElement(name = "stockAnterior")
+    private Integer stockAnterior;
+
+    @XmlElement(name = "stockNuevo")
+    private Integer stockNuevo;
+
+    public ResultadoItemLote() {
+    }
+
+    public ResultadoItemLote(int indice, String codigo) {
+        this.indice = indice;
+        this.codigo = codigo;
+    }
+
+    // Métodos estáticos para crear resultados comunes
+    public static ResultadoItemLote exito(int indice, String codigo, String mensaje) {
+        ResultadoItemLote resultado = new ResultadoItemLote(indice, codigo);
+        resultado.exitoso = true;
+        resultado.mensaje = mensaje;
+        return resultado;
+    }
+
+    public static ResultadoItemLote error(int indice, String codigo, String codigoError, String mensaje) {
+        ResultadoItemLote resultado = new ResultadoItemLote(indice, codigo);
+        resultado.exitoso = false;
+        resultado.codigoError = codigoError;
+        resultado.mensaje = mensaje;
+        return resultado;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public boolean isExitoso() {
+        return exitoso;
+    }
+
+    public void setExitoso(boolean exitoso) {
+        this.exitoso = exitoso;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public String getCodigoError() {
+        return codigoError;
+    }
+
+    public void setCodigoError(String codigoError) {
+        this.codigoError = codigoError;
+    }
+
+    public Integer getStockAnterior() {
+        return stockAnterior;
+    }
+
+    public void setStockAnterior(Integer stockAnterior) {
+        this.stockAnterior = stockAnterior;
+    }
+
+    public Integer getStockNuevo() {
+        return stockNuevo;
+    }
+
+    public void setStockNuevo(Integer stockNuevo) {
+        this.stockNuevo = stockNuevo;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoItemLote{" +
+               "indice=" + indice +
+               ", codigo='" + codigo + '\'' +
+               ", exitoso=" + exitoso +
+               ", codigoError='" + codigoError + '\'' +
+               '}';
+    }
+}
@@ -12,4 +12,15 @@ public class ArticuloNotFoundException extends InventarioException {
     public ArticuloNotFoundException(Integer id) {
         super("ARTICULO_NOT_FOUND", "BUSQUEDA", "No se encontró el artículo con ID: " + id);
     }
+
+    private ArticuloNotFoundException(String codigo, boolean conTraza) {
+        super("ARTICULO_NOT_FOUND", "BUSQUEDA", "No se encontró el artículo con código: " + codigo, conTraza);
+    }
+
+    /**
+     * Variante sin traza de pila para búsquedas por código, que fallan con frecuencia
+     */
+    public static ArticuloNotFoundException sinTraza(String codigo) {
+        return new ArticuloNotFoundException(codigo, false);
+    }
 }
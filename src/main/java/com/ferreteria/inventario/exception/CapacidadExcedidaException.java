@@ -0,0 +1,21 @@
+package com.ferreteria.inventario.exception;
+
+/**
+ * Excepción para cuando una operación se rechaza porque su compartimento
+ * (límite de operaciones simultáneas y cola de espera) está lleno
+ */
+public class CapacidadExcedidaException extends InventarioException {
+    private final String clase;
+
+    public CapacidadExcedidaException(String clase, String motivo) {
+        // Sin traza de pila: bajo sobrecarga se lanzan muchas y el rechazo es el comportamiento buscado
+        super("CAPACIDAD_EXCEDIDA", "SOBRECARGA",
+              "El servicio está al máximo de operaciones de tipo " + clase + " (" + motivo + "); intente nuevamente en unos segundos",
+              false);
+        this.clase = clase;
+    }
+
+    public String getClase() {
+        return clase;
+    }
+}
@@ -0,0 +1,29 @@
+package com.ferreteria.inventario.exception;
+
+/**
+ * Excepción para cuando un artículo fue modificado por otra operación
+ * después de que el cliente lo leyó (la versión esperada ya no es la actual)
+ */
+public class ConflictoVersionException extends InventarioException {
+    private final Integer versionEsperada;
+    private final Integer versionActual;
+
+    public ConflictoVersionException(Integer id, Integer versionEsperada, Integer versionActual) {
+        // Sin traza de pila: es un resultado esperado bajo concurrencia y puede reintentarse
+        super("CONFLICTO_VERSION", "CONCURRENCIA",
+              "El artículo con ID " + id + " fue modificado por otra operación (versión esperada: " + versionEsperada +
+              (versionActual != null ? ", versión actual: " + versionActual : "") +
+              "); consúltelo nuevamente y reintente",
+              false);
+        this.versionEsperada = versionEsperada;
+        this.versionActual = versionActual;
+    }
+
+    public Integer getVersionEsperada() {
+        return versionEsperada;
+    }
+
+    public Integer getVersionActual() {
+        return versionActual;
+    }
+}
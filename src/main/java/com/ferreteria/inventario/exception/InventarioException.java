@@ -31,6 +31,16 @@ public class InventarioException extends Exception {
         this.tipoError = tipoError;
     }
 
+    /**
+     * Permite omitir la traza de pila en errores esperados y frecuentes
+     * (por ejemplo, códigos inexistentes leídos por un escáner)
+     */
+    protected InventarioException(String codigo, String tipoError, String mensaje, boolean conTraza) {
+        super(mensaje, null, false, conTraza);
+        this.codigo = codigo;
+        this.tipoError = tipoError;
+    }
+
     public String getCodigo() {
         return codigo;
     }
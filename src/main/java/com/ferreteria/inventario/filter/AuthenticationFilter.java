@@ -17,7 +17,7 @@ import java.util.Base64;
  * Filtro de autenticación para los servicios SOAP
  * Implementa autenticación HTTP Basic para proteger las operaciones
  */
-@WebFilter(filterName = "AuthenticationFilter", urlPatterns = {"/InventarioService/*"})
+@WebFilter(filterName = "AuthenticationFilter", urlPatterns = {"/InventarioService/*"}, asyncSupported = true)
 public class AuthenticationFilter implements Filter {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationFilter.class);
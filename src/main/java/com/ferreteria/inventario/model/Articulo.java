@@ -22,6 +22,8 @@ public class Articulo {
     private Integer stockActual;
     private Integer stockMinimo;
     private Boolean activo;
+    // Se incrementa en cada escritura; las actualizaciones se condicionan a la versión leída
+    private Integer version;
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaActualizacion;
 
@@ -48,6 +50,26 @@ public class Articulo {
         this.stockMinimo = stockMinimo;
     }
 
+    // Constructor de copia (usado por la caché para no compartir instancias mutables)
+    public Articulo(Articulo otro) {
+        this.id = otro.id;
+        this.codigo = otro.codigo;
+        this.nombre = otro.nombre;
+        this.descripcion = otro.descripcion;
+        this.categoriaId = otro.categoriaId;
+        this.categoriaNombre = otro.categoriaNombre;
+        this.proveedorId = otro.proveedorId;
+        this.proveedorNombre = otro.proveedorNombre;
+        this.precioCompra = otro.precioCompra;
+        this.precioVenta = otro.precioVenta;
+        this.stockActual = otro.stockActual;
+        this.stockMinimo = otro.stockMinimo;
+        this.activo = otro.activo;
+        this.version = otro.version;
+        this.fechaCreacion = otro.fechaCreacion;
+        this.fechaActualizacion = otro.fechaActualizacion;
+    }
+
     // Getters y Setters
     public Integer getId() {
         return id;
@@ -153,6 +175,14 @@ public class Articulo {
         this.activo = activo;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     public LocalDateTime getFechaCreacion() {
         return fechaCreacion;
     }
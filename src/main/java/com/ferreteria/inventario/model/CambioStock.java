@@ -0,0 +1,58 @@
+package com.ferreteria.inventario.model;
+
+/**
+ * Cambio de stock solicitado para un artículo identificado por código
+ * Puede fijar un valor absoluto o sumar/restar una cantidad
+ */
+public class CambioStock {
+    private final String codigo;
+    private final int cantidad;
+    private final boolean delta;
+
+    private CambioStock(String codigo, int cantidad, boolean delta) {
+        this.codigo = codigo;
+        this.cantidad = cantidad;
+        this.delta = delta;
+    }
+
+    /**
+     * Fija el stock en el valor indicado
+     */
+    public static CambioStock fijar(String codigo, int nuevoStock) {
+        return new CambioStock(codigo, nuevoStock, false);
+    }
+
+    /**
+     * Suma (positiva) o resta (negativa) la cantidad indicada
+     */
+    public static CambioStock variar(String codigo, int delta) {
+        return new CambioStock(codigo, delta, true);
+    }
+
+    /**
+     * Calcula el stock resultante a partir del stock actual
+     */
+    public int aplicarA(int stockActual) {
+        return delta ? stockActual + cantidad : cantidad;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    @Override
+    public String toString() {
+        return "CambioStock{" +
+                "codigo='" + codigo + '\'' +
+                (delta ? ", delta=" : ", nuevoStock=") + cantidad +
+                '}';
+    }
+}
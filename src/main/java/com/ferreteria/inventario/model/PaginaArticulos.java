@@ -0,0 +1,29 @@
+package com.ferreteria.inventario.model;
+
+import java.util.List;
+
+/**
+ * Página de artículos obtenida con paginación por clave
+ * siguienteToken es null cuando no hay más resultados
+ */
+public class PaginaArticulos {
+    private final List<Articulo> articulos;
+    private final String siguienteToken;
+
+    public PaginaArticulos(List<Articulo> articulos, String siguienteToken) {
+        this.articulos = articulos;
+        this.siguienteToken = siguienteToken;
+    }
+
+    public List<Articulo> getArticulos() {
+        return articulos;
+    }
+
+    public String getSiguienteToken() {
+        return siguienteToken;
+    }
+
+    public boolean hayMas() {
+        return siguienteToken != null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ferreteria.inventario.model;
+
+/**
+ * Resultado de una modificación de stock aplicada en la base de datos
+ * Incluye el artículo tal como quedó y los valores de stock antes y después
+ */
+public class ResultadoActualizacionStock {
+    private final boolean aplicado;
+    private final Articulo articulo;
+    private final int stockAnterior;
+    private final int stockNuevo;
+    private final boolean conflicto;
+
+    public ResultadoActualizacionStock(boolean aplicado, Articulo articulo, int stockAnterior, int stockNuevo) {
+        this(aplicado, articulo, stockAnterior, stockNuevo, false);
+    }
+
+    private ResultadoActualizacionStock(boolean aplicado, Articulo articulo, int stockAnterior, int stockNuevo,
+                                        boolean conflicto) {
+        this.aplicado = aplicado;
+        this.articulo = articulo;
+        this.stockAnterior = stockAnterior;
+        this.stockNuevo = stockNuevo;
+        this.conflicto = conflicto;
+    }
+
+    /**
+     * Resultado de un retiro rechazado por dejar el stock negativo
+     */
+    public static ResultadoActualizacionStock rechazado(Articulo articulo, int stockActual) {
+        return new ResultadoActualizacionStock(false, articulo, stockActual, stockActual);
+    }
+
+    /**
+     * Resultado para un artículo que no existe
+     */
+    public static ResultadoActualizacionStock noEncontrado() {
+        return new ResultadoActualizacionStock(false, null, 0, 0);
+    }
+
+    /**
+     * Resultado de una escritura descartada porque otra operación cambió la versión del artículo
+     * @param articulo artículo tal como se leyó (con la versión esperada)
+     */
+    public static ResultadoActualizacionStock conflicto(Articulo articulo) {
+        int stock = articulo.getStockActual();
+        return new ResultadoActualizacionStock(false, articulo, stock, stock, true);
+    }
+
+    /**
+     * true si la escritura no se aplicó por un conflicto de versión; puede reintentarse
+     */
+    public boolean isConflicto() {
+        return conflicto;
+    }
+
+    /**
+     * false si el artículo no existe
+     */
+    public boolean isEncontrado() {
+        return articulo != null;
+    }
+
+    /**
+     * false si la operación no se aplicó (artículo inexistente, stock que habría quedado negativo
+     * o conflicto de versión)
+     */
+    public boolean isAplicado() {
+        return aplicado;
+    }
+
+    public Articulo getArticulo() {
+        return articulo;
+    }
+
+    public int getStockAnterior() {
+        return stockAnterior;
+    }
+
+    public int getStockNuevo() {
+        return stockNuevo;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoActualizacionStock{" +
+                "aplicado=" + aplicado +
+                ", articulo=" + (articulo != null ? articulo.getCodigo() : "null") +
+                ", stockAnterior=" + stockAnterior +
+                ", stockNuevo=" + stockNuevo +
+                (conflicto ? ", conflicto=true" : "") +
+                '}';
+    }
+}
@@ -0,0 +1,321 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.config.DatabaseConfig;
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.model.Articulo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de lectura de artículos indexada por ID y por código normalizado
+ * Limita el número de entradas (LRU) y descarta las que superan el TTL configurado.
+ * Siempre entrega copias para que los llamadores no modifiquen las entradas compartidas.
+ * Con réplicas de lectura, un artículo invalidado no se vuelve a guardar hasta que pasa la ventana
+ * de las réplicas: la lectura pudo venir de una réplica que aún no tenía la escritura.
+ */
+public class ArticuloCache {
+    private static final Logger logger = LoggerFactory.getLogger(ArticuloCache.class);
+    private static ArticuloCache instance;
+
+    private final boolean habilitado;
+    private final int maxEntradas;
+    private final long ttlNanos;
+    private final long ventanaReplicasNanos;
+
+    // Ambos mapas se protegen con el monitor de la instancia
+    private final LinkedHashMap<Integer, Entrada> porId;
+    private final Map<String, Integer> idPorCodigo = new HashMap<>();
+    // ID -> instante de su última invalidación, solo dentro de la ventana de las réplicas
+    private final Map<Integer, Long> invalidadosRecientes = new HashMap<>();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder expiraciones = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    // Se incrementa en cada invalidación (aun con la caché deshabilitada); evita guardar lecturas que
+    // quedaron obsoletas y que una consulta se sume a una lectura en curso anterior a la escritura
+    private final AtomicLong generacion = new AtomicLong();
+
+    public ArticuloCache(boolean habilitado, int maxEntradas, long ttlSegundos) {
+        this(habilitado, maxEntradas, ttlSegundos, 0);
+    }
+
+    public ArticuloCache(boolean habilitado, int maxEntradas, long ttlSegundos, long ventanaReplicasMs) {
+        this.habilitado = habilitado && maxEntradas > 0;
+        this.maxEntradas = Math.max(maxEntradas, 0);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(ttlSegundos, 1));
+        this.ventanaReplicasNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(ventanaReplicasMs, 0));
+        this.porId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entrada> eldest) {
+                if (size() > ArticuloCache.this.maxEntradas) {
+                    idPorCodigo.remove(eldest.getValue().articulo.getCodigo());
+                    desalojos.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static synchronized ArticuloCache getInstance() {
+        if (instance == null) {
+            InventarioConfig config = InventarioConfig.getInstance();
+            instance = new ArticuloCache(
+                config.getBoolean("cache.articulos.habilitado", true),
+                config.getInt("cache.articulos.maxEntradas", 5000),
+                config.getLong("cache.articulos.ttlSegundos", 60),
+                DatabaseConfig.getInstance().getVentanaReplicasMs());
+            logger.info("Caché de artículos inicializada (habilitada: {}, máximo: {}, TTL: {}s)",
+                       instance.habilitado, instance.maxEntradas, TimeUnit.NANOSECONDS.toSeconds(instance.ttlNanos));
+        }
+        return instance;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Busca un artículo por código normalizado; devuelve null si no está en caché
+     */
+    public Articulo obtenerPorCodigo(String codigoNormalizado) {
+        if (!habilitado || codigoNormalizado == null) {
+            return null;
+        }
+        synchronized (this) {
+            Integer id = idPorCodigo.get(codigoNormalizado);
+            return id != null ? leer(id) : registrarFallo();
+        }
+    }
+
+    /**
+     * ID del artículo con ese código si está en caché, sin contar acierto ni fallo; null si no está
+     */
+    public Integer idPorCodigo(String codigoNormalizado) {
+        if (!habilitado || codigoNormalizado == null) {
+            return null;
+        }
+        synchronized (this) {
+            return idPorCodigo.get(codigoNormalizado);
+        }
+    }
+
+    /**
+     * Busca un artículo por ID; devuelve null si no está en caché
+     */
+    public Articulo obtenerPorId(Integer id) {
+        if (!habilitado || id == null) {
+            return null;
+        }
+        synchronized (this) {
+            return leer(id);
+        }
+    }
+
+    /**
+     * Marca de generación a capturar antes de leer de la base de datos
+     */
+    public long marcaLectura() {
+        return generacion.get();
+    }
+
+    /**
+     * Guarda un artículo leído de la base de datos, salvo que haya habido
+     * una invalidación desde que se tomó la marca o que el artículo se haya invalidado
+     * dentro de la ventana de las réplicas (la lectura podría estar obsoleta)
+     */
+    public void guardar(Articulo articulo, long marcaLectura) {
+        if (!habilitado || articulo == null || articulo.getId() == null || articulo.getCodigo() == null) {
+            return;
+        }
+        Entrada entrada = new Entrada(new Articulo(articulo), System.nanoTime() + ttlNanos);
+        synchronized (this) {
+            if (generacion.get() != marcaLectura || invalidadoRecientemente(articulo.getId())) {
+                return;
+            }
+            Entrada anterior = porId.put(articulo.getId(), entrada);
+            if (anterior != null && !anterior.articulo.getCodigo().equals(articulo.getCodigo())) {
+                idPorCodigo.remove(anterior.articulo.getCodigo());
+            }
+            idPorCodigo.put(articulo.getCodigo(), articulo.getId());
+        }
+    }
+
+    /**
+     * Elimina de la caché el artículo con el ID indicado
+     */
+    public void invalidar(Integer id) {
+        generacion.incrementAndGet();
+        if (!habilitado || id == null) {
+            return;
+        }
+        synchronized (this) {
+            recordarInvalidacion(id);
+            Entrada anterior = porId.remove(id);
+            if (anterior != null) {
+                idPorCodigo.remove(anterior.articulo.getCodigo());
+                invalidaciones.increment();
+            }
+        }
+    }
+
+    /**
+     * Elimina de la caché el artículo con el código indicado
+     */
+    public void invalidarPorCodigo(String codigoNormalizado) {
+        generacion.incrementAndGet();
+        if (!habilitado || codigoNormalizado == null) {
+            return;
+        }
+        synchronized (this) {
+            Integer id = idPorCodigo.remove(codigoNormalizado);
+            if (id != null) {
+                recordarInvalidacion(id);
+                porId.remove(id);
+                invalidaciones.increment();
+            }
+        }
+    }
+
+    // Invocados con el monitor tomado
+    private void recordarInvalidacion(Integer id) {
+        if (ventanaReplicasNanos == 0) {
+            return;
+        }
+        long ahora = System.nanoTime();
+        if (invalidadosRecientes.size() >= maxEntradas && !invalidadosRecientes.containsKey(id)) {
+            invalidadosRecientes.values().removeIf(instante -> ahora - instante >= ventanaReplicasNanos);
+        }
+        invalidadosRecientes.put(id, ahora);
+    }
+
+    private boolean invalidadoRecientemente(Integer id) {
+        if (ventanaReplicasNanos == 0) {
+            return false;
+        }
+        Long instante = invalidadosRecientes.get(id);
+        if (instante == null) {
+            return false;
+        }
+        if (System.nanoTime() - instante < ventanaReplicasNanos) {
+            return true;
+        }
+        invalidadosRecientes.remove(id);
+        return false;
+    }
+
+    public synchronized void limpiar() {
+        generacion.incrementAndGet();
+        porId.clear();
+        idPorCodigo.clear();
+        logger.info("Caché de artículos vaciada");
+    }
+
+    public synchronized Estadisticas getEstadisticas() {
+        return new Estadisticas(aciertos.sum(), fallos.sum(), desalojos.sum(),
+                                expiraciones.sum(), invalidaciones.sum(), porId.size());
+    }
+
+    // Debe llamarse con el monitor tomado
+    private Articulo leer(Integer id) {
+        Entrada entrada = porId.get(id);
+        if (entrada == null) {
+            return registrarFallo();
+        }
+        if (System.nanoTime() - entrada.expiraEn > 0) {
+            porId.remove(id);
+            idPorCodigo.remove(entrada.articulo.getCodigo());
+            expiraciones.increment();
+            return registrarFallo();
+        }
+        aciertos.increment();
+        return new Articulo(entrada.articulo);
+    }
+
+    private Articulo registrarFallo() {
+        fallos.increment();
+        return null;
+    }
+
+    private static final class Entrada {
+        private final Articulo articulo;
+        private final long expiraEn;
+
+        private Entrada(Articulo articulo, long expiraEn) {
+            this.articulo = articulo;
+            this.expiraEn = expiraEn;
+        }
+    }
+
+    /**
+     * Instantánea de los contadores de la caché
+     */
+    public static final class Estadisticas {
+        private final long aciertos;
+        private final long fallos;
+        private final long desalojos;
+        private final long expiraciones;
+        private final long invalidaciones;
+        private final int entradas;
+
+        Estadisticas(long aciertos, long fallos, long desalojos, long expiraciones, long invalidaciones, int entradas) {
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.desalojos = desalojos;
+            this.expiraciones = expiraciones;
+            this.invalidaciones = invalidaciones;
+            this.entradas = entradas;
+        }
+
+        public long getAciertos() {
+            return aciertos;
+        }
+
+        public long getFallos() {
+            return fallos;
+        }
+
+        public long getDesalojos() {
+            return desalojos;
+        }
+
+        public long getExpiraciones() {
+            return expiraciones;
+        }
+
+        public long getInvalidaciones() {
+            return invalidaciones;
+        }
+
+        public int getEntradas() {
+            return entradas;
+        }
+
+        public double getTasaAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0.0 : (double) aciertos / total;
+        }
+
+        @Override
+        public String toString() {
+            return "Estadisticas{" +
+                    "aciertos=" + aciertos +
+                    ", fallos=" + fallos +
+                    ", desalojos=" + desalojos +
+                    ", expiraciones=" + expiraciones +
+                    ", invalidaciones=" + invalidaciones +
+                    ", entradas=" + entradas +
+                    '}';
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package com.ferreteria.inventario.service;
 
+import com.ferreteria.inventario.config.InventarioConfig;
 import com.ferreteria.inventario.dao.ArticuloDAO;
+import com.ferreteria.inventario.dao.DiarioMovimientos;
+import com.ferreteria.inventario.dto.ItemStockLote;
+import com.ferreteria.inventario.dto.ResultadoItemLote;
 import com.ferreteria.inventario.model.Articulo;
+import com.ferreteria.inventario.model.CambioStock;
+import com.ferreteria.inventario.model.PaginaArticulos;
+import com.ferreteria.inventario.util.TokenPaginacion;
 import com.ferreteria.inventario.exception.ArticuloNotFoundException;
+import com.ferreteria.inventario.exception.ConflictoVersionException;
 import com.ferreteria.inventario.exception.InventarioException;
 import com.ferreteria.inventario.exception.ValidationException;
 import org.slf4j.Logger;
@@ -10,12 +18,23 @@ import org.slf4j.LoggerFactory;
 
 import com.ferreteria.inventario.dao.MovimientoInventarioDAO;
 import com.ferreteria.inventario.model.MovimientoInventario;
+import com.ferreteria.inventario.model.ResultadoActualizacionStock;
 import com.ferreteria.inventario.model.TipoMovimiento;
+import com.ferreteria.inventario.util.HistogramaLatencia;
+import com.ferreteria.inventario.util.RegistroMetricas;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 /**
  * Servicio de lógica de negocio para la gestión de artículos
@@ -23,22 +42,107 @@ import java.util.Optional;
  */
 public class ArticuloService {
     private static final Logger logger = LoggerFactory.getLogger(ArticuloService.class);
+
+    // Latencia de los métodos públicos (RegistroMetricas, capa servicio); cada uno delega en su versión SinMedir
+    private static final HistogramaLatencia LATENCIA_REGISTRAR_ARTICULO =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.registrarArticulo");
+    private static final HistogramaLatencia LATENCIA_REGISTRAR_ARTICULOS_LOTE =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.registrarArticulosLote");
+    private static final HistogramaLatencia LATENCIA_CONSULTAR_POR_CODIGO =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.consultarPorCodigo");
+    private static final HistogramaLatencia LATENCIA_CONSULTAR_POR_ID =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.consultarPorId");
+    private static final HistogramaLatencia LATENCIA_BUSCAR_POR_NOMBRE =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.buscarPorNombre");
+    private static final HistogramaLatencia LATENCIA_OBTENER_TODOS_LOS_ARTICULOS =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.obtenerTodosLosArticulos");
+    private static final HistogramaLatencia LATENCIA_LISTAR_ARTICULOS_PAGINADO =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.listarArticulosPaginado");
+    private static final HistogramaLatencia LATENCIA_EXPORTAR_CATALOGO =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.exportarCatalogo");
+    private static final HistogramaLatencia LATENCIA_ACTUALIZAR_ARTICULO =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.actualizarArticulo");
+    private static final HistogramaLatencia LATENCIA_ACTUALIZAR_STOCK =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.actualizarStock");
+    private static final HistogramaLatencia LATENCIA_ACTUALIZAR_STOCK_POR_CODIGO =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.actualizarStockPorCodigo");
+    private static final HistogramaLatencia LATENCIA_ACTUALIZAR_STOCK_LOTE =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.actualizarStockLote");
+    private static final HistogramaLatencia LATENCIA_ELIMINAR_ARTICULO =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.eliminarArticulo");
+    private static final HistogramaLatencia LATENCIA_OBTENER_ARTICULOS_CON_STOCK_BAJO =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.obtenerArticulosConStockBajo");
+    private static final HistogramaLatencia LATENCIA_ACTUALIZAR_STOCK_CON_MOVIMIENTO =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.actualizarStockConMovimiento");
+    private static final HistogramaLatencia LATENCIA_APLICAR_MOVIMIENTO_STOCK =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.aplicarMovimientoStock");
+    private static final HistogramaLatencia LATENCIA_REGISTRAR_ENTRADA_STOCK =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.registrarEntradaStock");
+    private static final HistogramaLatencia LATENCIA_REGISTRAR_SALIDA_STOCK =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.registrarSalidaStock");
+    private static final HistogramaLatencia LATENCIA_OBTENER_MOVIMIENTOS_ARTICULO =
+        RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_SERVICIO, "ArticuloService.obtenerMovimientosArticulo");
+    
+    // Código de error de MySQL: clave única duplicada (en articulos, solo el código)
+    private static final int ER_DUP_ENTRY = 1062;
     
     private final ArticuloDAO articuloDAO;
     private final ArticuloValidator validator;
     private final MovimientoInventarioDAO movimientoInventarioDAO;
+    private final ArticuloCache cache;
+    private final FiltroCodigosArticulo filtroCodigos;
+    private final BuscadorArticulos buscador;
+    private final LocksArticulos locks;
+    private final DatosReferenciaCache datosReferencia;
+    // Con stock.memoria.habilitado el stock vigente está en memoria y se vuelca a la BD en segundo plano
+    private final MotorStock motorStock;
+    // Artículos muy vendidos con el stock repartido en varias filas (solo sin el motor en memoria)
+    private final StockFragmentado stockFragmentado;
+    // Elementos por transacción en las operaciones por lotes
+    private final int tamanoBloqueLote = Math.max(1, InventarioConfig.getInstance().getInt("lote.tamanoBloque", 500));
+    // Reintento de las escrituras de stock que chocan con otra transacción
+    private final ReintentoConcurrencia reintentos = ReintentoConcurrencia.desdeConfiguracion();
+    // Lecturas en curso por código (String) o ID (Integer); las consultas idénticas simultáneas las comparten
+    private final ConsultasEnVuelo<Object, Optional<Articulo>> consultasEnVuelo =
+        ConsultasEnVuelo.desdeConfiguracion(articulo -> articulo.map(Articulo::new));
 
     public ArticuloService() {
         this.articuloDAO = new ArticuloDAO();
         this.validator = new ArticuloValidator();
         this.movimientoInventarioDAO = new MovimientoInventarioDAO();
+        this.cache = ArticuloCache.getInstance();
+        this.filtroCodigos = FiltroCodigosArticulo.getInstance();
+        this.buscador = BuscadorArticulos.getInstance();
+        this.locks = LocksArticulos.getInstance();
+        this.datosReferencia = DatosReferenciaCache.getInstance();
+        this.stockFragmentado = StockFragmentado.getInstance();
+        this.motorStock = MotorStock.getInstance();
     }
 
     // Constructor para inyección de dependencias (útil para testing)
     public ArticuloService(ArticuloDAO articuloDAO, ArticuloValidator validator, MovimientoInventarioDAO movimientoInventarioDAO) {
+        this(articuloDAO, validator, movimientoInventarioDAO, new ArticuloCache(false, 0, 0),
+             new FiltroCodigosArticulo(articuloDAO, false, 0.01, 1));
+    }
+
+    public ArticuloService(ArticuloDAO articuloDAO, ArticuloValidator validator, MovimientoInventarioDAO movimientoInventarioDAO,
+                           ArticuloCache cache, FiltroCodigosArticulo filtroCodigos) {
+        this(articuloDAO, validator, movimientoInventarioDAO, cache, filtroCodigos,
+             new BuscadorArticulos(articuloDAO, false, 1));
+    }
+
+    public ArticuloService(ArticuloDAO articuloDAO, ArticuloValidator validator, MovimientoInventarioDAO movimientoInventarioDAO,
+                           ArticuloCache cache, FiltroCodigosArticulo filtroCodigos, BuscadorArticulos buscador) {
         this.articuloDAO = articuloDAO;
         this.validator = validator;
         this.movimientoInventarioDAO = movimientoInventarioDAO != null ? movimientoInventarioDAO : new MovimientoInventarioDAO();
+        this.cache = cache;
+        this.filtroCodigos = filtroCodigos;
+        this.buscador = buscador;
+        this.locks = LocksArticulos.getInstance();
+        this.datosReferencia = DatosReferenciaCache.getInstance();
+        this.stockFragmentado = StockFragmentado.getInstance();
+        this.motorStock = MotorStock.getInstance();
     }
 
     /**
@@ -46,22 +150,36 @@ public class ArticuloService {
      * Aplica todas las validaciones de negocio
      */
     public Articulo registrarArticulo(Articulo articulo) throws InventarioException {
+        return LATENCIA_REGISTRAR_ARTICULO.medir(() -> registrarArticuloSinMedir(articulo));
+    }
+
+    private Articulo registrarArticuloSinMedir(Articulo articulo) throws InventarioException {
         logger.info("Iniciando registro de nuevo artículo: {}", articulo.getCodigo());
         
         try {
             // Validar datos del artículo
             validator.validarParaInsercion(articulo);
             
-            // Verificar que el código no exista
-            if (articuloDAO.existePorCodigo(articulo.getCodigo(), null)) {
+            // Verificar que el código no exista (el filtro evita la consulta si el código es nuevo; un
+            // código dado de alta por otro escritor y aún no recogido lo detiene el índice único)
+            if (!filtroCodigos.descarta(articulo.getCodigo())
+                    && articuloDAO.existePorCodigo(articulo.getCodigo(), null)) {
                 throw new ValidationException("Ya existe un artículo con el código: " + articulo.getCodigo());
             }
             
             // Normalizar datos
             normalizarDatos(articulo);
             
+            // Registrar el código antes de insertar para que el filtro nunca dé falsos negativos
+            filtroCodigos.agregar(articulo.getCodigo());
+            
             // Insertar en la base de datos
             Articulo articuloCreado = articuloDAO.insertar(articulo);
+            if (motorStock.isHabilitado()) {
+                motorStock.registrar(articuloCreado.getId(), articuloCreado.getStockActual());
+            }
+            cache.guardar(articuloCreado, cache.marcaLectura());
+            buscador.indexar(articuloCreado);
             
             logger.info("Artículo registrado exitosamente: {} - {}", 
                        articuloCreado.getCodigo(), articuloCreado.getNombre());
@@ -75,16 +193,126 @@ public class ArticuloService {
             return articuloCreado;
             
         } catch (SQLException e) {
+            // Un alta concurrente del mismo código pasa la verificación y choca con el índice único
+            if (esCodigoDuplicado(e)) {
+                throw new ValidationException("Ya existe un artículo con el código: " + articulo.getCodigo());
+            }
             logger.error("Error de base de datos al registrar artículo: {}", e.getMessage(), e);
             throw new InventarioException("ERROR_BD", "BASE_DATOS", 
                 "Error al acceder a la base de datos: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Registra varios artículos en una sola operación
+     * Valida cada artículo, rechaza códigos repetidos dentro del lote y, por bloques,
+     * comprueba los códigos existentes con una sola consulta IN y los inserta con un
+     * INSERT por lotes. Los ID generados se devuelven sin volver a leer las filas.
+     * @return Un resultado por artículo, en el mismo orden de la solicitud
+     */
+    public List<ResultadoItemLote> registrarArticulosLote(List<Articulo> articulos) {
+        return LATENCIA_REGISTRAR_ARTICULOS_LOTE.medir(() -> registrarArticulosLoteSinMedir(articulos));
+    }
+
+    private List<ResultadoItemLote> registrarArticulosLoteSinMedir(List<Articulo> articulos) {
+        logger.info("Registrando lote de {} artículos", articulos.size());
+        
+        ResultadoItemLote[] resultados = new ResultadoItemLote[articulos.size()];
+        List<Integer> indicesValidos = new ArrayList<>();
+        Set<String> codigosLote = new HashSet<>();
+        
+        // 1. Validación y normalización, sin acceso a la base de datos
+        for (int i = 0; i < articulos.size(); i++) {
+            Articulo articulo = articulos.get(i);
+            if (articulo == null) {
+                resultados[i] = ResultadoItemLote.error(i, null, "VALIDATION_ERROR", "El artículo es requerido");
+                continue;
+            }
+            try {
+                validator.validarParaInsercion(articulo);
+                normalizarDatos(articulo);
+                if (!codigosLote.add(articulo.getCodigo())) {
+                    throw new ValidationException("Código repetido dentro del lote: " + articulo.getCodigo());
+                }
+                indicesValidos.add(i);
+            } catch (ValidationException e) {
+                resultados[i] = ResultadoItemLote.error(i, articulo.getCodigo(), e.getCodigo(), e.getMessage());
+            }
+        }
+        
+        // 2. Verificación de códigos e inserción por bloques
+        for (int inicio = 0; inicio < indicesValidos.size(); inicio += tamanoBloqueLote) {
+            List<Integer> bloque = indicesValidos.subList(inicio, Math.min(inicio + tamanoBloqueLote, indicesValidos.size()));
+            
+            try {
+                List<String> codigosPorVerificar = new ArrayList<>();
+                for (Integer indice : bloque) {
+                    String codigo = articulos.get(indice).getCodigo();
+                    if (!filtroCodigos.descarta(codigo)) {
+                        codigosPorVerificar.add(codigo);
+                    }
+                }
+                Set<String> existentes = articuloDAO.buscarCodigosExistentes(codigosPorVerificar);
+                
+                List<Integer> indicesInsertar = new ArrayList<>();
+                List<Articulo> insertar = new ArrayList<>();
+                for (Integer indice : bloque) {
+                    Articulo articulo = articulos.get(indice);
+                    if (existentes.contains(articulo.getCodigo())) {
+                        resultados[indice] = ResultadoItemLote.error(indice, articulo.getCodigo(), "VALIDATION_ERROR", 
+                            "Ya existe un artículo con el código: " + articulo.getCodigo());
+                        continue;
+                    }
+                    // Registrar el código antes de insertar para que el filtro nunca dé falsos negativos
+                    filtroCodigos.agregar(articulo.getCodigo());
+                    indicesInsertar.add(indice);
+                    insertar.add(articulo);
+                }
+                
+                Map<Integer, SQLException> errores = articuloDAO.insertarLote(insertar);
+                for (int j = 0; j < insertar.size(); j++) {
+                    int indice = indicesInsertar.get(j);
+                    Articulo articulo = insertar.get(j);
+                    SQLException error = errores.get(j);
+                    if (error != null && esCodigoDuplicado(error)) {
+                        resultados[indice] = ResultadoItemLote.error(indice, articulo.getCodigo(), "VALIDATION_ERROR", 
+                            "Ya existe un artículo con el código: " + articulo.getCodigo());
+                    } else if (error != null) {
+                        resultados[indice] = ResultadoItemLote.error(indice, articulo.getCodigo(), "ERROR_BD", 
+                            "Error al insertar el artículo: " + error.getMessage());
+                    } else {
+                        if (motorStock.isHabilitado()) {
+                            motorStock.registrar(articulo.getId(), articulo.getStockActual());
+                        }
+                        buscador.indexar(articulo);
+                        resultados[indice] = ResultadoItemLote.exito(indice, articulo.getCodigo(), "Artículo insertado");
+                        resultados[indice].setId(articulo.getId());
+                        resultados[indice].setStockNuevo(articulo.getStockActual());
+                    }
+                }
+            } catch (SQLException e) {
+                logger.error("Error de base de datos al registrar bloque de artículos: {}", e.getMessage(), e);
+                for (Integer indice : bloque) {
+                    if (resultados[indice] == null) {
+                        resultados[indice] = ResultadoItemLote.error(indice, articulos.get(indice).getCodigo(), "ERROR_BD", 
+                            "Error al acceder a la base de datos: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        
+        logger.info("Lote de artículos procesado: {} elementos", articulos.size());
+        return Arrays.asList(resultados);
+    }
+
     /**
      * Consulta un artículo por su código
      */
     public Articulo consultarPorCodigo(String codigo) throws InventarioException {
+        return LATENCIA_CONSULTAR_POR_CODIGO.medir(() -> consultarPorCodigoSinMedir(codigo));
+    }
+
+    private Articulo consultarPorCodigoSinMedir(String codigo) throws InventarioException {
         logger.info("Consultando artículo por código: {}", codigo);
         
         try {
@@ -94,16 +322,37 @@ public class ArticuloService {
             // Normalizar código
             String codigoNormalizado = codigo.trim().toUpperCase();
             
-            // Buscar en la base de datos
-            Optional<Articulo> articuloOpt = articuloDAO.buscarPorCodigo(codigoNormalizado);
+            Articulo enCache = cache.obtenerPorCodigo(codigoNormalizado);
+            if (enCache != null) {
+                logger.debug("Artículo obtenido de caché: {}", codigoNormalizado);
+                return conStockVigente(enCache);
+            }
+            
+            // Códigos que con certeza no existen se rechazan sin ir a la base de datos
+            if (filtroCodigos.descarta(codigoNormalizado)) {
+                logger.info("Código descartado por el filtro de códigos: {}", codigoNormalizado);
+                throw ArticuloNotFoundException.sinTraza(codigoNormalizado);
+            }
+            
+            // Buscar en la base de datos; una consulta igual en curso se comparte
+            long marca = cache.marcaLectura();
+            Optional<Articulo> articuloOpt = consultasEnVuelo.obtener(codigoNormalizado, marca, () -> {
+                Optional<Articulo> leido = articuloDAO.buscarPorCodigo(codigoNormalizado);
+                if (leido.isPresent()) {
+                    cache.guardar(leido.get(), marca);
+                } else {
+                    filtroCodigos.registrarFalsoPositivo();
+                }
+                return leido;
+            });
             
             if (articuloOpt.isPresent()) {
-                Articulo articulo = articuloOpt.get();
+                Articulo articulo = conStockVigente(articuloOpt.get());
                 logger.info("Artículo encontrado: {} - {}", articulo.getCodigo(), articulo.getNombre());
                 return articulo;
             } else {
                 logger.info("No se encontró artículo con código: {}", codigoNormalizado);
-                throw new ArticuloNotFoundException(codigoNormalizado);
+                throw ArticuloNotFoundException.sinTraza(codigoNormalizado);
             }
             
         } catch (SQLException e) {
@@ -117,6 +366,10 @@ public class ArticuloService {
      * Consulta un artículo por su ID
      */
     public Articulo consultarPorId(Integer id) throws InventarioException {
+        return LATENCIA_CONSULTAR_POR_ID.medir(() -> consultarPorIdSinMedir(id));
+    }
+
+    private Articulo consultarPorIdSinMedir(Integer id) throws InventarioException {
         logger.info("Consultando artículo por ID: {}", id);
         
         try {
@@ -124,10 +377,21 @@ public class ArticuloService {
                 throw new ValidationException("El ID del artículo debe ser un número positivo");
             }
             
-            Optional<Articulo> articuloOpt = articuloDAO.buscarPorId(id);
+            Articulo enCache = cache.obtenerPorId(id);
+            if (enCache != null) {
+                logger.debug("Artículo obtenido de caché: ID {}", id);
+                return conStockVigente(enCache);
+            }
+            
+            long marca = cache.marcaLectura();
+            Optional<Articulo> articuloOpt = consultasEnVuelo.obtener(id, marca, () -> {
+                Optional<Articulo> leido = articuloDAO.buscarPorId(id);
+                leido.ifPresent(articulo -> cache.guardar(articulo, marca));
+                return leido;
+            });
             
             if (articuloOpt.isPresent()) {
-                Articulo articulo = articuloOpt.get();
+                Articulo articulo = conStockVigente(articuloOpt.get());
                 logger.info("Artículo encontrado: {} - {}", articulo.getCodigo(), articulo.getNombre());
                 return articulo;
             } else {
@@ -146,14 +410,22 @@ public class ArticuloService {
      * Busca artículos por nombre (búsqueda parcial)
      */
     public List<Articulo> buscarPorNombre(String nombre) throws InventarioException {
+        return LATENCIA_BUSCAR_POR_NOMBRE.medir(() -> buscarPorNombreSinMedir(nombre));
+    }
+
+    private List<Articulo> buscarPorNombreSinMedir(String nombre) throws InventarioException {
         logger.info("Buscando artículos por nombre: {}", nombre);
         
         try {
             // Validar nombre
             validator.validarNombreParaBusqueda(nombre);
             
-            // Buscar en la base de datos
-            List<Articulo> articulos = articuloDAO.buscarPorNombre(nombre.trim());
+            // Buscar en el índice de trigramas; sin índice disponible se usa LIKE en la base de datos
+            Optional<List<Integer>> ids = buscador.buscar(nombre.trim());
+            List<Articulo> articulos = ids.isPresent()
+                ? articuloDAO.buscarPorIds(ids.get())
+                : articuloDAO.buscarPorNombre(nombre.trim(), buscador.getLimite());
+            conStockVigente(articulos);
             
             logger.info("Se encontraron {} artículos con nombre similar a: {}", articulos.size(), nombre);
             return articulos;
@@ -169,10 +441,14 @@ public class ArticuloService {
      * Obtiene todos los artículos activos
      */
     public List<Articulo> obtenerTodosLosArticulos() throws InventarioException {
+        return LATENCIA_OBTENER_TODOS_LOS_ARTICULOS.medir(this::obtenerTodosLosArticulosSinMedir);
+    }
+
+    private List<Articulo> obtenerTodosLosArticulosSinMedir() throws InventarioException {
         logger.info("Obteniendo todos los artículos activos");
         
         try {
-            List<Articulo> articulos = articuloDAO.obtenerTodos();
+            List<Articulo> articulos = conStockVigente(articuloDAO.obtenerTodos());
             logger.info("Se obtuvieron {} artículos activos", articulos.size());
             return articulos;
             
@@ -183,35 +459,119 @@ public class ArticuloService {
         }
     }
 
+    /**
+     * Obtiene una página de artículos activos ordenados por nombre
+     * La memoria usada por solicitud queda acotada por el tamaño de página.
+     * @param tamanoPagina número de artículos por página; null para usar el valor por defecto
+     * @param token token de continuación de la página anterior; null o vacío para la primera
+     */
+    public PaginaArticulos listarArticulosPaginado(Integer tamanoPagina, String token) throws InventarioException {
+        return LATENCIA_LISTAR_ARTICULOS_PAGINADO.medir(() -> listarArticulosPaginadoSinMedir(tamanoPagina, token));
+    }
+
+    private PaginaArticulos listarArticulosPaginadoSinMedir(Integer tamanoPagina, String token) throws InventarioException {
+        logger.info("Listando artículos paginados (tamaño: {}, con token: {})", tamanoPagina, token != null);
+        
+        InventarioConfig config = InventarioConfig.getInstance();
+        int tamanoMaximo = config.getInt("paginacion.tamanoMaximo", 1000);
+        int tamano = tamanoPagina != null ? tamanoPagina : config.getInt("paginacion.tamanoPorDefecto", 100);
+        if (tamano <= 0 || tamano > tamanoMaximo) {
+            throw new ValidationException("El tamaño de página debe estar entre 1 y " + tamanoMaximo);
+        }
+        
+        TokenPaginacion desde = token != null && !token.trim().isEmpty() ? TokenPaginacion.decodificar(token) : null;
+        
+        try {
+            // Se pide una fila de más para saber si existe una página siguiente
+            List<Articulo> articulos = articuloDAO.obtenerPagina(
+                desde != null ? desde.getNombre() : null, desde != null ? desde.getId() : null, tamano + 1);
+            conStockVigente(articulos);
+            
+            String siguienteToken = null;
+            if (articulos.size() > tamano) {
+                articulos = articulos.subList(0, tamano);
+                Articulo ultimo = articulos.get(tamano - 1);
+                siguienteToken = new TokenPaginacion(ultimo.getNombre(), ultimo.getId()).codificar();
+            }
+            
+            logger.info("Página de {} artículos obtenida (hay más: {})", articulos.size(), siguienteToken != null);
+            return new PaginaArticulos(articulos, siguienteToken);
+            
+        } catch (SQLException e) {
+            logger.error("Error de base de datos al listar artículos: {}", e.getMessage(), e);
+            throw new InventarioException("ERROR_BD", "BASE_DATOS", 
+                "Error al acceder a la base de datos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Prepara la exportación completa del catálogo en formato NDJSON
+     * Los datos se leen de la base de datos mientras se consumen, con memoria constante.
+     * @param permiso lugar en el compartimento MASIVA; se libera al cerrarse el cursor de la exportación
+     */
+    public ExportacionCatalogoDataSource exportarCatalogo(CompartimentosOperacion.PermisoTransferible permiso) {
+        return LATENCIA_EXPORTAR_CATALOGO.medir(() -> exportarCatalogoSinMedir(permiso));
+    }
+
+    private ExportacionCatalogoDataSource exportarCatalogoSinMedir(CompartimentosOperacion.PermisoTransferible permiso) {
+        logger.info("Preparando exportación del catálogo");
+        return new ExportacionCatalogoDataSource(articuloDAO, 
+            InventarioConfig.getInstance().getInt("exportacion.tamanoFetch", 1000), permiso);
+    }
+
     /**
      * Actualiza un artículo existente
+     * Con versión, la actualización solo se aplica si nadie modificó el artículo desde que el
+     * cliente lo leyó; si no, falla con ConflictoVersionException. No se relee el artículo antes
+     * de escribir: la existencia y la versión se comprueban solo cuando el UPDATE no afecta filas.
      */
     public Articulo actualizarArticulo(Articulo articulo) throws InventarioException {
+        return LATENCIA_ACTUALIZAR_ARTICULO.medir(() -> actualizarArticuloSinMedir(articulo));
+    }
+
+    private Articulo actualizarArticuloSinMedir(Articulo articulo) throws InventarioException {
         logger.info("Actualizando artículo ID: {}", articulo.getId());
         
         try {
             // Validar datos del artículo
             validator.validarParaActualizacion(articulo);
             
-            // Verificar que el artículo existe
-            Optional<Articulo> articuloExistente = articuloDAO.buscarPorId(articulo.getId());
-            if (!articuloExistente.isPresent()) {
-                throw new ArticuloNotFoundException(articulo.getId());
-            }
-            
             // Normalizar datos
             normalizarDatos(articulo);
             
-            // Actualizar en la base de datos
-            boolean actualizado = articuloDAO.actualizar(articulo);
+            // Con el motor de stock en memoria o stock fragmentado el stock vigente no está en la fila ni
+            // lo cubre la versión (las ventas no la incrementan): un stockActual leído antes de esas ventas las borraría
+            boolean fragmentado = stockFragmentado.esFragmentado(articulo.getId());
+            if (motorStock.isHabilitado() || fragmentado) {
+                verificarStockSinCambios(articulo);
+            }
+            
+            // Actualizar en la base de datos, condicionado a la versión si se indicó
+            // Con el motor de stock en memoria o stock fragmentado el stock no se escribe aquí
+            Integer versionEsperada = articulo.getVersion();
+            boolean actualizado = articuloDAO.actualizar(articulo, !motorStock.isHabilitado() && !fragmentado);
+            cache.invalidar(articulo.getId());
             
             if (!actualizado) {
+                Optional<Integer> versionActual = articuloDAO.obtenerVersion(articulo.getId());
+                if (!versionActual.isPresent()) {
+                    throw new ArticuloNotFoundException(articulo.getId());
+                }
+                if (versionEsperada != null) {
+                    logger.info("Conflicto de versión al actualizar artículo ID: {} (esperada {}, actual {})", 
+                               articulo.getId(), versionEsperada, versionActual.get());
+                    throw new ConflictoVersionException(articulo.getId(), versionEsperada, versionActual.get());
+                }
                 throw new InventarioException("ERROR_ACTUALIZACION", "OPERACION", 
                     "No se pudo actualizar el artículo");
             }
             
             // Obtener el artículo actualizado
-            Articulo articuloActualizado = articuloDAO.buscarPorId(articulo.getId()).orElse(articulo);
+            long marca = cache.marcaLectura();
+            Articulo articuloActualizado = articuloDAO.buscarPorIdEnPrimaria(articulo.getId()).orElse(articulo);
+            cache.guardar(articuloActualizado, marca);
+            buscador.indexar(articuloActualizado);
+            conStockVigente(articuloActualizado);
             
             logger.info("Artículo actualizado exitosamente: {}", articuloActualizado.getCodigo());
             
@@ -230,10 +590,35 @@ public class ArticuloService {
         }
     }
 
+    /**
+     * Rechaza un stockActual distinto del stock vigente en el motor en memoria o en los fragmentos
+     * En esos casos actualizarArticulo no modifica el stock: se fija con actualizarStock o actualizarStockPorCodigo.
+     * Un stockActual igual al vigente (el artículo tal como se consultó) se acepta y se ignora.
+     */
+    private void verificarStockSinCambios(Articulo articulo) throws SQLException, InventarioException {
+        if (articulo.getStockActual() == null) {
+            return;
+        }
+        OptionalInt vigente = motorStock.isHabilitado()
+            ? motorStock.consultar(articulo.getId())
+            : stockFragmentado.consultar(articulo.getId());
+        if (!vigente.isPresent()) {
+            throw new ArticuloNotFoundException(articulo.getId());
+        }
+        if (vigente.getAsInt() != articulo.getStockActual()) {
+            throw new ValidationException("El stock no se modifica al actualizar el artículo; use actualizarStock. " +
+                "Stock actual: " + vigente.getAsInt());
+        }
+    }
+
     /**
      * Actualiza solo el stock de un artículo
      */
     public void actualizarStock(Integer id, Integer nuevoStock) throws InventarioException {
+        LATENCIA_ACTUALIZAR_STOCK.medirAccion(() -> actualizarStockSinMedir(id, nuevoStock));
+    }
+
+    private void actualizarStockSinMedir(Integer id, Integer nuevoStock) throws InventarioException {
         logger.info("Actualizando stock del artículo ID: {} a {}", id, nuevoStock);
         
         try {
@@ -246,16 +631,46 @@ public class ArticuloService {
                 throw new ValidationException("El stock debe ser un número no negativo");
             }
             
-            // Verificar que el artículo existe
-            Optional<Articulo> articuloOpt = articuloDAO.buscarPorId(id);
-            if (!articuloOpt.isPresent()) {
-                throw new ArticuloNotFoundException(id);
+            if (motorStock.isHabilitado()) {
+                Articulo articulo = consultarPorId(id);
+                motorStock.establecer(id, nuevoStock, "Actualización de stock", null)
+                    .orElseThrow(() -> new ArticuloNotFoundException(id));
+                logger.info("Stock actualizado en memoria para artículo: {}", articulo.getCodigo());
+                if (nuevoStock <= articulo.getStockMinimo()) {
+                    logger.warn("ALERTA: El artículo {} ahora tiene stock bajo. Stock actual: {}, Stock mínimo: {}", 
+                               articulo.getCodigo(), nuevoStock, articulo.getStockMinimo());
+                }
+                return;
             }
             
-            Articulo articulo = articuloOpt.get();
+            if (stockFragmentado.esFragmentado(id)) {
+                Articulo articulo = consultarPorId(id);
+                reintentos.ejecutar("Fijar stock fragmentado del artículo " + id, () -> 
+                    stockFragmentado.establecer(id, nuevoStock, movimientoAjuste("Actualización de stock", null))
+                        .orElseThrow(() -> new ArticuloNotFoundException(id)));
+                logger.info("Stock fragmentado actualizado para artículo: {}", articulo.getCodigo());
+                return;
+            }
             
-            // Actualizar stock
-            boolean actualizado = articuloDAO.actualizarStock(id, nuevoStock);
+            Articulo articulo;
+            boolean actualizado;
+            LocksArticulos.Bloqueo bloqueo = locks.bloquear(id);
+            try {
+                // Verificar que el artículo existe
+                Optional<Articulo> articuloOpt = articuloDAO.buscarPorIdEnPrimaria(id);
+                if (!articuloOpt.isPresent()) {
+                    throw new ArticuloNotFoundException(id);
+                }
+                
+                articulo = articuloOpt.get();
+                
+                // Actualizar stock
+                actualizado = articuloDAO.actualizarStock(id, nuevoStock);
+                cache.invalidar(id);
+            } finally {
+                bloqueo.close();
+            }
+            locks.recordarCodigo(articulo.getCodigo(), id);
             
             if (!actualizado) {
                 throw new InventarioException("ERROR_ACTUALIZACION", "OPERACION", 
@@ -277,10 +692,228 @@ public class ArticuloService {
         }
     }
 
+    /**
+     * Fija el stock de un artículo identificado por su código
+     * Búsqueda, actualización y movimiento de ajuste se hacen en una sola transacción
+     * @return Resultado con el artículo actualizado y el stock anterior y nuevo
+     */
+    public ResultadoActualizacionStock actualizarStockPorCodigo(String codigo, Integer nuevoStock, String usuario) 
+            throws InventarioException {
+        return LATENCIA_ACTUALIZAR_STOCK_POR_CODIGO.medir(() ->
+            actualizarStockPorCodigoSinMedir(codigo, nuevoStock, usuario));
+    }
+
+    private ResultadoActualizacionStock actualizarStockPorCodigoSinMedir(String codigo, Integer nuevoStock, String usuario) 
+            throws InventarioException {
+        logger.info("Actualizando stock del artículo con código: {} a {}", codigo, nuevoStock);
+        
+        if (codigo == null || codigo.trim().isEmpty()) {
+            throw new ValidationException("El código del artículo es requerido");
+        }
+        
+        if (nuevoStock == null || nuevoStock < 0) {
+            throw new ValidationException("El stock debe ser un número no negativo");
+        }
+        
+        String codigoNormalizado = codigo.trim().toUpperCase();
+        if (filtroCodigos.descarta(codigoNormalizado)) {
+            throw ArticuloNotFoundException.sinTraza(codigoNormalizado);
+        }
+        
+        if (motorStock.isHabilitado()) {
+            return establecerStockEnMemoria(codigoNormalizado, nuevoStock, usuario);
+        }
+        if (stockFragmentado.esFragmentadoPorCodigo(codigoNormalizado)) {
+            return establecerStockFragmentado(codigoNormalizado, nuevoStock, usuario);
+        }
+        
+        MovimientoInventario movimiento = new MovimientoInventario();
+        movimiento.setTipoMovimiento(TipoMovimiento.AJUSTE);
+        movimiento.setMotivo("Actualización de stock");
+        movimiento.setUsuario(usuario);
+        
+        try {
+            // Lectura y escritura optimistas: si otra transacción cambió el artículo entretanto,
+            // se vuelve a leer y se reintenta (fijar el stock no depende del valor anterior)
+            Optional<ResultadoActualizacionStock> resultadoOpt = reintentos.ejecutar("Fijar stock de " + codigoNormalizado, () -> {
+                Optional<ResultadoActualizacionStock> intento;
+                LocksArticulos.Bloqueo bloqueo = locks.bloquearPorCodigo(codigoNormalizado, this::resolverIds);
+                try {
+                    intento = articuloDAO.establecerStockPorCodigo(codigoNormalizado, nuevoStock, movimiento);
+                } finally {
+                    bloqueo.close();
+                }
+                if (intento.isPresent() && intento.get().isConflicto()) {
+                    Articulo leido = intento.get().getArticulo();
+                    throw new ConflictoVersionException(leido.getId(), leido.getVersion(), null);
+                }
+                return intento;
+            });
+            if (!resultadoOpt.isPresent()) {
+                filtroCodigos.registrarFalsoPositivo();
+                throw ArticuloNotFoundException.sinTraza(codigoNormalizado);
+            }
+            
+            ResultadoActualizacionStock resultado = resultadoOpt.get();
+            Articulo articulo = resultado.getArticulo();
+            cache.invalidar(articulo.getId());
+            locks.recordarCodigo(codigoNormalizado, articulo.getId());
+            
+            logger.info("Stock actualizado exitosamente para artículo: {}", articulo.getCodigo());
+            
+            if (nuevoStock <= articulo.getStockMinimo()) {
+                logger.warn("ALERTA: El artículo {} ahora tiene stock bajo. Stock actual: {}, Stock mínimo: {}", 
+                           articulo.getCodigo(), nuevoStock, articulo.getStockMinimo());
+            }
+            
+            return resultado;
+            
+        } catch (SQLException e) {
+            logger.error("Error de base de datos al actualizar stock: {}", e.getMessage(), e);
+            throw new InventarioException("ERROR_BD", "BASE_DATOS", 
+                "Error al acceder a la base de datos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Aplica un lote de cambios de stock identificados por código
+     * Valida todos los elementos antes de tocar la base de datos y aplica los válidos
+     * en bloques de tamanoBloqueLote, cada uno en su propia transacción con sentencias por lotes.
+     * Un error de base de datos solo marca como fallidos los elementos de su bloque.
+     * @return Un resultado por elemento, en el mismo orden de la solicitud
+     */
+    public List<ResultadoItemLote> actualizarStockLote(List<ItemStockLote> items, String usuario) {
+        return LATENCIA_ACTUALIZAR_STOCK_LOTE.medir(() -> actualizarStockLoteSinMedir(items, usuario));
+    }
+
+    private List<ResultadoItemLote> actualizarStockLoteSinMedir(List<ItemStockLote> items, String usuario) {
+        logger.info("Actualizando stock por lotes: {} elementos", items.size());
+        
+        ResultadoItemLote[] resultados = new ResultadoItemLote[items.size()];
+        List<Integer> indicesValidos = new ArrayList<>();
+        List<CambioStock> cambiosValidos = new ArrayList<>();
+        
+        // 1. Validación en bloque, sin acceso a la base de datos
+        for (int i = 0; i < items.size(); i++) {
+            ItemStockLote item = items.get(i);
+            String codigo = item != null && item.getCodigo() != null ? item.getCodigo().trim().toUpperCase() : null;
+            
+            if (codigo == null || codigo.isEmpty()) {
+                resultados[i] = ResultadoItemLote.error(i, codigo, "VALIDATION_ERROR", "El código del artículo es requerido");
+            } else if ((item.getNuevoStock() == null) == (item.getDelta() == null)) {
+                resultados[i] = ResultadoItemLote.error(i, codigo, "VALIDATION_ERROR", "Debe indicar nuevoStock o delta, pero no ambos");
+            } else if (item.getNuevoStock() != null && item.getNuevoStock() < 0) {
+                resultados[i] = ResultadoItemLote.error(i, codigo, "VALIDATION_ERROR", "El stock debe ser un número no negativo");
+            } else if (item.getDelta() != null && item.getDelta() == 0) {
+                resultados[i] = ResultadoItemLote.error(i, codigo, "VALIDATION_ERROR", "La cantidad no puede ser cero");
+            } else if (filtroCodigos.descarta(codigo)) {
+                resultados[i] = ResultadoItemLote.error(i, codigo, "ARTICULO_NOT_FOUND", "Artículo no encontrado con código: " + codigo);
+            } else {
+                indicesValidos.add(i);
+                cambiosValidos.add(item.getDelta() != null 
+                    ? CambioStock.variar(codigo, item.getDelta()) 
+                    : CambioStock.fijar(codigo, item.getNuevoStock()));
+            }
+        }
+        
+        if (motorStock.isHabilitado()) {
+            for (int j = 0; j < cambiosValidos.size(); j++) {
+                int indice = indicesValidos.get(j);
+                resultados[indice] = aplicarCambioEnMemoria(indice, cambiosValidos.get(j), usuario);
+            }
+            return Arrays.asList(resultados);
+        }
+        
+        // Los artículos con stock fragmentado se aplican uno por uno, fuera de los bloques
+        if (stockFragmentado.hayFragmentados()) {
+            List<Integer> indicesBloques = new ArrayList<>();
+            List<CambioStock> cambiosBloques = new ArrayList<>();
+            for (int j = 0; j < cambiosValidos.size(); j++) {
+                int indice = indicesValidos.get(j);
+                CambioStock cambio = cambiosValidos.get(j);
+                if (stockFragmentado.esFragmentadoPorCodigo(cambio.getCodigo())) {
+                    resultados[indice] = aplicarCambioFragmentado(indice, cambio, usuario);
+                } else {
+                    indicesBloques.add(indice);
+                    cambiosBloques.add(cambio);
+                }
+            }
+            indicesValidos = indicesBloques;
+            cambiosValidos = cambiosBloques;
+        }
+        
+        // 2. Aplicación por bloques, una transacción por bloque
+        for (int inicio = 0; inicio < cambiosValidos.size(); inicio += tamanoBloqueLote) {
+            int fin = Math.min(inicio + tamanoBloqueLote, cambiosValidos.size());
+            List<CambioStock> bloque = cambiosValidos.subList(inicio, fin);
+            
+            List<String> codigosBloque = new ArrayList<>(bloque.size());
+            for (CambioStock cambio : bloque) {
+                codigosBloque.add(cambio.getCodigo());
+            }
+            
+            try {
+                // El bloque se recalcula completo en cada intento, así que un interbloqueo puede reintentarse
+                List<ResultadoActualizacionStock> aplicados = reintentos.ejecutar("Bloque de stock " + inicio, () -> {
+                    LocksArticulos.Bloqueo bloqueo = locks.bloquearVariosPorCodigo(codigosBloque, this::resolverIds);
+                    try {
+                        return articuloDAO.aplicarCambiosStock(bloque, "Actualización de stock por lotes", usuario);
+                    } finally {
+                        bloqueo.close();
+                    }
+                });
+                
+                for (int j = 0; j < bloque.size(); j++) {
+                    int indice = indicesValidos.get(inicio + j);
+                    String codigo = bloque.get(j).getCodigo();
+                    ResultadoActualizacionStock aplicado = aplicados.get(j);
+                    
+                    if (!aplicado.isEncontrado()) {
+                        filtroCodigos.registrarFalsoPositivo();
+                        resultados[indice] = ResultadoItemLote.error(indice, codigo, "ARTICULO_NOT_FOUND", 
+                            "Artículo no encontrado con código: " + codigo);
+                        continue;
+                    }
+                    
+                    cache.invalidar(aplicado.getArticulo().getId());
+                    locks.recordarCodigo(codigo, aplicado.getArticulo().getId());
+                    if (aplicado.isAplicado()) {
+                        resultados[indice] = ResultadoItemLote.exito(indice, codigo, "Stock actualizado");
+                    } else {
+                        resultados[indice] = ResultadoItemLote.error(indice, codigo, "VALIDATION_ERROR", 
+                            "Stock insuficiente. Stock actual: " + aplicado.getStockAnterior());
+                    }
+                    resultados[indice].setStockAnterior(aplicado.getStockAnterior());
+                    resultados[indice].setStockNuevo(aplicado.getStockNuevo());
+                }
+            } catch (SQLException e) {
+                logger.error("Error de base de datos en bloque {}-{} del lote de stock: {}", inicio, fin - 1, e.getMessage(), e);
+                for (int j = inicio; j < fin; j++) {
+                    int indice = indicesValidos.get(j);
+                    resultados[indice] = ResultadoItemLote.error(indice, cambiosValidos.get(j).getCodigo(), "ERROR_BD", 
+                        "Error al acceder a la base de datos: " + e.getMessage());
+                }
+            } catch (InventarioException e) {
+                logger.warn("No se pudo aplicar el bloque {}-{} del lote de stock: {}", inicio, fin - 1, e.getMessage());
+                for (int j = inicio; j < fin; j++) {
+                    int indice = indicesValidos.get(j);
+                    resultados[indice] = ResultadoItemLote.error(indice, cambiosValidos.get(j).getCodigo(), 
+                        e.getCodigo(), e.getMessage());
+                }
+            }
+        }
+        
+        return Arrays.asList(resultados);
+    }
+
     /**
      * Elimina (desactiva) un artículo
      */
     public void eliminarArticulo(Integer id) throws InventarioException {
+        LATENCIA_ELIMINAR_ARTICULO.medirAccion(() -> eliminarArticuloSinMedir(id));
+    }
+
+    private void eliminarArticuloSinMedir(Integer id) throws InventarioException {
         logger.info("Eliminando artículo ID: {}", id);
         
         try {
@@ -289,7 +922,7 @@ public class ArticuloService {
             }
             
             // Verificar que el artículo existe
-            Optional<Articulo> articuloOpt = articuloDAO.buscarPorId(id);
+            Optional<Articulo> articuloOpt = articuloDAO.buscarPorIdEnPrimaria(id);
             if (!articuloOpt.isPresent()) {
                 throw new ArticuloNotFoundException(id);
             }
@@ -298,6 +931,8 @@ public class ArticuloService {
             
             // Eliminar (desactivar)
             boolean eliminado = articuloDAO.eliminar(id);
+            cache.invalidar(id);
+            buscador.eliminar(id);
             
             if (!eliminado) {
                 throw new InventarioException("ERROR_ELIMINACION", "OPERACION", 
@@ -315,12 +950,19 @@ public class ArticuloService {
 
     /**
      * Obtiene artículos con stock bajo
+     * Con el motor de stock en memoria la selección se hace sobre el stock ya volcado: un artículo
+     * que acaba de quedar bajo aparece tras el siguiente volcado (stock.memoria.volcadoMs).
      */
     public List<Articulo> obtenerArticulosConStockBajo() throws InventarioException {
+        return LATENCIA_OBTENER_ARTICULOS_CON_STOCK_BAJO.medir(this::obtenerArticulosConStockBajoSinMedir);
+    }
+
+    private List<Articulo> obtenerArticulosConStockBajoSinMedir() throws InventarioException {
         logger.info("Obteniendo artículos con stock bajo");
         
         try {
-            List<Articulo> articulos = articuloDAO.obtenerArticulosStockBajo();
+            List<Articulo> articulos = conStockVigente(articuloDAO.obtenerArticulosStockBajo());
+            articulos.removeIf(articulo -> !articulo.tieneStockBajo());
             logger.info("Se encontraron {} artículos con stock bajo", articulos.size());
             return articulos;
             
@@ -341,6 +983,29 @@ public class ArticuloService {
      */
     public Articulo actualizarStockConMovimiento(Integer idArticulo, int cantidad, String motivo, String usuario) 
             throws InventarioException {
+        return LATENCIA_ACTUALIZAR_STOCK_CON_MOVIMIENTO.medir(() ->
+            actualizarStockConMovimientoSinMedir(idArticulo, cantidad, motivo, usuario));
+    }
+
+    private Articulo actualizarStockConMovimientoSinMedir(Integer idArticulo, int cantidad, String motivo, String usuario) 
+            throws InventarioException {
+        return aplicarMovimientoStock(idArticulo, cantidad, motivo, usuario).getArticulo();
+    }
+    
+    /**
+     * Aplica una variación de stock y registra el movimiento en una sola transacción
+     * El stock se modifica en la base de datos con un UPDATE condicional, por lo que
+     * las ventas concurrentes no pierden actualizaciones ni dejan el stock negativo.
+     * @return Resultado con el artículo actualizado y el stock anterior y nuevo
+     */
+    public ResultadoActualizacionStock aplicarMovimientoStock(Integer idArticulo, int cantidad, String motivo, String usuario) 
+            throws InventarioException {
+        return LATENCIA_APLICAR_MOVIMIENTO_STOCK.medir(() ->
+            aplicarMovimientoStockSinMedir(idArticulo, cantidad, motivo, usuario));
+    }
+
+    private ResultadoActualizacionStock aplicarMovimientoStockSinMedir(Integer idArticulo, int cantidad, String motivo, String usuario) 
+            throws InventarioException {
         logger.info("Actualizando stock del artículo ID: {} en {}", idArticulo, cantidad);
         
         if (idArticulo == null || idArticulo <= 0) {
@@ -351,50 +1016,52 @@ public class ArticuloService {
             throw new ValidationException("La cantidad no puede ser cero");
         }
         
+        if (motorStock.isHabilitado()) {
+            return aplicarVariacionEnMemoria(idArticulo, cantidad, motivo, usuario);
+        }
+        
+        MovimientoInventario movimiento = new MovimientoInventario();
+        movimiento.setTipoMovimiento(cantidad > 0 ? TipoMovimiento.ENTRADA : TipoMovimiento.SALIDA);
+        movimiento.setCantidad(Math.abs(cantidad));
+        movimiento.setMotivo(motivo);
+        movimiento.setUsuario(usuario);
+        
+        if (stockFragmentado.esFragmentado(idArticulo)) {
+            return aplicarVariacionFragmentada(idArticulo, cantidad, movimiento);
+        }
+        
         try {
-            // Obtener el artículo actual
-            Articulo articulo = articuloDAO.buscarPorId(idArticulo)
-                .orElseThrow(() -> new ArticuloNotFoundException(idArticulo));
-                
-            int stockAnterior = articulo.getStockActual();
-            int nuevoStock = stockAnterior + cantidad;
+            // La variación conmuta con las demás: ante un interbloqueo se repite la transacción completa
+            ResultadoActualizacionStock resultado = reintentos.ejecutar("Variación de stock del artículo " + idArticulo, () -> {
+                LocksArticulos.Bloqueo bloqueo = locks.bloquear(idArticulo);
+                try {
+                    return articuloDAO.aplicarDeltaStock(idArticulo, cantidad, movimiento)
+                        .orElseThrow(() -> new ArticuloNotFoundException(idArticulo));
+                } finally {
+                    bloqueo.close();
+                }
+            });
+            locks.recordarCodigo(resultado.getArticulo().getCodigo(), idArticulo);
             
-            // Validar que el stock no sea negativo
-            if (nuevoStock < 0) {
-                throw new ValidationException("Stock insuficiente. Stock actual: " + stockAnterior + ", Intento de retiro: " + (-cantidad));
+            if (!resultado.isAplicado()) {
+                throw new ValidationException("Stock insuficiente. Stock actual: " + resultado.getStockAnterior() + 
+                    ", Intento de retiro: " + (-cantidad));
             }
+            cache.invalidar(idArticulo);
             
-            // Actualizar el stock
-            articulo.setStockActual(nuevoStock);
-            boolean actualizado = articuloDAO.actualizarStock(articulo.getId(), nuevoStock);
-            
-            if (!actualizado) {
-                throw new InventarioException("ERROR_ACTUALIZACION", "STOCK", 
-                    "No se pudo actualizar el stock del artículo ID: " + idArticulo);
-            }
-            
-            // Registrar el movimiento
-            MovimientoInventario movimiento = new MovimientoInventario();
-            movimiento.setArticuloId(articulo.getId());
-            movimiento.setTipoMovimiento(cantidad > 0 ? TipoMovimiento.ENTRADA : TipoMovimiento.SALIDA);
-            movimiento.setCantidad(Math.abs(cantidad));
-            movimiento.setStockAnterior(stockAnterior);
-            movimiento.setStockNuevo(nuevoStock);
-            movimiento.setMotivo(motivo);
-            movimiento.setUsuario(usuario);
-            
-            movimientoInventarioDAO.registrarMovimiento(movimiento);
-            
+            // La fila se releyó sin JOIN: los nombres de categoría y proveedor salen de la caché de referencia
+            Articulo articulo = resultado.getArticulo();
+            datosReferencia.completarNombres(articulo);
             logger.info("Stock actualizado para artículo ID: {}. Stock anterior: {}, Cantidad: {}, Nuevo stock: {}", 
-                idArticulo, stockAnterior, cantidad, nuevoStock);
+                idArticulo, resultado.getStockAnterior(), cantidad, resultado.getStockNuevo());
                 
             // Verificar si el stock está bajo después de la actualización
             if (articulo.tieneStockBajo()) {
                 logger.warn("ALERTA: El artículo {} tiene stock bajo después de la actualización. Stock actual: {}, Stock mínimo: {}", 
-                    articulo.getCodigo(), nuevoStock, articulo.getStockMinimo());
+                    articulo.getCodigo(), resultado.getStockNuevo(), articulo.getStockMinimo());
             }
             
-            return articulo;
+            return resultado;
             
         } catch (SQLException e) {
             logger.error("Error al actualizar stock del artículo ID {}: {}", idArticulo, e.getMessage(), e);
@@ -408,6 +1075,12 @@ public class ArticuloService {
      */
     public Articulo registrarEntradaStock(Integer idArticulo, int cantidad, String motivo, String usuario) 
             throws InventarioException {
+        return LATENCIA_REGISTRAR_ENTRADA_STOCK.medir(() ->
+            registrarEntradaStockSinMedir(idArticulo, cantidad, motivo, usuario));
+    }
+
+    private Articulo registrarEntradaStockSinMedir(Integer idArticulo, int cantidad, String motivo, String usuario) 
+            throws InventarioException {
         if (cantidad <= 0) {
             throw new ValidationException("La cantidad de entrada debe ser mayor que cero");
         }
@@ -419,6 +1092,12 @@ public class ArticuloService {
      */
     public Articulo registrarSalidaStock(Integer idArticulo, int cantidad, String motivo, String usuario) 
             throws InventarioException {
+        return LATENCIA_REGISTRAR_SALIDA_STOCK.medir(() ->
+            registrarSalidaStockSinMedir(idArticulo, cantidad, motivo, usuario));
+    }
+
+    private Articulo registrarSalidaStockSinMedir(Integer idArticulo, int cantidad, String motivo, String usuario) 
+            throws InventarioException {
         if (cantidad <= 0) {
             throw new ValidationException("La cantidad de salida debe ser mayor que cero");
         }
@@ -429,6 +1108,10 @@ public class ArticuloService {
      * Obtiene el historial de movimientos de un artículo
      */
     public List<MovimientoInventario> obtenerMovimientosArticulo(Integer idArticulo) throws InventarioException {
+        return LATENCIA_OBTENER_MOVIMIENTOS_ARTICULO.medir(() -> obtenerMovimientosArticuloSinMedir(idArticulo));
+    }
+
+    private List<MovimientoInventario> obtenerMovimientosArticuloSinMedir(Integer idArticulo) throws InventarioException {
         try {
             // Verificar que el artículo existe
             if (!articuloDAO.existePorId(idArticulo)) {
@@ -444,6 +1127,337 @@ public class ArticuloService {
         }
     }
 
+    /**
+     * Obtiene los contadores de la caché de artículos (aciertos, fallos, desalojos)
+     */
+    public ArticuloCache.Estadisticas obtenerEstadisticasCache() {
+        return cache.getEstadisticas();
+    }
+
+    /**
+     * Obtiene los contadores de espera de los locks por artículo
+     */
+    public LocksArticulos.Estadisticas obtenerEstadisticasLocks() {
+        return locks.getEstadisticas();
+    }
+
+    /**
+     * Obtiene la profundidad de cola y los tiempos de vaciado del diario de movimientos
+     */
+    public DiarioMovimientos.Estadisticas obtenerEstadisticasDiario() {
+        return DiarioMovimientos.getInstance().getEstadisticas();
+    }
+
+    /**
+     * Obtiene los contadores de reintentos por concurrencia
+     */
+    public ReintentoConcurrencia obtenerEstadisticasReintentos() {
+        return reintentos;
+    }
+
+    /**
+     * Obtiene cuántas consultas por código o ID compartieron una lectura en curso
+     */
+    public ConsultasEnVuelo.Estadisticas obtenerEstadisticasAgrupamiento() {
+        return consultasEnVuelo.getEstadisticas();
+    }
+
+    /**
+     * Obtiene el estado del índice de búsqueda por nombre
+     */
+    public String obtenerEstadisticasBuscador() {
+        return buscador.getEstadisticas();
+    }
+
+    /**
+     * Obtiene los contadores del filtro de códigos (descartes, falsos positivos, reconstrucciones)
+     */
+    public FiltroCodigosArticulo.Estadisticas obtenerEstadisticasFiltroCodigos() {
+        return filtroCodigos.getEstadisticas();
+    }
+
+    /**
+     * Obtiene los contadores del motor de stock en memoria (pendientes de volcado, compactación)
+     */
+    public MotorStock.Estadisticas obtenerEstadisticasMotorStock() {
+        return motorStock.getEstadisticas();
+    }
+
+    /**
+     * Variación de stock en el motor en memoria; el movimiento se escribe en el siguiente volcado
+     */
+    private ResultadoActualizacionStock aplicarVariacionEnMemoria(Integer idArticulo, int cantidad, String motivo, 
+                                                                  String usuario) throws InventarioException {
+        try {
+            MotorStock.Variacion variacion = motorStock.variar(idArticulo, cantidad, motivo, usuario)
+                .orElseThrow(() -> new ArticuloNotFoundException(idArticulo));
+            if (!variacion.isAplicada()) {
+                throw new ValidationException("Stock insuficiente. Stock actual: " + variacion.getStockAnterior() + 
+                    ", Intento de retiro: " + (-cantidad));
+            }
+            
+            Articulo articulo = consultarPorId(idArticulo);
+            articulo.setStockActual(variacion.getStockNuevo());
+            logger.info("Stock actualizado en memoria para artículo ID: {}. Stock anterior: {}, Cantidad: {}, Nuevo stock: {}", 
+                idArticulo, variacion.getStockAnterior(), cantidad, variacion.getStockNuevo());
+            if (articulo.tieneStockBajo()) {
+                logger.warn("ALERTA: El artículo {} tiene stock bajo después de la actualización. Stock actual: {}, Stock mínimo: {}", 
+                    articulo.getCodigo(), variacion.getStockNuevo(), articulo.getStockMinimo());
+            }
+            return new ResultadoActualizacionStock(true, articulo, variacion.getStockAnterior(), variacion.getStockNuevo());
+            
+        } catch (SQLException e) {
+            logger.error("Error al actualizar stock del artículo ID {}: {}", idArticulo, e.getMessage(), e);
+            throw new InventarioException("ERROR_BD", "STOCK", 
+                "Error al actualizar el stock: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fija el stock de un artículo por código en el motor en memoria
+     */
+    private ResultadoActualizacionStock establecerStockEnMemoria(String codigoNormalizado, int nuevoStock, String usuario) 
+            throws InventarioException {
+        Articulo articulo = consultarPorCodigo(codigoNormalizado);
+        try {
+            MotorStock.Variacion variacion = motorStock.establecer(articulo.getId(), nuevoStock, "Actualización de stock", usuario)
+                .orElseThrow(() -> ArticuloNotFoundException.sinTraza(codigoNormalizado));
+            articulo.setStockActual(nuevoStock);
+            
+            logger.info("Stock actualizado en memoria para artículo: {}", articulo.getCodigo());
+            if (nuevoStock <= articulo.getStockMinimo()) {
+                logger.warn("ALERTA: El artículo {} ahora tiene stock bajo. Stock actual: {}, Stock mínimo: {}", 
+                           articulo.getCodigo(), nuevoStock, articulo.getStockMinimo());
+            }
+            return new ResultadoActualizacionStock(true, articulo, variacion.getStockAnterior(), nuevoStock);
+            
+        } catch (SQLException e) {
+            logger.error("Error de base de datos al actualizar stock: {}", e.getMessage(), e);
+            throw new InventarioException("ERROR_BD", "BASE_DATOS", 
+                "Error al acceder a la base de datos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Aplica un elemento de actualizarStockLote en el motor en memoria (sin transacción por bloque)
+     */
+    private ResultadoItemLote aplicarCambioEnMemoria(int indice, CambioStock cambio, String usuario) {
+        String codigo = cambio.getCodigo();
+        try {
+            Articulo articulo = consultarPorCodigo(codigo);
+            Optional<MotorStock.Variacion> variacionOpt = cambio.isDelta()
+                ? motorStock.variar(articulo.getId(), cambio.getCantidad(), "Actualización de stock por lotes", usuario)
+                : motorStock.establecer(articulo.getId(), cambio.getCantidad(), "Actualización de stock por lotes", usuario);
+            if (!variacionOpt.isPresent()) {
+                return ResultadoItemLote.error(indice, codigo, "ARTICULO_NOT_FOUND", "Artículo no encontrado con código: " + codigo);
+            }
+            
+            MotorStock.Variacion variacion = variacionOpt.get();
+            ResultadoItemLote resultado = variacion.isAplicada()
+                ? ResultadoItemLote.exito(indice, codigo, "Stock actualizado")
+                : ResultadoItemLote.error(indice, codigo, "VALIDATION_ERROR", 
+                    "Stock insuficiente. Stock actual: " + variacion.getStockAnterior());
+            resultado.setStockAnterior(variacion.getStockAnterior());
+            resultado.setStockNuevo(variacion.getStockNuevo());
+            return resultado;
+            
+        } catch (ArticuloNotFoundException e) {
+            return ResultadoItemLote.error(indice, codigo, "ARTICULO_NOT_FOUND", "Artículo no encontrado con código: " + codigo);
+        } catch (InventarioException e) {
+            return ResultadoItemLote.error(indice, codigo, e.getCodigo(), e.getMessage());
+        } catch (SQLException e) {
+            logger.error("Error de base de datos en el elemento {} del lote de stock: {}", indice, e.getMessage(), e);
+            return ResultadoItemLote.error(indice, codigo, "ERROR_BD", "Error al acceder a la base de datos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Variación sobre un artículo con stock fragmentado; sin lock por artículo, que volvería a serializar las ventas
+     */
+    private ResultadoActualizacionStock aplicarVariacionFragmentada(Integer idArticulo, int cantidad, 
+                                                                    MovimientoInventario movimiento) throws InventarioException {
+        try {
+            ResultadoActualizacionStock aplicado = reintentos.ejecutar("Variación de stock fragmentado del artículo " + idArticulo, () ->
+                stockFragmentado.variar(idArticulo, cantidad, movimiento)
+                    .orElseThrow(() -> new ArticuloNotFoundException(idArticulo)));
+            if (!aplicado.isAplicado()) {
+                throw new ValidationException("Stock insuficiente. Stock actual: " + aplicado.getStockAnterior() + 
+                    ", Intento de retiro: " + (-cantidad));
+            }
+            
+            Articulo articulo = consultarPorId(idArticulo);
+            articulo.setStockActual(aplicado.getStockNuevo());
+            logger.info("Stock fragmentado actualizado para artículo ID: {}. Stock anterior: {}, Cantidad: {}, Nuevo stock: {}", 
+                idArticulo, aplicado.getStockAnterior(), cantidad, aplicado.getStockNuevo());
+            if (articulo.tieneStockBajo()) {
+                logger.warn("ALERTA: El artículo {} tiene stock bajo después de la actualización. Stock actual: {}, Stock mínimo: {}", 
+                    articulo.getCodigo(), aplicado.getStockNuevo(), articulo.getStockMinimo());
+            }
+            return new ResultadoActualizacionStock(true, articulo, aplicado.getStockAnterior(), aplicado.getStockNuevo());
+            
+        } catch (SQLException e) {
+            logger.error("Error al actualizar stock del artículo ID {}: {}", idArticulo, e.getMessage(), e);
+            throw new InventarioException("ERROR_BD", "STOCK", 
+                "Error al actualizar el stock: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fija el stock total de un artículo fragmentado identificado por código
+     */
+    private ResultadoActualizacionStock establecerStockFragmentado(String codigoNormalizado, int nuevoStock, String usuario) 
+            throws InventarioException {
+        Articulo articulo = consultarPorCodigo(codigoNormalizado);
+        try {
+            ResultadoActualizacionStock aplicado = reintentos.ejecutar("Fijar stock fragmentado de " + codigoNormalizado, () ->
+                stockFragmentado.establecer(articulo.getId(), nuevoStock, movimientoAjuste("Actualización de stock", usuario))
+                    .orElseThrow(() -> ArticuloNotFoundException.sinTraza(codigoNormalizado)));
+            articulo.setStockActual(nuevoStock);
+            
+            logger.info("Stock fragmentado actualizado para artículo: {}", articulo.getCodigo());
+            if (nuevoStock <= articulo.getStockMinimo()) {
+                logger.warn("ALERTA: El artículo {} ahora tiene stock bajo. Stock actual: {}, Stock mínimo: {}", 
+                           articulo.getCodigo(), nuevoStock, articulo.getStockMinimo());
+            }
+            return new ResultadoActualizacionStock(true, articulo, aplicado.getStockAnterior(), nuevoStock);
+            
+        } catch (SQLException e) {
+            logger.error("Error de base de datos al actualizar stock: {}", e.getMessage(), e);
+            throw new InventarioException("ERROR_BD", "BASE_DATOS", 
+                "Error al acceder a la base de datos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Aplica un elemento de actualizarStockLote sobre un artículo con stock fragmentado
+     */
+    private ResultadoItemLote aplicarCambioFragmentado(int indice, CambioStock cambio, String usuario) {
+        String codigo = cambio.getCodigo();
+        try {
+            ResultadoActualizacionStock aplicado;
+            if (cambio.isDelta()) {
+                MovimientoInventario movimiento = new MovimientoInventario();
+                movimiento.setTipoMovimiento(cambio.getCantidad() > 0 ? TipoMovimiento.ENTRADA : TipoMovimiento.SALIDA);
+                movimiento.setCantidad(Math.abs(cambio.getCantidad()));
+                movimiento.setMotivo("Actualización de stock por lotes");
+                movimiento.setUsuario(usuario);
+                Integer id = consultarPorCodigo(codigo).getId();
+                aplicado = reintentos.ejecutar("Variación de stock fragmentado de " + codigo, () ->
+                    stockFragmentado.variar(id, cambio.getCantidad(), movimiento)
+                        .orElseThrow(() -> ArticuloNotFoundException.sinTraza(codigo)));
+            } else {
+                aplicado = establecerStockFragmentado(codigo, cambio.getCantidad(), usuario);
+            }
+            
+            ResultadoItemLote resultado = aplicado.isAplicado()
+                ? ResultadoItemLote.exito(indice, codigo, "Stock actualizado")
+                : ResultadoItemLote.error(indice, codigo, "VALIDATION_ERROR", 
+                    "Stock insuficiente. Stock actual: " + aplicado.getStockAnterior());
+            resultado.setStockAnterior(aplicado.getStockAnterior());
+            resultado.setStockNuevo(aplicado.getStockNuevo());
+            return resultado;
+            
+        } catch (ArticuloNotFoundException e) {
+            return ResultadoItemLote.error(indice, codigo, "ARTICULO_NOT_FOUND", "Artículo no encontrado con código: " + codigo);
+        } catch (InventarioException e) {
+            return ResultadoItemLote.error(indice, codigo, e.getCodigo(), e.getMessage());
+        } catch (SQLException e) {
+            logger.error("Error de base de datos en el elemento {} del lote de stock: {}", indice, e.getMessage(), e);
+            return ResultadoItemLote.error(indice, codigo, "ERROR_BD", "Error al acceder a la base de datos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Violación del índice único: en articulos solo puede ser un código repetido
+     */
+    private static boolean esCodigoDuplicado(SQLException e) {
+        for (SQLException actual = e; actual != null; actual = actual.getNextException()) {
+            if (actual.getErrorCode() == ER_DUP_ENTRY || "23505".equals(actual.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * IDs de los códigos para los locks por artículo: primero el índice de la caché y, para el
+     * resto, una sola consulta a la primaria
+     */
+    private Map<String, Integer> resolverIds(Collection<String> codigosNormalizados) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> pendientes = new ArrayList<>();
+        for (String codigo : codigosNormalizados) {
+            Integer id = cache.idPorCodigo(codigo);
+            if (id != null) {
+                ids.put(codigo, id);
+            } else {
+                pendientes.add(codigo);
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            ids.putAll(articuloDAO.buscarIdsPorCodigos(pendientes));
+        }
+        return ids;
+    }
+
+    private static MovimientoInventario movimientoAjuste(String motivo, String usuario) {
+        MovimientoInventario movimiento = new MovimientoInventario();
+        movimiento.setTipoMovimiento(TipoMovimiento.AJUSTE);
+        movimiento.setMotivo(motivo);
+        movimiento.setUsuario(usuario);
+        return movimiento;
+    }
+
+    /**
+     * Reemplaza el stock leído de la base de datos o de la caché por el vigente: el del motor en
+     * memoria o, para los artículos fragmentados, la suma de sus fragmentos
+     */
+    private Articulo conStockVigente(Articulo articulo) throws SQLException {
+        if (articulo.getId() == null) {
+            return articulo;
+        }
+        if (motorStock.isHabilitado()) {
+            OptionalInt stock = motorStock.obtener(articulo.getId());
+            if (stock.isPresent()) {
+                articulo.setStockActual(stock.getAsInt());
+            }
+        } else if (stockFragmentado.esFragmentado(articulo.getId())) {
+            Integer total = stockFragmentado.obtenerTotales(List.of(articulo.getId())).get(articulo.getId());
+            if (total != null) {
+                articulo.setStockActual(total);
+            }
+        }
+        return articulo;
+    }
+
+    private List<Articulo> conStockVigente(List<Articulo> articulos) throws SQLException {
+        if (motorStock.isHabilitado()) {
+            for (Articulo articulo : articulos) {
+                conStockVigente(articulo);
+            }
+        } else if (stockFragmentado.hayFragmentados()) {
+            List<Integer> ids = new ArrayList<>(articulos.size());
+            for (Articulo articulo : articulos) {
+                ids.add(articulo.getId());
+            }
+            Map<Integer, Integer> totales = stockFragmentado.obtenerTotales(ids);
+            for (Articulo articulo : articulos) {
+                Integer total = totales.get(articulo.getId());
+                if (total != null) {
+                    articulo.setStockActual(total);
+                }
+            }
+        }
+        return articulos;
+    }
+
+    /**
+     * Obtiene los contadores del stock fragmentado
+     */
+    public StockFragmentado.Estadisticas obtenerEstadisticasStockFragmentado() {
+        return stockFragmentado.getEstadisticas();
+    }
+
     /**
      * Normaliza los datos del artículo antes de procesarlos
      */
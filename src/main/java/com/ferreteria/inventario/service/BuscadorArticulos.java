@@ -0,0 +1,179 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.dao.ArticuloDAO;
+import com.ferreteria.inventario.model.Articulo;
+import com.ferreteria.inventario.util.IndiceTrigramas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Búsqueda de artículos por subcadena en memoria (índice de trigramas)
+ * Evita el recorrido completo de la tabla que produce LIKE '%texto%'. El índice se construye
+ * al iniciar, se actualiza en cada alta, modificación y baja, y se reconstruye periódicamente
+ * para recoger cambios hechos por otros nodos y descartar entradas obsoletas.
+ */
+public class BuscadorArticulos {
+    private static final Logger logger = LoggerFactory.getLogger(BuscadorArticulos.class);
+    private static BuscadorArticulos instance;
+
+    private final ArticuloDAO articuloDAO;
+    private final boolean habilitado;
+    private final int limitePorDefecto;
+
+    private final Object lock = new Object();
+    private volatile IndiceTrigramas indice;
+    // Cambios recibidos mientras se reconstruye; se aplican al índice nuevo antes del cambio
+    private List<Consumer<IndiceTrigramas>> pendientes;
+
+    private final LongAdder busquedas = new LongAdder();
+    private final LongAdder reconstrucciones = new LongAdder();
+    private volatile long ultimaReconstruccionMs;
+
+    public BuscadorArticulos(ArticuloDAO articuloDAO, boolean habilitado, int limitePorDefecto) {
+        this.articuloDAO = articuloDAO;
+        this.habilitado = habilitado;
+        this.limitePorDefecto = Math.max(limitePorDefecto, 1);
+    }
+
+    public static synchronized BuscadorArticulos getInstance() {
+        if (instance == null) {
+            InventarioConfig config = InventarioConfig.getInstance();
+            instance = new BuscadorArticulos(new ArticuloDAO(),
+                config.getBoolean("busqueda.indice.habilitado", true),
+                config.getInt("busqueda.limite", 50));
+            if (instance.habilitado) {
+                instance.reconstruir();
+                instance.programarReconstruccion(config.getLong("busqueda.indice.reconstruccionMinutos", 30));
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Busca por subcadena en nombre y descripción
+     * @return IDs ordenados por relevancia; vacío si el índice no está disponible
+     */
+    public Optional<List<Integer>> buscar(String texto) {
+        IndiceTrigramas actual = indice;
+        if (!habilitado || actual == null) {
+            return Optional.empty();
+        }
+        busquedas.increment();
+        return Optional.of(actual.buscar(texto, limitePorDefecto));
+    }
+
+    /**
+     * Refleja en el índice el estado de un artículo (los inactivos se quitan)
+     */
+    public void indexar(Articulo articulo) {
+        if (articulo == null || articulo.getId() == null) {
+            return;
+        }
+        if (Boolean.FALSE.equals(articulo.getActivo())) {
+            eliminar(articulo.getId());
+            return;
+        }
+        int id = articulo.getId();
+        String nombre = articulo.getNombre();
+        String descripcion = articulo.getDescripcion();
+        aplicar(i -> i.indexar(id, nombre, descripcion));
+    }
+
+    public void eliminar(Integer id) {
+        if (id != null) {
+            aplicar(i -> i.eliminar(id));
+        }
+    }
+
+    private void aplicar(Consumer<IndiceTrigramas> cambio) {
+        if (!habilitado) {
+            return;
+        }
+        synchronized (lock) {
+            if (indice != null) {
+                cambio.accept(indice);
+            }
+            if (pendientes != null) {
+                pendientes.add(cambio);
+            }
+        }
+    }
+
+    /**
+     * Reconstruye el índice desde la base de datos; si falla se conserva el anterior
+     */
+    public synchronized void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        synchronized (lock) {
+            pendientes = new ArrayList<>();
+        }
+        try {
+            IndiceTrigramas nuevo = new IndiceTrigramas();
+            for (Articulo articulo : articuloDAO.listarTextosBusqueda()) {
+                nuevo.indexar(articulo.getId(), articulo.getNombre(), articulo.getDescripcion());
+            }
+            synchronized (lock) {
+                for (Consumer<IndiceTrigramas> cambio : pendientes) {
+                    cambio.accept(nuevo);
+                }
+                indice = nuevo;
+            }
+            ultimaReconstruccionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            reconstrucciones.increment();
+            logger.info("Índice de búsqueda reconstruido: {} artículos, {} trigramas, {} ms",
+                       nuevo.getDocumentos(), nuevo.getTrigramas(), ultimaReconstruccionMs);
+        } catch (SQLException | RuntimeException e) {
+            logger.error("No se pudo reconstruir el índice de búsqueda: {}", e.getMessage(), e);
+        } finally {
+            synchronized (lock) {
+                pendientes = null;
+            }
+        }
+    }
+
+    private void programarReconstruccion(long minutos) {
+        if (minutos <= 0) {
+            return;
+        }
+        ScheduledExecutorService programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "indice-busqueda-reconstruccion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(this::reconstruir, minutos, minutos, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Máximo de resultados por búsqueda; también lo aplica la consulta LIKE sin índice
+     */
+    public int getLimite() {
+        return limitePorDefecto;
+    }
+
+    public String getEstadisticas() {
+        IndiceTrigramas actual = indice;
+        return "BuscadorArticulos{" +
+               "habilitado=" + habilitado +
+               ", articulos=" + (actual != null ? actual.getDocumentos() : 0) +
+               ", trigramas=" + (actual != null ? actual.getTrigramas() : 0) +
+               ", entradasObsoletas=" + (actual != null ? actual.getEntradasObsoletas() : 0) +
+               ", busquedas=" + busquedas.sum() +
+               ", reconstrucciones=" + reconstrucciones.sum() +
+               ", ultimaReconstruccionMs=" + ultimaReconstruccionMs +
+               '}';
+    }
+}
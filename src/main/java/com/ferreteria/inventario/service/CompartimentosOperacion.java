@@ -0,0 +1,245 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.config.DatabaseConfig;
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.exception.CapacidadExcedidaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compartimentos (bulkheads) por clase de operación con control de admisión
+ * Cada clase tiene su propio límite de operaciones en curso y una cola acotada. Así un listado o
+ * una exportación lenta no ocupa todas las conexiones del pool y las consultas de mostrador siguen
+ * respondiendo. Con la cola llena, o si no se libera lugar en esperaMs, la operación se rechaza de
+ * inmediato en vez de esperar connectionTimeout dentro de Hikari.
+ *
+ * Los límites por defecto reparten el pool: la mitad para consultas, un 30% para escrituras y el
+ * resto para operaciones masivas (al menos una conexión cada una).
+ */
+public class CompartimentosOperacion {
+    private static final Logger logger = LoggerFactory.getLogger(CompartimentosOperacion.class);
+    private static CompartimentosOperacion instance;
+
+    public enum Clase {
+        // Consultas puntuales de los puntos de venta
+        CONSULTA(0.5, 20, 250),
+        // Cambios de stock y de artículos
+        ESCRITURA(0.3, 20, 500),
+        // Listados, exportación y lotes
+        MASIVA(0.2, 2, 100);
+
+        private final double fraccionPool;
+        private final int colaPorDefecto;
+        private final long esperaPorDefectoMs;
+
+        Clase(double fraccionPool, int colaPorDefecto, long esperaPorDefectoMs) {
+            this.fraccionPool = fraccionPool;
+            this.colaPorDefecto = colaPorDefecto;
+            this.esperaPorDefectoMs = esperaPorDefectoMs;
+        }
+    }
+
+    /**
+     * Lugar obtenido en un compartimento; se libera con close()
+     */
+    @FunctionalInterface
+    public interface Permiso extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Permiso que puede pasar a otro dueño antes de liberarse, por ejemplo de la petición SOAP a la
+     * transmisión que sigue después de ella; close() libera el lugar una sola vez
+     */
+    public static final class PermisoTransferible implements Permiso {
+        private final AtomicReference<Permiso> permiso;
+
+        public PermisoTransferible(Permiso permiso) {
+            this.permiso = new AtomicReference<>(permiso);
+        }
+
+        /**
+         * Entrega el lugar a un nuevo contenedor; el close() de este deja de liberarlo
+         */
+        public PermisoTransferible transferir() {
+            return new PermisoTransferible(permiso.getAndSet(null));
+        }
+
+        @Override
+        public void close() {
+            Permiso actual = permiso.getAndSet(null);
+            if (actual != null) {
+                actual.close();
+            }
+        }
+    }
+
+    private static final Permiso SIN_LIMITE = () -> { };
+
+    private final boolean habilitado;
+    private final Map<Clase, Compartimento> compartimentos = new EnumMap<>(Clase.class);
+
+    public CompartimentosOperacion(boolean habilitado, int tamanoPool) {
+        this.habilitado = habilitado;
+        for (Clase clase : Clase.values()) {
+            int limite = Math.max(1, (int) Math.floor(tamanoPool * clase.fraccionPool));
+            definir(clase, limite, clase.colaPorDefecto, clase.esperaPorDefectoMs);
+        }
+    }
+
+    public static synchronized CompartimentosOperacion getInstance() {
+        if (instance == null) {
+            InventarioConfig config = InventarioConfig.getInstance();
+            int tamanoPool = DatabaseConfig.getInstance().getMaximumPoolSize();
+            CompartimentosOperacion nueva = new CompartimentosOperacion(
+                config.getBoolean("compartimentos.habilitado", true), tamanoPool);
+            for (Clase clase : Clase.values()) {
+                String prefijo = "compartimentos." + clase.name().toLowerCase() + ".";
+                Compartimento actual = nueva.compartimentos.get(clase);
+                int limite = config.getInt(prefijo + "limite", 0);
+                nueva.definir(clase, limite > 0 ? limite : actual.limite,
+                              config.getInt(prefijo + "cola", actual.colaMaxima),
+                              config.getLong(prefijo + "esperaMs", TimeUnit.NANOSECONDS.toMillis(actual.esperaNanos)));
+            }
+            instance = nueva;
+            logger.info("Compartimentos de operaciones (pool de {} conexiones): {}", tamanoPool, instance.getEstadisticas());
+        }
+        return instance;
+    }
+
+    /**
+     * Fija el límite, la cola y la espera máxima de una clase (antes de empezar a usarla)
+     */
+    public void definir(Clase clase, int limite, int colaMaxima, long esperaMs) {
+        compartimentos.put(clase, new Compartimento(clase, limite, colaMaxima, esperaMs));
+    }
+
+    /**
+     * Ocupa un lugar en el compartimento de la clase
+     * @throws CapacidadExcedidaException si la cola está llena o no se liberó lugar a tiempo
+     */
+    public Permiso entrar(Clase clase) throws CapacidadExcedidaException {
+        if (!habilitado || clase == null) {
+            return SIN_LIMITE;
+        }
+        return compartimentos.get(clase).entrar();
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public String getEstadisticas() {
+        if (!habilitado) {
+            return "Estadisticas{habilitado=false}";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Compartimento compartimento : compartimentos.values()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(compartimento);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Peticiones que los compartimentos pueden retener a la vez: la suma de límites y colas
+     * El ejecutor de peticiones debe admitir al menos estas para que el exceso llegue al control de
+     * admisión y se rechace de inmediato en vez de esperar en el ejecutor. 0 si están deshabilitados.
+     */
+    public int getCapacidadTotal() {
+        if (!habilitado) {
+            return 0;
+        }
+        int capacidad = 0;
+        for (Compartimento compartimento : compartimentos.values()) {
+            capacidad += compartimento.limite + compartimento.colaMaxima;
+        }
+        return capacidad;
+    }
+
+    /**
+     * Rechazos acumulados de una clase
+     */
+    public long getRechazos(Clase clase) {
+        Compartimento compartimento = compartimentos.get(clase);
+        return compartimento.rechazosLleno.sum() + compartimento.rechazosEspera.sum();
+    }
+
+    private static final class Compartimento {
+        private final Clase clase;
+        private final int limite;
+        private final int colaMaxima;
+        private final long esperaNanos;
+        private final Semaphore permisos;
+        private final AtomicInteger enCola = new AtomicInteger();
+
+        private final LongAdder admitidas = new LongAdder();
+        private final LongAdder encoladas = new LongAdder();
+        private final LongAdder rechazosLleno = new LongAdder();
+        private final LongAdder rechazosEspera = new LongAdder();
+
+        Compartimento(Clase clase, int limite, int colaMaxima, long esperaMs) {
+            this.clase = clase;
+            this.limite = Math.max(limite, 1);
+            this.colaMaxima = Math.max(colaMaxima, 0);
+            this.esperaNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(esperaMs, 0));
+            this.permisos = new Semaphore(this.limite);
+        }
+
+        Permiso entrar() throws CapacidadExcedidaException {
+            if (!permisos.tryAcquire()) {
+                esperar();
+            }
+            admitidas.increment();
+            return permisos::release;
+        }
+
+        private void esperar() throws CapacidadExcedidaException {
+            if (esperaNanos == 0 || enCola.incrementAndGet() > colaMaxima) {
+                if (esperaNanos > 0) {
+                    enCola.decrementAndGet();
+                }
+                rechazosLleno.increment();
+                throw new CapacidadExcedidaException(clase.name(), limite + " en curso y " + colaMaxima + " en espera");
+            }
+            encoladas.increment();
+            boolean adquirido;
+            try {
+                adquirido = permisos.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                adquirido = false;
+            } finally {
+                enCola.decrementAndGet();
+            }
+            if (!adquirido) {
+                rechazosEspera.increment();
+                throw new CapacidadExcedidaException(clase.name(),
+                    "sin lugar tras " + TimeUnit.NANOSECONDS.toMillis(esperaNanos) + " ms");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return clase + "{" +
+                    "enCurso=" + (limite - permisos.availablePermits()) + "/" + limite +
+                    ", enCola=" + enCola.get() + "/" + colaMaxima +
+                    ", admitidas=" + admitidas.sum() +
+                    ", encoladas=" + encoladas.sum() +
+                    ", rechazosLleno=" + rechazosLleno.sum() +
+                    ", rechazosEspera=" + rechazosEspera.sum() +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.config.InventarioConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Agrupa consultas idénticas y simultáneas en una sola lectura a la base de datos (single-flight)
+ * El primer hilo que pide una clave hace la lectura; los que piden la misma clave mientras tanto
+ * esperan su resultado en lugar de ocupar otra conexión. Sirve con o sin caché: con caché evita la
+ * estampida de fallos cuando expira una entrada muy consultada, sin caché evita lecturas repetidas.
+ *
+ * Cada lectura lleva la marca de generación tomada antes de empezar (ver ArticuloCache.marcaLectura).
+ * Un hilo solo se suma a una lectura en curso con su misma marca: si hubo una escritura entremedio,
+ * la lectura en curso podría no verla y el hilo inicia una nueva.
+ */
+public class ConsultasEnVuelo<K, V> {
+    private static final Logger logger = LoggerFactory.getLogger(ConsultasEnVuelo.class);
+
+    /**
+     * Lectura a la base de datos que hace el hilo que encabeza la consulta
+     */
+    @FunctionalInterface
+    public interface Carga<V> {
+        V cargar() throws SQLException;
+    }
+
+    private static final class Vuelo<V> {
+        private final long marca;
+        private final CompletableFuture<V> resultado = new CompletableFuture<>();
+
+        Vuelo(long marca) {
+            this.marca = marca;
+        }
+    }
+
+    private final boolean habilitado;
+    // Copia el resultado para los hilos que se sumaron: no comparten instancias mutables
+    private final UnaryOperator<V> copia;
+    private final ConcurrentHashMap<K, Vuelo<V>> enVuelo = new ConcurrentHashMap<>();
+
+    private final LongAdder lecturas = new LongAdder();
+    private final LongAdder agrupadas = new LongAdder();
+    private final LongAdder fallidas = new LongAdder();
+
+    public ConsultasEnVuelo(boolean habilitado, UnaryOperator<V> copia) {
+        this.habilitado = habilitado;
+        this.copia = copia;
+    }
+
+    /**
+     * Crea el agrupador según inventario.properties (consultas.agrupar.habilitado)
+     */
+    public static <K, V> ConsultasEnVuelo<K, V> desdeConfiguracion(UnaryOperator<V> copia) {
+        boolean habilitado = InventarioConfig.getInstance().getBoolean("consultas.agrupar.habilitado", true);
+        logger.info("Agrupamiento de consultas simultáneas {}", habilitado ? "habilitado" : "deshabilitado");
+        return new ConsultasEnVuelo<>(habilitado, copia);
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Devuelve el resultado de la carga para la clave, compartiendo la lectura en curso si la hay
+     * @param marca generación tomada antes de consultar (las escrituras posteriores la cambian)
+     */
+    public V obtener(K clave, long marca, Carga<V> carga) throws SQLException {
+        if (!habilitado) {
+            lecturas.increment();
+            return carga.cargar();
+        }
+
+        Vuelo<V> propio = new Vuelo<>(marca);
+        while (true) {
+            Vuelo<V> existente = enVuelo.putIfAbsent(clave, propio);
+            if (existente == null) {
+                return encabezar(clave, propio, carga);
+            }
+            if (existente.marca == marca) {
+                agrupadas.increment();
+                return esperar(existente);
+            }
+            // Lectura iniciada antes de una escritura: se reemplaza para que los siguientes se sumen a la nueva
+            if (enVuelo.replace(clave, existente, propio)) {
+                return encabezar(clave, propio, carga);
+            }
+        }
+    }
+
+    private V encabezar(K clave, Vuelo<V> vuelo, Carga<V> carga) throws SQLException {
+        lecturas.increment();
+        try {
+            V valor = carga.cargar();
+            vuelo.resultado.complete(valor);
+            return valor;
+        } catch (SQLException | RuntimeException | Error e) {
+            fallidas.increment();
+            vuelo.resultado.completeExceptionally(e);
+            throw e;
+        } finally {
+            enVuelo.remove(clave, vuelo);
+        }
+    }
+
+    private V esperar(Vuelo<V> vuelo) throws SQLException {
+        try {
+            return copia.apply(vuelo.resultado.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Consulta interrumpida mientras esperaba una lectura en curso", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof SQLException) {
+                SQLException original = (SQLException) causa;
+                // Excepción propia para cada hilo, con el mismo estado SQL para el manejo de errores
+                throw new SQLException(original.getMessage(), original.getSQLState(), original.getErrorCode(), original);
+            }
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new SQLException(causa);
+        }
+    }
+
+    public Estadisticas getEstadisticas() {
+        return new Estadisticas(habilitado, lecturas.sum(), agrupadas.sum(), fallidas.sum(), enVuelo.size());
+    }
+
+    /**
+     * Instantánea de los contadores de agrupamiento
+     */
+    public static final class Estadisticas {
+        private final boolean habilitado;
+        private final long lecturas;
+        private final long agrupadas;
+        private final long fallidas;
+        private final int enCurso;
+
+        Estadisticas(boolean habilitado, long lecturas, long agrupadas, long fallidas, int enCurso) {
+            this.habilitado = habilitado;
+            this.lecturas = lecturas;
+            this.agrupadas = agrupadas;
+            this.fallidas = fallidas;
+            this.enCurso = enCurso;
+        }
+
+        /**
+         * Consultas que llegaron a la base de datos
+         */
+        public long getLecturas() {
+            return lecturas;
+        }
+
+        /**
+         * Consultas que esperaron la lectura de otro hilo en vez de hacer la suya
+         */
+        public long getAgrupadas() {
+            return agrupadas;
+        }
+
+        public long getFallidas() {
+            return fallidas;
+        }
+
+        public int getEnCurso() {
+            return enCurso;
+        }
+
+        /**
+         * Fracción de las consultas que se resolvieron sin lectura propia
+         */
+        public double getRatioAgrupamiento() {
+            long total = lecturas + agrupadas;
+            return total == 0 ? 0.0 : (double) agrupadas / total;
+        }
+
+        @Override
+        public String toString() {
+            if (!habilitado) {
+                return "Estadisticas{habilitado=false, lecturas=" + lecturas + '}';
+            }
+            return "Estadisticas{" +
+                    "lecturas=" + lecturas +
+                    ", agrupadas=" + agrupadas +
+                    ", ratioAgrupamiento=" + String.format("%.2f%%", getRatioAgrupamiento() * 100) +
+                    ", fallidas=" + fallidas +
+                    ", enCurso=" + enCurso +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.dao.CategoriaDAO;
+import com.ferreteria.inventario.dao.ProveedorDAO;
+import com.ferreteria.inventario.model.Articulo;
+import com.ferreteria.inventario.model.Categoria;
+import com.ferreteria.inventario.model.Proveedor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria de datos de referencia (categorías y proveedores)
+ * Las listas casi nunca cambian, así que se reconstruyen solo al vencer el
+ * intervalo de refresco configurado o cuando se invalidan explícitamente.
+ */
+public class DatosReferenciaCache {
+    private static final Logger logger = LoggerFactory.getLogger(DatosReferenciaCache.class);
+    private static DatosReferenciaCache instance;
+
+    private final Entrada<Categoria> categorias;
+    private final Entrada<Proveedor> proveedores;
+
+    public DatosReferenciaCache(CategoriaDAO categoriaDAO, ProveedorDAO proveedorDAO, long refrescoSegundos) {
+        long refrescoNanos = TimeUnit.SECONDS.toNanos(Math.max(refrescoSegundos, 1));
+        this.categorias = new Entrada<>("categorías", categoriaDAO::listarTodas, refrescoNanos);
+        this.proveedores = new Entrada<>("proveedores", proveedorDAO::listarTodos, refrescoNanos);
+    }
+
+    public static synchronized DatosReferenciaCache getInstance() {
+        if (instance == null) {
+            long refresco = InventarioConfig.getInstance().getLong("cache.referencia.refrescoSegundos", 300);
+            instance = new DatosReferenciaCache(new CategoriaDAO(), new ProveedorDAO(), refresco);
+            logger.info("Caché de datos de referencia inicializada (refresco cada {}s)", refresco);
+        }
+        return instance;
+    }
+
+    /**
+     * Lista inmutable de categorías ordenadas por nombre
+     */
+    public List<Categoria> obtenerCategorias() {
+        return categorias.obtener();
+    }
+
+    /**
+     * Lista inmutable de proveedores ordenados por nombre
+     */
+    public List<Proveedor> obtenerProveedores() {
+        return proveedores.obtener();
+    }
+
+    /**
+     * Completa los nombres de categoría y proveedor de un artículo leído sin JOIN
+     * Los busca en las listas cacheadas. Un ID que no está en ellas, o una lista que no se pudo
+     * cargar, deja el nombre en null: quien llama ya confirmó su cambio y no debe fallar por esto.
+     */
+    public void completarNombres(Articulo articulo) {
+        try {
+            if (articulo.getCategoriaId() != null) {
+                for (Categoria categoria : obtenerCategorias()) {
+                    if (articulo.getCategoriaId().equals(categoria.getId())) {
+                        articulo.setCategoriaNombre(categoria.getNombre());
+                        break;
+                    }
+                }
+            }
+            if (articulo.getProveedorId() != null) {
+                for (Proveedor proveedor : obtenerProveedores()) {
+                    if (articulo.getProveedorId().equals(proveedor.getId())) {
+                        articulo.setProveedorNombre(proveedor.getNombre());
+                        break;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron completar los nombres de referencia del artículo ID {}: {}",
+                       articulo.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Fuerza la recarga de ambas listas en la siguiente consulta
+     */
+    public void invalidar() {
+        categorias.invalidar();
+        proveedores.invalidar();
+        logger.info("Caché de datos de referencia invalidada");
+    }
+
+    public void invalidarCategorias() {
+        categorias.invalidar();
+        logger.info("Caché de categorías invalidada");
+    }
+
+    public void invalidarProveedores() {
+        proveedores.invalidar();
+        logger.info("Caché de proveedores invalidada");
+    }
+
+    public long getReconstrucciones() {
+        return categorias.reconstrucciones.sum() + proveedores.reconstrucciones.sum();
+    }
+
+    public long getAciertos() {
+        return categorias.aciertos.sum() + proveedores.aciertos.sum();
+    }
+
+    /**
+     * Lista cacheada con su instante de construcción
+     */
+    private static final class Entrada<T> {
+        private final String nombre;
+        private final Supplier<List<T>> cargador;
+        private final long refrescoNanos;
+        private final LongAdder aciertos = new LongAdder();
+        private final LongAdder reconstrucciones = new LongAdder();
+
+        private volatile List<T> datos;
+        private volatile long construidoEn;
+
+        private Entrada(String nombre, Supplier<List<T>> cargador, long refrescoNanos) {
+            this.nombre = nombre;
+            this.cargador = cargador;
+            this.refrescoNanos = refrescoNanos;
+        }
+
+        private List<T> obtener() {
+            List<T> actual = datos;
+            if (actual != null && !vencido()) {
+                aciertos.increment();
+                return actual;
+            }
+            return reconstruir();
+        }
+
+        private synchronized List<T> reconstruir() {
+            // Otro hilo pudo reconstruir mientras se esperaba el monitor
+            List<T> actual = datos;
+            if (actual != null && !vencido()) {
+                aciertos.increment();
+                return actual;
+            }
+            try {
+                List<T> cargados = cargador.get();
+                datos = cargados != null ? Collections.unmodifiableList(cargados) : Collections.emptyList();
+                construidoEn = System.nanoTime();
+                reconstrucciones.increment();
+                logger.debug("Caché de {} reconstruida con {} elementos", nombre, datos.size());
+                return datos;
+            } catch (RuntimeException e) {
+                if (actual != null) {
+                    // Se prefiere servir datos vencidos antes que fallar la operación
+                    logger.warn("No se pudo refrescar la caché de {}, se mantienen los datos anteriores: {}",
+                               nombre, e.getMessage());
+                    construidoEn = System.nanoTime();
+                    return actual;
+                }
+                throw e;
+            }
+        }
+
+        private boolean vencido() {
+            return System.nanoTime() - construidoEn > refrescoNanos;
+        }
+
+        private void invalidar() {
+            datos = null;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.dao.ArticuloDAO;
+import com.ferreteria.inventario.dao.CursorArticulos;
+import com.ferreteria.inventario.util.ArticuloNdjson;
+import jakarta.activation.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.Cleaner;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Origen de datos de la exportación del catálogo en NDJSON
+ * El cursor se abre al empezar a leer (cuando JAX-WS escribe el adjunto MTOM) y cada
+ * fila se serializa bajo demanda, por lo que la memoria no depende del tamaño del catálogo.
+ *
+ * Lleva el lugar de la petición en el compartimento MASIVA y lo pasa al primer cursor que abre,
+ * que lo libera al cerrarse. Si el adjunto nunca llega a leerse (la respuesta falló antes), el lugar
+ * se libera cuando el origen de datos deja de usarse y lo recoge el GC.
+ */
+public class ExportacionCatalogoDataSource implements DataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ExportacionCatalogoDataSource.class);
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private static final Cleaner LIMPIEZA = Cleaner.create();
+
+    private final ArticuloDAO articuloDAO;
+    private final int tamanoFetch;
+    private final CompartimentosOperacion.PermisoTransferible permiso;
+
+    public ExportacionCatalogoDataSource(ArticuloDAO articuloDAO, int tamanoFetch,
+                                         CompartimentosOperacion.PermisoTransferible permiso) {
+        this.articuloDAO = articuloDAO;
+        this.tamanoFetch = tamanoFetch;
+        this.permiso = permiso;
+        LIMPIEZA.register(this, permiso::close);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        CompartimentosOperacion.PermisoTransferible lugar = permiso.transferir();
+        try {
+            CursorArticulos cursor = articuloDAO.abrirCursorCatalogo(tamanoFetch);
+            cursor.alCerrar(lugar::close);
+            return new FlujoNdjson(cursor);
+        } catch (SQLException e) {
+            lugar.close();
+            throw new IOException("Error al abrir la exportación del catálogo: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        throw new IOException("La exportación del catálogo es de solo lectura");
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public String getName() {
+        return "catalogo.ndjson";
+    }
+
+    /**
+     * InputStream que genera una línea por fila a medida que se consume
+     */
+    private static final class FlujoNdjson extends InputStream {
+        private final CursorArticulos cursor;
+        private final StringBuilder linea = new StringBuilder(512);
+        private final long inicio = System.nanoTime();
+        private byte[] buffer = new byte[0];
+        private int posicion;
+        private boolean terminado;
+
+        FlujoNdjson(CursorArticulos cursor) {
+            this.cursor = cursor;
+        }
+
+        private boolean llenar() throws IOException {
+            while (posicion >= buffer.length) {
+                if (terminado) {
+                    return false;
+                }
+                try {
+                    if (!cursor.siguiente()) {
+                        terminado = true;
+                        logger.info("Exportación del catálogo completada: {} artículos en {} ms", cursor.getFilas(),
+                                   (System.nanoTime() - inicio) / 1_000_000);
+                        return false;
+                    }
+                } catch (SQLException e) {
+                    terminado = true;
+                    cursor.close();
+                    throw new IOException("Error al leer el catálogo: " + e.getMessage(), e);
+                }
+                linea.setLength(0);
+                ArticuloNdjson.escribirLinea(cursor.actual(), linea);
+                buffer = linea.toString().getBytes(StandardCharsets.UTF_8);
+                posicion = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return llenar() ? buffer[posicion++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int longitud) throws IOException {
+            if (longitud == 0) {
+                return 0;
+            }
+            int leidos = 0;
+            while (leidos < longitud && llenar()) {
+                int n = Math.min(longitud - leidos, buffer.length - posicion);
+                System.arraycopy(buffer, posicion, destino, desde + leidos, n);
+                posicion += n;
+                leidos += n;
+            }
+            return leidos == 0 ? -1 : leidos;
+        }
+
+        @Override
+        public void close() {
+            terminado = true;
+            cursor.close();
+        }
+    }
+}
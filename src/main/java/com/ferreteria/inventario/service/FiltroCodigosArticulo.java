@@ -0,0 +1,250 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.dao.ArticuloDAO;
+import com.ferreteria.inventario.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de pertenencia en memoria sobre todos los códigos de artículo
+ * Permite rechazar códigos inexistentes (lecturas erróneas del escáner)
+ * sin consultar la base de datos. Se construye al iniciar, se actualiza en
+ * cada inserción y se reconstruye periódicamente para recoger altas hechas
+ * por otros nodos y para mantener baja la tasa de falsos positivos.
+ *
+ * Supone un único escritor de artículos: un descarte se toma como definitivo. Un código dado de
+ * alta por otro nodo o directamente en la base de datos se informa como inexistente hasta la
+ * siguiente reconstrucción (filtro.codigos.reconstruccionMinutos); con varios escritores hay que
+ * acortar ese intervalo o deshabilitar el filtro.
+ */
+public class FiltroCodigosArticulo {
+    private static final Logger logger = LoggerFactory.getLogger(FiltroCodigosArticulo.class);
+    private static FiltroCodigosArticulo instance;
+
+    private final ArticuloDAO articuloDAO;
+    private final boolean habilitado;
+    private final double tasaObjetivo;
+    private final int capacidadMinima;
+
+    private final Object lock = new Object();
+    private volatile BloomFilter filtro;
+    // Códigos agregados mientras se reconstruye; se aplican al filtro nuevo antes del cambio
+    private List<String> pendientes;
+
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder descartes = new LongAdder();
+    private final LongAdder falsosPositivos = new LongAdder();
+    private final LongAdder reconstrucciones = new LongAdder();
+    private volatile long ultimaReconstruccionMs;
+
+    public FiltroCodigosArticulo(ArticuloDAO articuloDAO, boolean habilitado, double tasaObjetivo, int capacidadMinima) {
+        this.articuloDAO = articuloDAO;
+        this.habilitado = habilitado;
+        this.tasaObjetivo = tasaObjetivo;
+        this.capacidadMinima = Math.max(capacidadMinima, 1);
+    }
+
+    public static synchronized FiltroCodigosArticulo getInstance() {
+        if (instance == null) {
+            InventarioConfig config = InventarioConfig.getInstance();
+            instance = new FiltroCodigosArticulo(new ArticuloDAO(),
+                config.getBoolean("filtro.codigos.habilitado", true),
+                Double.parseDouble(config.getString("filtro.codigos.tasaFalsosPositivos", "0.01")),
+                config.getInt("filtro.codigos.capacidadMinima", 10000));
+            if (instance.habilitado) {
+                instance.reconstruir();
+                instance.programarReconstruccion(config.getLong("filtro.codigos.reconstruccionMinutos", 10));
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Indica si el código con certeza no existe; en ese caso no hace falta ir a la base de datos
+     */
+    public boolean descarta(String codigo) {
+        BloomFilter actual = filtro;
+        if (!habilitado || actual == null || codigo == null) {
+            return false;
+        }
+        consultas.increment();
+        if (actual.podriaContener(normalizar(codigo))) {
+            return false;
+        }
+        descartes.increment();
+        return true;
+    }
+
+    /**
+     * Registra un código nuevo; debe llamarse antes de insertarlo para no producir falsos negativos
+     */
+    public void agregar(String codigo) {
+        if (!habilitado || codigo == null) {
+            return;
+        }
+        String normalizado = normalizar(codigo);
+        synchronized (lock) {
+            if (filtro != null) {
+                filtro.agregar(normalizado);
+            }
+            if (pendientes != null) {
+                pendientes.add(normalizado);
+            }
+        }
+    }
+
+    /**
+     * El filtro dejó pasar un código que la base de datos no tiene
+     */
+    public void registrarFalsoPositivo() {
+        if (habilitado && filtro != null) {
+            falsosPositivos.increment();
+        }
+    }
+
+    /**
+     * Reconstruye el filtro desde la base de datos; si falla se conserva el anterior
+     */
+    public synchronized void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        synchronized (lock) {
+            pendientes = new ArrayList<>();
+        }
+        try {
+            List<String> codigos = articuloDAO.listarCodigos();
+            BloomFilter nuevo = new BloomFilter(Math.max(codigos.size() * 2L, capacidadMinima), tasaObjetivo);
+            for (String codigo : codigos) {
+                if (codigo != null) {
+                    nuevo.agregar(normalizar(codigo));
+                }
+            }
+            synchronized (lock) {
+                for (String codigo : pendientes) {
+                    nuevo.agregar(codigo);
+                }
+                filtro = nuevo;
+            }
+            ultimaReconstruccionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            reconstrucciones.increment();
+            logger.info("Filtro de códigos reconstruido: {} códigos, {} bits, {} hashes, FPP estimada {}, {} ms",
+                       nuevo.getElementos(), nuevo.getNumeroBits(), nuevo.getNumeroHashes(),
+                       String.format("%.5f", nuevo.tasaFalsosPositivosEstimada()), ultimaReconstruccionMs);
+        } catch (SQLException | RuntimeException e) {
+            logger.error("No se pudo reconstruir el filtro de códigos: {}", e.getMessage(), e);
+        } finally {
+            synchronized (lock) {
+                pendientes = null;
+            }
+        }
+    }
+
+    private void programarReconstruccion(long minutos) {
+        if (minutos <= 0) {
+            return;
+        }
+        ScheduledExecutorService programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "filtro-codigos-reconstruccion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(this::reconstruir, minutos, minutos, TimeUnit.MINUTES);
+    }
+
+    public Estadisticas getEstadisticas() {
+        BloomFilter actual = filtro;
+        return new Estadisticas(consultas.sum(), descartes.sum(), falsosPositivos.sum(), reconstrucciones.sum(),
+                                ultimaReconstruccionMs,
+                                actual != null ? actual.getElementos() : 0,
+                                actual != null ? actual.tasaFalsosPositivosEstimada() : 0.0);
+    }
+
+    private static String normalizar(String codigo) {
+        return codigo.trim().toUpperCase();
+    }
+
+    /**
+     * Instantánea de los contadores del filtro
+     */
+    public static final class Estadisticas {
+        private final long consultas;
+        private final long descartes;
+        private final long falsosPositivos;
+        private final long reconstrucciones;
+        private final long ultimaReconstruccionMs;
+        private final long elementos;
+        private final double tasaFalsosPositivosEstimada;
+
+        Estadisticas(long consultas, long descartes, long falsosPositivos, long reconstrucciones,
+                     long ultimaReconstruccionMs, long elementos, double tasaFalsosPositivosEstimada) {
+            this.consultas = consultas;
+            this.descartes = descartes;
+            this.falsosPositivos = falsosPositivos;
+            this.reconstrucciones = reconstrucciones;
+            this.ultimaReconstruccionMs = ultimaReconstruccionMs;
+            this.elementos = elementos;
+            this.tasaFalsosPositivosEstimada = tasaFalsosPositivosEstimada;
+        }
+
+        public long getConsultas() {
+            return consultas;
+        }
+
+        public long getDescartes() {
+            return descartes;
+        }
+
+        public long getFalsosPositivos() {
+            return falsosPositivos;
+        }
+
+        public long getReconstrucciones() {
+            return reconstrucciones;
+        }
+
+        public long getUltimaReconstruccionMs() {
+            return ultimaReconstruccionMs;
+        }
+
+        public long getElementos() {
+            return elementos;
+        }
+
+        public double getTasaFalsosPositivosEstimada() {
+            return tasaFalsosPositivosEstimada;
+        }
+
+        /**
+         * Fracción de códigos inexistentes que el filtro dejó pasar a la base de datos
+         */
+        public double getTasaFalsosPositivosObservada() {
+            long inexistentes = descartes + falsosPositivos;
+            return inexistentes == 0 ? 0.0 : (double) falsosPositivos / inexistentes;
+        }
+
+        @Override
+        public String toString() {
+            return "Estadisticas{" +
+                    "consultas=" + consultas +
+                    ", descartes=" + descartes +
+                    ", falsosPositivos=" + falsosPositivos +
+                    ", fppObservada=" + String.format("%.5f", getTasaFalsosPositivosObservada()) +
+                    ", fppEstimada=" + String.format("%.5f", tasaFalsosPositivosEstimada) +
+                    ", elementos=" + elementos +
+                    ", reconstrucciones=" + reconstrucciones +
+                    ", ultimaReconstruccionMs=" + ultimaReconstruccionMs +
+                    '}';
+        }
+    }
+}
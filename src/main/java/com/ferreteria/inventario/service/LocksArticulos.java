@@ -0,0 +1,280 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.exception.InventarioException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks por artículo repartidos en franjas (striped locks) para las mutaciones de stock
+ * Serializa dentro del proceso los cambios sobre un mismo artículo antes de pedir una
+ * conexión, de modo que un SKU muy vendido no ocupe el pool con transacciones esperando
+ * el bloqueo de fila. La consistencia la garantiza la base de datos (UPDATE condicional y
+ * SELECT ... FOR UPDATE); este lock solo ordena la espera. Artículos distintos caen casi
+ * siempre en franjas distintas y no compiten entre sí. Las rutas por código resuelven
+ * antes el ID para caer en la misma franja que las rutas por ID.
+ */
+public class LocksArticulos {
+    private static final Logger logger = LoggerFactory.getLogger(LocksArticulos.class);
+    private static LocksArticulos instance;
+
+    private static final Bloqueo SIN_BLOQUEO = () -> { };
+
+    private final ReentrantLock[] franjas;
+    private final int mascara;
+    private final long esperaMaximaNanos;
+    private final int maxCodigosRecordados;
+
+    // Código -> ID ya resuelto; si se vacía al llenarse, solo cuesta volver a resolver
+    private final Map<String, Integer> idsPorCodigo = new ConcurrentHashMap<>();
+
+    private final LongAdder adquisiciones = new LongAdder();
+    private final LongAdder contendidas = new LongAdder();
+    private final LongAdder esperaTotalNanos = new LongAdder();
+    private final AtomicLong esperaMaximaObservadaNanos = new AtomicLong();
+    private final LongAdder expiradas = new LongAdder();
+
+    public LocksArticulos(int franjas, long esperaMaximaMs, int maxCodigosRecordados) {
+        int tamano = Integer.highestOneBit(Math.max(franjas, 1) * 2 - 1);
+        this.franjas = new ReentrantLock[tamano];
+        for (int i = 0; i < tamano; i++) {
+            this.franjas[i] = new ReentrantLock();
+        }
+        this.mascara = tamano - 1;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(esperaMaximaMs, 1));
+        this.maxCodigosRecordados = Math.max(maxCodigosRecordados, 0);
+    }
+
+    public static synchronized LocksArticulos getInstance() {
+        if (instance == null) {
+            InventarioConfig config = InventarioConfig.getInstance();
+            instance = new LocksArticulos(
+                config.getInt("locks.articulos.franjas", 256),
+                config.getLong("locks.articulos.esperaMaximaMs", 5000),
+                config.getInt("locks.articulos.codigosRecordados", 50000));
+            logger.info("Locks por artículo inicializados con {} franjas", instance.franjas.length);
+        }
+        return instance;
+    }
+
+    /**
+     * Lock adquirido; se libera con close()
+     */
+    @FunctionalInterface
+    public interface Bloqueo extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Bloquea la franja del artículo
+     * @throws InventarioException si no se obtiene dentro de la espera máxima configurada
+     */
+    public Bloqueo bloquear(int idArticulo) throws InventarioException {
+        ReentrantLock lock = franjas[franja(idArticulo)];
+        adquirir(lock);
+        return lock::unlock;
+    }
+
+    /**
+     * Resuelve los IDs de códigos normalizados; omite los códigos que no existen
+     */
+    @FunctionalInterface
+    public interface ResolutorIds {
+        Map<String, Integer> resolver(Collection<String> codigosNormalizados) throws SQLException;
+    }
+
+    /**
+     * Bloquea la franja del artículo con ese código, resolviendo su ID si aún no se conoce
+     * Un código inexistente no se bloquea: la mutación fallará igualmente por no encontrarlo.
+     */
+    public Bloqueo bloquearPorCodigo(String codigoNormalizado, ResolutorIds resolutor)
+            throws InventarioException, SQLException {
+        Integer id = idsPorCodigo.get(codigoNormalizado);
+        if (id == null) {
+            id = resolver(List.of(codigoNormalizado), resolutor).get(codigoNormalizado);
+        }
+        return id != null ? bloquear(id) : SIN_BLOQUEO;
+    }
+
+    /**
+     * Bloquea las franjas de varios artículos en orden creciente (sin riesgo de interbloqueo)
+     * Los IDs desconocidos se resuelven con una sola llamada; los códigos inexistentes se ignoran.
+     */
+    public Bloqueo bloquearVariosPorCodigo(Collection<String> codigosNormalizados, ResolutorIds resolutor)
+            throws InventarioException, SQLException {
+        TreeSet<Integer> indices = new TreeSet<>();
+        List<String> pendientes = new ArrayList<>();
+        for (String codigo : codigosNormalizados) {
+            Integer id = idsPorCodigo.get(codigo);
+            if (id != null) {
+                indices.add(franja(id));
+            } else {
+                pendientes.add(codigo);
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            for (Integer id : resolver(pendientes, resolutor).values()) {
+                indices.add(franja(id));
+            }
+        }
+        if (indices.isEmpty()) {
+            return SIN_BLOQUEO;
+        }
+
+        int[] adquiridas = new int[indices.size()];
+        int n = 0;
+        try {
+            for (int indice : indices) {
+                adquirir(franjas[indice]);
+                adquiridas[n++] = indice;
+            }
+        } catch (InventarioException | RuntimeException e) {
+            liberar(adquiridas, n);
+            throw e;
+        }
+        int total = n;
+        return () -> liberar(adquiridas, total);
+    }
+
+    /**
+     * Registra el ID de un código para que las rutas por código usen el mismo lock que las rutas por ID
+     */
+    public void recordarCodigo(String codigoNormalizado, Integer idArticulo) {
+        if (codigoNormalizado == null || idArticulo == null || maxCodigosRecordados == 0) {
+            return;
+        }
+        if (idsPorCodigo.size() >= maxCodigosRecordados && !idsPorCodigo.containsKey(codigoNormalizado)) {
+            idsPorCodigo.clear();
+        }
+        idsPorCodigo.put(codigoNormalizado, idArticulo);
+    }
+
+    private Map<String, Integer> resolver(Collection<String> codigos, ResolutorIds resolutor) throws SQLException {
+        Map<String, Integer> ids = resolutor.resolver(codigos);
+        for (Map.Entry<String, Integer> entrada : ids.entrySet()) {
+            recordarCodigo(entrada.getKey(), entrada.getValue());
+        }
+        return ids;
+    }
+
+    private void adquirir(ReentrantLock lock) throws InventarioException {
+        adquisiciones.increment();
+        if (lock.tryLock()) {
+            return;
+        }
+
+        contendidas.increment();
+        long inicio = System.nanoTime();
+        boolean adquirido;
+        try {
+            adquirido = lock.tryLock(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InventarioException("BLOQUEO_INTERRUMPIDO", "CONCURRENCIA",
+                "Se interrumpió la espera del bloqueo del artículo", e);
+        } finally {
+            registrarEspera(System.nanoTime() - inicio);
+        }
+
+        if (!adquirido) {
+            expiradas.increment();
+            throw new InventarioException("BLOQUEO_TIMEOUT", "CONCURRENCIA",
+                "El artículo está siendo modificado por otra operación; intente nuevamente");
+        }
+    }
+
+    private void registrarEspera(long nanos) {
+        esperaTotalNanos.add(nanos);
+        long maxima = esperaMaximaObservadaNanos.get();
+        while (nanos > maxima && !esperaMaximaObservadaNanos.compareAndSet(maxima, nanos)) {
+            maxima = esperaMaximaObservadaNanos.get();
+        }
+    }
+
+    private void liberar(int[] indices, int cantidad) {
+        for (int i = cantidad - 1; i >= 0; i--) {
+            franjas[indices[i]].unlock();
+        }
+    }
+
+    private int franja(int idArticulo) {
+        // Mezcla los bits para que IDs consecutivos no dependan solo de los bits bajos
+        int h = idArticulo * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    public Estadisticas getEstadisticas() {
+        return new Estadisticas(adquisiciones.sum(), contendidas.sum(), expiradas.sum(),
+                                esperaTotalNanos.sum(), esperaMaximaObservadaNanos.get());
+    }
+
+    /**
+     * Instantánea de los contadores de espera
+     */
+    public static final class Estadisticas {
+        private final long adquisiciones;
+        private final long contendidas;
+        private final long expiradas;
+        private final long esperaTotalNanos;
+        private final long esperaMaximaNanos;
+
+        Estadisticas(long adquisiciones, long contendidas, long expiradas, long esperaTotalNanos, long esperaMaximaNanos) {
+            this.adquisiciones = adquisiciones;
+            this.contendidas = contendidas;
+            this.expiradas = expiradas;
+            this.esperaTotalNanos = esperaTotalNanos;
+            this.esperaMaximaNanos = esperaMaximaNanos;
+        }
+
+        public long getAdquisiciones() {
+            return adquisiciones;
+        }
+
+        public long getContendidas() {
+            return contendidas;
+        }
+
+        public long getExpiradas() {
+            return expiradas;
+        }
+
+        public long getEsperaTotalNanos() {
+            return esperaTotalNanos;
+        }
+
+        public long getEsperaMaximaNanos() {
+            return esperaMaximaNanos;
+        }
+
+        /**
+         * Espera media de las adquisiciones que tuvieron que esperar, en microsegundos
+         */
+        public double getEsperaMediaContendidaMicros() {
+            return contendidas == 0 ? 0.0 : esperaTotalNanos / 1000.0 / contendidas;
+        }
+
+        @Override
+        public String toString() {
+            return "Estadisticas{" +
+                    "adquisiciones=" + adquisiciones +
+                    ", contendidas=" + contendidas +
+                    ", expiradas=" + expiradas +
+                    ", esperaMediaContendidaUs=" + String.format("%.1f", getEsperaMediaContendidaMicros()) +
+                    ", esperaMaximaMs=" + TimeUnit.NANOSECONDS.toMillis(esperaMaximaNanos) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,736 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.dao.ArticuloDAO;
+import com.ferreteria.inventario.model.MovimientoInventario;
+import com.ferreteria.inventario.model.TipoMovimiento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Motor de stock en memoria con escritura diferida (write-behind)
+ * Con stock.memoria.habilitado=true el stock vigente de cada artículo vive en celdas int indexadas
+ * por ID y es la fuente de verdad: las variaciones se aplican con compare-and-set, sin locks ni
+ * viaje a la base de datos, y las consultas toman el stock de aquí. Cada cambio se anota en un
+ * diario local de solo anexado (con fsync agrupado si sincronizarDiario=true) y un hilo lo vuelca
+ * periódicamente: suma las variaciones netas por artículo y escribe stock, movimientos y la última
+ * secuencia volcada en una sola transacción.
+ *
+ * Al arrancar carga el stock de la base de datos y vuelve a aplicar las entradas del diario
+ * posteriores a la secuencia volcada, así que una caída no pierde cambios ya respondidos.
+ * Supone una sola instancia del servicio escribiendo stock: otra instancia, o un cambio hecho
+ * directamente en la base de datos, no se reflejaría en memoria.
+ */
+public class MotorStock {
+    private static final Logger logger = LoggerFactory.getLogger(MotorStock.class);
+    private static MotorStock instance;
+
+    // Celda de un artículo cuyo stock aún no se leyó (o que no existe)
+    private static final int SIN_CARGAR = Integer.MIN_VALUE;
+    private static final int BITS_SEGMENTO = 12;
+    private static final int TAMANO_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA_SEGMENTO = TAMANO_SEGMENTO - 1;
+
+    // Registro del diario: longitud, CRC32 y datos (secuencia, artículo, variación, stocks, tipo, fecha, textos)
+    private static final int CABECERA_REGISTRO = 8;
+    private static final int DATOS_FIJOS = 8 + 4 + 4 + 4 + 4 + 1 + 8 + 2 + 2;
+
+    private final ArticuloDAO articuloDAO;
+    private final boolean habilitado;
+    private final Path rutaDiario;
+    private final boolean sincronizarDiario;
+    private final long volcadoMs;
+    private final int tamanoLote;
+
+    // Segmentos de celdas; el directorio crece copiando referencias, las celdas nunca se mueven
+    private volatile AtomicIntegerArray[] segmentos = new AtomicIntegerArray[0];
+
+    private FileChannel diario;
+    // Protege la escritura en el diario, ultimaSecuencia y el orden de 'pendientes'
+    private final Object escritura = new Object();
+    private final Object forzado = new Object();
+    private long ultimaSecuencia;
+    private final AtomicLong secuenciaForzada = new AtomicLong();
+    private volatile long secuenciaVolcada;
+
+    // Entradas anotadas y aún no volcadas, en orden de secuencia
+    private final ConcurrentLinkedQueue<Entrada> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger cantidadPendientes = new AtomicInteger();
+    // Lote que falló al volcarse; se reintenta antes de tomar entradas nuevas
+    private final List<Entrada> enVolcado = new ArrayList<>();
+    private ScheduledExecutorService volcador;
+    private volatile boolean activo;
+
+    private final LongAdder variaciones = new LongAdder();
+    private final LongAdder rechazos = new LongAdder();
+    private final LongAdder reintentosCas = new LongAdder();
+    private final LongAdder cargasPerezosas = new LongAdder();
+    private final LongAdder sincronizaciones = new LongAdder();
+    private final LongAdder erroresDiario = new LongAdder();
+    private final LongAdder volcados = new LongAdder();
+    private final LongAdder entradasVolcadas = new LongAdder();
+    private final LongAdder filasVolcadas = new LongAdder();
+    private final LongAdder erroresVolcado = new LongAdder();
+    private final AtomicLong volcadoMaximoNanos = new AtomicLong();
+    private volatile int recuperadas;
+
+    /**
+     * Cambio de stock anotado en el diario; se vuelca como un movimiento de inventario
+     */
+    private static final class Entrada {
+        private long secuencia;
+        private final int articuloId;
+        private final int variacion;
+        private final int stockAnterior;
+        private final int stockNuevo;
+        private final TipoMovimiento tipo;
+        private final long fechaMillis;
+        private final String motivo;
+        private final String usuario;
+
+        Entrada(int articuloId, int variacion, int stockAnterior, int stockNuevo, TipoMovimiento tipo,
+                long fechaMillis, String motivo, String usuario) {
+            this.articuloId = articuloId;
+            this.variacion = variacion;
+            this.stockAnterior = stockAnterior;
+            this.stockNuevo = stockNuevo;
+            this.tipo = tipo;
+            this.fechaMillis = fechaMillis;
+            this.motivo = motivo;
+            this.usuario = usuario;
+        }
+
+        MovimientoInventario aMovimiento() {
+            MovimientoInventario movimiento = new MovimientoInventario();
+            movimiento.setArticuloId(articuloId);
+            movimiento.setTipoMovimiento(tipo);
+            movimiento.setCantidad(Math.abs(variacion));
+            movimiento.setStockAnterior(stockAnterior);
+            movimiento.setStockNuevo(stockNuevo);
+            movimiento.setMotivo(motivo);
+            movimiento.setUsuario(usuario);
+            movimiento.setFechaMovimiento(LocalDateTime.ofInstant(Instant.ofEpochMilli(fechaMillis), ZoneId.systemDefault()));
+            return movimiento;
+        }
+    }
+
+    /**
+     * Resultado de una variación aplicada (o rechazada) en memoria
+     */
+    public static final class Variacion {
+        private final boolean aplicada;
+        private final int stockAnterior;
+        private final int stockNuevo;
+
+        Variacion(boolean aplicada, int stockAnterior, int stockNuevo) {
+            this.aplicada = aplicada;
+            this.stockAnterior = stockAnterior;
+            this.stockNuevo = stockNuevo;
+        }
+
+        /**
+         * false si el stock habría quedado negativo
+         */
+        public boolean isAplicada() {
+            return aplicada;
+        }
+
+        public int getStockAnterior() {
+            return stockAnterior;
+        }
+
+        public int getStockNuevo() {
+            return stockNuevo;
+        }
+    }
+
+    public MotorStock(ArticuloDAO articuloDAO, boolean habilitado, String rutaDiario, boolean sincronizarDiario,
+                      long volcadoMs, int tamanoLote) {
+        this.articuloDAO = articuloDAO;
+        this.habilitado = habilitado;
+        this.rutaDiario = Paths.get(rutaDiario);
+        this.sincronizarDiario = sincronizarDiario;
+        this.volcadoMs = Math.max(volcadoMs, 10);
+        this.tamanoLote = Math.max(tamanoLote, 1);
+    }
+
+    /**
+     * @throws IllegalStateException si el motor está habilitado y no puede recuperar su estado
+     */
+    public static synchronized MotorStock getInstance() {
+        if (instance == null) {
+            InventarioConfig config = InventarioConfig.getInstance();
+            MotorStock motor = new MotorStock(new ArticuloDAO(),
+                config.getBoolean("stock.memoria.habilitado", false),
+                config.getString("stock.memoria.diario", "data/motor-stock.diario"),
+                config.getBoolean("stock.memoria.sincronizarDiario", true),
+                config.getLong("stock.memoria.volcadoMs", 1000),
+                config.getInt("stock.memoria.tamanoLote", 2000));
+            if (motor.habilitado) {
+                try {
+                    motor.iniciar();
+                } catch (SQLException | IOException e) {
+                    // Sin el diario recuperado, responder desde la base de datos perdería cambios ya confirmados
+                    throw new IllegalStateException("No se pudo iniciar el motor de stock en memoria: " + e.getMessage(), e);
+                }
+                Runtime.getRuntime().addShutdownHook(new Thread(motor::cerrar, "motor-stock-cierre"));
+            }
+            instance = motor;
+        }
+        return instance;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Carga el stock, recupera el diario y arranca el volcado periódico
+     */
+    synchronized void iniciar() throws SQLException, IOException {
+        long volcada = articuloDAO.obtenerSecuenciaVolcada();
+        int[] stocks = articuloDAO.obtenerStocks();
+        for (int i = 0; i < stocks.length; i += 2) {
+            segmento(stocks[i]).set(stocks[i] & MASCARA_SEGMENTO, stocks[i + 1]);
+        }
+
+        Path carpeta = rutaDiario.toAbsolutePath().getParent();
+        if (carpeta != null) {
+            Files.createDirectories(carpeta);
+        }
+        List<Entrada> leidas = new ArrayList<>();
+        long longitudValida = leerDiario(leidas);
+
+        long ultima = volcada;
+        for (Entrada entrada : leidas) {
+            if (entrada.secuencia <= volcada) {
+                continue;
+            }
+            AtomicIntegerArray segmento = segmento(entrada.articuloId);
+            int indice = entrada.articuloId & MASCARA_SEGMENTO;
+            int actual = segmento.get(indice);
+            segmento.set(indice, (actual == SIN_CARGAR ? 0 : actual) + entrada.variacion);
+            pendientes.add(entrada);
+            cantidadPendientes.incrementAndGet();
+            ultima = Math.max(ultima, entrada.secuencia);
+        }
+        recuperadas = cantidadPendientes.get();
+
+        diario = FileChannel.open(rutaDiario, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        // Un registro a medio escribir al caer el proceso se descarta para que lo anexado después se pueda leer
+        diario.truncate(recuperadas > 0 ? longitudValida : 0);
+        diario.force(true);
+        ultimaSecuencia = ultima;
+        secuenciaForzada.set(ultima);
+        secuenciaVolcada = volcada;
+        activo = true;
+
+        logger.info("Motor de stock en memoria iniciado: {} artículos, {} entradas del diario recuperadas (secuencia volcada {})",
+                   stocks.length / 2, recuperadas, volcada);
+
+        volcador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "motor-stock-volcado");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        volcador.scheduleWithFixedDelay(this::volcar, recuperadas > 0 ? 0 : volcadoMs, volcadoMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stock vigente de un artículo, si ya está en memoria
+     */
+    public OptionalInt obtener(int articuloId) {
+        AtomicIntegerArray[] directorio = segmentos;
+        int numero = articuloId >>> BITS_SEGMENTO;
+        if (articuloId <= 0 || numero >= directorio.length || directorio[numero] == null) {
+            return OptionalInt.empty();
+        }
+        int stock = directorio[numero].get(articuloId & MASCARA_SEGMENTO);
+        return stock == SIN_CARGAR ? OptionalInt.empty() : OptionalInt.of(stock);
+    }
+
+    /**
+     * Stock vigente de un artículo; si aún no está en memoria lo carga de la base de datos
+     * @return vacío si el artículo no existe
+     */
+    public OptionalInt consultar(int articuloId) throws SQLException {
+        AtomicIntegerArray segmento = segmento(articuloId);
+        int indice = articuloId & MASCARA_SEGMENTO;
+        while (true) {
+            int actual = segmento.get(indice);
+            if (actual != SIN_CARGAR) {
+                return OptionalInt.of(actual);
+            }
+            if (!cargar(articuloId, segmento, indice)) {
+                return OptionalInt.empty();
+            }
+        }
+    }
+
+    /**
+     * Registra el stock inicial de un artículo recién insertado
+     */
+    public void registrar(int articuloId, int stock) {
+        segmento(articuloId).compareAndSet(articuloId & MASCARA_SEGMENTO, SIN_CARGAR, stock);
+    }
+
+    /**
+     * Suma una variación al stock sin dejarlo negativo y la anota en el diario
+     * @return vacío si el artículo no existe; variación no aplicada si el stock quedaría negativo
+     */
+    public Optional<Variacion> variar(int articuloId, int variacion, String motivo, String usuario)
+            throws SQLException {
+        AtomicIntegerArray segmento = segmento(articuloId);
+        int indice = articuloId & MASCARA_SEGMENTO;
+        while (true) {
+            int actual = segmento.get(indice);
+            if (actual == SIN_CARGAR) {
+                if (!cargar(articuloId, segmento, indice)) {
+                    return Optional.empty();
+                }
+                continue;
+            }
+            long nuevo = (long) actual + variacion;
+            if (nuevo < 0 || nuevo > Integer.MAX_VALUE) {
+                rechazos.increment();
+                return Optional.of(new Variacion(false, actual, actual));
+            }
+            if (segmento.compareAndSet(indice, actual, (int) nuevo)) {
+                anotar(new Entrada(articuloId, variacion, actual, (int) nuevo,
+                    variacion > 0 ? TipoMovimiento.ENTRADA : TipoMovimiento.SALIDA,
+                    System.currentTimeMillis(), motivo, usuario));
+                return Optional.of(new Variacion(true, actual, (int) nuevo));
+            }
+            reintentosCas.increment();
+        }
+    }
+
+    /**
+     * Fija el stock y anota el ajuste en el diario si cambió
+     * @return vacío si el artículo no existe
+     */
+    public Optional<Variacion> establecer(int articuloId, int nuevoStock, String motivo, String usuario)
+            throws SQLException {
+        AtomicIntegerArray segmento = segmento(articuloId);
+        int indice = articuloId & MASCARA_SEGMENTO;
+        while (true) {
+            int actual = segmento.get(indice);
+            if (actual == SIN_CARGAR) {
+                if (!cargar(articuloId, segmento, indice)) {
+                    return Optional.empty();
+                }
+                continue;
+            }
+            if (actual == nuevoStock) {
+                return Optional.of(new Variacion(true, actual, actual));
+            }
+            if (segmento.compareAndSet(indice, actual, nuevoStock)) {
+                anotar(new Entrada(articuloId, nuevoStock - actual, actual, nuevoStock, TipoMovimiento.AJUSTE,
+                    System.currentTimeMillis(), motivo, usuario));
+                return Optional.of(new Variacion(true, actual, nuevoStock));
+            }
+            reintentosCas.increment();
+        }
+    }
+
+    /**
+     * Lee de la base de datos el stock de un artículo que aún no está en memoria
+     * Sin entradas pendientes para ese artículo, el valor de la base de datos es el vigente.
+     * @return false si el artículo no existe
+     */
+    private boolean cargar(int articuloId, AtomicIntegerArray segmento, int indice) throws SQLException {
+        Optional<Integer> stock = articuloDAO.obtenerStock(articuloId);
+        if (!stock.isPresent()) {
+            return false;
+        }
+        cargasPerezosas.increment();
+        segmento.compareAndSet(indice, SIN_CARGAR, stock.get());
+        return true;
+    }
+
+    private AtomicIntegerArray segmento(int articuloId) {
+        if (articuloId <= 0) {
+            throw new IllegalArgumentException("ID de artículo inválido: " + articuloId);
+        }
+        int numero = articuloId >>> BITS_SEGMENTO;
+        AtomicIntegerArray[] directorio = segmentos;
+        if (numero < directorio.length && directorio[numero] != null) {
+            return directorio[numero];
+        }
+        synchronized (this) {
+            directorio = segmentos;
+            if (numero >= directorio.length) {
+                directorio = Arrays.copyOf(directorio, Math.max(numero + 1, directorio.length * 2));
+            } else if (directorio[numero] != null) {
+                return directorio[numero];
+            } else {
+                directorio = directorio.clone();
+            }
+            AtomicIntegerArray nuevo = new AtomicIntegerArray(TAMANO_SEGMENTO);
+            for (int i = 0; i < TAMANO_SEGMENTO; i++) {
+                nuevo.set(i, SIN_CARGAR);
+            }
+            directorio[numero] = nuevo;
+            segmentos = directorio;
+            return nuevo;
+        }
+    }
+
+    /**
+     * Anexa la entrada al diario y la deja pendiente de volcado
+     * Un error de escritura no revierte el cambio (otros pudieron ya verlo): queda pendiente y se
+     * adelanta el volcado para acortar el tiempo en que no sobreviviría a una caída.
+     */
+    private void anotar(Entrada entrada) {
+        variaciones.increment();
+        byte[] motivo = entrada.motivo != null ? entrada.motivo.getBytes(StandardCharsets.UTF_8) : null;
+        byte[] usuario = entrada.usuario != null ? entrada.usuario.getBytes(StandardCharsets.UTF_8) : null;
+        int longitud = DATOS_FIJOS + (motivo != null ? motivo.length : 0) + (usuario != null ? usuario.length : 0);
+        ByteBuffer registro = ByteBuffer.allocate(CABECERA_REGISTRO + longitud);
+
+        boolean escrito = false;
+        synchronized (escritura) {
+            entrada.secuencia = ++ultimaSecuencia;
+            registro.putInt(longitud).putInt(0)
+                .putLong(entrada.secuencia).putInt(entrada.articuloId).putInt(entrada.variacion)
+                .putInt(entrada.stockAnterior).putInt(entrada.stockNuevo).put((byte) entrada.tipo.ordinal())
+                .putLong(entrada.fechaMillis);
+            escribirTexto(registro, motivo);
+            escribirTexto(registro, usuario);
+            CRC32 crc = new CRC32();
+            crc.update(registro.array(), CABECERA_REGISTRO, longitud);
+            registro.putInt(4, (int) crc.getValue());
+            registro.flip();
+            pendientes.add(entrada);
+            cantidadPendientes.incrementAndGet();
+            try {
+                while (registro.hasRemaining()) {
+                    diario.write(registro);
+                }
+                escrito = true;
+            } catch (IOException e) {
+                erroresDiario.increment();
+                logger.error("No se pudo anotar en el diario de stock la entrada {} del artículo {}: {}",
+                            entrada.secuencia, entrada.articuloId, e.getMessage());
+            }
+        }
+
+        if (!escrito && activo) {
+            volcador.execute(this::volcar);
+        } else if (sincronizarDiario) {
+            forzar(entrada.secuencia);
+        }
+    }
+
+    private static void escribirTexto(ByteBuffer registro, byte[] texto) {
+        registro.putShort((short) (texto != null ? texto.length : -1));
+        if (texto != null) {
+            registro.put(texto);
+        }
+    }
+
+    /**
+     * fsync agrupado: un solo force cubre todas las entradas anotadas hasta ese momento
+     */
+    private void forzar(long secuencia) {
+        if (secuenciaForzada.get() >= secuencia) {
+            return;
+        }
+        synchronized (forzado) {
+            if (secuenciaForzada.get() >= secuencia) {
+                return;
+            }
+            long hasta;
+            synchronized (escritura) {
+                hasta = ultimaSecuencia;
+            }
+            try {
+                diario.force(false);
+                secuenciaForzada.set(hasta);
+                sincronizaciones.increment();
+            } catch (IOException e) {
+                erroresDiario.increment();
+                logger.error("No se pudo sincronizar el diario de stock: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lee las entradas válidas del diario; se detiene en el primer registro incompleto o dañado
+     * @return longitud en bytes de la parte válida
+     */
+    private long leerDiario(List<Entrada> entradas) throws IOException {
+        if (!Files.exists(rutaDiario)) {
+            return 0;
+        }
+        ByteBuffer contenido = ByteBuffer.wrap(Files.readAllBytes(rutaDiario));
+        TipoMovimiento[] tipos = TipoMovimiento.values();
+        while (contenido.remaining() >= CABECERA_REGISTRO) {
+            int inicio = contenido.position();
+            int longitud = contenido.getInt();
+            int crcEsperado = contenido.getInt();
+            if (longitud < DATOS_FIJOS || longitud > contenido.remaining()) {
+                contenido.position(inicio);
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(contenido.array(), contenido.position(), longitud);
+            if ((int) crc.getValue() != crcEsperado) {
+                contenido.position(inicio);
+                break;
+            }
+            long secuencia = contenido.getLong();
+            int articuloId = contenido.getInt();
+            int variacion = contenido.getInt();
+            int stockAnterior = contenido.getInt();
+            int stockNuevo = contenido.getInt();
+            TipoMovimiento tipo = tipos[contenido.get()];
+            long fechaMillis = contenido.getLong();
+            String motivo = leerTexto(contenido);
+            String usuario = leerTexto(contenido);
+            Entrada entrada = new Entrada(articuloId, variacion, stockAnterior, stockNuevo, tipo, fechaMillis, motivo, usuario);
+            entrada.secuencia = secuencia;
+            entradas.add(entrada);
+        }
+        if (contenido.hasRemaining()) {
+            logger.warn("Diario de stock con {} bytes finales incompletos o dañados; se descartan", contenido.remaining());
+        }
+        return contenido.position();
+    }
+
+    private static String leerTexto(ByteBuffer contenido) {
+        short longitud = contenido.getShort();
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] texto = new byte[longitud];
+        contenido.get(texto);
+        return new String(texto, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Vuelca las entradas pendientes en lotes de hasta tamanoLote, una transacción por lote
+     * Si un lote falla se conserva tal cual y se reintenta en el siguiente ciclo.
+     */
+    synchronized void volcar() {
+        try {
+            while (true) {
+                // Un lote que falló se amplía con lo anotado después: la secuencia se asigna tras el
+                // compare-and-set, así que una salida puede quedar antes que la entrada que la cubrió
+                // y el lote dejaría el stock negativo en la base de datos
+                int limite = enVolcado.isEmpty() ? tamanoLote : Math.min(enVolcado.size() + tamanoLote, tamanoLote * 4);
+                Entrada siguiente;
+                while (enVolcado.size() < limite && (siguiente = pendientes.poll()) != null) {
+                    enVolcado.add(siguiente);
+                }
+                if (enVolcado.isEmpty()) {
+                    break;
+                }
+
+                Map<Integer, Integer> netas = new HashMap<>();
+                List<MovimientoInventario> movimientos = new ArrayList<>(enVolcado.size());
+                for (Entrada entrada : enVolcado) {
+                    netas.merge(entrada.articuloId, entrada.variacion, Integer::sum);
+                    movimientos.add(entrada.aMovimiento());
+                }
+                long hasta = enVolcado.get(enVolcado.size() - 1).secuencia;
+
+                long inicio = System.nanoTime();
+                articuloDAO.volcarStock(netas, movimientos, hasta);
+                registrarVolcado(System.nanoTime() - inicio);
+
+                secuenciaVolcada = hasta;
+                cantidadPendientes.addAndGet(-enVolcado.size());
+                entradasVolcadas.add(enVolcado.size());
+                filasVolcadas.add(netas.size());
+                volcados.increment();
+                enVolcado.clear();
+            }
+            compactarDiario();
+        } catch (SQLException e) {
+            erroresVolcado.increment();
+            logger.warn("No se pudo volcar el stock en memoria ({} entradas pendientes): {}",
+                       cantidadPendientes.get(), e.getMessage());
+        } catch (RuntimeException e) {
+            erroresVolcado.increment();
+            logger.error("Error inesperado al volcar el stock en memoria: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Vacía el diario cuando todo lo anotado ya está en la base de datos
+     */
+    private void compactarDiario() {
+        synchronized (escritura) {
+            if (ultimaSecuencia != secuenciaVolcada) {
+                return;
+            }
+            try {
+                if (diario.size() > 0) {
+                    diario.truncate(0);
+                }
+            } catch (IOException e) {
+                logger.warn("No se pudo vaciar el diario de stock: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void registrarVolcado(long nanos) {
+        long maximo = volcadoMaximoNanos.get();
+        while (nanos > maximo && !volcadoMaximoNanos.compareAndSet(maximo, nanos)) {
+            maximo = volcadoMaximoNanos.get();
+        }
+    }
+
+    /**
+     * Detiene el volcado periódico y vuelca lo pendiente
+     */
+    public void cerrar() {
+        if (!activo) {
+            return;
+        }
+        activo = false;
+        volcador.shutdown();
+        try {
+            volcador.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        volcar();
+        if (cantidadPendientes.get() > 0) {
+            logger.warn("Motor de stock detenido con {} entradas sin volcar; se recuperarán del diario al iniciar",
+                       cantidadPendientes.get());
+        }
+        try {
+            diario.force(true);
+            diario.close();
+        } catch (IOException e) {
+            logger.warn("Error al cerrar el diario de stock: {}", e.getMessage());
+        }
+        logger.info("Motor de stock en memoria detenido");
+    }
+
+    public Estadisticas getEstadisticas() {
+        return new Estadisticas(habilitado, cantidadPendientes.get(), secuenciaVolcada, variaciones.sum(),
+                                rechazos.sum(), reintentosCas.sum(), cargasPerezosas.sum(), sincronizaciones.sum(),
+                                erroresDiario.sum(), volcados.sum(), entradasVolcadas.sum(), filasVolcadas.sum(),
+                                erroresVolcado.sum(), volcadoMaximoNanos.get(), recuperadas);
+    }
+
+    /**
+     * Instantánea de los contadores del motor
+     */
+    public static final class Estadisticas {
+        private final boolean habilitado;
+        private final int pendientes;
+        private final long secuenciaVolcada;
+        private final long variaciones;
+        private final long rechazos;
+        private final long reintentosCas;
+        private final long cargasPerezosas;
+        private final long sincronizaciones;
+        private final long erroresDiario;
+        private final long volcados;
+        private final long entradasVolcadas;
+        private final long filasVolcadas;
+        private final long erroresVolcado;
+        private final long volcadoMaximoNanos;
+        private final int recuperadas;
+
+        Estadisticas(boolean habilitado, int pendientes, long secuenciaVolcada, long variaciones, long rechazos,
+                     long reintentosCas, long cargasPerezosas, long sincronizaciones, long erroresDiario,
+                     long volcados, long entradasVolcadas, long filasVolcadas, long erroresVolcado,
+                     long volcadoMaximoNanos, int recuperadas) {
+            this.habilitado = habilitado;
+            this.pendientes = pendientes;
+            this.secuenciaVolcada = secuenciaVolcada;
+            this.variaciones = variaciones;
+            this.rechazos = rechazos;
+            this.reintentosCas = reintentosCas;
+            this.cargasPerezosas = cargasPerezosas;
+            this.sincronizaciones = sincronizaciones;
+            this.erroresDiario = erroresDiario;
+            this.volcados = volcados;
+            this.entradasVolcadas = entradasVolcadas;
+            this.filasVolcadas = filasVolcadas;
+            this.erroresVolcado = erroresVolcado;
+            this.volcadoMaximoNanos = volcadoMaximoNanos;
+            this.recuperadas = recuperadas;
+        }
+
+        public int getPendientes() {
+            return pendientes;
+        }
+
+        public long getVariaciones() {
+            return variaciones;
+        }
+
+        public long getRechazos() {
+            return rechazos;
+        }
+
+        public long getErroresVolcado() {
+            return erroresVolcado;
+        }
+
+        /**
+         * Movimientos por fila de artículo escrita; cuanto mayor, más variaciones se compactaron
+         */
+        public double getCompactacion() {
+            return filasVolcadas == 0 ? 0.0 : (double) entradasVolcadas / filasVolcadas;
+        }
+
+        @Override
+        public String toString() {
+            if (!habilitado) {
+                return "Estadisticas{habilitado=false}";
+            }
+            return "Estadisticas{" +
+                    "pendientes=" + pendientes +
+                    ", secuenciaVolcada=" + secuenciaVolcada +
+                    ", variaciones=" + variaciones +
+                    ", rechazos=" + rechazos +
+                    ", reintentosCas=" + reintentosCas +
+                    ", cargasPerezosas=" + cargasPerezosas +
+                    ", sincronizaciones=" + sincronizaciones +
+                    ", erroresDiario=" + erroresDiario +
+                    ", volcados=" + volcados +
+                    ", entradasVolcadas=" + entradasVolcadas +
+                    ", compactacion=" + String.format("%.1f", getCompactacion()) +
+                    ", volcadoMaximoMs=" + String.format("%.2f", volcadoMaximoNanos / 1_000_000.0) +
+                    ", erroresVolcado=" + erroresVolcado +
+                    ", recuperadas=" + recuperadas +
+                    '}';
+        }
+    }
+}
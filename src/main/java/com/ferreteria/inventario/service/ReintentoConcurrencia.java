@@ -0,0 +1,131 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.exception.ConflictoVersionException;
+import com.ferreteria.inventario.exception.InventarioException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reintento acotado de operaciones que fallan por concurrencia
+ * Solo debe usarse con operaciones que recalculan su resultado en cada intento (variaciones de stock,
+ * que conmutan, o fijar un stock leyendo de nuevo la versión): la transacción fallida se revirtió
+ * completa, así que repetirla no duplica efectos. Reintenta conflictos de versión y errores transitorios
+ * del motor (interbloqueo y espera de bloqueo agotada) con una espera exponencial con jitter.
+ */
+public class ReintentoConcurrencia {
+    private static final Logger logger = LoggerFactory.getLogger(ReintentoConcurrencia.class);
+
+    // Códigos de error de MySQL: interbloqueo detectado y espera de bloqueo agotada
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+
+    private final int intentosMaximos;
+    private final long esperaBaseMs;
+
+    private final LongAdder reintentos = new LongAdder();
+    private final LongAdder agotados = new LongAdder();
+
+    @FunctionalInterface
+    public interface Operacion<T> {
+        T ejecutar() throws SQLException, InventarioException;
+    }
+
+    public ReintentoConcurrencia(int intentosMaximos, long esperaBaseMs) {
+        this.intentosMaximos = Math.max(intentosMaximos, 1);
+        this.esperaBaseMs = Math.max(esperaBaseMs, 0);
+    }
+
+    /**
+     * Crea una instancia con la configuración de inventario.properties
+     */
+    public static ReintentoConcurrencia desdeConfiguracion() {
+        InventarioConfig config = InventarioConfig.getInstance();
+        return new ReintentoConcurrencia(
+            config.getInt("concurrencia.reintentos.intentosMaximos", 4),
+            config.getLong("concurrencia.reintentos.esperaBaseMs", 5));
+    }
+
+    /**
+     * Ejecuta la operación y la repite mientras falle por concurrencia, hasta intentosMaximos veces
+     * Agotados los intentos se propaga el último error.
+     */
+    public <T> T ejecutar(String descripcion, Operacion<T> operacion) throws SQLException, InventarioException {
+        for (int intento = 1; ; intento++) {
+            try {
+                return operacion.ejecutar();
+            } catch (ConflictoVersionException e) {
+                if (!puedeReintentar(descripcion, intento, e)) {
+                    throw e;
+                }
+            } catch (SQLException e) {
+                if (!esTransitorio(e) || !puedeReintentar(descripcion, intento, e)) {
+                    throw e;
+                }
+            }
+            esperar(intento);
+        }
+    }
+
+    private boolean puedeReintentar(String descripcion, int intento, Exception e) {
+        if (intento >= intentosMaximos) {
+            agotados.increment();
+            logger.warn("{}: se agotaron los {} intentos por concurrencia: {}", descripcion, intentosMaximos, e.getMessage());
+            return false;
+        }
+        reintentos.increment();
+        logger.debug("{}: intento {} fallido por concurrencia, reintentando: {}", descripcion, intento, e.getMessage());
+        return true;
+    }
+
+    private void esperar(int intento) throws InventarioException {
+        if (esperaBaseMs == 0) {
+            return;
+        }
+        // Jitter completo: evita que las operaciones que chocaron vuelvan a chocar en el mismo instante
+        long tope = esperaBaseMs << Math.min(intento - 1, 6);
+        long espera = ThreadLocalRandom.current().nextLong(tope + 1);
+        try {
+            TimeUnit.MILLISECONDS.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InventarioException("REINTENTO_INTERRUMPIDO", "CONCURRENCIA",
+                "Se interrumpió la espera antes de reintentar la operación", e);
+        }
+    }
+
+    /**
+     * Interbloqueo, espera de bloqueo agotada o fallo de serialización: la transacción se revirtió
+     * y puede repetirse tal cual
+     */
+    static boolean esTransitorio(SQLException e) {
+        for (SQLException actual = e; actual != null; actual = actual.getNextException()) {
+            if (actual instanceof SQLTransactionRollbackException
+                    || "40001".equals(actual.getSQLState())
+                    || actual.getErrorCode() == ER_LOCK_DEADLOCK
+                    || actual.getErrorCode() == ER_LOCK_WAIT_TIMEOUT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getReintentos() {
+        return reintentos.sum();
+    }
+
+    public long getAgotados() {
+        return agotados.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Reintentos{reintentos=" + reintentos.sum() + ", agotados=" + agotados.sum() + '}';
+    }
+}
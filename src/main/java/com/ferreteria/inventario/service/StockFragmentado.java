@@ -0,0 +1,274 @@
+package com.ferreteria.inventario.service;
+
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.ferreteria.inventario.dao.ArticuloDAO;
+import com.ferreteria.inventario.dao.StockFragmentadoDAO;
+import com.ferreteria.inventario.model.Articulo;
+import com.ferreteria.inventario.model.MovimientoInventario;
+import com.ferreteria.inventario.model.ResultadoActualizacionStock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de stock fragmentados para los artículos más vendidos (stock.fragmentado.codigos)
+ * Con un UPDATE atómico por venta, la fila de un artículo muy vendido se vuelve un punto de
+ * serialización por los bloqueos de fila de InnoDB. Para los artículos designados el stock se
+ * reparte en N filas; cada variación elige una al azar, así que N ventas simultáneas rara vez
+ * esperan entre sí. El stock es la suma de los fragmentos y un retiro que un fragmento no cubre
+ * toma prestado de los demás, de modo que el total nunca queda negativo.
+ *
+ * Cada arranque consolida (vuelven a articulos) los fragmentos que hayan quedado, aunque la
+ * función esté deshabilitada, y después reparte de nuevo el stock de los artículos designados.
+ * articulos.stock_actual de los fragmentados se concilia cada conciliacionSegundos. Con el motor
+ * de stock en memoria habilitado no se usa (allí no hay contención de filas).
+ */
+public class StockFragmentado {
+    private static final Logger logger = LoggerFactory.getLogger(StockFragmentado.class);
+    private static StockFragmentado instance;
+
+    private final StockFragmentadoDAO stockFragmentadoDAO;
+    private final ArticuloDAO articuloDAO;
+    private final Set<String> codigosDesignados;
+    private final int fragmentos;
+
+    // Artículos con el stock repartido, por ID y por código normalizado
+    private final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> idsPorCodigo = new ConcurrentHashMap<>();
+    private ScheduledExecutorService conciliador;
+
+    private final LongAdder variaciones = new LongAdder();
+    private final LongAdder rechazos = new LongAdder();
+    private final LongAdder conciliaciones = new LongAdder();
+    private final LongAdder erroresConciliacion = new LongAdder();
+
+    public StockFragmentado(StockFragmentadoDAO stockFragmentadoDAO, ArticuloDAO articuloDAO,
+                            Collection<String> codigosDesignados, int fragmentos) {
+        this.stockFragmentadoDAO = stockFragmentadoDAO;
+        this.articuloDAO = articuloDAO;
+        this.codigosDesignados = new LinkedHashSet<>();
+        for (String codigo : codigosDesignados) {
+            if (codigo != null && !codigo.trim().isEmpty()) {
+                this.codigosDesignados.add(codigo.trim().toUpperCase());
+            }
+        }
+        this.fragmentos = Math.max(fragmentos, 2);
+    }
+
+    /**
+     * @throws IllegalStateException si hay artículos designados o fragmentados y no se pudo preparar su stock
+     */
+    public static synchronized StockFragmentado getInstance() {
+        if (instance == null) {
+            InventarioConfig config = InventarioConfig.getInstance();
+            boolean habilitado = config.getBoolean("stock.fragmentado.habilitado", false);
+            String codigos = habilitado ? config.getString("stock.fragmentado.codigos", "") : "";
+            if (config.getBoolean("stock.memoria.habilitado", false) && !codigos.isEmpty()) {
+                // El motor en memoria carga articulos.stock_actual: los fragmentos se consolidan antes
+                logger.warn("Stock fragmentado ignorado con el motor de stock en memoria habilitado; se consolidan los fragmentos");
+                codigos = "";
+            }
+            StockFragmentado fragmentado = new StockFragmentado(new StockFragmentadoDAO(), new ArticuloDAO(),
+                codigos.isEmpty() ? Collections.emptyList() : List.of(codigos.split(",")),
+                config.getInt("stock.fragmentado.fragmentos", 8));
+            try {
+                fragmentado.preparar();
+            } catch (SQLException e) {
+                // Con fragmentos ya creados, ignorarlos dejaría ventas y consultas sobre una copia atrasada
+                throw new IllegalStateException("No se pudo preparar el stock fragmentado: " + e.getMessage(), e);
+            }
+            fragmentado.programarConciliacion(config.getLong("stock.fragmentado.conciliacionSegundos", 5));
+            instance = fragmentado;
+        }
+        return instance;
+    }
+
+    /**
+     * Consolida los fragmentos existentes y vuelve a fragmentar los artículos designados
+     * Los fragmentos que quedan de un arranque anterior tienen el stock vigente (articulos.stock_actual
+     * puede estar atrasado hasta una conciliación): se consolidan antes de repartir de nuevo, así el
+     * reparto parte siempre de articulos.stock_actual y nunca reutiliza filas de otra configuración.
+     */
+    synchronized void preparar() throws SQLException {
+        List<Integer> existentes = stockFragmentadoDAO.listarArticulosFragmentados();
+        for (Integer id : existentes) {
+            stockFragmentadoDAO.consolidar(id);
+        }
+        if (!existentes.isEmpty()) {
+            logger.info("Stock fragmentado consolidado al iniciar: {} artículos", existentes.size());
+        }
+        if (codigosDesignados.isEmpty()) {
+            return;
+        }
+        for (String codigo : codigosDesignados) {
+            Optional<Articulo> articulo = articuloDAO.buscarPorCodigo(codigo);
+            if (!articulo.isPresent()) {
+                logger.warn("Artículo designado para stock fragmentado no encontrado: {}", codigo);
+                continue;
+            }
+            int id = articulo.get().getId();
+            if (stockFragmentadoDAO.fragmentar(id, fragmentos)) {
+                ids.add(id);
+                idsPorCodigo.put(codigo, id);
+            }
+        }
+        logger.info("Stock fragmentado preparado: {} artículos en {} fragmentos", ids.size(), fragmentos);
+    }
+
+    private void programarConciliacion(long segundos) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        long periodo = Math.max(segundos, 1);
+        conciliador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "stock-fragmentado-conciliacion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        conciliador.scheduleWithFixedDelay(this::conciliar, periodo, periodo, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Copia los totales vigentes a articulos.stock_actual
+     */
+    void conciliar() {
+        try {
+            stockFragmentadoDAO.conciliar(stockFragmentadoDAO.obtenerTotales(new ArrayList<>(ids)));
+            conciliaciones.increment();
+        } catch (SQLException | RuntimeException e) {
+            erroresConciliacion.increment();
+            logger.warn("No se pudo conciliar el stock fragmentado: {}", e.getMessage());
+        }
+    }
+
+    public boolean esFragmentado(Integer articuloId) {
+        return articuloId != null && !ids.isEmpty() && ids.contains(articuloId);
+    }
+
+    public boolean esFragmentadoPorCodigo(String codigoNormalizado) {
+        return codigoNormalizado != null && !idsPorCodigo.isEmpty() && idsPorCodigo.containsKey(codigoNormalizado);
+    }
+
+    public boolean hayFragmentados() {
+        return !ids.isEmpty();
+    }
+
+    /**
+     * Aplica una variación sobre un fragmento elegido al azar
+     * @return vacío si el artículo no está fragmentado; el resultado no incluye el artículo
+     */
+    public Optional<ResultadoActualizacionStock> variar(int articuloId, int delta, MovimientoInventario movimiento)
+            throws SQLException {
+        int fragmento = ThreadLocalRandom.current().nextInt(fragmentos);
+        Optional<ResultadoActualizacionStock> resultado =
+            stockFragmentadoDAO.aplicarDelta(articuloId, fragmento, delta, movimiento);
+        variaciones.increment();
+        if (resultado.isPresent() && !resultado.get().isAplicado()) {
+            rechazos.increment();
+        }
+        return resultado;
+    }
+
+    /**
+     * Fija el stock total del artículo
+     * @return vacío si el artículo no está fragmentado; el resultado no incluye el artículo
+     */
+    public Optional<ResultadoActualizacionStock> establecer(int articuloId, int nuevoStock, MovimientoInventario movimiento)
+            throws SQLException {
+        variaciones.increment();
+        return stockFragmentadoDAO.establecer(articuloId, nuevoStock, movimiento);
+    }
+
+    /**
+     * Suma vigente de los fragmentos de un artículo
+     * @return vacío si el artículo no tiene fragmentos
+     */
+    public OptionalInt consultar(int articuloId) throws SQLException {
+        Integer total = stockFragmentadoDAO.obtenerTotales(Collections.singletonList(articuloId)).get(articuloId);
+        return total != null ? OptionalInt.of(total) : OptionalInt.empty();
+    }
+
+    /**
+     * Suma vigente de los fragmentos de los artículos indicados que estén fragmentados
+     */
+    public Map<Integer, Integer> obtenerTotales(Collection<Integer> articuloIds) throws SQLException {
+        List<Integer> fragmentados = new ArrayList<>();
+        for (Integer id : articuloIds) {
+            if (esFragmentado(id)) {
+                fragmentados.add(id);
+            }
+        }
+        return fragmentados.isEmpty() ? new HashMap<>() : stockFragmentadoDAO.obtenerTotales(fragmentados);
+    }
+
+    public Estadisticas getEstadisticas() {
+        return new Estadisticas(ids.size(), fragmentos, variaciones.sum(), rechazos.sum(),
+                                conciliaciones.sum(), erroresConciliacion.sum());
+    }
+
+    /**
+     * Instantánea de los contadores del stock fragmentado
+     */
+    public static final class Estadisticas {
+        private final int articulos;
+        private final int fragmentos;
+        private final long variaciones;
+        private final long rechazos;
+        private final long conciliaciones;
+        private final long erroresConciliacion;
+
+        Estadisticas(int articulos, int fragmentos, long variaciones, long rechazos,
+                     long conciliaciones, long erroresConciliacion) {
+            this.articulos = articulos;
+            this.fragmentos = fragmentos;
+            this.variaciones = variaciones;
+            this.rechazos = rechazos;
+            this.conciliaciones = conciliaciones;
+            this.erroresConciliacion = erroresConciliacion;
+        }
+
+        public int getArticulos() {
+            return articulos;
+        }
+
+        public long getVariaciones() {
+            return variaciones;
+        }
+
+        public long getRechazos() {
+            return rechazos;
+        }
+
+        @Override
+        public String toString() {
+            if (articulos == 0) {
+                return "Estadisticas{articulos=0}";
+            }
+            return "Estadisticas{" +
+                    "articulos=" + articulos +
+                    ", fragmentos=" + fragmentos +
+                    ", variaciones=" + variaciones +
+                    ", rechazos=" + rechazos +
+                    ", conciliaciones=" + conciliaciones +
+                    ", erroresConciliacion=" + erroresConciliacion +
+                    '}';
+        }
+    }
+}
@@ -34,6 +34,7 @@ public class ArticuloMapper {
         dto.setStockActual(articulo.getStockActual());
         dto.setStockMinimo(articulo.getStockMinimo());
         dto.setActivo(articulo.getActivo());
+        dto.setVersion(articulo.getVersion());
 
         if (articulo.getFechaCreacion() != null) {
             dto.setFechaCreacion(articulo.getFechaCreacion().format(FORMATTER));
@@ -68,6 +69,7 @@ public class ArticuloMapper {
         articulo.setStockActual(dto.getStockActual());
         articulo.setStockMinimo(dto.getStockMinimo());
         articulo.setActivo(dto.getActivo());
+        articulo.setVersion(dto.getVersion());
 
         return articulo;
     }
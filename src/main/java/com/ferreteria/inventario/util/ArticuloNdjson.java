@@ -0,0 +1,79 @@
+package com.ferreteria.inventario.util;
+
+import com.ferreteria.inventario.model.Articulo;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Serializa artículos como JSON de una línea (formato NDJSON, un registro por línea)
+ */
+public final class ArticuloNdjson {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private ArticuloNdjson() {
+    }
+
+    /**
+     * Agrega al buffer el artículo como objeto JSON seguido de salto de línea
+     */
+    public static void escribirLinea(Articulo articulo, StringBuilder sb) {
+        sb.append('{');
+        campo(sb, "id", articulo.getId(), true);
+        campo(sb, "codigo", articulo.getCodigo(), false);
+        campo(sb, "nombre", articulo.getNombre(), false);
+        campo(sb, "descripcion", articulo.getDescripcion(), false);
+        campo(sb, "categoriaId", articulo.getCategoriaId(), false);
+        campo(sb, "categoriaNombre", articulo.getCategoriaNombre(), false);
+        campo(sb, "proveedorId", articulo.getProveedorId(), false);
+        campo(sb, "proveedorNombre", articulo.getProveedorNombre(), false);
+        campo(sb, "precioCompra", articulo.getPrecioCompra(), false);
+        campo(sb, "precioVenta", articulo.getPrecioVenta(), false);
+        campo(sb, "stockActual", articulo.getStockActual(), false);
+        campo(sb, "stockMinimo", articulo.getStockMinimo(), false);
+        campo(sb, "activo", articulo.getActivo(), false);
+        campo(sb, "version", articulo.getVersion(), false);
+        campo(sb, "fechaCreacion", articulo.getFechaCreacion() != null 
+            ? articulo.getFechaCreacion().format(FORMATTER) : null, false);
+        campo(sb, "fechaActualizacion", articulo.getFechaActualizacion() != null 
+            ? articulo.getFechaActualizacion().format(FORMATTER) : null, false);
+        sb.append("}\n");
+    }
+
+    private static void campo(StringBuilder sb, String nombre, Object valor, boolean primero) {
+        if (!primero) {
+            sb.append(',');
+        }
+        sb.append('"').append(nombre).append("\":");
+        if (valor == null) {
+            sb.append("null");
+        } else if (valor instanceof String) {
+            cadena(sb, (String) valor);
+        } else if (valor instanceof java.math.BigDecimal) {
+            sb.append(((java.math.BigDecimal) valor).toPlainString());
+        } else {
+            sb.append(valor);
+        }
+    }
+
+    private static void cadena(StringBuilder sb, String valor) {
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
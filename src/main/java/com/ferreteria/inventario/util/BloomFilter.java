@@ -0,0 +1,99 @@
+package com.ferreteria.inventario.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom para cadenas, seguro para lectura y escritura concurrente
+ * Responde "definitivamente no está" o "podría estar"; nunca da falsos negativos.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long numeroBits;
+    private final int numeroHashes;
+    private final LongAdder elementos = new LongAdder();
+
+    /**
+     * Dimensiona el filtro para la capacidad y tasa de falsos positivos esperadas
+     */
+    public BloomFilter(long capacidadEsperada, double tasaFalsosPositivos) {
+        long n = Math.max(capacidadEsperada, 1);
+        double p = Math.min(Math.max(tasaFalsosPositivos, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, ((m + 63) / 64) * 64);
+        this.numeroBits = m;
+        this.numeroHashes = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (m / 64));
+    }
+
+    public void agregar(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numeroHashes; i++) {
+            long indice = indice(h1 + i * h2);
+            int palabra = (int) (indice >>> 6);
+            long mascara = 1L << indice;
+            long actual = bits.get(palabra);
+            while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+                actual = bits.get(palabra);
+            }
+        }
+        elementos.increment();
+    }
+
+    public boolean podriaContener(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numeroHashes; i++) {
+            long indice = indice(h1 + i * h2);
+            if ((bits.get((int) (indice >>> 6)) & (1L << indice)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tasa de falsos positivos estimada según los elementos insertados
+     */
+    public double tasaFalsosPositivosEstimada() {
+        double exponente = -(double) numeroHashes * elementos.sum() / numeroBits;
+        return Math.pow(1 - Math.exp(exponente), numeroHashes);
+    }
+
+    public long getElementos() {
+        return elementos.sum();
+    }
+
+    public long getNumeroBits() {
+        return numeroBits;
+    }
+
+    public int getNumeroHashes() {
+        return numeroHashes;
+    }
+
+    private long indice(int combinado) {
+        return (combinado & Integer.MAX_VALUE) % numeroBits;
+    }
+
+    // FNV-1a de 64 bits con mezcla final (suficiente para doble hashing)
+    private static long hash64(String valor) {
+        byte[] datos = valor.getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L;
+        for (byte b : datos) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        h *= 0xc4ceb3fe1a85ec53L;
+        h ^= (h >>> 33);
+        return h;
+    }
+}
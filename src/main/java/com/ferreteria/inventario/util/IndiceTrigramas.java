@@ -0,0 +1,271 @@
+package com.ferreteria.inventario.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas para búsquedas por subcadena sobre nombre y descripción
+ * Cada trigrama apunta a una lista ordenada de IDs; una búsqueda intersecta las listas de los
+ * trigramas de la consulta y verifica los candidatos contra el texto, así que nunca devuelve
+ * falsos positivos. La comparación ignora mayúsculas y acentos, como la colación de MySQL.
+ */
+public class IndiceTrigramas {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    private static final Comparator<Coincidencia> ORDEN_RELEVANCIA = 
+        Comparator.comparingInt((Coincidencia c) -> c.puntaje)
+            .thenComparingInt(c -> c.documento.nombre.length())
+            .thenComparing(c -> c.documento.nombre)
+            .thenComparingInt(c -> c.id);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Documento> documentos = new HashMap<>();
+    private final Map<Long, ListaIds> listas = new HashMap<>();
+    // Entradas de listas que apuntan a documentos eliminados o modificados (se filtran al verificar)
+    private long entradasObsoletas;
+
+    /**
+     * Agrega o reemplaza el texto indexado de un artículo
+     */
+    public void indexar(int id, String nombre, String descripcion) {
+        Documento documento = new Documento(normalizar(nombre), normalizar(descripcion));
+        lock.writeLock().lock();
+        try {
+            Documento anterior = documentos.put(id, documento);
+            if (anterior != null) {
+                entradasObsoletas += anterior.trigramas;
+            }
+            Set<Long> trigramas = trigramas(documento.nombre);
+            trigramas.addAll(trigramas(documento.descripcion));
+            for (Long trigrama : trigramas) {
+                listas.computeIfAbsent(trigrama, t -> new ListaIds()).agregar(id);
+            }
+            documento.trigramas = trigramas.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un artículo del índice; sus entradas en las listas se ignoran hasta la próxima reconstrucción
+     */
+    public void eliminar(int id) {
+        lock.writeLock().lock();
+        try {
+            Documento anterior = documentos.remove(id);
+            if (anterior != null) {
+                entradasObsoletas += anterior.trigramas;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca artículos cuyo nombre o descripción contengan el texto
+     * Orden: coincidencias al inicio del nombre, luego al inicio de una palabra del nombre,
+     * luego en cualquier parte del nombre y por último solo en la descripción; a igual
+     * relevancia, nombres más cortos primero y luego alfabético.
+     * @return IDs ordenados por relevancia, como máximo limite
+     */
+    public List<Integer> buscar(String texto, int limite) {
+        String consulta = normalizar(texto);
+        if (consulta.isEmpty() || limite <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Montículo con los peores al frente: conserva solo los mejores 'limite' sin ordenar todo
+            PriorityQueue<Coincidencia> mejores = new PriorityQueue<>(limite + 1, ORDEN_RELEVANCIA.reversed());
+            String consultaPalabra = " " + consulta;
+            if (consulta.length() < 3) {
+                // Sin trigramas que consultar: se recorren los documentos en memoria
+                for (Map.Entry<Integer, Documento> entrada : documentos.entrySet()) {
+                    considerar(entrada.getKey(), entrada.getValue(), consulta, consultaPalabra, mejores, limite);
+                }
+            } else {
+                for (int id : candidatos(consulta)) {
+                    Documento documento = documentos.get(id);
+                    if (documento != null) {
+                        considerar(id, documento, consulta, consultaPalabra, mejores, limite);
+                    }
+                }
+            }
+
+            List<Coincidencia> ordenadas = new ArrayList<>(mejores);
+            ordenadas.sort(ORDEN_RELEVANCIA);
+            List<Integer> ids = new ArrayList<>(ordenadas.size());
+            for (Coincidencia coincidencia : ordenadas) {
+                ids.add(coincidencia.id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDocumentos() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTrigramas() {
+        lock.readLock().lock();
+        try {
+            return listas.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getEntradasObsoletas() {
+        lock.readLock().lock();
+        try {
+            return entradasObsoletas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pasa a minúsculas, quita acentos y compacta espacios
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinAcentos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinAcentos.toLowerCase().trim().replaceAll("\\s+", " ");
+    }
+
+    private int[] candidatos(String consulta) {
+        Set<Long> trigramas = trigramas(consulta);
+        ListaIds[] requeridas = new ListaIds[trigramas.size()];
+        int n = 0;
+        for (Long trigrama : trigramas) {
+            ListaIds lista = listas.get(trigrama);
+            if (lista == null) {
+                return new int[0];
+            }
+            requeridas[n++] = lista;
+        }
+        // Intersección empezando por la lista más corta
+        Arrays.sort(requeridas, Comparator.comparingInt(l -> l.tamano));
+        int[] resultado = Arrays.copyOf(requeridas[0].ids, requeridas[0].tamano);
+        int tamano = resultado.length;
+        for (int i = 1; i < requeridas.length && tamano > 0; i++) {
+            int escritos = 0;
+            for (int j = 0; j < tamano; j++) {
+                if (requeridas[i].contiene(resultado[j])) {
+                    resultado[escritos++] = resultado[j];
+                }
+            }
+            tamano = escritos;
+        }
+        return Arrays.copyOf(resultado, tamano);
+    }
+
+    private static void considerar(int id, Documento documento, String consulta, String consultaPalabra,
+                                   PriorityQueue<Coincidencia> mejores, int limite) {
+        int posicion = documento.nombre.indexOf(consulta);
+        int puntaje;
+        if (posicion == 0) {
+            puntaje = 0;
+        } else if (posicion > 0) {
+            puntaje = documento.nombre.contains(consultaPalabra) ? 1 : 2;
+        } else if (documento.descripcion.contains(consulta)) {
+            puntaje = 3;
+        } else {
+            return;
+        }
+        Coincidencia coincidencia = new Coincidencia(id, documento, puntaje);
+        if (mejores.size() < limite) {
+            mejores.add(coincidencia);
+        } else if (ORDEN_RELEVANCIA.compare(coincidencia, mejores.peek()) < 0) {
+            mejores.poll();
+            mejores.add(coincidencia);
+        }
+    }
+
+    private static Set<Long> trigramas(String texto) {
+        Set<Long> trigramas = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            trigramas.add(((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2));
+        }
+        return trigramas;
+    }
+
+    private static final class Documento {
+        final String nombre;
+        final String descripcion;
+        int trigramas;
+
+        Documento(String nombre, String descripcion) {
+            this.nombre = nombre;
+            this.descripcion = descripcion;
+        }
+    }
+
+    private static final class Coincidencia {
+        final int id;
+        final Documento documento;
+        final int puntaje;
+
+        Coincidencia(int id, Documento documento, int puntaje) {
+            this.id = id;
+            this.documento = documento;
+            this.puntaje = puntaje;
+        }
+    }
+
+    /**
+     * Lista de IDs ordenada y sin duplicados sobre un arreglo de enteros
+     */
+    private static final class ListaIds {
+        int[] ids = new int[4];
+        int tamano;
+
+        void agregar(int id) {
+            if (tamano == 0 || id > ids[tamano - 1]) {
+                asegurarCapacidad();
+                ids[tamano++] = id;
+                return;
+            }
+            int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+            if (posicion >= 0) {
+                return;
+            }
+            int insercion = -posicion - 1;
+            asegurarCapacidad();
+            System.arraycopy(ids, insercion, ids, insercion + 1, tamano - insercion);
+            ids[insercion] = id;
+            tamano++;
+        }
+
+        boolean contiene(int id) {
+            return Arrays.binarySearch(ids, 0, tamano, id) >= 0;
+        }
+
+        private void asegurarCapacidad() {
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.ferreteria.inventario.util;
+
+import com.ferreteria.inventario.config.InventarioConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Registro de los histogramas de latencia de la aplicación, por capa (ws, servicio, pool, sql) y nombre
+ * Quien mide obtiene su histograma una vez (normalmente en una constante) y registra sin pasar por
+ * el registro. Un hilo de mantenimiento actualiza las tasas cada TICK_SEGUNDOS y rota las ventanas
+ * de percentiles cada metricas.ventanaSegundos. Los indicadores son valores instantáneos (por
+ * ejemplo, conexiones activas) que se leen al consultar las métricas.
+ */
+public class RegistroMetricas {
+    public static final String CAPA_WS = "ws";
+    public static final String CAPA_SERVICIO = "servicio";
+    public static final String CAPA_POOL = "pool";
+    public static final String CAPA_SQL = "sql";
+
+    private static final int TICK_SEGUNDOS = 5;
+    private static RegistroMetricas instance;
+
+    private final ConcurrentMap<String, HistogramaLatencia> latencias = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Indicador> indicadores = new ConcurrentHashMap<>();
+    private final int ventanaSegundos;
+    private final ScheduledExecutorService mantenimiento;
+    private int ticks;
+
+    private RegistroMetricas(int ventanaSegundos) {
+        this.ventanaSegundos = Math.max(ventanaSegundos, TICK_SEGUNDOS);
+        this.mantenimiento = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "metricas-mantenimiento");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        mantenimiento.scheduleAtFixedRate(this::mantener, TICK_SEGUNDOS, TICK_SEGUNDOS, TimeUnit.SECONDS);
+    }
+
+    public static synchronized RegistroMetricas getInstance() {
+        if (instance == null) {
+            instance = new RegistroMetricas(InventarioConfig.getInstance().getInt("metricas.ventanaSegundos", 60));
+        }
+        return instance;
+    }
+
+    /**
+     * Histograma de la capa y nombre indicados; se crea la primera vez
+     */
+    public HistogramaLatencia latencia(String capa, String nombre) {
+        return latencias.computeIfAbsent(capa + ':' + nombre, clave -> new HistogramaLatencia(capa, nombre));
+    }
+
+    /**
+     * Registra (o reemplaza) un indicador de la capa y nombre indicados
+     */
+    public void indicador(String capa, String nombre, LongSupplier valor) {
+        indicadores.put(capa + ':' + nombre, new Indicador(capa, nombre, valor));
+    }
+
+    public void quitarIndicador(String capa, String nombre) {
+        indicadores.remove(capa + ':' + nombre);
+    }
+
+    public int getVentanaSegundos() {
+        return ventanaSegundos;
+    }
+
+    /**
+     * Instantáneas de los histogramas con al menos una llamada o error, ordenadas por capa y nombre
+     * @param capa capa a incluir, o null para todas
+     */
+    public List<HistogramaLatencia.Instantanea> getInstantaneas(String capa) {
+        List<HistogramaLatencia.Instantanea> instantaneas = new ArrayList<>();
+        for (HistogramaLatencia histograma : latencias.values()) {
+            if (capa == null || capa.equals(histograma.getCapa())) {
+                HistogramaLatencia.Instantanea instantanea = histograma.getInstantanea();
+                if (instantanea.getConteo() > 0 || instantanea.getErrores() > 0) {
+                    instantaneas.add(instantanea);
+                }
+            }
+        }
+        instantaneas.sort(Comparator.comparing(HistogramaLatencia.Instantanea::getCapa)
+                                    .thenComparing(HistogramaLatencia.Instantanea::getNombre));
+        return instantaneas;
+    }
+
+    /**
+     * Valor actual de los indicadores, ordenados por capa y nombre
+     * @param capa capa a incluir, o null para todas
+     */
+    public List<Indicador.Valor> getIndicadores(String capa) {
+        List<Indicador.Valor> valores = new ArrayList<>();
+        for (Indicador indicador : indicadores.values()) {
+            if (capa == null || capa.equals(indicador.capa)) {
+                valores.add(new Indicador.Valor(indicador.capa, indicador.nombre, indicador.valor.getAsLong()));
+            }
+        }
+        valores.sort(Comparator.comparing(Indicador.Valor::getCapa).thenComparing(Indicador.Valor::getNombre));
+        return valores;
+    }
+
+    /**
+     * Métricas en el formato de texto de Prometheus (version 0.0.4), para el endpoint de scrape
+     */
+    public String exportarTexto() {
+        List<HistogramaLatencia.Instantanea> instantaneas = getInstantaneas(null);
+        StringBuilder texto = new StringBuilder(256 + instantaneas.size() * 640);
+
+        texto.append("# HELP inventario_latencia_segundos Latencia por operación; cuantiles de los últimos ")
+             .append(ventanaSegundos).append(" a ").append(2 * ventanaSegundos).append(" s, suma y conteo acumulados\n");
+        texto.append("# TYPE inventario_latencia_segundos summary\n");
+        for (HistogramaLatencia.Instantanea i : instantaneas) {
+            String etiquetas = etiquetas(i);
+            cuantil(texto, etiquetas, "0.5", i.getP50());
+            cuantil(texto, etiquetas, "0.9", i.getP90());
+            cuantil(texto, etiquetas, "0.99", i.getP99());
+            cuantil(texto, etiquetas, "0.999", i.getP999());
+            texto.append("inventario_latencia_segundos_sum{").append(etiquetas).append("} ").append(segundos(i.getSuma())).append('\n');
+            texto.append("inventario_latencia_segundos_count{").append(etiquetas).append("} ").append(i.getConteo()).append('\n');
+        }
+
+        texto.append("# HELP inventario_latencia_maxima_segundos Latencia máxima en la misma ventana que los cuantiles\n");
+        texto.append("# TYPE inventario_latencia_maxima_segundos gauge\n");
+        for (HistogramaLatencia.Instantanea i : instantaneas) {
+            texto.append("inventario_latencia_maxima_segundos{").append(etiquetas(i)).append("} ")
+                 .append(segundos(i.getMaximo())).append('\n');
+        }
+
+        texto.append("# HELP inventario_errores_total Llamadas terminadas con excepción o SOAP Fault\n");
+        texto.append("# TYPE inventario_errores_total counter\n");
+        for (HistogramaLatencia.Instantanea i : instantaneas) {
+            texto.append("inventario_errores_total{").append(etiquetas(i)).append("} ").append(i.getErrores()).append('\n');
+        }
+
+        texto.append("# HELP inventario_tasa_por_segundo Llamadas por segundo (media móvil exponencial de 1 minuto)\n");
+        texto.append("# TYPE inventario_tasa_por_segundo gauge\n");
+        for (HistogramaLatencia.Instantanea i : instantaneas) {
+            texto.append("inventario_tasa_por_segundo{").append(etiquetas(i)).append("} ")
+                 .append(String.format(Locale.ROOT, "%.3f", i.getTasaPorSegundo())).append('\n');
+        }
+
+        texto.append("# HELP inventario_indicador Valor instantáneo (conexiones del pool y similares)\n");
+        texto.append("# TYPE inventario_indicador gauge\n");
+        for (Indicador.Valor v : getIndicadores(null)) {
+            texto.append("inventario_indicador{capa=\"").append(escapar(v.getCapa())).append("\",nombre=\"")
+                 .append(escapar(v.getNombre())).append("\"} ").append(v.getValor()).append('\n');
+        }
+        return texto.toString();
+    }
+
+    private void mantener() {
+        ticks++;
+        boolean rotar = ticks * TICK_SEGUNDOS >= ventanaSegundos;
+        if (rotar) {
+            ticks = 0;
+        }
+        for (HistogramaLatencia histograma : latencias.values()) {
+            histograma.actualizarTasa(TICK_SEGUNDOS);
+            if (rotar) {
+                histograma.rotar();
+            }
+        }
+    }
+
+    private static void cuantil(StringBuilder texto, String etiquetas, String cuantil, long nanos) {
+        texto.append("inventario_latencia_segundos{").append(etiquetas).append(",quantile=\"").append(cuantil)
+             .append("\"} ").append(segundos(nanos)).append('\n');
+    }
+
+    private static String etiquetas(HistogramaLatencia.Instantanea i) {
+        return "capa=\"" + escapar(i.getCapa()) + "\",operacion=\"" + escapar(i.getNombre()) + "\"";
+    }
+
+    private static String escapar(String valor) {
+        return valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String segundos(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    /**
+     * Valor instantáneo que se lee al consultar las métricas
+     */
+    public static final class Indicador {
+        private final String capa;
+        private final String nombre;
+        private final LongSupplier valor;
+
+        private Indicador(String capa, String nombre, LongSupplier valor) {
+            this.capa = capa;
+            this.nombre = nombre;
+            this.valor = valor;
+        }
+
+        public static final class Valor {
+            private final String capa;
+            private final String nombre;
+            private final long valor;
+
+            Valor(String capa, String nombre, long valor) {
+                this.capa = capa;
+                this.nombre = nombre;
+                this.valor = valor;
+            }
+
+            public String getCapa() {
+                return capa;
+            }
+
+            public String getNombre() {
+                return nombre;
+            }
+
+            public long getValor() {
+                return valor;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ferreteria.inventario.util;
+
+import com.ferreteria.inventario.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Token opaco de continuación para la paginación por clave (nombre, id)
+ * El cliente solo lo devuelve tal cual; su formato interno puede cambiar sin afectar el contrato SOAP.
+ */
+public final class TokenPaginacion {
+    private static final String VERSION = "1";
+    private static final char SEPARADOR = '\u0000';
+
+    private final String nombre;
+    private final int id;
+
+    public TokenPaginacion(String nombre, int id) {
+        this.nombre = nombre;
+        this.id = id;
+    }
+
+    /**
+     * Token que apunta a la posición inmediatamente posterior al artículo indicado
+     */
+    public String codificar() {
+        String contenido = VERSION + SEPARADOR + id + SEPARADOR + nombre;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un token recibido del cliente
+     * @throws ValidationException si el token está mal formado
+     */
+    public static TokenPaginacion decodificar(String token) throws ValidationException {
+        try {
+            String contenido = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int primero = contenido.indexOf(SEPARADOR);
+            int segundo = contenido.indexOf(SEPARADOR, primero + 1);
+            if (primero < 0 || segundo < 0 || !VERSION.equals(contenido.substring(0, primero))) {
+                throw new ValidationException("Token de paginación inválido");
+            }
+            int id = Integer.parseInt(contenido.substring(primero + 1, segundo));
+            return new TokenPaginacion(contenido.substring(segundo + 1), id);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Token de paginación inválido", e);
+        }
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getId() {
+        return id;
+    }
+}
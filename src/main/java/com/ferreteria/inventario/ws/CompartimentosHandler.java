@@ -0,0 +1,134 @@
+package com.ferreteria.inventario.ws;
+
+import com.ferreteria.inventario.exception.CapacidadExcedidaException;
+import com.ferreteria.inventario.service.CompartimentosOperacion;
+import com.ferreteria.inventario.service.CompartimentosOperacion.Clase;
+import com.ferreteria.inventario.service.CompartimentosOperacion.PermisoTransferible;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.xml.soap.Detail;
+import jakarta.xml.soap.SOAPConstants;
+import jakarta.xml.soap.SOAPException;
+import jakarta.xml.soap.SOAPFactory;
+import jakarta.xml.soap.SOAPFault;
+import jakarta.xml.ws.WebServiceException;
+import jakarta.xml.ws.handler.MessageContext;
+import jakarta.xml.ws.handler.soap.SOAPHandler;
+import jakarta.xml.ws.handler.soap.SOAPMessageContext;
+import jakarta.xml.ws.soap.SOAPFaultException;
+import javax.xml.namespace.QName;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Control de admisión de las operaciones SOAP según su clase (ver CompartimentosOperacion)
+ * Ocupa el lugar al recibir la petición, antes de invocar la operación, y lo libera al cerrar el
+ * intercambio. Si el compartimento está lleno responde de inmediato con un SOAP Fault
+ * (codigo CAPACIDAD_EXCEDIDA) sin tocar la base de datos. No lee el cuerpo del mensaje: la
+ * operación se toma del runtime (MessageContext.WSDL_OPERATION).
+ *
+ * En exportarCatalogo la operación se queda con el lugar (tomarPermiso) y lo pasa a la exportación:
+ * el adjunto MTOM se transmite después de cerrar el intercambio y su cursor ocupa una conexión del
+ * pool hasta terminar, por lo que el lugar se libera al cerrarse ese cursor.
+ */
+public class CompartimentosHandler implements SOAPHandler<SOAPMessageContext> {
+    private static final Logger logger = LoggerFactory.getLogger(CompartimentosHandler.class);
+
+    private static final String NAMESPACE = "http://ws.inventario.ferreteria.com/";
+    private static final String PERMISO = CompartimentosHandler.class.getName() + ".permiso";
+
+    // Operaciones sin clase (verificarEstado, criterios de contraseña) no se limitan
+    private static final Map<String, Clase> CLASES = new HashMap<>();
+
+    static {
+        CLASES.put("consultarArticulo", Clase.CONSULTA);
+        CLASES.put("listarCategorias", Clase.CONSULTA);
+        CLASES.put("listarProveedores", Clase.CONSULTA);
+
+        CLASES.put("insertarArticulo", Clase.ESCRITURA);
+        CLASES.put("actualizarArticulo", Clase.ESCRITURA);
+        CLASES.put("actualizarStock", Clase.ESCRITURA);
+        CLASES.put("cambiarContrasena", Clase.ESCRITURA);
+
+        CLASES.put("listarArticulos", Clase.MASIVA);
+        CLASES.put("exportarCatalogo", Clase.MASIVA);
+        CLASES.put("insertarArticulosLote", Clase.MASIVA);
+        CLASES.put("actualizarStockLote", Clase.MASIVA);
+    }
+
+    private final CompartimentosOperacion compartimentos;
+
+    public CompartimentosHandler() {
+        this.compartimentos = CompartimentosOperacion.getInstance();
+    }
+
+    @Override
+    public boolean handleMessage(SOAPMessageContext context) {
+        if (Boolean.TRUE.equals(context.get(MessageContext.MESSAGE_OUTBOUND_PROPERTY))) {
+            return true;
+        }
+        QName operacion = (QName) context.get(MessageContext.WSDL_OPERATION);
+        Clase clase = operacion != null ? CLASES.get(operacion.getLocalPart()) : null;
+        if (clase == null) {
+            return true;
+        }
+
+        try {
+            context.put(PERMISO, new PermisoTransferible(compartimentos.entrar(clase)));
+            // Visible para la operación, que puede quedarse con el lugar (ver tomarPermiso)
+            context.setScope(PERMISO, MessageContext.Scope.APPLICATION);
+            return true;
+        } catch (CapacidadExcedidaException e) {
+            logger.warn("SOAP: {} rechazada por capacidad: {}", operacion.getLocalPart(), e.getMessage());
+            throw new SOAPFaultException(crearFault(e));
+        }
+    }
+
+    @Override
+    public boolean handleFault(SOAPMessageContext context) {
+        return true;
+    }
+
+    @Override
+    public void close(MessageContext context) {
+        Object permiso = context.remove(PERMISO);
+        if (permiso instanceof PermisoTransferible) {
+            ((PermisoTransferible) permiso).close();
+        }
+    }
+
+    /**
+     * Quita el lugar de la petición al intercambio SOAP para que siga ocupado después de él
+     * Quien lo toma debe cerrarlo. Sin lugar ocupado (operación sin clase o compartimentos
+     * deshabilitados) devuelve un permiso que no libera nada.
+     */
+    public static PermisoTransferible tomarPermiso(MessageContext context) {
+        Object permiso = context != null ? context.get(PERMISO) : null;
+        if (permiso instanceof PermisoTransferible) {
+            return ((PermisoTransferible) permiso).transferir();
+        }
+        return new PermisoTransferible(null);
+    }
+
+    @Override
+    public Set<QName> getHeaders() {
+        return Collections.emptySet();
+    }
+
+    private static SOAPFault crearFault(CapacidadExcedidaException e) {
+        try {
+            SOAPFault fault = SOAPFactory.newInstance().createFault(
+                e.getMessage(), new QName(SOAPConstants.URI_NS_SOAP_1_1_ENVELOPE, "Server"));
+            Detail detalle = fault.addDetail();
+            detalle.addDetailEntry(new QName(NAMESPACE, "codigo")).addTextNode(e.getCodigo());
+            detalle.addDetailEntry(new QName(NAMESPACE, "tipoError")).addTextNode(e.getTipoError());
+            detalle.addDetailEntry(new QName(NAMESPACE, "clase")).addTextNode(e.getClase());
+            return fault;
+        } catch (SOAPException ex) {
+            throw new WebServiceException("No se pudo crear el SOAP Fault de capacidad excedida", ex);
+        }
+    }
+}
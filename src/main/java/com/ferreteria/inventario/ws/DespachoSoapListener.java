@@ -0,0 +1,85 @@
+package com.ferreteria.inventario.ws;
+
+import com.ferreteria.inventario.EjecutorPeticiones;
+import com.ferreteria.inventario.config.InventarioConfig;
+import com.sun.xml.ws.transport.http.servlet.ServletAdapter;
+import com.sun.xml.ws.transport.http.servlet.WSServlet;
+import com.sun.xml.ws.transport.http.servlet.WSServletDelegate;
+import jakarta.servlet.ServletContextAttributeEvent;
+import jakarta.servlet.ServletContextAttributeListener;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Despacho de las operaciones SOAP en el contenedor de servlets
+ * Con el servlet y el filtro marcados async-supported, el runtime de JAX-WS suspende la petición
+ * HTTP (startAsync), procesa el mensaje en el ejecutor del endpoint y completa el intercambio al
+ * terminar. Este listener asigna ese ejecutor cuando el runtime registra sus endpoints:
+ *
+ * - ASINCRONO: las operaciones corren en un EjecutorPeticiones acotado al pool de conexiones y el
+ *   hilo del contenedor queda libre apenas se lee la petición; un pool chico de hilos HTTP atiende
+ *   muchas peticiones lentas a la vez.
+ * - SINCRONO: la operación corre en el mismo hilo del contenedor (comportamiento anterior).
+ */
+public class DespachoSoapListener implements ServletContextListener, ServletContextAttributeListener {
+    private static final Logger logger = LoggerFactory.getLogger(DespachoSoapListener.class);
+
+    public enum Modo {
+        ASINCRONO,
+        SINCRONO
+    }
+
+    private EjecutorPeticiones ejecutor;
+
+    @Override
+    public void attributeAdded(ServletContextAttributeEvent event) {
+        if (WSServlet.JAXWS_RI_RUNTIME_INFO.equals(event.getName())
+                && event.getValue() instanceof WSServletDelegate) {
+            configurar((WSServletDelegate) event.getValue());
+        }
+    }
+
+    @Override
+    public void attributeReplaced(ServletContextAttributeEvent event) {
+        attributeAdded(event);
+    }
+
+    private synchronized void configurar(WSServletDelegate delegate) {
+        Modo modo = Modo.valueOf(InventarioConfig.getInstance()
+            .getString("servicio.despacho.modo", "ASINCRONO").trim().toUpperCase());
+
+        Executor destino;
+        if (modo == Modo.ASINCRONO) {
+            if (ejecutor == null) {
+                ejecutor = EjecutorPeticiones.desdeConfiguracion();
+            }
+            destino = ejecutor;
+        } else {
+            // Sin ejecutor el runtime usaría un pool propio sin límite
+            destino = Runnable::run;
+        }
+
+        for (ServletAdapter adapter : delegate.adapters) {
+            adapter.getEndpoint().setExecutor(destino);
+        }
+        if (modo == Modo.ASINCRONO) {
+            logger.info("Despacho SOAP asíncrono: ejecutor {} (máximo {} en curso) para {} endpoint(s)",
+                       ejecutor.getModo(), ejecutor.getMaxConcurrentes(), delegate.adapters.size());
+        } else {
+            logger.info("Despacho SOAP síncrono en los hilos del contenedor");
+        }
+    }
+
+    @Override
+    public synchronized void contextDestroyed(ServletContextEvent event) {
+        if (ejecutor != null) {
+            logger.info("Deteniendo despacho SOAP: {}", ejecutor);
+            ejecutor.close();
+            ejecutor = null;
+        }
+    }
+}
@@ -4,23 +4,40 @@ import com.ferreteria.inventario.dto.ArticuloDTO;
 import com.ferreteria.inventario.dto.ConsultarArticuloResponse;
 import com.ferreteria.inventario.dto.RespuestaOperacion;
 import com.ferreteria.inventario.exception.ArticuloNotFoundException;
+import com.ferreteria.inventario.exception.ConflictoVersionException;
 import com.ferreteria.inventario.exception.InventarioException;
 import com.ferreteria.inventario.exception.ValidationException;
 import com.ferreteria.inventario.model.Articulo;
+import com.ferreteria.inventario.model.ResultadoActualizacionStock;
 import com.ferreteria.inventario.service.ArticuloService;
-import com.ferreteria.inventario.dao.CategoriaDAO;
-import com.ferreteria.inventario.dao.ProveedorDAO;
+import com.ferreteria.inventario.service.DatosReferenciaCache;
 import com.ferreteria.inventario.model.Categoria;
 import com.ferreteria.inventario.model.Proveedor;
 import com.ferreteria.inventario.dto.ProveedorListResponse;
 import com.ferreteria.inventario.dto.CategoriaListResponse;
 import com.ferreteria.inventario.dto.StockUpdateResponse;
+import com.ferreteria.inventario.dto.ItemStockLote;
+import com.ferreteria.inventario.dto.LoteResponse;
+import com.ferreteria.inventario.dto.ArticuloPageResponse;
+import com.ferreteria.inventario.dto.ExportacionCatalogoResponse;
+import com.ferreteria.inventario.service.ExportacionCatalogoDataSource;
+import jakarta.activation.DataHandler;
+import com.ferreteria.inventario.model.PaginaArticulos;
+import com.ferreteria.inventario.dto.ResultadoItemLote;
+import com.ferreteria.inventario.config.InventarioConfig;
 import com.ferreteria.inventario.util.ArticuloMapper;
+import com.ferreteria.inventario.util.HistogramaLatencia;
+import com.ferreteria.inventario.util.RegistroMetricas;
+import com.ferreteria.inventario.dto.MetricaOperacionDTO;
+import com.ferreteria.inventario.dto.MetricasResponse;
+import com.ferreteria.inventario.dto.IndicadorDTO;
 import com.ferreteria.inventario.model.Usuario;
 import com.ferreteria.inventario.service.AuthenticationService;
+import com.ferreteria.inventario.service.CompartimentosOperacion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jakarta.jws.HandlerChain;
 import jakarta.jws.WebMethod;
 import jakarta.jws.WebParam;
 import jakarta.jws.soap.SOAPBinding;
@@ -57,20 +74,20 @@ import java.util.List;
     use = SOAPBinding.Use.LITERAL,
     parameterStyle = SOAPBinding.ParameterStyle.WRAPPED
 )
+@MTOM
+@HandlerChain(file = "handler-chain.xml")
 public class InventarioWebService {
     
     private static final Logger logger = LoggerFactory.getLogger(InventarioWebService.class);
     private final ArticuloService articuloService;
-    private final CategoriaDAO categoriaDAO;
-    private final ProveedorDAO proveedorDAO;
+    private final DatosReferenciaCache datosReferencia;
     
     @Resource
     private WebServiceContext context;
 
     public InventarioWebService() {
         this.articuloService = new ArticuloService();
-        this.categoriaDAO = new CategoriaDAO();
-        this.proveedorDAO = new ProveedorDAO();
+        this.datosReferencia = DatosReferenciaCache.getInstance();
         logger.info("Servicio Web SOAP de Inventario inicializado con seguridad");
     }
     
@@ -82,6 +99,10 @@ public class InventarioWebService {
             MessageContext messageContext = context.getMessageContext();
             HttpServletRequest request = (HttpServletRequest) 
                 messageContext.get(MessageContext.SERVLET_REQUEST);
+            if (request == null) {
+                // Servidor independiente (InventarioServer): no hay filtro de autenticación
+                return null;
+            }
             return (Usuario) request.getAttribute("usuario");
         } catch (Exception e) {
             logger.warn("No se pudo obtener información del usuario autenticado", e);
@@ -261,9 +282,9 @@ public class InventarioWebService {
         logger.info("SOAP: Iniciando operación {}", METHOD_NAME);
         
         try {
-            // 1. Obtener lista de proveedores
-            logger.debug("Obteniendo lista de proveedores desde la base de datos...");
-            List<Proveedor> proveedores = proveedorDAO.listarTodos();
+            // 1. Obtener lista de proveedores (caché de datos de referencia)
+            logger.debug("Obteniendo lista de proveedores desde la caché de referencia...");
+            List<Proveedor> proveedores = datosReferencia.obtenerProveedores();
             
             // 2. Validar y preparar la respuesta
             if (proveedores == null) {
@@ -359,21 +380,14 @@ public StockUpdateResponse actualizarStock(
         codigo = codigo.trim().toUpperCase();
         logger.debug("Código normalizado: {}", codigo);
         
-        // 3. Buscar el artículo y obtener stock anterior
-        logger.debug("Buscando artículo con código: {}", codigo);
-        Articulo articulo = articuloService.consultarPorCodigo(codigo);
-        Integer stockAnterior = articulo.getStockActual();
+        // 3. Buscar, actualizar y leer el artículo en una sola transacción
+        ResultadoActualizacionStock resultado = articuloService.actualizarStockPorCodigo(codigo, nuevoStock, "SOAP");
+        Articulo articuloActualizado = resultado.getArticulo();
+        Integer stockAnterior = resultado.getStockAnterior();
         
-        logger.info("SOAP: Artículo encontrado - ID: {}, Stock actual: {}", articulo.getId(), stockAnterior);
-
-        // 4. Actualizar el stock
-        logger.debug("Actualizando stock del artículo ID: {} de {} a {}", articulo.getId(), stockAnterior, nuevoStock);
-        articuloService.actualizarStock(articulo.getId(), nuevoStock);
-
-        // 5. Consultar el artículo actualizado
-        Articulo articuloActualizado = articuloService.consultarPorCodigo(codigo);
+        logger.info("SOAP: Artículo ID: {} actualizado de {} a {}", articuloActualizado.getId(), stockAnterior, nuevoStock);
         
-        // 6. Crear y validar la respuesta
+        // 4. Crear y validar la respuesta
         StockUpdateResponse response = new StockUpdateResponse(
             true, 
             "Stock actualizado exitosamente para el artículo " + codigo,
@@ -385,7 +399,7 @@ public StockUpdateResponse actualizarStock(
         logger.info("SOAP: {} completado exitosamente - {} de {} a {} unidades", 
                    METHOD_NAME, codigo, stockAnterior, nuevoStock);
         
-        // 7. Log detallado (solo en modo debug)
+        // 5. Log detallado (solo en modo debug)
         if (logger.isDebugEnabled()) {
             logger.debug("=== ACTUALIZACIÓN DE STOCK COMPLETADA ===");
             logger.debug("Artículo: {} - {}", articuloActualizado.getCodigo(), articuloActualizado.getNombre());
@@ -405,6 +419,10 @@ public StockUpdateResponse actualizarStock(
         logger.error("SOAP: {}", errorMsg);
         return new StockUpdateResponse(false, errorMsg);
         
+    } catch (ConflictoVersionException e) {
+        logger.warn("SOAP: {} - {}", METHOD_NAME, e.getMessage());
+        return new StockUpdateResponse(false, e.getMessage());
+        
     } catch (ValidationException e) {
         String errorMsg = "Error de validación: " + e.getMessage();
         logger.error("SOAP: {}", errorMsg);
@@ -417,6 +435,221 @@ public StockUpdateResponse actualizarStock(
     }
 }
 
+/**
+ * Actualiza los datos de un artículo existente
+ * Si se envía la versión obtenida al consultarlo, la actualización solo se aplica cuando nadie
+ * modificó el artículo entretanto; si no, falla con codigoError CONFLICTO_VERSION y el cliente
+ * debe volver a consultarlo. Sin versión, sobrescribe el artículo.
+ * Con el motor de stock en memoria o en artículos con stock fragmentado el stock no se
+ * modifica aquí: un stockActual distinto del vigente se rechaza y se fija con actualizarStock.
+ * 
+ * @param articulo Artículo con ID, versión (recomendada) y los nuevos valores
+ * @return RespuestaOperacion con el artículo actualizado y su nueva versión
+ */
+@WebMethod(operationName = "actualizarArticulo")
+@WebResult(name = "respuesta")
+public RespuestaOperacion actualizarArticulo(
+        @WebParam(name = "articulo") ArticuloDTO articulo) {
+    
+    final String METHOD_NAME = "actualizarArticulo";
+    Integer id = articulo != null ? articulo.getId() : null;
+    logger.info("SOAP: Iniciando operación {} - ID: {}, versión: {}", METHOD_NAME, id, 
+               articulo != null ? articulo.getVersion() : null);
+    registrarActividadSeguridad("ACTUALIZAR_ARTICULO", "ID: " + id);
+    
+    try {
+        if (articulo == null) {
+            return RespuestaOperacion.error("Debe indicar el artículo a actualizar", "VALIDATION_ERROR", "VALIDACION");
+        }
+        
+        Articulo actualizado = articuloService.actualizarArticulo(ArticuloMapper.toEntity(articulo));
+        
+        logger.info("SOAP: {} completado - ID: {}, nueva versión: {}", METHOD_NAME, actualizado.getId(), actualizado.getVersion());
+        return RespuestaOperacion.exito("Artículo actualizado exitosamente", ArticuloMapper.toDTO(actualizado));
+        
+    } catch (ConflictoVersionException e) {
+        logger.info("SOAP: {} rechazado por conflicto de versión - {}", METHOD_NAME, e.getMessage());
+        return RespuestaOperacion.error(e.getMessage(), e.getCodigo(), e.getTipoError());
+        
+    } catch (InventarioException e) {
+        logger.warn("SOAP: Error al actualizar artículo ID {}: {}", id, e.getMessage());
+        return RespuestaOperacion.error(e.getMessage(), e.getCodigo(), e.getTipoError());
+        
+    } catch (Exception e) {
+        logger.error("SOAP: Error inesperado en {}", METHOD_NAME, e);
+        return RespuestaOperacion.error(
+            "Error interno del servidor: " + e.getMessage(), 
+            "INTERNAL_ERROR", 
+            "SISTEMA"
+        );
+    }
+}
+
+/**
+ * Exporta el catálogo completo (artículos activos e inactivos)
+ * Los datos se envían como adjunto MTOM en NDJSON y se generan mientras se transmiten
+ * 
+ * @return ExportacionCatalogoResponse con el adjunto del catálogo
+ */
+@WebMethod(operationName = "exportarCatalogo")
+@WebResult(name = "exportacionCatalogoResponse", targetNamespace = "http://ws.inventario.ferreteria.com/")
+public ExportacionCatalogoResponse exportarCatalogo() {
+    final String METHOD_NAME = "exportarCatalogo";
+    logger.info("SOAP: Iniciando operación {}", METHOD_NAME);
+    registrarActividadSeguridad(METHOD_NAME, "Exportación completa del catálogo");
+    
+    // El lugar en el compartimento MASIVA sigue ocupado mientras se transmite el adjunto
+    CompartimentosOperacion.PermisoTransferible permiso = CompartimentosHandler.tomarPermiso(context.getMessageContext());
+    try {
+        ExportacionCatalogoDataSource origen = articuloService.exportarCatalogo(permiso);
+        return new ExportacionCatalogoResponse(origen.getContentType(), new DataHandler(origen));
+        
+    } catch (Exception e) {
+        permiso.close();
+        String errorMsg = "Error inesperado al exportar el catálogo: " + e.getMessage();
+        logger.error("SOAP: Error en {}: {}", METHOD_NAME, errorMsg, e);
+        return new ExportacionCatalogoResponse(false, errorMsg);
+    }
+}
+
+/**
+ * Lista los artículos activos ordenados por nombre, página a página
+ * 
+ * @param tamanoPagina Número de artículos por página (opcional)
+ * @param token Token de continuación devuelto por la página anterior (vacío para la primera)
+ * @return ArticuloPageResponse con los artículos y el token de la página siguiente
+ */
+@WebMethod(operationName = "listarArticulos")
+@WebResult(name = "articuloPageResponse", targetNamespace = "http://ws.inventario.ferreteria.com/")
+public ArticuloPageResponse listarArticulos(
+        @WebParam(name = "tamanoPagina") Integer tamanoPagina,
+        @WebParam(name = "token") String token) {
+    
+    final String METHOD_NAME = "listarArticulos";
+    logger.info("SOAP: Iniciando operación {} - Tamaño: {}", METHOD_NAME, tamanoPagina);
+    
+    try {
+        PaginaArticulos pagina = articuloService.listarArticulosPaginado(tamanoPagina, token);
+        
+        List<ArticuloDTO> articulos = new java.util.ArrayList<>(pagina.getArticulos().size());
+        for (Articulo articulo : pagina.getArticulos()) {
+            articulos.add(ArticuloMapper.toDTO(articulo));
+        }
+        
+        logger.info("SOAP: {} completado - {} artículos, hay más: {}", METHOD_NAME, articulos.size(), pagina.hayMas());
+        return new ArticuloPageResponse(articulos, pagina.getSiguienteToken());
+        
+    } catch (ValidationException e) {
+        logger.warn("SOAP: Error de validación en {}: {}", METHOD_NAME, e.getMessage());
+        return new ArticuloPageResponse(false, e.getMessage());
+        
+    } catch (Exception e) {
+        String errorMsg = "Error inesperado al listar artículos: " + e.getMessage();
+        logger.error("SOAP: Error en {}: {}", METHOD_NAME, errorMsg, e);
+        return new ArticuloPageResponse(false, errorMsg);
+    }
+}
+
+/**
+ * Inserta varios artículos en una sola llamada
+ * Cada artículo se valida por separado; los errores se informan por elemento
+ * 
+ * @param articulos Artículos a insertar (sin ID)
+ * @return LoteResponse con el ID generado o el error de cada elemento
+ */
+@WebMethod(operationName = "insertarArticulosLote")
+@WebResult(name = "loteResponse", targetNamespace = "http://ws.inventario.ferreteria.com/")
+public LoteResponse insertarArticulosLote(
+        @WebParam(name = "articulo") List<ArticuloDTO> articulos) {
+    
+    final String METHOD_NAME = "insertarArticulosLote";
+    logger.info("SOAP: Iniciando operación {} - Elementos: {}", METHOD_NAME, articulos != null ? articulos.size() : 0);
+    
+    try {
+        // 1. Validaciones básicas
+        if (articulos == null || articulos.isEmpty()) {
+            return new LoteResponse(false, "Debe indicar al menos un artículo");
+        }
+        
+        int maxElementos = InventarioConfig.getInstance().getInt("lote.maxElementos", 50000);
+        if (articulos.size() > maxElementos) {
+            return new LoteResponse(false, "El lote excede el máximo de " + maxElementos + " elementos");
+        }
+        
+        // 2. Convertir e insertar
+        List<Articulo> entidades = new java.util.ArrayList<>(articulos.size());
+        for (ArticuloDTO dto : articulos) {
+            Articulo articulo = ArticuloMapper.toEntity(dto);
+            if (articulo != null) {
+                articulo.setId(null);
+            }
+            entidades.add(articulo);
+        }
+        List<ResultadoItemLote> resultados = articuloService.registrarArticulosLote(entidades);
+        
+        // 3. Crear la respuesta
+        LoteResponse response = new LoteResponse("Lote de artículos procesado", resultados);
+        logger.info("SOAP: {} completado - {} insertados, {} fallidos", 
+                   METHOD_NAME, response.getExitosos(), response.getFallidos());
+        
+        registrarActividadSeguridad(METHOD_NAME, "Elementos: " + response.getTotal() + 
+                                   ", fallidos: " + response.getFallidos());
+        return response;
+        
+    } catch (Exception e) {
+        String errorMsg = "Error inesperado al insertar artículos por lotes: " + e.getMessage();
+        logger.error("SOAP: Error en {}: {}", METHOD_NAME, errorMsg, e);
+        return new LoteResponse(false, errorMsg);
+    }
+}
+
+/**
+ * Actualiza el stock de varios artículos en una sola llamada
+ * Cada elemento indica nuevoStock o delta; los cambios se aplican en bloques transaccionales
+ * 
+ * @param items Lista de cambios de stock por código
+ * @return LoteResponse con el resultado de cada elemento
+ */
+@WebMethod(operationName = "actualizarStockLote")
+@WebResult(name = "loteResponse", targetNamespace = "http://ws.inventario.ferreteria.com/")
+public LoteResponse actualizarStockLote(
+        @WebParam(name = "item") List<ItemStockLote> items) {
+    
+    final String METHOD_NAME = "actualizarStockLote";
+    logger.info("SOAP: Iniciando operación {} - Elementos: {}", METHOD_NAME, items != null ? items.size() : 0);
+    
+    try {
+        // 1. Validaciones básicas
+        if (items == null || items.isEmpty()) {
+            return new LoteResponse(false, "Debe indicar al menos un elemento");
+        }
+        
+        int maxElementos = InventarioConfig.getInstance().getInt("lote.maxElementos", 50000);
+        if (items.size() > maxElementos) {
+            return new LoteResponse(false, "El lote excede el máximo de " + maxElementos + " elementos");
+        }
+        
+        // 2. Aplicar los cambios
+        Usuario usuario = obtenerUsuarioAutenticado();
+        List<ResultadoItemLote> resultados = articuloService.actualizarStockLote(items, 
+            usuario != null ? usuario.getUsername() : "SOAP");
+        
+        // 3. Crear la respuesta
+        LoteResponse response = new LoteResponse("Lote de stock procesado", resultados);
+        logger.info("SOAP: {} completado - {} exitosos, {} fallidos", 
+                   METHOD_NAME, response.getExitosos(), response.getFallidos());
+        
+        registrarActividadSeguridad(METHOD_NAME, "Elementos: " + response.getTotal() + 
+                                   ", fallidos: " + response.getFallidos());
+        return response;
+        
+    } catch (Exception e) {
+        String errorMsg = "Error inesperado al actualizar stock por lotes: " + e.getMessage();
+        logger.error("SOAP: Error en {}: {}", METHOD_NAME, errorMsg, e);
+        return new LoteResponse(false, errorMsg);
+    }
+}
+
 /**
  * Verifica el estado del servicio web
  * 
@@ -433,7 +666,19 @@ public RespuestaOperacion verificarEstado() {
             com.ferreteria.inventario.config.DatabaseConfig.getInstance();
         
         if (dbConfig.testConnection()) {
-            return RespuestaOperacion.exito("Servicio operativo - Base de datos conectada");
+            return RespuestaOperacion.exito("Servicio operativo - Base de datos conectada",
+                "Caché de artículos: " + articuloService.obtenerEstadisticasCache() +
+                "; Filtro de códigos: " + articuloService.obtenerEstadisticasFiltroCodigos() +
+                "; Búsqueda: " + articuloService.obtenerEstadisticasBuscador() +
+                "; Locks de stock: " + articuloService.obtenerEstadisticasLocks() +
+                "; Concurrencia: " + articuloService.obtenerEstadisticasReintentos() +
+                "; Consultas agrupadas: " + articuloService.obtenerEstadisticasAgrupamiento() +
+                "; Compartimentos: " + CompartimentosOperacion.getInstance().getEstadisticas() +
+                "; Réplicas: " + dbConfig.getEstadisticasReplicas() +
+                "; Pool de conexiones: " + dbConfig.getEstadisticasPool() +
+                "; Diario de movimientos: " + articuloService.obtenerEstadisticasDiario() +
+                "; Motor de stock: " + articuloService.obtenerEstadisticasMotorStock() +
+                "; Stock fragmentado: " + articuloService.obtenerEstadisticasStockFragmentado());
         } else {
             return RespuestaOperacion.error(
                 "Servicio con problemas - Error de conectividad con base de datos", 
@@ -451,6 +696,101 @@ public RespuestaOperacion verificarEstado() {
     }
 }
 
+/**
+ * Obtiene la latencia por operación de las capas ws, servicio, pool y sql, y los indicadores
+ * del pool de conexiones y de filas por sentencia (solo lectura)
+ * Los percentiles cubren la ventana reciente (metricas.ventanaSegundos); conteos y errores son
+ * acumulados desde el arranque
+ *
+ * @param capa Capa a consultar: ws, servicio, pool o sql (opcional, vacío para todas)
+ * @return MetricasResponse con una entrada por operación medida
+ */
+@WebMethod(operationName = "obtenerMetricas")
+@WebResult(name = "metricasResponse", targetNamespace = "http://ws.inventario.ferreteria.com/")
+public MetricasResponse obtenerMetricas(
+        @WebParam(name = "capa") String capa) {
+
+    final String METHOD_NAME = "obtenerMetricas";
+    logger.debug("SOAP: Iniciando operación {} - Capa: {}", METHOD_NAME, capa);
+
+    try {
+        RegistroMetricas registro = RegistroMetricas.getInstance();
+        String filtro = capa == null || capa.trim().isEmpty() ? null : capa.trim();
+        List<HistogramaLatencia.Instantanea> instantaneas = registro.getInstantaneas(filtro);
+
+        List<MetricaOperacionDTO> metricas = new java.util.ArrayList<>(instantaneas.size());
+        for (HistogramaLatencia.Instantanea instantanea : instantaneas) {
+            metricas.add(aMetricaDTO(instantanea));
+        }
+
+        List<IndicadorDTO> indicadores = new java.util.ArrayList<>();
+        for (RegistroMetricas.Indicador.Valor valor : registro.getIndicadores(filtro)) {
+            indicadores.add(new IndicadorDTO(valor.getCapa(), valor.getNombre(), valor.getValor()));
+        }
+
+        MetricasResponse response = new MetricasResponse(true, metricas.size() + " operaciones medidas, " +
+                                                               indicadores.size() + " indicadores");
+        response.setVentanaSegundos(registro.getVentanaSegundos());
+        response.setMetricas(metricas);
+        response.setIndicadores(indicadores);
+        return response;
+
+    } catch (Exception e) {
+        String errorMsg = "Error inesperado al obtener métricas: " + e.getMessage();
+        logger.error("SOAP: Error en {}: {}", METHOD_NAME, errorMsg, e);
+        return new MetricasResponse(false, errorMsg);
+    }
+}
+
+/**
+ * Descarta la caché de datos de referencia para que la siguiente consulta lea la base de datos
+ * Las categorías y proveedores se modifican fuera de este servicio; sin esta operación los
+ * cambios se ven recién al vencer cache.referencia.refrescoSegundos.
+ *
+ * @param tipo categorias, proveedores o vacío para ambas listas
+ * @return RespuestaOperacion indicando qué listas se invalidaron
+ */
+@WebMethod(operationName = "invalidarDatosReferencia")
+@WebResult(name = "respuesta")
+public RespuestaOperacion invalidarDatosReferencia(
+        @WebParam(name = "tipo") String tipo) {
+
+    final String METHOD_NAME = "invalidarDatosReferencia";
+    logger.info("SOAP: Iniciando operación {} - Tipo: {}", METHOD_NAME, tipo);
+
+    String filtro = tipo == null ? "" : tipo.trim().toLowerCase();
+    switch (filtro) {
+        case "":
+            datosReferencia.invalidar();
+            return RespuestaOperacion.exito("Caché de categorías y proveedores invalidada");
+        case "categorias":
+            datosReferencia.invalidarCategorias();
+            return RespuestaOperacion.exito("Caché de categorías invalidada");
+        case "proveedores":
+            datosReferencia.invalidarProveedores();
+            return RespuestaOperacion.exito("Caché de proveedores invalidada");
+        default:
+            return RespuestaOperacion.error("Tipo no reconocido: " + tipo + " (categorias, proveedores o vacío)",
+                                            "VALIDATION_ERROR", "VALIDACION");
+    }
+}
+
+private static MetricaOperacionDTO aMetricaDTO(HistogramaLatencia.Instantanea instantanea) {
+    MetricaOperacionDTO dto = new MetricaOperacionDTO();
+    dto.setCapa(instantanea.getCapa());
+    dto.setOperacion(instantanea.getNombre());
+    dto.setConteo(instantanea.getConteo());
+    dto.setErrores(instantanea.getErrores());
+    dto.setTasaPorSegundo(instantanea.getTasaPorSegundo());
+    dto.setMediaMs(instantanea.getMedia() / 1e6);
+    dto.setP50Ms(instantanea.getP50() / 1e6);
+    dto.setP90Ms(instantanea.getP90() / 1e6);
+    dto.setP99Ms(instantanea.getP99() / 1e6);
+    dto.setP999Ms(instantanea.getP999() / 1e6);
+    dto.setMaximoMs(instantanea.getMaximo() / 1e6);
+    return dto;
+}
+
 /**
  * Obtiene la lista de todas las categorías disponibles
  * @return Lista de categorías
@@ -467,9 +807,9 @@ public CategoriaListResponse listarCategorias() {
     logger.info("SOAP: Iniciando operación {}", METHOD_NAME);
     
     try {
-        // 1. Obtener lista de categorías
-        logger.debug("Obteniendo lista de categorías desde la base de datos...");
-        List<Categoria> categorias = categoriaDAO.listarTodas();
+        // 1. Obtener lista de categorías (caché de datos de referencia)
+        logger.debug("Obteniendo lista de categorías desde la caché de referencia...");
+        List<Categoria> categorias = datosReferencia.obtenerCategorias();
         
         // 2. Validar y preparar la respuesta
         if (categorias == null) {
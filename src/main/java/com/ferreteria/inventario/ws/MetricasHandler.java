@@ -0,0 +1,61 @@
+package com.ferreteria.inventario.ws;
+
+import com.ferreteria.inventario.util.HistogramaLatencia;
+import com.ferreteria.inventario.util.RegistroMetricas;
+
+import jakarta.xml.ws.handler.MessageContext;
+import jakarta.xml.ws.handler.soap.SOAPHandler;
+import jakarta.xml.ws.handler.soap.SOAPMessageContext;
+import javax.xml.namespace.QName;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Mide la latencia de cada operación SOAP, desde que el runtime entrega la petición a los handlers
+ * hasta que cierra el intercambio (incluye admisión, operación y serialización de la respuesta)
+ * Va primero en handler-chain.xml para que la medición cubra a los demás handlers. Cuenta como
+ * error toda respuesta SOAP Fault (incluidos los rechazos por capacidad); las operaciones que
+ * responden exitoso=false no se cuentan aquí, sus errores se ven en las capas servicio y sql.
+ */
+public class MetricasHandler implements SOAPHandler<SOAPMessageContext> {
+    private static final String INICIO = MetricasHandler.class.getName() + ".inicio";
+    private static final String FALLO = MetricasHandler.class.getName() + ".fallo";
+
+    private static final ConcurrentMap<String, HistogramaLatencia> LATENCIAS = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean handleMessage(SOAPMessageContext context) {
+        if (!Boolean.TRUE.equals(context.get(MessageContext.MESSAGE_OUTBOUND_PROPERTY))) {
+            context.put(INICIO, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean handleFault(SOAPMessageContext context) {
+        context.put(FALLO, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void close(MessageContext context) {
+        Object inicio = context.remove(INICIO);
+        QName operacion = (QName) context.get(MessageContext.WSDL_OPERATION);
+        if (!(inicio instanceof Long) || operacion == null) {
+            return;
+        }
+        HistogramaLatencia latencia = LATENCIAS.computeIfAbsent(operacion.getLocalPart(),
+            nombre -> RegistroMetricas.getInstance().latencia(RegistroMetricas.CAPA_WS, nombre));
+        if (context.remove(FALLO) != null) {
+            latencia.contarError();
+        }
+        latencia.registrar((Long) inicio);
+    }
+
+    @Override
+    public Set<QName> getHeaders() {
+        return Collections.emptySet();
+    }
+}
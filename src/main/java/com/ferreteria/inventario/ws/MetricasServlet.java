@@ -0,0 +1,28 @@
+package com.ferreteria.inventario.ws;
+
+import com.ferreteria.inventario.util.RegistroMetricas;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Endpoint de texto (formato Prometheus) con las métricas de latencia, para el despliegue en WAR
+ * El servidor independiente publica el mismo contenido desde InventarioServer.
+ */
+public class MetricasServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        byte[] cuerpo = RegistroMetricas.getInstance().exportarTexto().getBytes(StandardCharsets.UTF_8);
+        response.setContentType(CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-cache");
+        response.setContentLength(cuerpo.length);
+        response.getOutputStream().write(cuerpo);
+    }
+}
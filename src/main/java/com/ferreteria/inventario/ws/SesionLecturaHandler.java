@@ -0,0 +1,90 @@
+package com.ferreteria.inventario.ws;
+
+import com.ferreteria.inventario.config.ReplicasLectura;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.xml.ws.developer.JAXWSProperties;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.xml.ws.handler.MessageContext;
+import jakarta.xml.ws.handler.soap.SOAPHandler;
+import jakarta.xml.ws.handler.soap.SOAPMessageContext;
+import javax.xml.namespace.QName;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Identifica la sesión de cada petición SOAP para que lea sus propias escrituras (ver ReplicasLectura)
+ * La sesión es el usuario de la autenticación Basic o, sin ella (servidor independiente), la
+ * dirección del cliente. Se asocia al hilo que atiende la operación y se libera al cerrar el intercambio.
+ */
+public class SesionLecturaHandler implements SOAPHandler<SOAPMessageContext> {
+
+    @Override
+    public boolean handleMessage(SOAPMessageContext context) {
+        if (!Boolean.TRUE.equals(context.get(MessageContext.MESSAGE_OUTBOUND_PROPERTY))) {
+            ReplicasLectura.iniciarSesion(claveSesion(context));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean handleFault(SOAPMessageContext context) {
+        return true;
+    }
+
+    @Override
+    public void close(MessageContext context) {
+        ReplicasLectura.terminarSesion();
+    }
+
+    @Override
+    public Set<QName> getHeaders() {
+        return Collections.emptySet();
+    }
+
+    private static String claveSesion(MessageContext context) {
+        String usuario = usuarioBasic(context);
+        if (usuario != null) {
+            return "usuario:" + usuario;
+        }
+        Object request = context.get(MessageContext.SERVLET_REQUEST);
+        if (request instanceof HttpServletRequest) {
+            return "cliente:" + ((HttpServletRequest) request).getRemoteAddr();
+        }
+        Object exchange = context.get(JAXWSProperties.HTTP_EXCHANGE);
+        if (exchange instanceof HttpExchange && ((HttpExchange) exchange).getRemoteAddress() != null) {
+            return "cliente:" + ((HttpExchange) exchange).getRemoteAddress().getAddress().getHostAddress();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String usuarioBasic(MessageContext context) {
+        Map<String, List<String>> cabeceras = (Map<String, List<String>>) context.get(MessageContext.HTTP_REQUEST_HEADERS);
+        if (cabeceras == null) {
+            return null;
+        }
+        for (Map.Entry<String, List<String>> cabecera : cabeceras.entrySet()) {
+            if (!"Authorization".equalsIgnoreCase(cabecera.getKey()) || cabecera.getValue() == null) {
+                continue;
+            }
+            for (String valor : cabecera.getValue()) {
+                if (valor != null && valor.startsWith("Basic ")) {
+                    try {
+                        String credenciales = new String(Base64.getDecoder().decode(valor.substring(6).trim()),
+                                                         StandardCharsets.UTF_8);
+                        int separador = credenciales.indexOf(':');
+                        return separador > 0 ? credenciales.substring(0, separador) : null;
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
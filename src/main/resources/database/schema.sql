@@ -37,6 +37,9 @@ CREATE TABLE IF NOT EXISTS articulos (
     stock_actual INT NOT NULL DEFAULT 0 CHECK (stock_actual >= 0),
     stock_minimo INT NOT NULL DEFAULT 0 CHECK (stock_minimo >= 0),
     activo BOOLEAN DEFAULT TRUE,
+    -- Control de concurrencia optimista: toda escritura la incrementa
+    -- (bases existentes: ALTER TABLE articulos ADD COLUMN version INT NOT NULL DEFAULT 0 AFTER activo;)
+    version INT NOT NULL DEFAULT 0,
     fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
@@ -49,6 +52,7 @@ CREATE TABLE IF NOT EXISTS articulos (
     -- Índices para mejorar rendimiento
     INDEX idx_codigo (codigo),
     INDEX idx_nombre (nombre),
+    INDEX idx_activo_nombre_id (activo, nombre, id),
     INDEX idx_categoria (categoria_id),
     INDEX idx_proveedor (proveedor_id),
     INDEX idx_stock_minimo (stock_actual, stock_minimo)
@@ -70,6 +74,24 @@ CREATE TABLE IF NOT EXISTS movimientos_inventario (
     INDEX idx_articulo_fecha (articulo_id, fecha_movimiento)
 );
 
+-- Control del motor de stock en memoria (stock.memoria.habilitado): última secuencia de su diario
+-- local ya volcada; se actualiza en la misma transacción que el stock y los movimientos del lote
+CREATE TABLE IF NOT EXISTS motor_stock_control (
+    id INT PRIMARY KEY,
+    ultima_secuencia BIGINT NOT NULL DEFAULT 0
+);
+
+-- Stock fragmentado de los artículos muy vendidos (stock.fragmentado.codigos): el stock real es la
+-- suma de los fragmentos y articulos.stock_actual es una copia conciliada periódicamente
+CREATE TABLE IF NOT EXISTS articulos_stock_fragmentos (
+    articulo_id INT NOT NULL,
+    fragmento INT NOT NULL,
+    stock INT NOT NULL DEFAULT 0 CHECK (stock >= 0),
+    
+    PRIMARY KEY (articulo_id, fragmento),
+    FOREIGN KEY (articulo_id) REFERENCES articulos(id) ON DELETE CASCADE
+);
+
 -- Insertar datos de prueba
 INSERT INTO categorias (nombre, descripcion) VALUES 
 ('Herramientas Manuales', 'Martillos, destornilladores, llaves, etc.'),